@@ -0,0 +1,563 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.language.TypeDefinition;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLType;
+import io.atlassian.graphql.schemadriven.errors.InputClassBindingError;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This binds the arguments of a field to java objects.  A binder is compiled once per field so finding classes,
+ * properties and enum constants and converting the schema default values is done up front rather than on every call.
+ *
+ * {@link SchemaGenerator} compiles a binder for every field wired with a {@link BindingDataFetcher}, but one can also
+ * be compiled by hand for a plain {@link DataFetcher}.  Default values are converted once, but lists and input
+ * objects are bound afresh for every call so that a data fetcher can change what it is handed.
+ */
+public class ArgumentBinder {
+
+    interface ValueBinder {
+        Object bind(Object value);
+    }
+
+    private static final ValueBinder IDENTITY = value -> value;
+
+    private final String[] names;
+    private final ValueBinder[] binders;
+    private final Object[] rawDefaults;
+    private final BoundDefault[] defaults;
+
+    private ArgumentBinder(String[] names, ValueBinder[] binders, Object[] rawDefaults, BoundDefault[] defaults) {
+        this.names = names;
+        this.binders = binders;
+        this.rawDefaults = rawDefaults;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Compiles a binder for the arguments of a field.  The argument types must not be type references, which is
+     * the case for any field of a built schema.
+     *
+     * @param arguments the arguments of the field
+     * @param wiring    the wiring with the classes bound to input types
+     *
+     * @return a binder for the arguments
+     *
+     * @throws IllegalStateException if a class an input type is bound to does not fit it
+     */
+    public static ArgumentBinder compile(List<GraphQLArgument> arguments, RuntimeWiring wiring) {
+        return new Compiler(wiring, null).compile(arguments);
+    }
+
+    /**
+     * Binds the argument values, as graphql-java hands them to a data fetcher, to java objects
+     *
+     * @param arguments the argument values by name
+     *
+     * @return the bound arguments in the order the field declares them
+     */
+    public Object[] bind(Map<String, Object> arguments) {
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Object value = arguments.get(names[i]);
+            // graphql-java fills in the raw default value itself so we swap in the one we bound earlier
+            if (value == null || value == rawDefaults[i]) {
+                values[i] = BoundDefault.get(defaults[i]);
+            } else {
+                values[i] = binders[i].bind(value);
+            }
+        }
+        return values;
+    }
+
+    public List<String> getArgumentNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Adapts a {@link BindingDataFetcher} to a {@link DataFetcher}.  The binder is set once the schema has been
+     * assembled and the argument types are no longer type references.
+     */
+    static class BoundDataFetcher implements DataFetcher {
+        private final BindingDataFetcher dataFetcher;
+        private ArgumentBinder binder;
+
+        BoundDataFetcher(BindingDataFetcher dataFetcher) {
+            this.dataFetcher = dataFetcher;
+        }
+
+        void bindTo(ArgumentBinder binder) {
+            this.binder = binder;
+        }
+
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            return dataFetcher.get(environment, binder.bind(environment.getArguments()));
+        }
+    }
+
+    /**
+     * A default value of an argument or input field.  Lists and input objects are bound again on every call, from the
+     * default as coerced up front, as they can be changed by whoever is handed them.
+     */
+    static class BoundDefault {
+        private final ValueBinder binder;
+        private final Object coerced;
+        private final Object shared;
+
+        private BoundDefault(ValueBinder binder, Object coerced) {
+            this.binder = binder;
+            this.coerced = coerced;
+            this.shared = binder instanceof ListBinder || binder instanceof MapBinder ? null : binder.bind(coerced);
+        }
+
+        static Object get(BoundDefault boundDefault) {
+            if (boundDefault == null) {
+                return null;
+            }
+            return boundDefault.shared != null ? boundDefault.shared : boundDefault.binder.bind(boundDefault.coerced);
+        }
+    }
+
+    /**
+     * Compiles binders, sharing the binders of input types between fields.  It is not thread safe.
+     *
+     * A class that does not fit its input type is reported as an {@link InputClassBindingError} when the type is in
+     * the type registry, which is how the schema generator compiles binders, and otherwise as an
+     * {@link IllegalStateException}.  Bound classes are checked before the schema is generated but classes found
+     * from property types are only found here.
+     */
+    static class Compiler {
+        private final RuntimeWiring wiring;
+        private final TypeRegistry typeRegistry;
+        private final Map<String, ValueBinder> inputObjectBinders = new HashMap<>();
+
+        Compiler(RuntimeWiring wiring, TypeRegistry typeRegistry) {
+            this.wiring = wiring;
+            this.typeRegistry = typeRegistry;
+        }
+
+        ArgumentBinder compile(List<GraphQLArgument> arguments) {
+            int size = arguments.size();
+            String[] names = new String[size];
+            ValueBinder[] binders = new ValueBinder[size];
+            Object[] rawDefaults = new Object[size];
+            BoundDefault[] defaults = new BoundDefault[size];
+            for (int i = 0; i < size; i++) {
+                GraphQLArgument argument = arguments.get(i);
+                names[i] = argument.getName();
+                binders[i] = binder(argument.getType(), Object.class);
+                rawDefaults[i] = argument.getDefaultValue();
+                defaults[i] = bindDefault(binders[i], argument.getType(), rawDefaults[i]);
+            }
+            return new ArgumentBinder(names, binders, rawDefaults, defaults);
+        }
+
+        /*
+         * the target is the java type the value ends up in, a property type say, which can pick the class to bind to
+         * when the wiring has none
+         */
+        private ValueBinder binder(GraphQLType type, Type target) {
+            if (type instanceof GraphQLNonNull) {
+                return binder(((GraphQLNonNull) type).getWrappedType(), target);
+            }
+            if (type instanceof GraphQLList) {
+                return new ListBinder(binder(((GraphQLList) type).getWrappedType(), elementType(target)));
+            }
+            Class<?> targetClass = rawClass(target);
+            if (type instanceof GraphQLEnumType) {
+                Class<?> inputClass = inputClass(type.getName(), targetClass);
+                return inputClass != null && inputClass.isEnum() ? new EnumBinder(inputClass) : IDENTITY;
+            }
+            if (type instanceof GraphQLInputObjectType) {
+                return inputObjectBinder((GraphQLInputObjectType) type, inputClass(type.getName(), targetClass));
+            }
+            return scalarBinder(targetClass);
+        }
+
+        private Class<?> inputClass(String typeName, Class<?> targetClass) {
+            Class<?> inputClass = wiring.getInputClass(typeName);
+            if (inputClass != null) {
+                return inputClass;
+            }
+            if (targetClass == Object.class || targetClass.isInterface() || Modifier.isAbstract(targetClass.getModifiers())
+                    || Map.class.isAssignableFrom(targetClass)) {
+                return null;
+            }
+            return targetClass;
+        }
+
+        private ValueBinder inputObjectBinder(GraphQLInputObjectType type, Class<?> inputClass) {
+            String key = inputClass == null ? type.getName() : type.getName() + "/" + inputClass.getName();
+            ValueBinder binder = inputObjectBinders.get(key);
+            if (binder != null) {
+                return binder;
+            }
+            // input types can refer to themselves so the binder is cached before its fields are compiled
+            if (inputClass == null) {
+                MapBinder mapBinder = new MapBinder();
+                inputObjectBinders.put(key, mapBinder);
+                compileFields(type, mapBinder, null);
+                return mapBinder;
+            }
+            ObjectBinder objectBinder = new ObjectBinder(constructor(type.getName(), inputClass));
+            inputObjectBinders.put(key, objectBinder);
+            try {
+                compileFields(type, objectBinder, inputClass);
+            } catch (RuntimeException e) {
+                // a class that does not fit is reported for every field that takes it rather than half bound
+                inputObjectBinders.remove(key);
+                throw e;
+            }
+            return objectBinder;
+        }
+
+        private void compileFields(GraphQLInputObjectType type, MapBinder binder, Class<?> inputClass) {
+            List<GraphQLInputObjectField> fields = type.getFields();
+            int size = fields.size();
+            binder.names = new String[size];
+            binder.binders = new ValueBinder[size];
+            binder.rawDefaults = new Object[size];
+            binder.defaults = new BoundDefault[size];
+            Property[] properties = new Property[size];
+            for (int i = 0; i < size; i++) {
+                GraphQLInputObjectField field = fields.get(i);
+                Type target = Object.class;
+                if (inputClass != null) {
+                    properties[i] = property(inputClass, field.getName());
+                    if (properties[i] == null) {
+                        throw bindingProblem(type.getName(), inputClass, "has no setter or field for '" + field.getName() + "'");
+                    }
+                    target = properties[i].type;
+                }
+                binder.names[i] = field.getName();
+                binder.binders[i] = binder(field.getType(), target);
+                binder.rawDefaults[i] = field.getDefaultValue();
+                binder.defaults[i] = bindDefault(binder.binders[i], field.getType(), binder.rawDefaults[i]);
+            }
+            if (binder instanceof ObjectBinder) {
+                ((ObjectBinder) binder).properties = properties;
+            }
+        }
+
+        private Constructor<?> constructor(String typeName, Class<?> inputClass) {
+            Constructor<?> constructor = findConstructor(inputClass);
+            if (constructor == null) {
+                throw bindingProblem(typeName, inputClass, "has no no argument constructor");
+            }
+            return constructor;
+        }
+
+        private RuntimeException bindingProblem(String typeName, Class<?> inputClass, String problem) {
+            TypeDefinition typeDefinition = typeRegistry == null ? null : typeRegistry.typeDefinition(typeName);
+            if (typeDefinition != null) {
+                return new InputClassBindingError(typeDefinition, inputClass, problem);
+            }
+            return new IllegalStateException(String.format("The class '%s' bound to type '%s' %s", inputClass.getName(), typeName, problem));
+        }
+
+        /*
+         * default values are the raw values read from the schema, so they are coerced the way a literal in a query
+         * would be before they are bound
+         */
+        private BoundDefault bindDefault(ValueBinder binder, GraphQLType type, Object rawDefault) {
+            if (rawDefault == null) {
+                return null;
+            }
+            return new BoundDefault(binder, coerceDefault(type, rawDefault));
+        }
+
+        private Object coerceDefault(GraphQLType type, Object value) {
+            if (type instanceof GraphQLNonNull) {
+                return coerceDefault(((GraphQLNonNull) type).getWrappedType(), value);
+            }
+            if (value instanceof Object[]) {
+                value = Arrays.asList((Object[]) value);
+            }
+            if (type instanceof GraphQLList) {
+                GraphQLType elementType = ((GraphQLList) type).getWrappedType();
+                if (!(value instanceof Collection)) {
+                    return Collections.singletonList(coerceDefault(elementType, value));
+                }
+                List<Object> list = new ArrayList<>();
+                for (Object element : (Collection<?>) value) {
+                    list.add(coerceDefault(elementType, element));
+                }
+                return list;
+            }
+            if (type instanceof GraphQLInputObjectType && value instanceof Map) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    GraphQLInputObjectField field = ((GraphQLInputObjectType) type).getField(String.valueOf(entry.getKey()));
+                    map.put(String.valueOf(entry.getKey()), field == null ? entry.getValue() : coerceDefault(field.getType(), entry.getValue()));
+                }
+                return map;
+            }
+            if (type instanceof GraphQLScalarType) {
+                Object coerced = ((GraphQLScalarType) type).getCoercing().parseValue(value);
+                if (coerced == null && value instanceof Number) {
+                    // numbers are read from the schema as big numbers, which the standard scalars don't take
+                    coerced = ((GraphQLScalarType) type).getCoercing().parseValue(value.toString());
+                }
+                return coerced;
+            }
+            if (type instanceof GraphQLEnumType) {
+                return ((GraphQLEnumType) type).getCoercing().parseValue(value);
+            }
+            return value;
+        }
+    }
+
+    static class ListBinder implements ValueBinder {
+        private final ValueBinder elementBinder;
+
+        ListBinder(ValueBinder elementBinder) {
+            this.elementBinder = elementBinder;
+        }
+
+        @Override
+        public Object bind(Object value) {
+            if (value instanceof Object[]) {
+                value = Arrays.asList((Object[]) value);
+            }
+            if (!(value instanceof Collection)) {
+                // a single value is accepted for a list
+                return Collections.singletonList(elementBinder.bind(value));
+            }
+            Collection<?> collection = (Collection<?>) value;
+            List<Object> list = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                list.add(element == null ? null : elementBinder.bind(element));
+            }
+            return list;
+        }
+    }
+
+    static class EnumBinder implements ValueBinder {
+        private final Map<String, Object> constants = new HashMap<>();
+        private final Class<?> enumClass;
+
+        EnumBinder(Class<?> enumClass) {
+            this.enumClass = enumClass;
+            for (Object constant : enumClass.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+        }
+
+        @Override
+        public Object bind(Object value) {
+            if (enumClass.isInstance(value)) {
+                return value;
+            }
+            Object constant = constants.get(String.valueOf(value));
+            if (constant == null) {
+                throw new IllegalArgumentException(String.format("The enum '%s' has no constant '%s'", enumClass.getName(), value));
+            }
+            return constant;
+        }
+    }
+
+    /**
+     * Binds input objects to maps, binding the values of the fields
+     */
+    static class MapBinder implements ValueBinder {
+        String[] names;
+        ValueBinder[] binders;
+        Object[] rawDefaults;
+        BoundDefault[] defaults;
+
+        @Override
+        public Object bind(Object value) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                Object fieldValue = fieldValue(map, i);
+                if (fieldValue != null || map.containsKey(names[i])) {
+                    result.put(names[i], fieldValue);
+                }
+            }
+            return result;
+        }
+
+        Object fieldValue(Map<?, ?> map, int i) {
+            Object fieldValue = map.get(names[i]);
+            if (fieldValue == null || fieldValue == rawDefaults[i]) {
+                return BoundDefault.get(defaults[i]);
+            }
+            return binders[i].bind(fieldValue);
+        }
+    }
+
+    /**
+     * Binds input objects to instances of a class, setting a property per field
+     */
+    static class ObjectBinder extends MapBinder {
+        private final Constructor<?> constructor;
+        Property[] properties;
+
+        ObjectBinder(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object bind(Object value) {
+            if (constructor.getDeclaringClass().isInstance(value)) {
+                return value;
+            }
+            Map<?, ?> map = (Map<?, ?>) value;
+            Object object = newInstance(constructor);
+            for (int i = 0; i < names.length; i++) {
+                Object fieldValue = fieldValue(map, i);
+                if (fieldValue != null) {
+                    properties[i].set(object, fieldValue);
+                }
+            }
+            return object;
+        }
+    }
+
+    /**
+     * A setter or a field of a class
+     */
+    static class Property {
+        private final Method setter;
+        private final Field field;
+        final Type type;
+
+        private Property(Method setter, Field field) {
+            this.setter = setter;
+            this.field = field;
+            this.type = setter != null ? setter.getGenericParameterTypes()[0] : field.getGenericType();
+        }
+
+        void set(Object target, Object value) {
+            try {
+                if (setter != null) {
+                    setter.invoke(target, value);
+                } else {
+                    field.set(target, value);
+                }
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Finds the setter, or failing that the field, that an input field is bound to
+     *
+     * @param inputClass the class bound to the input type
+     * @param name       the name of the input field
+     *
+     * @return the property or null if there is none
+     */
+    static Property property(Class<?> inputClass, String name) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method method : inputClass.getMethods()) {
+            if (method.getName().equals(setterName) && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+                return new Property(method, null);
+            }
+        }
+        for (Class<?> c = inputClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                    field.setAccessible(true);
+                    return new Property(null, field);
+                }
+            } catch (NoSuchFieldException e) {
+                // try the super class
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param inputClass the class bound to an input type
+     *
+     * @return the no argument constructor of the class or null if there is none
+     */
+    static Constructor<?> findConstructor(Class<?> inputClass) {
+        try {
+            Constructor<?> constructor = inputClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Object newInstance(Constructor<?> constructor) {
+        try {
+            return constructor.newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        }
+        return Object.class;
+    }
+
+    private static Type elementType(Type type) {
+        if (type instanceof ParameterizedType && Collection.class.isAssignableFrom(rawClass(type))) {
+            return ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    /*
+     * graphql-java has already coerced scalar values so we only have to fit numbers and ids to the property type
+     */
+    private static ValueBinder scalarBinder(Class<?> targetClass) {
+        if (targetClass == int.class || targetClass == Integer.class) {
+            return value -> value instanceof Number ? ((Number) value).intValue() : value;
+        } else if (targetClass == long.class || targetClass == Long.class) {
+            return value -> value instanceof Number ? ((Number) value).longValue() : value;
+        } else if (targetClass == double.class || targetClass == Double.class) {
+            return value -> value instanceof Number ? ((Number) value).doubleValue() : value;
+        } else if (targetClass == float.class || targetClass == Float.class) {
+            return value -> value instanceof Number ? ((Number) value).floatValue() : value;
+        } else if (targetClass == short.class || targetClass == Short.class) {
+            return value -> value instanceof Number ? ((Number) value).shortValue() : value;
+        } else if (targetClass == BigInteger.class) {
+            return value -> value instanceof Number && !(value instanceof BigInteger) ? BigInteger.valueOf(((Number) value).longValue()) : value;
+        } else if (targetClass == BigDecimal.class) {
+            return value -> value instanceof Number && !(value instanceof BigDecimal) ? new BigDecimal(value.toString()) : value;
+        } else if (targetClass == String.class) {
+            return value -> value instanceof String ? value : String.valueOf(value);
+        }
+        return IDENTITY;
+    }
+}
@@ -0,0 +1,42 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Guards a field that the SDL requires roles for.  The data fetcher is only run when the caller's {@link Permissions}
+ * include the required ones, and otherwise the field is null so nothing beneath it is fetched either.
+ */
+class AuthDataFetcher implements DataFetcher {
+
+    private final DataFetcher delegate;
+    private final Permissions required;
+
+    AuthDataFetcher(DataFetcher delegate, Permissions required) {
+        this.delegate = delegate;
+        this.required = required;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        if (!permissionsOf(environment.getContext()).includes(required)) {
+            return null;
+        }
+        return delegate.get(environment);
+    }
+
+    Permissions getRequired() {
+        return required;
+    }
+
+    private static Permissions permissionsOf(Object context) {
+        if (context instanceof Permissions) {
+            return (Permissions) context;
+        }
+        if (context instanceof Permissions.Holder) {
+            Permissions permissions = ((Permissions.Holder) context).getPermissions();
+            return permissions == null ? Permissions.NONE : permissions;
+        }
+        return Permissions.NONE;
+    }
+}
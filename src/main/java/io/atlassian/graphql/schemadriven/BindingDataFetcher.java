@@ -0,0 +1,16 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * A data fetcher that is given the field arguments already bound to java objects, so it does not have to dig
+ * through the argument map and convert values on every call.
+ *
+ * The arguments are in the order the field declares them.  Input objects and enums are instances of the classes bound
+ * via {@link RuntimeWiring.TypeWiring#inputClass(Class)} or of the class of the property they are bound to, lists are
+ * {@link java.util.List}s and any other input object is a map.  Missing arguments have their schema default value.
+ */
+public interface BindingDataFetcher {
+
+    Object get(DataFetchingEnvironment environment, Object[] arguments);
+}
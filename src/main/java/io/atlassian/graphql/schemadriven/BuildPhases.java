@@ -0,0 +1,125 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.Definition;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.TypeDefinition;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * This times the phases of one schema build operation on behalf of a {@link SchemaBuildListener}, subtracting nested
+ * phases from their enclosing phase.  It is not thread safe, each operation uses its own instance.
+ */
+class BuildPhases {
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    private static final Timer NOOP_TIMER = new Timer(null, null, null) {
+        @Override
+        void finish(int typeCount, int fieldCount, int errorCount) {
+        }
+    };
+
+    private final SchemaBuildListener listener;
+    private final Deque<Timer> timers = new ArrayDeque<>();
+
+    BuildPhases(SchemaBuildListener listener) {
+        this.listener = listener == null ? SchemaBuildListener.NOOP : listener;
+    }
+
+    Timer start(SchemaBuildListener.Phase phase, String subject) {
+        if (listener == SchemaBuildListener.NOOP) {
+            return NOOP_TIMER;
+        }
+        listener.phaseStarted(phase, subject);
+        Timer timer = new Timer(this, phase, subject);
+        timers.push(timer);
+        return timer;
+    }
+
+    static class Timer {
+        private final BuildPhases phases;
+        private final SchemaBuildListener.Phase phase;
+        private final String subject;
+        private final long startNanos;
+        private final long startAllocated;
+        private long nestedNanos;
+        private long nestedAllocated;
+
+        private Timer(BuildPhases phases, SchemaBuildListener.Phase phase, String subject) {
+            this.phases = phases;
+            this.phase = phase;
+            this.subject = subject;
+            this.startAllocated = phases == null ? -1 : allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        void finish(int typeCount, int fieldCount, int errorCount) {
+            long nanos = System.nanoTime() - startNanos;
+            long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+
+            phases.timers.remove(this);
+            Timer parent = phases.timers.peek();
+            if (parent != null) {
+                parent.nestedNanos += nanos;
+                parent.nestedAllocated += allocated;
+            }
+            long selfAllocated = allocated < 0 ? -1 : Math.max(0, allocated - nestedAllocated);
+            phases.listener.phaseFinished(new SchemaBuildEvent(phase, subject, nanos - nestedNanos, selfAllocated, typeCount, fieldCount, errorCount));
+        }
+    }
+
+    static int fieldCount(Collection<? extends Definition> definitions) {
+        int count = 0;
+        for (Definition definition : definitions) {
+            count += fieldCount(definition);
+        }
+        return count;
+    }
+
+    static int fieldCount(Definition definition) {
+        if (definition instanceof ObjectTypeDefinition) {
+            return ((ObjectTypeDefinition) definition).getFieldDefinitions().size();
+        } else if (definition instanceof InterfaceTypeDefinition) {
+            return ((InterfaceTypeDefinition) definition).getFieldDefinitions().size();
+        } else if (definition instanceof InputObjectTypeDefinition) {
+            return ((InputObjectTypeDefinition) definition).getInputValueDefinitions().size();
+        } else if (definition instanceof EnumTypeDefinition) {
+            return ((EnumTypeDefinition) definition).getEnumValueDefinitions().size();
+        }
+        return 0;
+    }
+
+    static int typeCount(Collection<? extends Definition> definitions) {
+        return (int) definitions.stream().filter(definition -> definition instanceof TypeDefinition).count();
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOCATION_BEAN == null) {
+            return -1;
+        }
+        return ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        } catch (Throwable e) {
+            // not a JVM that can tell us
+        }
+        return null;
+    }
+}
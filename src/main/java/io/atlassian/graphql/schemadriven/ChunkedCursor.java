@@ -0,0 +1,29 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.util.List;
+
+/**
+ * A cursor over a large result that is read a chunk at a time, such as a database cursor with a fetch size, which
+ * the data fetcher of a streamed list field can return instead of a list.
+ *
+ * <pre>
+ * type Query {
+ *     export(since : String) : [Row] @streamed(maxItems : 1000000)
+ * }
+ * </pre>
+ *
+ * The cursor is closed once its last chunk has been read, once the list has reached its most items or when the
+ * query fails part way through the list.
+ *
+ * @param <T> the items of the list
+ */
+public interface ChunkedCursor<T> extends AutoCloseable {
+
+    /**
+     * @return the next items or an empty list once there are no more
+     */
+    List<T> nextChunk();
+
+    @Override
+    void close();
+}
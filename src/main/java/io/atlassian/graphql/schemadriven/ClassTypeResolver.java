@@ -0,0 +1,96 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.TypeResolver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type resolver that {@link SchemaGenerator} makes for an interface or union that has no resolver of its own
+ * but whose object types are all bound to java classes via {@link RuntimeWiring.TypeWiring#objectClass(Class)}.
+ *
+ * A value resolves to the object type bound to its class or, failing that, to the nearest superclass or interface of
+ * its class that is bound, so subclasses resolve without being bound themselves.  The answer for each class is
+ * worked out once and then kept by the resolver, so resolving a value costs about a map lookup.  It is not kept in a
+ * {@link ClassValue}, as the answer refers to the schema, which refers back to the resolver, so the schema would
+ * never be freed for as long as the class is loaded.
+ */
+class ClassTypeResolver implements TypeResolver {
+
+    private final String abstractTypeName;
+    private final Map<Class<?>, String> objectTypeNames;
+    private volatile Map<String, GraphQLObjectType> objectTypes;
+
+    private final Map<Class<?>, GraphQLObjectType> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * @param abstractTypeName the interface or union being resolved
+     * @param objectTypeNames  the classes bound to each of its object types
+     */
+    ClassTypeResolver(String abstractTypeName, Map<Class<?>, String> objectTypeNames) {
+        this.abstractTypeName = abstractTypeName;
+        this.objectTypeNames = new LinkedHashMap<>(objectTypeNames);
+    }
+
+    /**
+     * The object types are only known once the schema has been assembled
+     *
+     * @param schema the schema the resolver is part of
+     */
+    void bindTo(GraphQLSchema schema) {
+        Map<String, GraphQLObjectType> objectTypes = new LinkedHashMap<>();
+        objectTypeNames.values().forEach(name -> objectTypes.put(name, (GraphQLObjectType) schema.getType(name)));
+        this.objectTypes = objectTypes;
+    }
+
+    @Override
+    public GraphQLObjectType getType(Object object) {
+        GraphQLObjectType objectType = resolved.computeIfAbsent(object.getClass(), type -> {
+            String objectTypeName = nearestBoundType(type);
+            return objectTypeName == null ? null : objectTypes.get(objectTypeName);
+        });
+        if (objectType == null) {
+            throw new IllegalStateException(String.format("No object type of '%s' is bound to the class '%s' or any of its supertypes",
+                    abstractTypeName, object.getClass().getName()));
+        }
+        return objectType;
+    }
+
+    /*
+     * the class itself, then each superclass in turn and then the interfaces of them all, nearest first
+     */
+    private String nearestBoundType(Class<?> type) {
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            String name = objectTypeNames.get(c);
+            if (name != null) {
+                return name;
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                interfaces.add(i);
+            }
+        }
+        Set<Class<?>> seen = new HashSet<>();
+        while (!interfaces.isEmpty()) {
+            Class<?> i = interfaces.poll();
+            if (!seen.add(i)) {
+                continue;
+            }
+            String name = objectTypeNames.get(i);
+            if (name != null) {
+                return name;
+            }
+            for (Class<?> superInterface : i.getInterfaces()) {
+                interfaces.add(superInterface);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,403 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.AbstractNode;
+import graphql.language.Definition;
+import graphql.language.Directive;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValueDefinition;
+import graphql.language.FieldDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.Node;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.SourceLocation;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeExtensionDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+import io.atlassian.fugue.Option;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.atlassian.fugue.Option.none;
+import static io.atlassian.fugue.Option.some;
+
+/**
+ * A compact form of a {@link TypeRegistry} for registries that are kept alive, say for hot reload or diffing.
+ *
+ * Names are shared, type references are kept as a type name plus {@link TypeModifiers packed} list and non null
+ * wrapping rather than as a chain of AST nodes, source locations are packed into a long or optionally
+ * stripped, and empty directive lists are not kept at all.  Directives and default values are rare and are
+ * kept as the original AST nodes.
+ *
+ * The AST is rebuilt on demand via {@link #toTypeRegistry()} or {@link #getType(String)}.  Rebuilt type references
+ * are flyweights shared between all the places that refer to the same wrapped type, and the standard scalar type
+ * names are shared by all registries, so they must not be changed and carry no source location.
+ */
+public class CompactTypeRegistry {
+
+    private static final long NO_LOCATION = -1L;
+
+    private static final Map<String, TypeName> STANDARD_TYPE_NAMES = new HashMap<>();
+
+    static {
+        new TypeRegistry().scalars().keySet().forEach(name -> STANDARD_TYPE_NAMES.put(name, new TypeName(name)));
+    }
+
+    private enum Kind {
+        OBJECT, INTERFACE, UNION, ENUM, INPUT_OBJECT, SCALAR, EXTENSION, SCHEMA
+    }
+
+    /**
+     * A field, argument, input field, enum value or operation type
+     */
+    private static class Member {
+        final String name;
+        final String typeName;
+        final int modifiers;
+        final long location;
+        final Member[] arguments;
+        final Value defaultValue;
+        final List<Directive> directives;
+
+        Member(String name, String typeName, int modifiers, long location, Member[] arguments, Value defaultValue, List<Directive> directives) {
+            this.name = name;
+            this.typeName = typeName;
+            this.modifiers = modifiers;
+            this.location = location;
+            this.arguments = arguments;
+            this.defaultValue = defaultValue;
+            this.directives = directives;
+        }
+    }
+
+    private static class CompactType {
+        final Kind kind;
+        final String name;
+        final long location;
+        // implemented interfaces or union members
+        final String[] references;
+        final Member[] members;
+        final List<Directive> directives;
+
+        CompactType(Kind kind, String name, long location, String[] references, Member[] members, List<Directive> directives) {
+            this.kind = kind;
+            this.name = name;
+            this.location = location;
+            this.references = references;
+            this.members = members;
+            this.directives = directives;
+        }
+    }
+
+    private static final Member[] NO_MEMBERS = new Member[0];
+    private static final String[] NO_REFERENCES = new String[0];
+
+    private final Map<String, CompactType> types;
+    private final Map<String, CompactType[]> typeExtensions;
+    private final CompactType schema;
+    private final SchemaDescriptions descriptions;
+
+    private CompactTypeRegistry(Map<String, CompactType> types, Map<String, CompactType[]> typeExtensions, CompactType schema, SchemaDescriptions descriptions) {
+        this.types = types;
+        this.typeExtensions = typeExtensions;
+        this.schema = schema;
+        this.descriptions = descriptions;
+    }
+
+    public static CompactTypeRegistry compact(TypeRegistry typeRegistry) {
+        return compact(typeRegistry, false);
+    }
+
+    /**
+     * Creates a compact form of the type registry.  The registry itself is not changed.
+     *
+     * @param typeRegistry   the registry to compact
+     * @param stripLocations if true then source locations are not kept
+     *
+     * @return a compact form of the registry
+     */
+    public static CompactTypeRegistry compact(TypeRegistry typeRegistry, boolean stripLocations) {
+        Compactor compactor = new Compactor(stripLocations);
+
+        Map<String, CompactType> types = new LinkedHashMap<>();
+        typeRegistry.customScalars().values().forEach(scalar -> types.put(scalar.getName(), compactor.compact(scalar)));
+        typeRegistry.types().values().forEach(typeDefinition -> types.put(typeDefinition.getName(), compactor.compact(typeDefinition)));
+
+        Map<String, CompactType[]> typeExtensions = new LinkedHashMap<>();
+        typeRegistry.typeExtensions().forEach((name, extensions) ->
+                typeExtensions.put(compactor.name(name), extensions.stream().map(compactor::compact).toArray(CompactType[]::new)));
+
+        CompactType schema = typeRegistry.schemaDefinition().map(compactor::compact).getOrNull();
+        // descriptions are already compressed and are kept as they are
+        return new CompactTypeRegistry(types, typeExtensions, schema, typeRegistry.descriptions());
+    }
+
+    /**
+     * @return the number of types, not counting the standard scalars
+     */
+    public int typeCount() {
+        return types.size();
+    }
+
+    /**
+     * Rebuilds the AST of a single type
+     *
+     * @param name the name of the type
+     *
+     * @return the type definition if there is one by that name
+     */
+    public Option<TypeDefinition> getType(String name) {
+        CompactType compactType = types.get(name);
+        if (compactType == null) {
+            return none();
+        }
+        return some((TypeDefinition) new Expander().expand(compactType));
+    }
+
+    /**
+     * Rebuilds a type registry from the compact form
+     *
+     * @return a new type registry
+     */
+    public TypeRegistry toTypeRegistry() {
+        Expander expander = new Expander();
+        TypeRegistry typeRegistry = new TypeRegistry();
+        types.values().forEach(compactType -> typeRegistry.add(expander.expand(compactType)));
+        typeExtensions.values().forEach(extensions -> {
+            for (CompactType extension : extensions) {
+                typeRegistry.add(expander.expand(extension));
+            }
+        });
+        if (schema != null) {
+            typeRegistry.add(expander.expand(schema));
+        }
+        typeRegistry.addDescriptions(descriptions);
+        return typeRegistry;
+    }
+
+    private static class Compactor {
+        private final boolean stripLocations;
+        private final Map<String, String> names = new HashMap<>();
+
+        Compactor(boolean stripLocations) {
+            this.stripLocations = stripLocations;
+        }
+
+        String name(String name) {
+            return name == null ? null : names.computeIfAbsent(name, k -> k);
+        }
+
+        long location(Node node) {
+            SourceLocation sourceLocation = node.getSourceLocation();
+            if (stripLocations || sourceLocation == null) {
+                return NO_LOCATION;
+            }
+            return ((long) sourceLocation.getLine() << 32) | (sourceLocation.getColumn() & 0xffffffffL);
+        }
+
+        List<Directive> directives(List<Directive> directives) {
+            return directives.isEmpty() ? null : new ArrayList<>(directives);
+        }
+
+        String[] references(List<Type> types) {
+            if (types.isEmpty()) {
+                return NO_REFERENCES;
+            }
+            String[] references = new String[types.size()];
+            for (int i = 0; i < references.length; i++) {
+                references[i] = name(TypeModifiers.typeName(types.get(i)).getName());
+            }
+            return references;
+        }
+
+        CompactType compact(Definition definition) {
+            if (definition instanceof TypeExtensionDefinition) {
+                ObjectTypeDefinition extension = (ObjectTypeDefinition) definition;
+                return new CompactType(Kind.EXTENSION, name(extension.getName()), location(extension),
+                        references(extension.getImplements()), fields(extension.getFieldDefinitions()), directives(extension.getDirectives()));
+            } else if (definition instanceof ObjectTypeDefinition) {
+                ObjectTypeDefinition objectType = (ObjectTypeDefinition) definition;
+                return new CompactType(Kind.OBJECT, name(objectType.getName()), location(objectType),
+                        references(objectType.getImplements()), fields(objectType.getFieldDefinitions()), directives(objectType.getDirectives()));
+            } else if (definition instanceof InterfaceTypeDefinition) {
+                InterfaceTypeDefinition interfaceType = (InterfaceTypeDefinition) definition;
+                return new CompactType(Kind.INTERFACE, name(interfaceType.getName()), location(interfaceType),
+                        NO_REFERENCES, fields(interfaceType.getFieldDefinitions()), directives(interfaceType.getDirectives()));
+            } else if (definition instanceof UnionTypeDefinition) {
+                UnionTypeDefinition unionType = (UnionTypeDefinition) definition;
+                return new CompactType(Kind.UNION, name(unionType.getName()), location(unionType),
+                        references(unionType.getMemberTypes()), NO_MEMBERS, directives(unionType.getDirectives()));
+            } else if (definition instanceof EnumTypeDefinition) {
+                EnumTypeDefinition enumType = (EnumTypeDefinition) definition;
+                Member[] values = enumType.getEnumValueDefinitions().stream()
+                        .map(evd -> new Member(name(evd.getName()), null, TypeModifiers.NONE, location(evd), NO_MEMBERS, null, directives(evd.getDirectives())))
+                        .toArray(Member[]::new);
+                return new CompactType(Kind.ENUM, name(enumType.getName()), location(enumType), NO_REFERENCES, values, directives(enumType.getDirectives()));
+            } else if (definition instanceof InputObjectTypeDefinition) {
+                InputObjectTypeDefinition inputType = (InputObjectTypeDefinition) definition;
+                return new CompactType(Kind.INPUT_OBJECT, name(inputType.getName()), location(inputType),
+                        NO_REFERENCES, inputValues(inputType.getInputValueDefinitions()), directives(inputType.getDirectives()));
+            } else if (definition instanceof ScalarTypeDefinition) {
+                ScalarTypeDefinition scalarType = (ScalarTypeDefinition) definition;
+                return new CompactType(Kind.SCALAR, name(scalarType.getName()), location(scalarType), NO_REFERENCES, NO_MEMBERS, directives(scalarType.getDirectives()));
+            } else {
+                SchemaDefinition schemaDefinition = (SchemaDefinition) definition;
+                Member[] operations = schemaDefinition.getOperationTypeDefinitions().stream()
+                        .map(op -> member(op.getName(), op.getType(), location(op), NO_MEMBERS, null, null))
+                        .toArray(Member[]::new);
+                return new CompactType(Kind.SCHEMA, null, location(schemaDefinition), NO_REFERENCES, operations, directives(schemaDefinition.getDirectives()));
+            }
+        }
+
+        Member[] fields(List<FieldDefinition> fieldDefinitions) {
+            if (fieldDefinitions.isEmpty()) {
+                return NO_MEMBERS;
+            }
+            return fieldDefinitions.stream()
+                    .map(fieldDef -> member(fieldDef.getName(), fieldDef.getType(), location(fieldDef),
+                            inputValues(fieldDef.getInputValueDefinitions()), null, directives(fieldDef.getDirectives())))
+                    .toArray(Member[]::new);
+        }
+
+        Member[] inputValues(List<InputValueDefinition> inputValueDefinitions) {
+            if (inputValueDefinitions.isEmpty()) {
+                return NO_MEMBERS;
+            }
+            return inputValueDefinitions.stream()
+                    .map(inputValue -> member(inputValue.getName(), inputValue.getType(), location(inputValue),
+                            NO_MEMBERS, inputValue.getDefaultValue(), directives(inputValue.getDirectives())))
+                    .toArray(Member[]::new);
+        }
+
+        Member member(String name, Type type, long location, Member[] arguments, Value defaultValue, List<Directive> directives) {
+            String typeName = name(TypeModifiers.typeName(type).getName());
+            return new Member(name(name), typeName, TypeModifiers.of(type), location, arguments, defaultValue, directives);
+        }
+    }
+
+    private static class Expander {
+        // shared per expansion since a wrapped type such as [String!]! is the same wherever it is used
+        private final Map<String, TypeName> typeNames = new HashMap<>();
+        private final Map<String, Map<Integer, Type>> wrappedTypes = new HashMap<>();
+
+        TypeName typeName(String name) {
+            TypeName typeName = STANDARD_TYPE_NAMES.get(name);
+            if (typeName == null) {
+                typeName = typeNames.computeIfAbsent(name, TypeName::new);
+            }
+            return typeName;
+        }
+
+        Type type(String name, int modifiers) {
+            if (modifiers == TypeModifiers.NONE) {
+                return typeName(name);
+            }
+            return wrappedTypes.computeIfAbsent(name, k -> new HashMap<>())
+                    .computeIfAbsent(modifiers, k -> TypeModifiers.toType(modifiers, typeName(name)));
+        }
+
+        <T extends AbstractNode> T located(T node, long location) {
+            if (location != NO_LOCATION) {
+                node.setSourceLocation(new SourceLocation((int) (location >>> 32), (int) location));
+            }
+            return node;
+        }
+
+        void addDirectives(List<Directive> target, List<Directive> directives) {
+            if (directives != null) {
+                target.addAll(directives);
+            }
+        }
+
+        void addReferences(List<Type> target, String[] references) {
+            for (String reference : references) {
+                target.add(typeName(reference));
+            }
+        }
+
+        Definition expand(CompactType compactType) {
+            switch (compactType.kind) {
+                case OBJECT:
+                case EXTENSION: {
+                    ObjectTypeDefinition objectType = compactType.kind == Kind.OBJECT
+                            ? new ObjectTypeDefinition(compactType.name) : new TypeExtensionDefinition(compactType.name);
+                    addReferences(objectType.getImplements(), compactType.references);
+                    addFields(objectType.getFieldDefinitions(), compactType.members);
+                    addDirectives(objectType.getDirectives(), compactType.directives);
+                    return located(objectType, compactType.location);
+                }
+                case INTERFACE: {
+                    InterfaceTypeDefinition interfaceType = new InterfaceTypeDefinition(compactType.name);
+                    addFields(interfaceType.getFieldDefinitions(), compactType.members);
+                    addDirectives(interfaceType.getDirectives(), compactType.directives);
+                    return located(interfaceType, compactType.location);
+                }
+                case UNION: {
+                    UnionTypeDefinition unionType = new UnionTypeDefinition(compactType.name);
+                    addReferences(unionType.getMemberTypes(), compactType.references);
+                    addDirectives(unionType.getDirectives(), compactType.directives);
+                    return located(unionType, compactType.location);
+                }
+                case ENUM: {
+                    EnumTypeDefinition enumType = new EnumTypeDefinition(compactType.name);
+                    for (Member value : compactType.members) {
+                        EnumValueDefinition enumValue = new EnumValueDefinition(value.name);
+                        addDirectives(enumValue.getDirectives(), value.directives);
+                        enumType.getEnumValueDefinitions().add(located(enumValue, value.location));
+                    }
+                    addDirectives(enumType.getDirectives(), compactType.directives);
+                    return located(enumType, compactType.location);
+                }
+                case INPUT_OBJECT: {
+                    InputObjectTypeDefinition inputType = new InputObjectTypeDefinition(compactType.name);
+                    addInputValues(inputType.getInputValueDefinitions(), compactType.members);
+                    addDirectives(inputType.getDirectives(), compactType.directives);
+                    return located(inputType, compactType.location);
+                }
+                case SCALAR: {
+                    ScalarTypeDefinition scalarType = new ScalarTypeDefinition(compactType.name);
+                    addDirectives(scalarType.getDirectives(), compactType.directives);
+                    return located(scalarType, compactType.location);
+                }
+                default: {
+                    SchemaDefinition schemaDefinition = new SchemaDefinition();
+                    for (Member operation : compactType.members) {
+                        OperationTypeDefinition op = new OperationTypeDefinition(operation.name, type(operation.typeName, operation.modifiers));
+                        schemaDefinition.getOperationTypeDefinitions().add(located(op, operation.location));
+                    }
+                    addDirectives(schemaDefinition.getDirectives(), compactType.directives);
+                    return located(schemaDefinition, compactType.location);
+                }
+            }
+        }
+
+        void addFields(Collection<FieldDefinition> target, Member[] fields) {
+            for (Member field : fields) {
+                FieldDefinition fieldDef = new FieldDefinition(field.name, type(field.typeName, field.modifiers));
+                addInputValues(fieldDef.getInputValueDefinitions(), field.arguments);
+                addDirectives(fieldDef.getDirectives(), field.directives);
+                target.add(located(fieldDef, field.location));
+            }
+        }
+
+        void addInputValues(Collection<InputValueDefinition> target, Member[] inputValues) {
+            for (Member inputValue : inputValues) {
+                InputValueDefinition inputValueDef = new InputValueDefinition(inputValue.name, type(inputValue.typeName, inputValue.modifiers), inputValue.defaultValue);
+                addDirectives(inputValueDef.getDirectives(), inputValue.directives);
+                target.add(located(inputValueDef, inputValue.location));
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a list field that the SDL makes a connection into a page of it, given the first and after arguments.
+ *
+ * A {@link KeysetFetcher} is asked for the page after the key in the cursor, and may have the page after that fetched
+ * in the background so it is ready when the caller asks for it.  Pages are only prefetched for calls whose context
+ * is a {@link RateLimits.Caller} with a caller key, as a prefetched page is only handed to the caller it was fetched
+ * for, and a context that is made afresh for every call would never be asked for it again.  Any other data fetcher
+ * is taken to return the whole list, which is paged by position, so a connection can be wired before there is a
+ * keyset query behind it.
+ *
+ * A cursor is the key encoded as url safe base 64, which is opaque only by convention.  Anyone can decode one or make
+ * one up, so only its form is checked here.
+ */
+class ConnectionDataFetcher implements DataFetcher {
+
+    static final String FIRST = "first";
+    static final String AFTER = "after";
+    static final int DEFAULT_FIRST = 20;
+    static final int MAX_FIRST = 100;
+
+    static final String PAGE_INFO_TYPE = "PageInfo";
+    private static final String CONNECTION_SUFFIX = "Connection";
+    private static final String EDGE_SUFFIX = "Edge";
+
+    private static final byte[] CURSOR_PREFIX = "k:".getBytes(StandardCharsets.UTF_8);
+    // prefetched pages that are not asked for are dropped after this long, and no more are fetched while this many wait
+    private static final long PREFETCH_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MAX_PREFETCHED = 256;
+
+    static String connectionTypeName(String nodeTypeName) {
+        return nodeTypeName + CONNECTION_SUFFIX;
+    }
+
+    static String edgeTypeName(String nodeTypeName) {
+        return nodeTypeName + EDGE_SUFFIX;
+    }
+
+    /**
+     * The value of a connection type
+     */
+    static class Page {
+        final List<Edge> edges;
+        final PageInfo pageInfo;
+
+        Page(List<Edge> edges, PageInfo pageInfo) {
+            this.edges = edges;
+            this.pageInfo = pageInfo;
+        }
+    }
+
+    static class Edge {
+        final String cursor;
+        final Object node;
+
+        Edge(String cursor, Object node) {
+            this.cursor = cursor;
+            this.node = node;
+        }
+    }
+
+    static class PageInfo {
+        final boolean hasNextPage;
+        final boolean hasPreviousPage;
+        final String startCursor;
+        final String endCursor;
+
+        PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {
+            this.hasNextPage = hasNextPage;
+            this.hasPreviousPage = hasPreviousPage;
+            this.startCursor = startCursor;
+            this.endCursor = endCursor;
+        }
+    }
+
+    // the data fetchers of the fields of the connection types
+    static final DataFetcher EDGES = environment -> ((Page) environment.getSource()).edges;
+    static final DataFetcher PAGE_INFO = environment -> ((Page) environment.getSource()).pageInfo;
+    static final DataFetcher CURSOR = environment -> ((Edge) environment.getSource()).cursor;
+    static final DataFetcher NODE = environment -> ((Edge) environment.getSource()).node;
+    static final DataFetcher HAS_NEXT_PAGE = environment -> ((PageInfo) environment.getSource()).hasNextPage;
+    static final DataFetcher HAS_PREVIOUS_PAGE = environment -> ((PageInfo) environment.getSource()).hasPreviousPage;
+    static final DataFetcher START_CURSOR = environment -> ((PageInfo) environment.getSource()).startCursor;
+    static final DataFetcher END_CURSOR = environment -> ((PageInfo) environment.getSource()).endCursor;
+
+    private static class Prefetched {
+        final CompletableFuture<List<Object>> items;
+        final long fetchedAt = System.nanoTime();
+
+        Prefetched(CompletableFuture<List<Object>> items) {
+            this.items = items;
+        }
+
+        boolean isStale(long now) {
+            return now - fetchedAt > PREFETCH_TTL_NANOS;
+        }
+    }
+
+    private final DataFetcher delegate;
+    private final String coordinate;
+    private final int defaultFirst;
+    private final int maxFirst;
+    private final Executor prefetchExecutor;
+    private final Map<List<Object>, Prefetched> prefetched = new ConcurrentHashMap<>();
+
+    /**
+     * @param prefetchExecutor where to fetch the next page or null to not prefetch
+     */
+    ConnectionDataFetcher(DataFetcher delegate, String coordinate, int defaultFirst, int maxFirst, Executor prefetchExecutor) {
+        this.delegate = delegate;
+        this.coordinate = coordinate;
+        this.defaultFirst = defaultFirst;
+        this.maxFirst = maxFirst;
+        this.prefetchExecutor = delegate instanceof KeysetFetcher ? prefetchExecutor : null;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        Integer firstArgument = environment.getArgument(FIRST);
+        int first = firstArgument == null ? defaultFirst : firstArgument;
+        if (first < 0 || first > maxFirst) {
+            throw new IllegalArgumentException(String.format("The argument 'first' of '%s' must be from 0 to %d", coordinate, maxFirst));
+        }
+        String after = environment.getArgument(AFTER);
+        String afterKey = after == null ? null : decodeCursor(after);
+        if (delegate instanceof KeysetFetcher) {
+            return keysetPage(environment, (KeysetFetcher<?>) delegate, afterKey, first);
+        }
+        return positionPage(environment, afterKey, first);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page keysetPage(DataFetchingEnvironment environment, KeysetFetcher<?> fetcher, String afterKey, int first) {
+        int limit = first + 1;
+        List<Object> items = null;
+        Object callerKey = prefetchExecutor == null ? null : callerKey(environment);
+        if (callerKey != null && afterKey != null) {
+            items = takePrefetched(prefetchKey(environment, callerKey, afterKey, limit));
+        }
+        if (items == null) {
+            items = (List<Object>) fetcher.fetchAfter(environment, afterKey, limit);
+            if (items == null) {
+                items = Collections.emptyList();
+            }
+        }
+        KeysetFetcher<Object> keys = (KeysetFetcher<Object>) fetcher;
+        int size = Math.min(first, items.size());
+        List<Edge> edges = new ArrayList<>(size);
+        String lastKey = null;
+        for (int i = 0; i < size; i++) {
+            Object item = items.get(i);
+            lastKey = keys.keyOf(item);
+            edges.add(new Edge(encodeCursor(lastKey), item));
+        }
+        boolean hasNextPage = items.size() > first;
+        if (hasNextPage && callerKey != null && lastKey != null) {
+            prefetch(environment, callerKey, keys, lastKey, limit);
+        }
+        // a keyset page cannot tell cheaply whether there is anything before it, which relay allows
+        return page(edges, hasNextPage, false);
+    }
+
+    private Page positionPage(DataFetchingEnvironment environment, String afterKey, int first) {
+        int start = 0;
+        if (afterKey != null) {
+            try {
+                start = Integer.parseInt(afterKey) + 1;
+            } catch (NumberFormatException e) {
+                start = -1;
+            }
+            if (start < 1) {
+                throw invalidCursor(encodeCursor(afterKey));
+            }
+        }
+        List<Object> items = toList(delegate.get(environment));
+        int end = Math.min(items.size(), start + first);
+        List<Edge> edges = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            edges.add(new Edge(encodeCursor(String.valueOf(i)), items.get(i)));
+        }
+        return page(edges, items.size() > end, start > 0);
+    }
+
+    private static Page page(List<Edge> edges, boolean hasNextPage, boolean hasPreviousPage) {
+        String startCursor = edges.isEmpty() ? null : edges.get(0).cursor;
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor;
+        return new Page(edges, new PageInfo(hasNextPage, hasPreviousPage, startCursor, endCursor));
+    }
+
+    private void prefetch(DataFetchingEnvironment environment, Object callerKey, KeysetFetcher<Object> fetcher, String afterKey, int limit) {
+        long now = System.nanoTime();
+        if (prefetched.size() >= MAX_PREFETCHED) {
+            prefetched.values().removeIf(entry -> entry.isStale(now));
+            if (prefetched.size() >= MAX_PREFETCHED) {
+                return;
+            }
+        }
+        try {
+            prefetched.computeIfAbsent(prefetchKey(environment, callerKey, afterKey, limit), key ->
+                    new Prefetched(CompletableFuture.supplyAsync(() -> fetcher.fetchAfter(environment, afterKey, limit), prefetchExecutor)));
+        } catch (RejectedExecutionException e) {
+            // the page asked for has been fetched, and the next one is fetched when it is asked for instead
+        }
+    }
+
+    /*
+     * a prefetched page is used once, and only if it is fresh and was fetched without failing
+     */
+    private List<Object> takePrefetched(List<Object> key) {
+        Prefetched entry = prefetched.remove(key);
+        if (entry == null || entry.isStale(System.nanoTime())) {
+            return null;
+        }
+        try {
+            return entry.items.join();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Object callerKey(DataFetchingEnvironment environment) {
+        Object context = environment.getContext();
+        return context instanceof RateLimits.Caller ? ((RateLimits.Caller) context).getCallerKey() : null;
+    }
+
+    /*
+     * a prefetched page is only handed to the same caller asking for the same page with the same other arguments
+     */
+    private static List<Object> prefetchKey(DataFetchingEnvironment environment, Object callerKey, String afterKey, int limit) {
+        Map<String, Object> arguments = new HashMap<>(environment.getArguments());
+        arguments.remove(FIRST);
+        arguments.remove(AFTER);
+        return Arrays.asList(callerKey, afterKey, limit, arguments);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> toList(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        List<Object> list = new ArrayList<>();
+        if (value instanceof Iterable) {
+            ((Iterable<Object>) value).forEach(list::add);
+        } else if (value instanceof Iterator) {
+            ((Iterator<Object>) value).forEachRemaining(list::add);
+        } else if (value.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(value); i++) {
+                list.add(Array.get(value, i));
+            }
+        } else {
+            list.add(value);
+        }
+        return list;
+    }
+
+    static String encodeCursor(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = Arrays.copyOf(CURSOR_PREFIX, CURSOR_PREFIX.length + keyBytes.length);
+        System.arraycopy(keyBytes, 0, bytes, CURSOR_PREFIX.length, keyBytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private String decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(cursor);
+        }
+        if (bytes.length < CURSOR_PREFIX.length || !Arrays.equals(CURSOR_PREFIX, Arrays.copyOf(bytes, CURSOR_PREFIX.length))) {
+            throw invalidCursor(cursor);
+        }
+        return new String(bytes, CURSOR_PREFIX.length, bytes.length - CURSOR_PREFIX.length, StandardCharsets.UTF_8);
+    }
+
+    private IllegalArgumentException invalidCursor(String cursor) {
+        return new IllegalArgumentException(String.format("The cursor '%s' is not one that '%s' gave out", cursor, coordinate));
+    }
+}
@@ -0,0 +1,146 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a data fetcher on an executor so that the field can be given up on after its timeout, and so that, when the
+ * field is hedged, the call can be made again if it is slow, with the first answer winning.  The calls still running
+ * when the field is answered are cancelled.
+ *
+ * The data fetcher runs on another thread, so it cannot rely on thread locals set by the thread executing the query.
+ * When the executor turns the call away the field fails, and when it turns a hedge away the calls already made are
+ * waited for.
+ */
+class DeadlineDataFetcher implements DataFetcher {
+
+    /*
+     * made the first time a field with a timeout or hedge is generated without an executor being given.  It has at
+     * most so many threads and no queue, so that slow data fetchers fail their fields rather than pile up threads.
+     */
+    static class DefaultExecutor {
+        static final int MAX_THREADS = 64;
+
+        static final Executor INSTANCE = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "schema-data-fetcher-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private final DataFetcher delegate;
+    private final Executor executor;
+    private final String coordinate;
+    private final long timeoutMillis;
+    private final long hedgeAfterNanos;
+    private final int maxCalls;
+
+    /**
+     * @param timeoutMillis   how long to wait for an answer or 0 to wait as long as it takes
+     * @param hedgeAfterNanos how long to wait before each further call or 0 to never hedge
+     * @param maxCalls        the most calls to make, counting the first
+     */
+    DeadlineDataFetcher(DataFetcher delegate, Executor executor, String coordinate, long timeoutMillis, long hedgeAfterNanos, int maxCalls) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.coordinate = coordinate;
+        this.timeoutMillis = timeoutMillis;
+        this.hedgeAfterNanos = hedgeAfterNanos;
+        this.maxCalls = hedgeAfterNanos > 0 ? maxCalls : 1;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long nextHedge = start + hedgeAfterNanos;
+
+        CompletionService<Object> calls = new ExecutorCompletionService<>(executor);
+        int maxCalls = this.maxCalls;
+        List<Future<Object>> started = new ArrayList<>(maxCalls);
+        try {
+            started.add(calls.submit(() -> delegate.get(environment)));
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException(String.format("The data fetcher of '%s' was not run as the executor turned it away", coordinate), e);
+        }
+        int running = 1;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                long waitUntil = Long.MAX_VALUE;
+                boolean waitForever = true;
+                if (timeoutMillis > 0) {
+                    waitUntil = deadline;
+                    waitForever = false;
+                }
+                if (started.size() < maxCalls && (waitForever || nextHedge - waitUntil < 0)) {
+                    waitUntil = nextHedge;
+                    waitForever = false;
+                }
+                Future<Object> answered = waitForever ? calls.take() : calls.poll(waitUntil - now, TimeUnit.NANOSECONDS);
+                if (answered != null) {
+                    running--;
+                    try {
+                        return answered.get();
+                    } catch (ExecutionException e) {
+                        // a hedge still running may yet answer
+                        if (running == 0) {
+                            throw rethrow(e.getCause());
+                        }
+                        continue;
+                    }
+                }
+                now = System.nanoTime();
+                if (timeoutMillis > 0 && now - deadline >= 0) {
+                    throw new FieldTimeoutException(coordinate, timeoutMillis);
+                }
+                if (started.size() < maxCalls && now - nextHedge >= 0) {
+                    try {
+                        started.add(calls.submit(() -> delegate.get(environment)));
+                        running++;
+                        nextHedge = now + hedgeAfterNanos;
+                    } catch (RejectedExecutionException e) {
+                        // a hedge is only worth making when there is a thread to spare
+                        maxCalls = started.size();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            for (Future<Object> call : started) {
+                call.cancel(true);
+            }
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RuntimeException(cause);
+    }
+}
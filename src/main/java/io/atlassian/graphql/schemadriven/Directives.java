@@ -0,0 +1,147 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.Argument;
+import graphql.language.ArrayValue;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValue;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.IntValue;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.StringValue;
+import graphql.language.TypeDefinition;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The directives that {@link SchemaGenerator} acts on and helpers for reading their arguments from the SDL
+ */
+class Directives {
+
+    static final String AUTH = "auth";
+    static final String AUTH_REQUIRES = "requires";
+
+    static final String RATE_LIMIT = "rateLimit";
+    static final String RATE_LIMIT_PER_SECOND = "perSecond";
+    static final String RATE_LIMIT_BURST = "burst";
+    static final String RATE_LIMIT_KEY = "key";
+    static final String RATE_LIMIT_KEY_CALLER = "caller";
+    static final String RATE_LIMIT_KEY_GLOBAL = "global";
+
+    static final String TIMEOUT = "timeout";
+    static final String TIMEOUT_MS = "ms";
+
+    static final String HEDGE = "hedge";
+    static final String HEDGE_AFTER_MS = "afterMs";
+    static final String HEDGE_MAX = "max";
+
+    static final String CONNECTION = "connection";
+    static final String CONNECTION_DEFAULT_FIRST = "defaultFirst";
+    static final String CONNECTION_MAX_FIRST = "maxFirst";
+    static final String CONNECTION_PREFETCH = "prefetch";
+
+    static final String STREAMED = "streamed";
+    static final String STREAMED_MAX_ITEMS = "maxItems";
+
+    /**
+     * @param typeDefinition a type definition
+     *
+     * @return its directives, which graphql-java does not offer on {@link TypeDefinition} itself
+     */
+    static List<Directive> of(TypeDefinition typeDefinition) {
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            return ((ObjectTypeDefinition) typeDefinition).getDirectives();
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            return ((InterfaceTypeDefinition) typeDefinition).getDirectives();
+        } else if (typeDefinition instanceof UnionTypeDefinition) {
+            return ((UnionTypeDefinition) typeDefinition).getDirectives();
+        } else if (typeDefinition instanceof EnumTypeDefinition) {
+            return ((EnumTypeDefinition) typeDefinition).getDirectives();
+        } else if (typeDefinition instanceof InputObjectTypeDefinition) {
+            return ((InputObjectTypeDefinition) typeDefinition).getDirectives();
+        } else if (typeDefinition instanceof ScalarTypeDefinition) {
+            return ((ScalarTypeDefinition) typeDefinition).getDirectives();
+        }
+        return Collections.emptyList();
+    }
+
+    static Directive find(List<Directive> directives, String name) {
+        for (Directive directive : directives) {
+            if (name.equals(directive.getName())) {
+                return directive;
+            }
+        }
+        return null;
+    }
+
+    static Value argument(Directive directive, String name) {
+        for (Argument argument : directive.getArguments()) {
+            if (name.equals(argument.getName())) {
+                return argument.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param value a list of enum values or strings, or a single one
+     *
+     * @return the names or null if the value is not of that shape
+     */
+    static List<String> names(Value value) {
+        if (value instanceof ArrayValue) {
+            List<String> names = new ArrayList<>();
+            for (Value element : ((ArrayValue) value).getValues()) {
+                String name = name(element);
+                if (name == null) {
+                    return null;
+                }
+                names.add(name);
+            }
+            return names;
+        }
+        String name = name(value);
+        return name == null ? null : Collections.singletonList(name);
+    }
+
+    /**
+     * @param value an enum value or a string
+     *
+     * @return the name or null if the value is neither
+     */
+    static String name(Value value) {
+        if (value instanceof EnumValue) {
+            return ((EnumValue) value).getName();
+        }
+        if (value instanceof StringValue) {
+            return ((StringValue) value).getValue();
+        }
+        return null;
+    }
+
+    /**
+     * @param value an int value
+     *
+     * @return the number or null if the value is not an int
+     */
+    static Long number(Value value) {
+        if (value instanceof IntValue) {
+            return ((IntValue) value).getValue().longValue();
+        }
+        return null;
+    }
+
+    static Boolean flag(Value value) {
+        if (value instanceof BooleanValue) {
+            return ((BooleanValue) value).isValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package io.atlassian.graphql.schemadriven;
+
+/**
+ * Thrown when the data fetcher of a field with a timeout directive does not finish in time.  graphql-java reports it
+ * as an error on the field and carries on with the rest of the query, so the result is partial rather than late.
+ */
+public class FieldTimeoutException extends RuntimeException {
+
+    private final String coordinate;
+    private final long timeoutMillis;
+
+    FieldTimeoutException(String coordinate, long timeoutMillis) {
+        super(String.format("The data fetcher of '%s' did not finish within %d ms", coordinate, timeoutMillis), null, false, false);
+        this.coordinate = coordinate;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public String getCoordinate() {
+        return coordinate;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
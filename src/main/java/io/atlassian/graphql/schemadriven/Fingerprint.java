@@ -0,0 +1,55 @@
+package io.atlassian.graphql.schemadriven;
+
+/**
+ * A 128 bit structural hash of a schema or of a single type within it.  Two fingerprints are equal when the
+ * structures they were computed from are equal, regardless of the order things were declared in.
+ *
+ * @see SchemaFingerprinter
+ */
+public final class Fingerprint {
+
+    private final long high;
+    private final long low;
+
+    public Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * @return the fingerprint as 32 lower case hex characters, suitable as a cache key
+     */
+    public String toHexString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Fingerprint that = (Fingerprint) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "Fingerprint{" + toHexString() + '}';
+    }
+}
@@ -0,0 +1,86 @@
+package io.atlassian.graphql.schemadriven;
+
+/**
+ * A small two lane hasher that produces {@link Fingerprint}s.  Values that are put in are order sensitive while
+ * values added via {@link #putUnordered(Fingerprint)} are combined commutatively, which is how sets of fields,
+ * arguments and so on are made order independent.
+ *
+ * This is not a cryptographic hash, it is meant for cache keys and change detection.
+ */
+class FingerprintHasher {
+
+    private static final long PRIME_1 = 0x100000001b3L;
+    private static final long PRIME_2 = 0x9e3779b97f4a7c15L;
+
+    private long lane1 = 0xcbf29ce484222325L;
+    private long lane2 = 0x84222325cbf29ce4L;
+
+    private long unorderedHigh;
+    private long unorderedLow;
+    private long unorderedCount;
+
+    FingerprintHasher putChar(char c) {
+        lane1 = (lane1 ^ c) * PRIME_1;
+        lane2 = Long.rotateLeft((lane2 ^ c) * PRIME_2, 31);
+        return this;
+    }
+
+    FingerprintHasher putLong(long value) {
+        lane1 = (lane1 ^ value) * PRIME_1;
+        lane2 = Long.rotateLeft((lane2 ^ value) * PRIME_2, 31);
+        return this;
+    }
+
+    FingerprintHasher putBoolean(boolean value) {
+        return putChar(value ? 'T' : 'F');
+    }
+
+    FingerprintHasher putString(String value) {
+        if (value == null) {
+            return putLong(-1);
+        }
+        int length = value.length();
+        putLong(length);
+        for (int i = 0; i < length; i++) {
+            putChar(value.charAt(i));
+        }
+        return this;
+    }
+
+    FingerprintHasher putFingerprint(Fingerprint fingerprint) {
+        putLong(fingerprint.getHigh());
+        return putLong(fingerprint.getLow());
+    }
+
+    FingerprintHasher putUnordered(Fingerprint fingerprint) {
+        unorderedHigh += fingerprint.getHigh();
+        unorderedLow += fingerprint.getLow();
+        unorderedCount++;
+        return this;
+    }
+
+    Fingerprint finish() {
+        long l1 = lane1;
+        long l2 = lane2;
+        if (unorderedCount > 0) {
+            l1 = (l1 ^ unorderedHigh) * PRIME_1;
+            l2 = Long.rotateLeft((l2 ^ unorderedLow) * PRIME_2, 31);
+            l1 = (l1 ^ unorderedCount) * PRIME_1;
+        }
+        long high = fmix64(l1 ^ Long.rotateLeft(l2, 17));
+        long low = fmix64(l2 + high);
+        return new Fingerprint(high, low);
+    }
+
+    /*
+     * the murmur3 64 bit finalisation mix
+     */
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
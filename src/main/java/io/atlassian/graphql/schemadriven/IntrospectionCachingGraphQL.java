@@ -0,0 +1,49 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQL;
+import graphql.execution.ExecutionStrategy;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A {@link GraphQL} that answers the standard introspection query from the schema's {@link IntrospectionResult}
+ * and executes every other query as normal.
+ */
+public class IntrospectionCachingGraphQL extends GraphQL {
+
+    private final GraphQLSchema schema;
+
+    public IntrospectionCachingGraphQL(GraphQLSchema schema) {
+        super(schema);
+        this.schema = schema;
+    }
+
+    public IntrospectionCachingGraphQL(GraphQLSchema schema, ExecutionStrategy queryStrategy) {
+        super(schema, queryStrategy);
+        this.schema = schema;
+    }
+
+    public IntrospectionCachingGraphQL(GraphQLSchema schema, ExecutionStrategy queryStrategy, ExecutionStrategy mutationStrategy) {
+        super(schema, queryStrategy, mutationStrategy);
+        this.schema = schema;
+    }
+
+    /**
+     * @return the cached introspection result of the schema
+     */
+    public IntrospectionResult getIntrospectionResult() {
+        return IntrospectionResult.forSchema(schema);
+    }
+
+    @Override
+    public ExecutionResult execute(String requestString, String operationName, Object context, Map<String, Object> arguments) {
+        if (IntrospectionResult.isIntrospectionQuery(requestString) && (operationName == null || "IntrospectionQuery".equals(operationName))) {
+            return new ExecutionResultImpl(getIntrospectionResult().getData(), Collections.emptyList());
+        }
+        return super.execute(requestString, operationName, context, arguments);
+    }
+}
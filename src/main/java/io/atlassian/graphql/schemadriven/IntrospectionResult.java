@@ -0,0 +1,130 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.introspection.IntrospectionQuery;
+import graphql.schema.GraphQLSchema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The result of the standard introspection query against a schema, computed once and kept both as a map and as
+ * pre-serialized JSON bytes of the form {"data":{...}}
+ *
+ * Since the result only changes when a new schema is generated, {@link IntrospectionCachingGraphQL} serves matching
+ * introspection queries from here without running any data fetchers.
+ */
+public class IntrospectionResult {
+
+    private static final String NORMALISED_INTROSPECTION_QUERY = normalise(IntrospectionQuery.INTROSPECTION_QUERY);
+
+    private static final Map<GraphQLSchema, IntrospectionResult> RESULTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, Object> data;
+    private final byte[] json;
+
+    private IntrospectionResult(Map<String, Object> data) {
+        this.data = data;
+        this.json = JsonWriter.toJson(Collections.singletonMap("data", data)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the introspection result of the schema, computing it the first time it is asked for.  The result is
+     * held for as long as the schema is reachable, and with it every description of the schema as text, however
+     * lazily the schema itself holds them.
+     *
+     * @param schema the schema in play
+     *
+     * @return the introspection result of the schema
+     */
+    public static IntrospectionResult forSchema(GraphQLSchema schema) {
+        IntrospectionResult result = RESULTS.get(schema);
+        if (result == null) {
+            // two threads may race to compute the same result which is harmless
+            result = compute(schema);
+            RESULTS.put(schema, result);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IntrospectionResult compute(GraphQLSchema schema) {
+        ExecutionResult executionResult = new GraphQL(schema).execute(IntrospectionQuery.INTROSPECTION_QUERY);
+        if (!executionResult.getErrors().isEmpty()) {
+            throw new IllegalStateException("The introspection query failed : " + executionResult.getErrors());
+        }
+        return new IntrospectionResult((Map<String, Object>) freeze(executionResult.getData()));
+    }
+
+    /**
+     * Returns true if the query is the standard introspection query, ignoring white space and commas which
+     * are not significant in graphql
+     *
+     * @param query the query text
+     *
+     * @return true if it is the introspection query
+     */
+    public static boolean isIntrospectionQuery(String query) {
+        return query != null && query.contains("__schema") && NORMALISED_INTROSPECTION_QUERY.equals(normalise(query));
+    }
+
+    /**
+     * @return the read only data of the introspection result
+     */
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    /**
+     * @return a read only view of the UTF-8 JSON of the introspection response
+     */
+    public ByteBuffer getJson() {
+        return ByteBuffer.wrap(json).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the UTF-8 JSON of the introspection response
+     *
+     * @param outputStream where to write the response
+     */
+    public void writeTo(OutputStream outputStream) {
+        try {
+            outputStream.write(json);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String normalise(String query) {
+        StringBuilder sb = new StringBuilder(query.length());
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!Character.isWhitespace(c) && c != ',') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(k, freeze(v)));
+            return Collections.unmodifiableMap(map);
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            ((List<?>) value).forEach(v -> list.add(freeze(v)));
+            return Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,120 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A minimal JSON writer for the maps, lists and scalar values that graphql execution results are made of.
+ */
+class JsonWriter {
+
+    static String toJson(Object value) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            write(sb, value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    static void write(Appendable out, Object value) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof CharSequence || value instanceof Character || value instanceof Enum) {
+            writeString(out, value.toString());
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof Number) {
+            writeNumber(out, (Number) value);
+        } else if (value instanceof Map) {
+            writeObject(out, (Map<?, ?>) value);
+        } else if (value instanceof Iterable) {
+            writeArray(out, (Iterable<?>) value);
+        } else if (value instanceof Object[]) {
+            writeArray(out, Arrays.asList((Object[]) value));
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    static void writeObject(Appendable out, Map<?, ?> map) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            writeString(out, String.valueOf(entry.getKey()));
+            out.append(':');
+            write(out, entry.getValue());
+        }
+        out.append('}');
+    }
+
+    static void writeArray(Appendable out, Iterable<?> values) throws IOException {
+        out.append('[');
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            write(out, value);
+        }
+        out.append(']');
+    }
+
+    static void writeNumber(Appendable out, Number number) throws IOException {
+        if (number instanceof Double || number instanceof Float) {
+            double d = number.doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                out.append("null");
+                return;
+            }
+        }
+        out.append(number.toString());
+    }
+
+    static void writeString(Appendable out, String s) throws IOException {
+        out.append('"');
+        int length = s.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            String escape = escape(c);
+            if (escape != null) {
+                out.append(s, start, i).append(escape);
+                start = i + 1;
+            }
+        }
+        out.append(s, start, length);
+        out.append('"');
+    }
+
+    static String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            case '\b':
+                return "\\b";
+            case '\f':
+                return "\\f";
+            default:
+                if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    return String.format("\\u%04x", (int) c);
+                }
+                return null;
+        }
+    }
+}
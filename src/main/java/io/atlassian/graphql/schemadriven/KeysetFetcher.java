@@ -0,0 +1,65 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.List;
+
+/**
+ * Fetches the pages of a list field that the SDL makes a connection, by the key of the last item of the page before
+ * rather than by an offset, so that a page is found through an index however deep into the list it is.
+ *
+ * <pre>
+ * type Query {
+ *     posts(author : String) : [Post] @connection(defaultFirst : 20, maxFirst : 100, prefetch : true)
+ * }
+ *
+ * wiring.forType("Query").dataFetcher("posts", new KeysetFetcher&lt;Post&gt;() {
+ *     public List&lt;Post&gt; fetchAfter(DataFetchingEnvironment environment, String afterKey, int limit) {
+ *         return afterKey == null
+ *                 ? posts.firstByAuthor(environment.getArgument("author"), limit)
+ *                 : posts.byAuthorWithIdAfter(environment.getArgument("author"), Long.parseLong(afterKey), limit);
+ *     }
+ *
+ *     public String keyOf(Post post) {
+ *         return String.valueOf(post.getId());
+ *     }
+ * });
+ * </pre>
+ *
+ * The field becomes a {@code PostConnection} with {@code first} and {@code after} arguments, and the cursors handed
+ * out are the keys encoded so that callers are not tempted to rely on them.  They are opaque only by convention and
+ * are neither signed nor encrypted, so a caller can decode one or make one up.
+ *
+ * @param <T> the items of the list
+ */
+public interface KeysetFetcher<T> extends DataFetcher {
+
+    /**
+     * @param environment the environment of the field, with the arguments of the field
+     * @param afterKey    the key of the item the page starts after or null for the first page.  It comes from the
+     *                    caller's cursor, so it must be treated as untrusted input, checked and bound as a query
+     *                    parameter like any other argument
+     * @param limit       the most items to return, which is one more than the page so that it is known whether
+     *                    there is a next page
+     *
+     * @return the items after the key in key order, of which there are fewer than the limit when the list has run out
+     */
+    List<T> fetchAfter(DataFetchingEnvironment environment, String afterKey, int limit);
+
+    /**
+     * @param item an item that was fetched
+     *
+     * @return the key of the item, which is what {@link #fetchAfter(DataFetchingEnvironment, String, int)} is given
+     * to fetch the items after it
+     */
+    String keyOf(T item);
+
+    /**
+     * When wired to a field that is not a connection the whole list is fetched
+     */
+    @Override
+    default Object get(DataFetchingEnvironment environment) {
+        return fetchAfter(environment, null, Integer.MAX_VALUE);
+    }
+}
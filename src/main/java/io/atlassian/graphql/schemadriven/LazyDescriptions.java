@@ -0,0 +1,171 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLEnumValueDefinition;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLInputType;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLUnionType;
+import graphql.schema.TypeResolver;
+
+import java.util.List;
+
+/**
+ * The schema elements that the {@link SchemaGenerator} makes when descriptions are lazy.  Each keeps its slot in
+ * the {@link SchemaDescriptions} rather than the text, which is only inflated when introspection, or anything else,
+ * calls getDescription().  Elements without a description are made as plain graphql-java elements.
+ *
+ * The classes are public because introspection reads the descriptions via a {@link graphql.schema.PropertyDataFetcher}.
+ */
+class LazyDescriptions {
+
+    public static class ObjectType extends GraphQLObjectType {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        ObjectType(String name, List<GraphQLFieldDefinition> fieldDefinitions, List<GraphQLInterfaceType> interfaces, SchemaDescriptions descriptions, int slot) {
+            super(name, null, fieldDefinitions, interfaces);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class InterfaceType extends GraphQLInterfaceType {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        InterfaceType(String name, List<GraphQLFieldDefinition> fieldDefinitions, TypeResolver typeResolver, SchemaDescriptions descriptions, int slot) {
+            super(name, null, fieldDefinitions, typeResolver);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class UnionType extends GraphQLUnionType {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        UnionType(String name, List<GraphQLObjectType> types, TypeResolver typeResolver, SchemaDescriptions descriptions, int slot) {
+            super(name, null, types, typeResolver);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class EnumType extends GraphQLEnumType {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        EnumType(String name, List<GraphQLEnumValueDefinition> values, SchemaDescriptions descriptions, int slot) {
+            super(name, null, values);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class EnumValue extends GraphQLEnumValueDefinition {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        EnumValue(String name, Object value, SchemaDescriptions descriptions, int slot) {
+            super(name, null, value);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class InputObjectType extends GraphQLInputObjectType {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        InputObjectType(String name, List<GraphQLInputObjectField> fields, SchemaDescriptions descriptions, int slot) {
+            super(name, null, fields);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class InputObjectField extends GraphQLInputObjectField {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        InputObjectField(String name, GraphQLInputType type, Object defaultValue, SchemaDescriptions descriptions, int slot) {
+            super(name, null, type, defaultValue);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class FieldDefinition extends GraphQLFieldDefinition {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        FieldDefinition(String name, GraphQLOutputType type, DataFetcher dataFetcher, List<GraphQLArgument> arguments, SchemaDescriptions descriptions, int slot) {
+            super(name, null, type, dataFetcher, arguments, null);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+
+    public static class Argument extends GraphQLArgument {
+        private final SchemaDescriptions descriptions;
+        private final int slot;
+
+        Argument(String name, GraphQLInputType type, Object defaultValue, SchemaDescriptions descriptions, int slot) {
+            super(name, null, type, defaultValue);
+            this.descriptions = descriptions;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions.getDescription(slot);
+        }
+    }
+}
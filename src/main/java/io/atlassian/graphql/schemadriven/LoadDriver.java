@@ -0,0 +1,242 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLUnionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This runs a mix of queries against a schema from a number of threads and reports the throughput and latency.
+ * Together with {@link SyntheticWiring} it load tests the execution of a schema end to end.
+ *
+ * <pre>
+ * LoadReport report = new LoadDriver(graphQL, LoadDriver.Options.defaultOptions().threads(8))
+ *         .run(Collections.singletonList(LoadDriver.defaultQuery(schema, 3)));
+ * log.info(report.report());
+ * </pre>
+ */
+public class LoadDriver {
+
+    public static class Options {
+        private final int threads;
+        private final int warmupIterations;
+        private final int iterations;
+
+        private Options(int threads, int warmupIterations, int iterations) {
+            this.threads = threads;
+            this.warmupIterations = warmupIterations;
+            this.iterations = iterations;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getWarmupIterations() {
+            return warmupIterations;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public static Options defaultOptions() {
+            return new Options(Runtime.getRuntime().availableProcessors(), 100, 1000);
+        }
+
+        public Options threads(int threads) {
+            return new Options(threads, this.warmupIterations, this.iterations);
+        }
+
+        /**
+         * @param warmupIterations the number of queries each thread runs, unmeasured, before the measured ones
+         *
+         * @return a new options object
+         */
+        public Options warmupIterations(int warmupIterations) {
+            return new Options(this.threads, warmupIterations, this.iterations);
+        }
+
+        /**
+         * @param iterations the number of measured queries each thread runs
+         *
+         * @return a new options object
+         */
+        public Options iterations(int iterations) {
+            return new Options(this.threads, this.warmupIterations, iterations);
+        }
+    }
+
+    private final GraphQL graphQL;
+    private final Options options;
+
+    public LoadDriver(GraphQL graphQL) {
+        this(graphQL, Options.defaultOptions());
+    }
+
+    public LoadDriver(GraphQL graphQL, Options options) {
+        this.graphQL = graphQL;
+        this.options = options;
+    }
+
+    /**
+     * Runs the queries round robin, each thread starting at a different query, until every thread has run its
+     * iterations
+     *
+     * @param queries the query mix
+     *
+     * @return the report of the measured iterations
+     */
+    public LoadReport run(List<String> queries) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one query to run");
+        }
+        int threads = Math.max(1, options.threads);
+        long[][] latencies = new long[threads][options.iterations];
+        AtomicLong errorCount = new AtomicLong();
+        CountDownLatch warmedUp = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < options.warmupIterations; i++) {
+                        execute(queries.get((thread + i) % queries.size()));
+                    }
+                    warmedUp.countDown();
+                    await(start);
+                    long[] threadLatencies = latencies[thread];
+                    for (int i = 0; i < options.iterations; i++) {
+                        long started = System.nanoTime();
+                        boolean failed = execute(queries.get((thread + i) % queries.size()));
+                        threadLatencies[i] = System.nanoTime() - started;
+                        if (failed) {
+                            errorCount.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            await(warmedUp);
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            return new LoadReport(threads, latencies, errorCount.get(), elapsedNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * a query fails if it throws or comes back with errors
+     */
+    private boolean execute(String query) {
+        try {
+            ExecutionResult result = graphQL.execute(query);
+            return result.getErrors() != null && !result.getErrors().isEmpty();
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Makes a query that selects every field of the query type, and of the types below it, down to the given depth.
+     * Fields with required arguments are left out as are object fields that would go deeper than the depth.
+     *
+     * @param schema the schema to query
+     * @param depth  how many levels of object fields to select
+     *
+     * @return the query
+     */
+    public static String defaultQuery(GraphQLSchema schema, int depth) {
+        StringBuilder sb = new StringBuilder();
+        appendSelection(sb, schema.getQueryType(), depth);
+        return sb.toString();
+    }
+
+    private static boolean appendSelection(StringBuilder sb, GraphQLType type, int depth) {
+        if (type instanceof GraphQLFieldsContainer) {
+            int mark = sb.length();
+            sb.append('{');
+            boolean selected = false;
+            for (GraphQLFieldDefinition fieldDef : ((GraphQLFieldsContainer) type).getFieldDefinitions()) {
+                if (fieldDef.getArguments().stream().anyMatch(argument -> argument.getType() instanceof GraphQLNonNull && argument.getDefaultValue() == null)) {
+                    continue;
+                }
+                int fieldMark = sb.length();
+                sb.append(' ').append(fieldDef.getName());
+                if (appendFieldSelection(sb, unwrap(fieldDef.getType()), depth)) {
+                    selected = true;
+                } else {
+                    sb.setLength(fieldMark);
+                }
+            }
+            if (!selected) {
+                sb.setLength(mark);
+                return false;
+            }
+            sb.append(" }");
+            return true;
+        }
+        // unions only have __typename in common
+        sb.append("{ __typename }");
+        return true;
+    }
+
+    static boolean appendFieldSelection(StringBuilder sb, GraphQLType fieldType, int depth) {
+        if (fieldType instanceof GraphQLScalarType || fieldType instanceof GraphQLEnumType) {
+            return true;
+        }
+        if (depth <= 1) {
+            return false;
+        }
+        if (fieldType instanceof GraphQLObjectType || fieldType instanceof GraphQLInterfaceType || fieldType instanceof GraphQLUnionType) {
+            sb.append(' ');
+            return appendSelection(sb, fieldType, depth - 1);
+        }
+        return false;
+    }
+
+    static GraphQLType unwrap(GraphQLType type) {
+        while (type instanceof GraphQLNonNull || type instanceof GraphQLList) {
+            type = type instanceof GraphQLNonNull ? ((GraphQLNonNull) type).getWrappedType() : ((GraphQLList) type).getWrappedType();
+        }
+        return type;
+    }
+}
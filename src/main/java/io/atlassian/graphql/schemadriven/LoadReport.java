@@ -0,0 +1,92 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput and latency of a {@link LoadDriver} run
+ */
+public class LoadReport {
+
+    private final int threads;
+    private final long[] sortedLatencies;
+    private final long errorCount;
+    private final long elapsedNanos;
+
+    LoadReport(int threads, long[][] latencies, long errorCount, long elapsedNanos) {
+        this.threads = threads;
+        this.sortedLatencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getRequestCount() {
+        return sortedLatencies.length;
+    }
+
+    /**
+     * @return the number of requests that threw or came back with errors
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the requests per second over all threads
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : sortedLatencies.length * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public long getMeanNanos() {
+        return sortedLatencies.length == 0 ? 0 : Arrays.stream(sortedLatencies).sum() / sortedLatencies.length;
+    }
+
+    public long getMaxNanos() {
+        return sortedLatencies.length == 0 ? 0 : sortedLatencies[sortedLatencies.length - 1];
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     *
+     * @return the latency, by the nearest rank, that the given percentage of requests took no longer than
+     */
+    public long getPercentileNanos(double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length);
+        return sortedLatencies[Math.min(sortedLatencies.length - 1, Math.max(0, rank - 1))];
+    }
+
+    /**
+     * @return a human readable report of the run
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d requests on %d threads in %.3f ms, %.1f requests/s, %d errors%n",
+                getRequestCount(), threads, millis(elapsedNanos), getThroughput(), errorCount));
+        sb.append(String.format("  %10s %10s %10s %10s %10s %10s%n", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        sb.append(String.format("  %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f ms%n",
+                millis(getMeanNanos()), millis(getPercentileNanos(50)), millis(getPercentileNanos(90)),
+                millis(getPercentileNanos(99)), millis(getPercentileNanos(99.9)), millis(getMaxNanos())));
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+}
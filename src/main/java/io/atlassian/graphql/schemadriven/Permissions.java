@@ -0,0 +1,220 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A set of roles held as a bitset, used to authorize the fields that the SDL guards with an auth directive
+ *
+ * <pre>
+ * type Salary @auth(requires : [HR]) {
+ *     amount : Int
+ * }
+ * type Person {
+ *     name : String
+ *     salary : Salary
+ *     homeAddress : String @auth(requires : [HR, ADMIN])
+ * }
+ * </pre>
+ *
+ * {@link SchemaGenerator} works out the roles each field requires when it makes the schema, being the roles on the
+ * field, on its type and on the type it returns, and on the interfaces and interface fields those implement, and guards the field's data fetcher with them.  The caller works
+ * out their permissions once per request and passes them as the execution context, or as part of it by implementing
+ * {@link Holder}.
+ *
+ * <pre>
+ * Permissions permissions = Permissions.of(user.getRoles());
+ * graphQL.execute(query, permissions);
+ * </pre>
+ *
+ * A field the caller is not permitted is null, and its data fetcher and everything beneath it are never run.
+ * Checking a field is one AND per 64 roles.
+ *
+ * Each role name is given its bit the first time a schema requires it, and keeps it for the life of the JVM.  The
+ * roles a caller holds that no schema has required yet are kept by name, so permissions worked out before a schema
+ * is reloaded stay good for the new schema, even when it requires a role that no schema did before, while the roles
+ * of callers never add bits of their own.
+ */
+public final class Permissions {
+
+    /**
+     * Implemented by an execution context that carries the caller's permissions along with other things
+     */
+    public interface Holder {
+        Permissions getPermissions();
+    }
+
+    public static final Permissions NONE = new Permissions(new long[0], Collections.emptySet());
+
+    private static final Map<String, Integer> roleBits = new ConcurrentHashMap<>();
+    // the role of each bit, by bit
+    private static final List<String> bitRoles = new CopyOnWriteArrayList<>();
+
+    private final long[] words;
+    // the roles held that had no bit when these permissions were worked out
+    private final Set<String> unassigned;
+
+    private Permissions(long[] words, Set<String> unassigned) {
+        this.words = words;
+        this.unassigned = unassigned;
+    }
+
+    /**
+     * @param roles the caller's roles
+     *
+     * @return the permissions of a caller with those roles, keeping the roles that have no bit yet by name
+     */
+    public static Permissions of(Collection<String> roles) {
+        long[] words = new long[0];
+        Set<String> unassigned = null;
+        for (String role : roles) {
+            Integer bit = roleBits.get(role);
+            if (bit != null) {
+                words = set(words, bit);
+            } else {
+                if (unassigned == null) {
+                    unassigned = new TreeSet<>();
+                }
+                unassigned.add(role);
+            }
+        }
+        if (unassigned == null) {
+            return words.length == 0 ? NONE : new Permissions(words, Collections.emptySet());
+        }
+        return new Permissions(words, Collections.unmodifiableSet(unassigned));
+    }
+
+    /**
+     * @param roles the roles a field requires
+     *
+     * @return the permissions that a caller must include, giving each role a bit if it has none yet
+     */
+    static Permissions required(Collection<String> roles) {
+        long[] words = new long[0];
+        for (String role : roles) {
+            words = set(words, bitOf(role));
+        }
+        return words.length == 0 ? NONE : new Permissions(words, Collections.emptySet());
+    }
+
+    private static int bitOf(String role) {
+        Integer bit = roleBits.get(role);
+        if (bit != null) {
+            return bit;
+        }
+        synchronized (roleBits) {
+            return roleBits.computeIfAbsent(role, r -> {
+                bitRoles.add(r);
+                return bitRoles.size() - 1;
+            });
+        }
+    }
+
+    private static long[] set(long[] words, int bit) {
+        int word = bit >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, word + 1);
+        }
+        words[word] |= 1L << bit;
+        return words;
+    }
+
+    /**
+     * @param required the permissions a field requires
+     *
+     * @return true if these permissions include all of the required ones
+     */
+    public boolean includes(Permissions required) {
+        long[] requiredWords = required.words;
+        for (int i = 0; i < requiredWords.length; i++) {
+            long held = i < words.length ? words[i] : 0L;
+            long missing = requiredWords[i] & ~held;
+            if (missing != 0 && !holdsUnassigned(i, missing)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * the bits missing from a word may be of roles that were given their bits after these permissions were worked out
+     */
+    private boolean holdsUnassigned(int word, long missing) {
+        if (unassigned.isEmpty()) {
+            return false;
+        }
+        while (missing != 0) {
+            int bit = (word << 6) + Long.numberOfTrailingZeros(missing);
+            if (!unassigned.contains(bitRoles.get(bit))) {
+                return false;
+            }
+            missing &= missing - 1;
+        }
+        return true;
+    }
+
+    /**
+     * @param other more permissions
+     *
+     * @return the permissions of both
+     */
+    Permissions union(Permissions other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        long[] union = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            union[i] |= other.words[i];
+        }
+        Set<String> unassignedUnion = unassigned;
+        if (!other.unassigned.isEmpty()) {
+            Set<String> roles = new TreeSet<>(unassigned);
+            roles.addAll(other.unassigned);
+            unassignedUnion = Collections.unmodifiableSet(roles);
+        }
+        return new Permissions(union, unassignedUnion);
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0 && unassigned.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Permissions && Arrays.equals(words, ((Permissions) o).words)
+                && unassigned.equals(((Permissions) o).unassigned));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(words) + unassigned.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Permissions{");
+        String sep = "";
+        for (Map.Entry<String, Integer> entry : roleBits.entrySet()) {
+            int bit = entry.getValue();
+            if (bit >>> 6 < words.length && (words[bit >>> 6] & (1L << bit)) != 0) {
+                sb.append(sep).append(entry.getKey());
+                sep = ", ";
+            }
+        }
+        for (String role : unassigned) {
+            sb.append(sep).append(role);
+            sep = ", ";
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,34 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Only runs a data fetcher while the field is within the rate limit that the SDL gives it
+ */
+class RateLimitDataFetcher implements DataFetcher {
+
+    private final DataFetcher delegate;
+    private final RateLimits.Limiter limiter;
+
+    RateLimitDataFetcher(DataFetcher delegate, RateLimits.Limiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        Object callerKey = limiter.isByCaller() ? callerKeyOf(environment.getContext()) : null;
+        if (!limiter.tryAcquire(callerKey)) {
+            throw limiter.exceeded();
+        }
+        return delegate.get(environment);
+    }
+
+    private static Object callerKeyOf(Object context) {
+        if (context instanceof RateLimits.Caller) {
+            return ((RateLimits.Caller) context).getCallerKey();
+        }
+        return context;
+    }
+}
@@ -0,0 +1,176 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The rate limits of the fields that the SDL limits with a rate limit directive, and how often each has let a call
+ * through or turned one away
+ *
+ * <pre>
+ * type Query {
+ *     search(text : String) : [Result] @rateLimit(perSecond : 20, burst : 40, key : "caller")
+ * }
+ * </pre>
+ *
+ * The limit is per caller when the key is "caller" and shared by all callers when it is "global", which is what it
+ * is when no key is given.  The type checker turns away any other key.  The caller is the execution context, or what
+ * it returns if it implements {@link Caller}.  A call over the limit fails straight away with a
+ * {@link LimitExceededException}, which graphql-java reports as an error on the field.
+ *
+ * Each limit is a token bucket kept as the one number, the time at which the bucket will next be full, which is
+ * taken with a compare and set, so a call never locks.  Callers are spread over a fixed number of buckets by the hash
+ * of their key, so the memory a limit takes does not grow with the number of callers, at the cost of callers whose
+ * keys collide sharing a bucket.
+ *
+ * Give the same instance to {@link SchemaGenerator.Options#rateLimits(RateLimits)} each time a schema is made to
+ * read the counters and to keep the state of the buckets across schema reloads.
+ */
+public class RateLimits {
+
+    /**
+     * Implemented by an execution context to say who the caller is
+     */
+    public interface Caller {
+        Object getCallerKey();
+    }
+
+    /**
+     * Thrown when a call is over the rate limit of its field.  It has no stack trace as it is expected and cheap.
+     */
+    public static class LimitExceededException extends RuntimeException {
+        LimitExceededException(String coordinate, long perSecond) {
+            super(String.format("The rate limit of %d calls per second of '%s' has been exceeded", perSecond, coordinate), null, false, false);
+        }
+    }
+
+    private static final int CALLER_STRIPES = 1024;
+    // buckets are this many longs apart so that two are never on the same cache line
+    private static final int PADDING = 8;
+    // a bucket is never more than this far from full so that its times can be compared without overflowing
+    private static final long MAX_BURST_NANOS = Long.MAX_VALUE / 2;
+
+    static class Limiter {
+        private final String coordinate;
+        private final long perSecond;
+        private final long burst;
+        private final boolean byCaller;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final int mask;
+        // the time at which each bucket will have all its tokens back
+        private final AtomicLongArray fullAt;
+        private final LongAdder permitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        Limiter(String coordinate, long perSecond, long burst, boolean byCaller) {
+            this.coordinate = coordinate;
+            this.perSecond = perSecond;
+            this.burst = burst;
+            this.byCaller = byCaller;
+            this.intervalNanos = intervalNanos(perSecond);
+            // the type checker keeps the burst to what fits
+            this.burstNanos = intervalNanos * burst;
+            int stripes = byCaller ? CALLER_STRIPES : 1;
+            this.mask = stripes - 1;
+            this.fullAt = new AtomicLongArray(stripes * PADDING);
+            long now = System.nanoTime();
+            for (int i = 0; i < stripes; i++) {
+                fullAt.set(i * PADDING, now);
+            }
+        }
+
+        boolean sameAs(long perSecond, long burst, boolean byCaller) {
+            return this.perSecond == perSecond && this.burst == burst && this.byCaller == byCaller;
+        }
+
+        boolean isByCaller() {
+            return byCaller;
+        }
+
+        /**
+         * Takes a token from the caller's bucket, which is the same as moving the time it is next full on by
+         * one interval, provided that does not put it more than the burst away
+         */
+        boolean tryAcquire(Object callerKey) {
+            int index = 0;
+            if (byCaller && callerKey != null) {
+                int h = callerKey.hashCode();
+                index = ((h ^ (h >>> 16)) & mask) * PADDING;
+            }
+            long now = System.nanoTime();
+            while (true) {
+                long full = fullAt.get(index);
+                long next = (full - now > 0 ? full : now) + intervalNanos;
+                if (next - now > burstNanos) {
+                    rejected.increment();
+                    return false;
+                }
+                if (fullAt.compareAndSet(index, full, next)) {
+                    permitted.increment();
+                    return true;
+                }
+            }
+        }
+
+        LimitExceededException exceeded() {
+            return new LimitExceededException(coordinate, perSecond);
+        }
+    }
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    private static long intervalNanos(long perSecond) {
+        return Math.max(1, 1_000_000_000L / perSecond);
+    }
+
+    /**
+     * @param perSecond the rate of a limit
+     *
+     * @return the biggest burst the limit can have at that rate
+     */
+    static long maxBurst(long perSecond) {
+        return MAX_BURST_NANOS / intervalNanos(perSecond);
+    }
+
+    /**
+     * @return the coordinates, such as 'Query.search', of the fields with a rate limit
+     */
+    public Set<String> getCoordinates() {
+        return Collections.unmodifiableSet(new TreeSet<>(limiters.keySet()));
+    }
+
+    /**
+     * @param coordinate the field
+     *
+     * @return the number of calls let through since the limit was made
+     */
+    public long getPermitted(String coordinate) {
+        Limiter limiter = limiters.get(coordinate);
+        return limiter == null ? 0 : limiter.permitted.sum();
+    }
+
+    /**
+     * @param coordinate the field
+     *
+     * @return the number of calls turned away since the limit was made
+     */
+    public long getRejected(String coordinate) {
+        Limiter limiter = limiters.get(coordinate);
+        return limiter == null ? 0 : limiter.rejected.sum();
+    }
+
+    /*
+     * the limiter of a field is kept while its limit stays the same, so a reloaded schema carries on where the
+     * previous one left off
+     */
+    Limiter limiter(String coordinate, long perSecond, long burst, boolean byCaller) {
+        return limiters.compute(coordinate, (c, limiter) ->
+                limiter != null && limiter.sameAs(perSecond, burst, byCaller) ? limiter : new Limiter(c, perSecond, burst, byCaller));
+    }
+}
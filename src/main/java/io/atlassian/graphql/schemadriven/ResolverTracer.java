@@ -0,0 +1,339 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.Field;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records how long each data fetcher of sampled requests takes, for finding out why the odd request is slow.
+ *
+ * <pre>
+ * ResolverTracer tracer = new ResolverTracer();
+ * GraphQLSchema schema = new SchemaGenerator(SchemaGenerator.Options.defaultOptions().tracer(tracer))
+ *         .makeExecutableSchema(typeRegistry, wiring).right().get();
+ * ...
+ * ResolverTracer.RequestTrace trace = tracer.startRequest();
+ * ExecutionResult result = graphQL.execute(query, trace);
+ * trace.finish();
+ * if (trace.getDurationNanos() &gt; slow) {
+ *     log.warn(tracer.toApolloTracingJson(trace));
+ * }
+ * </pre>
+ *
+ * The trace is passed as the execution context, or as part of it by implementing {@link Holder}.  Only one request
+ * in every so many is sampled, and the data fetchers of the others are run as they are.
+ *
+ * The events of all requests go into the one ring buffer, which is allocated up front and written without locks,
+ * so recording an event allocates nothing.  The oldest events are overwritten once the buffer is full, so a trace
+ * should be exported soon after its request.  graphql-java does not tell a data fetcher where in the response it
+ * is, so each event has the field and the key it is returned under rather than the full path.
+ */
+public class ResolverTracer {
+
+    public static class Options {
+        private final int capacity;
+        private final int sampleEvery;
+
+        private Options(int capacity, int sampleEvery) {
+            this.capacity = capacity;
+            this.sampleEvery = sampleEvery;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getSampleEvery() {
+            return sampleEvery;
+        }
+
+        public static Options defaultOptions() {
+            return new Options(1 << 16, 100);
+        }
+
+        /**
+         * @param capacity the number of events the buffer holds, which is rounded up to a power of two
+         *
+         * @return a new options object
+         */
+        public Options capacity(int capacity) {
+            return new Options(capacity, this.sampleEvery);
+        }
+
+        /**
+         * @param sampleEvery one request in how many to trace, where 1 traces them all
+         *
+         * @return a new options object
+         */
+        public Options sampleEvery(int sampleEvery) {
+            return new Options(this.capacity, sampleEvery);
+        }
+    }
+
+    /**
+     * Implemented by an execution context that carries the request trace along with other things
+     */
+    public interface Holder {
+        RequestTrace getRequestTrace();
+    }
+
+    /**
+     * The trace of one request
+     */
+    public static class RequestTrace {
+        private final long requestId;
+        private final boolean sampled;
+        private final long startMillis;
+        private final long startNanos;
+        private volatile long durationNanos = -1;
+
+        RequestTrace(long requestId, boolean sampled) {
+            this.requestId = requestId;
+            this.sampled = sampled;
+            this.startMillis = System.currentTimeMillis();
+            this.startNanos = System.nanoTime();
+        }
+
+        public long getRequestId() {
+            return requestId;
+        }
+
+        public boolean isSampled() {
+            return sampled;
+        }
+
+        /**
+         * Marks the end of the request
+         */
+        public void finish() {
+            if (durationNanos < 0) {
+                durationNanos = System.nanoTime() - startNanos;
+            }
+        }
+
+        /**
+         * @return how long the request took or -1 if it has not finished
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+
+    // the long values of each event, in this order
+    private static final int REQUEST_ID = 0;
+    private static final int FIELD_ID_AND_SIZE = 1;
+    private static final int START_OFFSET = 2;
+    private static final int DURATION = 3;
+    private static final int EVENT_LONGS = 4;
+
+    private static final int BINARY_MAGIC = 0x52545243; // RTRC
+    private static final int BINARY_VERSION = 1;
+
+    private final int sampleEvery;
+    private final int mask;
+    private final AtomicLong requestIds = new AtomicLong();
+    private final AtomicLong cursor = new AtomicLong();
+    // the sequence number of the event in each slot, or -1 while it is being written
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray events;
+    private final AtomicReferenceArray<Field> fields;
+
+    private final Map<String, Integer> fieldIds = new HashMap<>();
+    private volatile String[][] fieldCoordinates = new String[0][];
+
+    public ResolverTracer() {
+        this(Options.defaultOptions());
+    }
+
+    public ResolverTracer(Options options) {
+        int capacity = Integer.highestOneBit(Math.max(2, options.getCapacity()) - 1) << 1;
+        this.sampleEvery = Math.max(1, options.getSampleEvery());
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, -1);
+        }
+        this.events = new AtomicLongArray(capacity * EVENT_LONGS);
+        this.fields = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return the trace of a new request, which may or may not be sampled
+     */
+    public RequestTrace startRequest() {
+        long requestId = requestIds.getAndIncrement();
+        return new RequestTrace(requestId, requestId % sampleEvery == 0);
+    }
+
+    /**
+     * @return the number of events the buffer holds
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @param parentType the type the field is on
+     * @param fieldName  the field
+     * @param returnType the type the field returns
+     *
+     * @return the id the events of the field are recorded with, which is the same for every schema traced
+     */
+    synchronized int fieldId(String parentType, String fieldName, String returnType) {
+        String key = parentType + "." + fieldName + ":" + returnType;
+        Integer fieldId = fieldIds.get(key);
+        if (fieldId == null) {
+            fieldId = fieldIds.size();
+            fieldIds.put(key, fieldId);
+            String[][] coordinates = fieldCoordinates;
+            if (fieldId == coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, Math.max(16, fieldId * 2));
+            }
+            coordinates[fieldId] = new String[]{parentType, fieldName, returnType};
+            fieldCoordinates = coordinates;
+        }
+        return fieldId;
+    }
+
+    void record(RequestTrace trace, int fieldId, Field field, long startNanos, long endNanos, int resultSize) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        int base = slot * EVENT_LONGS;
+        sequences.set(slot, -1);
+        events.lazySet(base + REQUEST_ID, trace.requestId);
+        events.lazySet(base + FIELD_ID_AND_SIZE, ((long) fieldId << 32) | (resultSize & 0xFFFFFFFFL));
+        events.lazySet(base + START_OFFSET, startNanos - trace.startNanos);
+        events.lazySet(base + DURATION, endNanos - startNanos);
+        fields.lazySet(slot, field);
+        sequences.lazySet(slot, sequence);
+    }
+
+    /**
+     * A copy of an event read out of the buffer
+     */
+    private static class Event {
+        long requestId;
+        int fieldId;
+        int resultSize;
+        long startOffset;
+        long duration;
+        Field field;
+    }
+
+    /*
+     * the events still in the buffer, oldest first, skipping any that are overwritten while being read
+     */
+    private List<Event> events(long requestId) {
+        List<Event> read = new ArrayList<>();
+        long end = cursor.get();
+        long start = Math.max(0, end - (mask + 1));
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) (sequence & mask);
+            int base = slot * EVENT_LONGS;
+            if (sequences.get(slot) != sequence) {
+                continue;
+            }
+            Event event = new Event();
+            event.requestId = events.get(base + REQUEST_ID);
+            long fieldIdAndSize = events.get(base + FIELD_ID_AND_SIZE);
+            event.fieldId = (int) (fieldIdAndSize >>> 32);
+            event.resultSize = (int) fieldIdAndSize;
+            event.startOffset = events.get(base + START_OFFSET);
+            event.duration = events.get(base + DURATION);
+            event.field = fields.get(slot);
+            if (sequences.get(slot) != sequence) {
+                continue;
+            }
+            if (requestId < 0 || event.requestId == requestId) {
+                read.add(event);
+            }
+        }
+        return read;
+    }
+
+    /**
+     * @param trace a sampled request
+     *
+     * @return the events of the request that are still in the buffer in the
+     * <a href="https://github.com/apollographql/apollo-tracing">Apollo tracing</a> format
+     */
+    public String toApolloTracingJson(RequestTrace trace) {
+        String[][] coordinates = fieldCoordinates;
+        List<Object> resolvers = new ArrayList<>();
+        for (Event event : events(trace.requestId)) {
+            String[] coordinate = coordinates[event.fieldId];
+            Map<String, Object> resolver = new LinkedHashMap<>();
+            String responseKey = event.field == null ? coordinate[1]
+                    : event.field.getAlias() != null ? event.field.getAlias() : event.field.getName();
+            resolver.put("path", Collections.singletonList(responseKey));
+            resolver.put("parentType", coordinate[0]);
+            resolver.put("fieldName", coordinate[1]);
+            resolver.put("returnType", coordinate[2]);
+            resolver.put("startOffset", event.startOffset);
+            resolver.put("duration", event.duration);
+            resolver.put("resultSize", event.resultSize);
+            resolvers.add(resolver);
+        }
+        long durationNanos = trace.getDurationNanos() < 0 ? System.nanoTime() - trace.startNanos : trace.getDurationNanos();
+        Map<String, Object> tracing = new LinkedHashMap<>();
+        tracing.put("version", 1);
+        tracing.put("startTime", Instant.ofEpochMilli(trace.startMillis).toString());
+        tracing.put("endTime", Instant.ofEpochMilli(trace.startMillis + durationNanos / 1_000_000).toString());
+        tracing.put("duration", durationNanos);
+        Map<String, Object> execution = new LinkedHashMap<>();
+        execution.put("resolvers", resolvers);
+        tracing.put("execution", execution);
+        return JsonWriter.toJson(tracing);
+    }
+
+    /**
+     * Writes every event still in the buffer.  The dump starts with the magic number 'RTRC' and a version, then
+     * the count and (parent type, field, return type) of each field id, then the count and (request id, field id,
+     * start offset, duration, result size) of each event.
+     *
+     * @param out where to write the dump
+     */
+    public void writeBinary(OutputStream out) {
+        String[][] coordinates = fieldCoordinates;
+        List<Event> all = events(-1);
+        try {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(BINARY_MAGIC);
+            data.writeInt(BINARY_VERSION);
+            int fieldCount = 0;
+            while (fieldCount < coordinates.length && coordinates[fieldCount] != null) {
+                fieldCount++;
+            }
+            data.writeInt(fieldCount);
+            for (int fieldId = 0; fieldId < fieldCount; fieldId++) {
+                for (String part : coordinates[fieldId]) {
+                    data.writeUTF(part);
+                }
+            }
+            data.writeInt(all.size());
+            for (Event event : all) {
+                data.writeLong(event.requestId);
+                data.writeInt(event.fieldId);
+                data.writeLong(event.startOffset);
+                data.writeLong(event.duration);
+                data.writeInt(event.resultSize);
+            }
+            data.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
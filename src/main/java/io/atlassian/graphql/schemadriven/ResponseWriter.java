@@ -0,0 +1,417 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.SourceLocation;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This writes execution results for a schema as JSON straight to an {@link OutputStream}, of the form
+ * {"data":{...},"errors":[...]}.
+ *
+ * The writer derives a plan from the schema and the selection set of each operation it sees, holding the response
+ * keys as pre-escaped UTF-8 bytes and picking a writer per scalar type, so writing a result is a single pass over it
+ * with no intermediate strings.  Plans are cached per query, so a writer should be kept for as long as its schema.
+ * It is thread safe.
+ */
+public class ResponseWriter {
+
+    private static final int MAX_PLANS = 1024;
+
+    private static final byte[] DATA_KEY = bytes("{\"data\":");
+    private static final byte[] ERRORS_KEY = bytes("\"errors\":");
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+
+    interface ValueWriter {
+        void write(Utf8Output out, Object value) throws IOException;
+    }
+
+    private static final ValueWriter GENERIC = JsonWriter::write;
+
+    private static final ValueWriter INT = (out, value) -> {
+        if (value instanceof Integer) {
+            out.writeInt((Integer) value);
+        } else {
+            JsonWriter.write(out, value);
+        }
+    };
+
+    private static final ValueWriter BOOLEAN = (out, value) -> {
+        if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else {
+            JsonWriter.write(out, value);
+        }
+    };
+
+    private static final ValueWriter STRING = (out, value) -> out.writeString(value.toString());
+
+    private final GraphQLSchema schema;
+    private final ConcurrentMap<String, ObjectPlan> plans = new ConcurrentHashMap<>();
+
+    public ResponseWriter(GraphQLSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Writes the result of executing a query
+     *
+     * @param result       the execution result
+     * @param query        the query that was executed
+     * @param outputStream where to write the JSON
+     */
+    public void write(ExecutionResult result, String query, OutputStream outputStream) {
+        write(result, query, null, outputStream);
+    }
+
+    /**
+     * Writes the result of executing an operation of a query
+     *
+     * @param result        the execution result
+     * @param query         the query that was executed
+     * @param operationName the operation that was executed, which may be null if the query has only the one
+     * @param outputStream  where to write the JSON
+     */
+    public void write(ExecutionResult result, String query, String operationName, OutputStream outputStream) {
+        Utf8Output out = new Utf8Output(outputStream);
+        try {
+            Object data = result.getData();
+            List<GraphQLError> errors = result.getErrors();
+            if (data != null) {
+                out.write(DATA_KEY);
+                plan(query, operationName).write(out, data);
+            } else {
+                out.write((byte) '{');
+            }
+            if (errors != null && !errors.isEmpty()) {
+                if (data != null) {
+                    out.write((byte) ',');
+                }
+                out.write(ERRORS_KEY);
+                JsonWriter.write(out, errorsAsMaps(errors));
+            }
+            out.write((byte) '}');
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public byte[] toBytes(ExecutionResult result, String query, String operationName) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(result, query, operationName, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private ObjectPlan plan(String query, String operationName) {
+        String planKey = operationName == null ? query : operationName + '\u0000' + query;
+        ObjectPlan plan = plans.get(planKey);
+        if (plan == null) {
+            if (plans.size() >= MAX_PLANS) {
+                // a crude bound on the memory used by one off queries
+                plans.clear();
+            }
+            plan = new PlanBuilder(new Parser().parseDocument(query)).build(operationName);
+            plans.put(planKey, plan);
+        }
+        return plan;
+    }
+
+    /*
+     * the keys are chosen by the caller, as aliases say, so their bytes are kept with the plans, which are bounded,
+     * rather than in a cache of their own
+     */
+    private static byte[] keyBytes(String key) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            JsonWriter.writeString(sb, key);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bytes(sb.append(':').toString());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<Map<String, Object>> errorsAsMaps(List<GraphQLError> errors) {
+        List<Map<String, Object>> maps = new ArrayList<>(errors.size());
+        for (GraphQLError error : errors) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("message", error.getMessage());
+            List<SourceLocation> locations = error.getLocations();
+            if (locations != null && !locations.isEmpty()) {
+                List<Map<String, Object>> locationMaps = new ArrayList<>();
+                for (SourceLocation location : locations) {
+                    if (location != null) {
+                        Map<String, Object> locationMap = new LinkedHashMap<>();
+                        locationMap.put("line", location.getLine());
+                        locationMap.put("column", location.getColumn());
+                        locationMaps.add(locationMap);
+                    }
+                }
+                map.put("locations", locationMaps);
+            }
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    static class FieldPlan {
+        final String key;
+        final byte[] keyBytes;
+        ValueWriter writer;
+        // the plan of the innermost object type, for merging the selections of the same key
+        ObjectPlan objectPlan;
+
+        FieldPlan(String key, byte[] keyBytes) {
+            this.key = key;
+            this.keyBytes = keyBytes;
+        }
+    }
+
+    /**
+     * The fields selected on an object, interface or union type.  The fields of every fragment are merged so
+     * whatever the runtime type the fields of a result are all in the plan.
+     */
+    class ObjectPlan implements ValueWriter {
+        private final Map<String, FieldPlan> fieldsByKey = new HashMap<>();
+        private FieldPlan[] fields = new FieldPlan[0];
+
+        FieldPlan field(String key) {
+            FieldPlan field = fieldsByKey.get(key);
+            if (field == null) {
+                field = new FieldPlan(key, keyBytes(key));
+                fieldsByKey.put(key, field);
+                fields = Arrays.copyOf(fields, fields.length + 1);
+                fields[fields.length - 1] = field;
+            }
+            return field;
+        }
+
+        @Override
+        public void write(Utf8Output out, Object value) throws IOException {
+            if (!(value instanceof Map)) {
+                JsonWriter.write(out, value);
+                return;
+            }
+            out.write((byte) '{');
+            // results are in selection order so the next planned field is almost always the one we want
+            int next = 0;
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.write((byte) ',');
+                }
+                first = false;
+                String key = String.valueOf(entry.getKey());
+                FieldPlan field = next < fields.length && fields[next].key.equals(key) ? fields[next] : fieldsByKey.get(key);
+                Object fieldValue = entry.getValue();
+                if (field == null) {
+                    out.write(keyBytes(key));
+                    JsonWriter.write(out, fieldValue);
+                    continue;
+                }
+                next = indexOf(field, next) + 1;
+                out.write(field.keyBytes);
+                if (fieldValue == null) {
+                    out.write(NULL);
+                } else {
+                    field.writer.write(out, fieldValue);
+                }
+            }
+            out.write((byte) '}');
+        }
+
+        private int indexOf(FieldPlan field, int from) {
+            if (from < fields.length && fields[from] == field) {
+                return from;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] == field) {
+                    return i;
+                }
+            }
+            return from;
+        }
+    }
+
+    static class ListWriter implements ValueWriter {
+        private final ValueWriter elementWriter;
+
+        ListWriter(ValueWriter elementWriter) {
+            this.elementWriter = elementWriter;
+        }
+
+        @Override
+        public void write(Utf8Output out, Object value) throws IOException {
+            Iterable<?> values;
+            if (value instanceof Iterable) {
+                values = (Iterable<?>) value;
+            } else if (value instanceof Object[]) {
+                values = Arrays.asList((Object[]) value);
+            } else {
+                JsonWriter.write(out, value);
+                return;
+            }
+            out.write((byte) '[');
+            boolean first = true;
+            for (Object element : values) {
+                if (!first) {
+                    out.write((byte) ',');
+                }
+                first = false;
+                if (element == null) {
+                    out.write(NULL);
+                } else {
+                    elementWriter.write(out, element);
+                }
+            }
+            out.write((byte) ']');
+        }
+    }
+
+    /**
+     * Builds the plan of one operation.  The query has been validated by the time there is a result to write.
+     */
+    class PlanBuilder {
+        private final Document document;
+        private final Map<String, FragmentDefinition> fragments = new HashMap<>();
+        private final Set<String> fragmentPath = new HashSet<>();
+
+        PlanBuilder(Document document) {
+            this.document = document;
+            for (Definition definition : document.getDefinitions()) {
+                if (definition instanceof FragmentDefinition) {
+                    fragments.put(((FragmentDefinition) definition).getName(), (FragmentDefinition) definition);
+                }
+            }
+        }
+
+        ObjectPlan build(String operationName) {
+            ObjectPlan plan = new ObjectPlan();
+            for (Definition definition : document.getDefinitions()) {
+                if (definition instanceof OperationDefinition) {
+                    OperationDefinition operation = (OperationDefinition) definition;
+                    if (operationName == null || operationName.equals(operation.getName())) {
+                        GraphQLType rootType = operation.getOperation() == OperationDefinition.Operation.MUTATION ? schema.getMutationType() : schema.getQueryType();
+                        addSelections(plan, rootType, operation.getSelectionSet());
+                        break;
+                    }
+                }
+            }
+            return plan;
+        }
+
+        private void addSelections(ObjectPlan plan, GraphQLType parentType, SelectionSet selectionSet) {
+            if (selectionSet == null) {
+                return;
+            }
+            for (Selection selection : selectionSet.getSelections()) {
+                if (selection instanceof Field) {
+                    addField(plan, parentType, (Field) selection);
+                } else if (selection instanceof InlineFragment) {
+                    InlineFragment inlineFragment = (InlineFragment) selection;
+                    GraphQLType fragmentType = inlineFragment.getTypeCondition() == null ? parentType : schema.getType(inlineFragment.getTypeCondition().getName());
+                    addSelections(plan, fragmentType, inlineFragment.getSelectionSet());
+                } else if (selection instanceof FragmentSpread) {
+                    String name = ((FragmentSpread) selection).getName();
+                    FragmentDefinition fragment = fragments.get(name);
+                    if (fragment != null && fragmentPath.add(name)) {
+                        addSelections(plan, schema.getType(fragment.getTypeCondition().getName()), fragment.getSelectionSet());
+                        fragmentPath.remove(name);
+                    }
+                }
+            }
+        }
+
+        private void addField(ObjectPlan plan, GraphQLType parentType, Field field) {
+            String key = field.getAlias() != null ? field.getAlias() : field.getName();
+            FieldPlan fieldPlan = plan.field(key);
+            GraphQLFieldDefinition fieldDefinition = null;
+            if (parentType instanceof GraphQLFieldsContainer && !field.getName().startsWith("__")) {
+                fieldDefinition = ((GraphQLFieldsContainer) parentType).getFieldDefinition(field.getName());
+            }
+            if (fieldDefinition == null) {
+                // introspection fields and the like are written as they come
+                fieldPlan.writer = GENERIC;
+                return;
+            }
+            if (fieldPlan.writer == null) {
+                fieldPlan.writer = valueWriter(fieldPlan, fieldDefinition.getType());
+            }
+            if (fieldPlan.objectPlan != null) {
+                addSelections(fieldPlan.objectPlan, unwrap(fieldDefinition.getType()), field.getSelectionSet());
+            }
+        }
+
+        private ValueWriter valueWriter(FieldPlan fieldPlan, GraphQLType type) {
+            if (type instanceof GraphQLNonNull) {
+                return valueWriter(fieldPlan, ((GraphQLNonNull) type).getWrappedType());
+            }
+            if (type instanceof GraphQLList) {
+                return new ListWriter(valueWriter(fieldPlan, ((GraphQLList) type).getWrappedType()));
+            }
+            if (type instanceof GraphQLEnumType) {
+                return STRING;
+            }
+            if (type instanceof GraphQLScalarType) {
+                switch (type.getName()) {
+                    case "Int":
+                        return INT;
+                    case "Boolean":
+                        return BOOLEAN;
+                    case "String":
+                    case "ID":
+                        return STRING;
+                    default:
+                        return GENERIC;
+                }
+            }
+            fieldPlan.objectPlan = new ObjectPlan();
+            return fieldPlan.objectPlan;
+        }
+
+        private GraphQLType unwrap(GraphQLType type) {
+            while (type instanceof GraphQLNonNull || type instanceof GraphQLList) {
+                type = type instanceof GraphQLNonNull ? ((GraphQLNonNull) type).getWrappedType() : ((GraphQLList) type).getWrappedType();
+            }
+            return type;
+        }
+    }
+}
@@ -5,45 +5,138 @@ import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLScalarType;
 import graphql.schema.TypeResolver;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class RuntimeWiring {
 
-    private final Map<String, Map<String, DataFetcher>> dataFetchers = new LinkedHashMap<>();
-    private final Map<String, GraphQLScalarType> scalars = new LinkedHashMap<>();
-    private final Map<String, TypeResolver> typeResolvers = new LinkedHashMap<>();
+    private final Map<String, Map<String, DataFetcher>> dataFetchers;
+    private final Map<String, GraphQLScalarType> scalars;
+    private final Map<String, TypeResolver> typeResolvers;
+    private final Map<String, Map<String, BindingDataFetcher>> bindingDataFetchers;
+    private final Map<String, Class<?>> inputClasses;
+    private final Map<String, Class<?>> objectClasses;
+    // only present once frozen
+    private final WiringTable wiringTable;
 
     public RuntimeWiring() {
+        this.dataFetchers = new LinkedHashMap<>();
+        this.scalars = new LinkedHashMap<>();
+        this.typeResolvers = new LinkedHashMap<>();
+        this.bindingDataFetchers = new LinkedHashMap<>();
+        this.inputClasses = new LinkedHashMap<>();
+        this.objectClasses = new LinkedHashMap<>();
+        this.wiringTable = null;
         TypeInfo.STANDARD_SCALARS.forEach(this::scalar);
     }
 
+    private RuntimeWiring(RuntimeWiring wiring) {
+        Map<String, Map<String, DataFetcher>> dataFetchers = new LinkedHashMap<>();
+        wiring.dataFetchers.forEach((typeName, fieldFetchers) -> dataFetchers.put(typeName, Collections.unmodifiableMap(new LinkedHashMap<>(fieldFetchers))));
+        this.dataFetchers = Collections.unmodifiableMap(dataFetchers);
+        this.scalars = Collections.unmodifiableMap(new LinkedHashMap<>(wiring.scalars));
+        this.typeResolvers = Collections.unmodifiableMap(new LinkedHashMap<>(wiring.typeResolvers));
+        Map<String, Map<String, BindingDataFetcher>> bindingDataFetchers = new LinkedHashMap<>();
+        wiring.bindingDataFetchers.forEach((typeName, fieldFetchers) -> bindingDataFetchers.put(typeName, Collections.unmodifiableMap(new LinkedHashMap<>(fieldFetchers))));
+        this.bindingDataFetchers = Collections.unmodifiableMap(bindingDataFetchers);
+        this.inputClasses = Collections.unmodifiableMap(new LinkedHashMap<>(wiring.inputClasses));
+        this.objectClasses = Collections.unmodifiableMap(new LinkedHashMap<>(wiring.objectClasses));
+        this.wiringTable = new WiringTable(dataFetchers);
+    }
+
+    /**
+     * This returns an immutable copy of this wiring with its data fetchers flattened into a single lookup table
+     * keyed by type and field name.  A frozen wiring can be shared by many threads generating schemas at the same
+     * time and any attempt to change it will throw an {@link IllegalStateException}.
+     *
+     * {@link SchemaGenerator} freezes the wiring it is given, so freezing it up front saves doing that on every
+     * schema generated from it.
+     *
+     * @return a frozen copy of this wiring or this wiring if it is already frozen
+     */
+    public RuntimeWiring freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        return new RuntimeWiring(this);
+    }
+
+    public boolean isFrozen() {
+        return wiringTable != null;
+    }
+
+    private void assertNotFrozen() {
+        if (isFrozen()) {
+            throw new IllegalStateException("The runtime wiring has been frozen and can no longer be changed");
+        }
+    }
+
     /**
      * This allows you to add in new custom Scalar implementations beyond the standard set.
      *
      * @param scalarType the new scalar implementation
      */
     public RuntimeWiring scalar(GraphQLScalarType scalarType) {
+        assertNotFrozen();
         scalars.put(scalarType.getName(), scalarType);
         return this;
     }
 
     public Map<String, GraphQLScalarType> getScalars() {
+        if (isFrozen()) {
+            return scalars;
+        }
         return new LinkedHashMap<>(scalars);
     }
 
+    GraphQLScalarType getScalar(String scalarName) {
+        return scalars.get(scalarName);
+    }
+
     Map<String, Map<String, DataFetcher>> getDataFetchers() {
         return dataFetchers;
     }
 
     Map<String, DataFetcher> getDataFetcherForType(String typeName) {
-        return dataFetchers.computeIfAbsent(typeName, k -> new LinkedHashMap<>());
+        return dataFetchers.getOrDefault(typeName, Collections.emptyMap());
+    }
+
+    DataFetcher getDataFetcher(String typeName, String fieldName) {
+        if (isFrozen()) {
+            return wiringTable.get(typeName, fieldName);
+        }
+        return getDataFetcherForType(typeName).get(fieldName);
+    }
+
+    BindingDataFetcher getBindingDataFetcher(String typeName, String fieldName) {
+        return bindingDataFetchers.getOrDefault(typeName, Collections.emptyMap()).get(fieldName);
+    }
+
+    Map<String, Class<?>> getInputClasses() {
+        return inputClasses;
+    }
+
+    Class<?> getInputClass(String typeName) {
+        return inputClasses.get(typeName);
+    }
+
+    Map<String, Class<?>> getObjectClasses() {
+        return objectClasses;
+    }
+
+    Class<?> getObjectClass(String typeName) {
+        return objectClasses.get(typeName);
     }
 
     Map<String, TypeResolver> getTypeResolvers() {
         return typeResolvers;
     }
 
+    TypeResolver getTypeResolver(String typeName) {
+        return typeResolvers.get(typeName);
+    }
+
     public TypeWiring forType(String typeName) {
         return new TypeWiring(typeName);
     }
@@ -64,6 +157,7 @@ public class RuntimeWiring {
          * @return the current type wiring
          */
         public TypeWiring dataFetcher(String fieldName, DataFetcher dataFetcher) {
+            assertNotFrozen();
             Assert.assertNotNull(dataFetcher, "you must provide a data fetcher");
             Assert.assertNotNull(fieldName, "you must tel us what field");
             Map<String, DataFetcher> map = dataFetchers.computeIfAbsent(typeName, k -> new LinkedHashMap<>());
@@ -71,15 +165,69 @@ public class RuntimeWiring {
             return this;
         }
 
+        /**
+         * Adds a data fetcher for the current type to the specified field that is given the field arguments
+         * already bound to java objects, in the order they are declared in the schema.
+         *
+         * @param fieldName   the field that data fetcher should apply to
+         * @param dataFetcher the new data Fetcher
+         *
+         * @return the current type wiring
+         *
+         * @see #inputClass(Class)
+         */
+        public TypeWiring dataFetcher(String fieldName, BindingDataFetcher dataFetcher) {
+            assertNotFrozen();
+            Assert.assertNotNull(dataFetcher, "you must provide a data fetcher");
+            Assert.assertNotNull(fieldName, "you must tel us what field");
+            Map<String, BindingDataFetcher> map = bindingDataFetchers.computeIfAbsent(typeName, k -> new LinkedHashMap<>());
+            map.put(fieldName, dataFetcher);
+            return this;
+        }
+
+        /**
+         * Binds a java class to the current input object or enum type.  Input objects are bound to a class with a
+         * no argument constructor and a setter or field for each input field, while enums are bound to a java enum
+         * with a constant for each value.  Arguments of these types are then handed to a {@link BindingDataFetcher}
+         * as instances of the class rather than as maps and strings.
+         *
+         * @param inputClass the class that values of the type are bound to
+         *
+         * @return the current type wiring
+         */
+        public TypeWiring inputClass(Class<?> inputClass) {
+            assertNotFrozen();
+            Assert.assertNotNull(inputClass, "you must provide a class");
+            inputClasses.put(typeName, inputClass);
+            return this;
+        }
+
+        /**
+         * Binds a java class to the current object type.  An interface or union without a {@link TypeResolver} of
+         * its own is given one that resolves values by their class, as long as all of its object types are bound.
+         * Values whose class is a subclass or implementation of a bound class resolve to the bound type.
+         *
+         * @param objectClass the class of the values of the type
+         *
+         * @return the current type wiring
+         */
+        public TypeWiring objectClass(Class<?> objectClass) {
+            assertNotFrozen();
+            Assert.assertNotNull(objectClass, "you must provide a class");
+            objectClasses.put(typeName, objectClass);
+            return this;
+        }
+
         /**
          * Adds a {@link TypeResolver} to the current type.  This MUST be specified for Interface
-         * and Union types.
+         * and Union types unless their object types are bound to classes via {@link #objectClass(Class)}.
          *
          * @param typeResolver the type resolver in play
          *
          * @return the current type wiring
          */
         public TypeWiring typeResolver(TypeResolver typeResolver) {
+            assertNotFrozen();
             Assert.assertNotNull(typeResolver, "you must provide a type resolver");
             typeResolvers.put(typeName, typeResolver);
             return this;
@@ -0,0 +1,73 @@
+package io.atlassian.graphql.schemadriven;
+
+/**
+ * The measurements of one finished {@link SchemaBuildListener.Phase}.  Timings and allocations exclude those of
+ * any phases nested inside this one.
+ */
+public class SchemaBuildEvent {
+
+    private final SchemaBuildListener.Phase phase;
+    private final String subject;
+    private final long nanos;
+    private final long allocatedBytes;
+    private final int typeCount;
+    private final int fieldCount;
+    private final int errorCount;
+
+    SchemaBuildEvent(SchemaBuildListener.Phase phase, String subject, long nanos, long allocatedBytes, int typeCount, int fieldCount, int errorCount) {
+        this.phase = phase;
+        this.subject = subject;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.typeCount = typeCount;
+        this.fieldCount = fieldCount;
+        this.errorCount = errorCount;
+    }
+
+    public SchemaBuildListener.Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return what the phase worked on, such as a file or type name, or null
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the bytes allocated by the thread during the phase or -1 if the JVM cannot say
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaBuildEvent{" +
+                "phase=" + phase +
+                ", subject='" + subject + '\'' +
+                ", nanos=" + nanos +
+                ", allocatedBytes=" + allocatedBytes +
+                ", typeCount=" + typeCount +
+                ", fieldCount=" + fieldCount +
+                ", errorCount=" + errorCount +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package io.atlassian.graphql.schemadriven;
+
+/**
+ * A callback that {@link SchemaCompiler}, {@link TypeRegistry#merge(TypeRegistry, SchemaBuildListener)},
+ * {@link SchemaTypeChecker} and {@link SchemaGenerator} invoke at the start and end of each phase of building
+ * a schema.  It allows you to see where the time of building a schema goes in production.
+ *
+ * Phases may nest, for example generating a type will generate the types of its fields, however the timings
+ * and allocations of a {@link SchemaBuildEvent} exclude those of nested phases so that they can be summed.
+ *
+ * Callbacks happen on the thread doing the work and should be cheap.
+ *
+ * @see SchemaBuildReport
+ */
+public interface SchemaBuildListener {
+
+    enum Phase {
+        /**
+         * Reading schema text from a file, url or reader
+         */
+        READ,
+        /**
+         * Parsing schema text into definitions
+         */
+        PARSE,
+        /**
+         * Adding parsed definitions to a type registry
+         */
+        REGISTER,
+        /**
+         * Merging one type registry into another
+         */
+        MERGE,
+        /**
+         * Checking that a type registry can be made into a schema
+         */
+        CHECK,
+        /**
+         * Generating one graphql type, the subject is the type name
+         */
+        GENERATE_TYPE,
+        /**
+         * Putting the generated types together into a schema
+         */
+        ASSEMBLE
+    }
+
+    /**
+     * A listener that does nothing
+     */
+    SchemaBuildListener NOOP = new SchemaBuildListener() {
+    };
+
+    /**
+     * Called when a phase starts
+     *
+     * @param phase   the phase that is starting
+     * @param subject what the phase is working on, such as a file or type name, or null
+     */
+    default void phaseStarted(Phase phase, String subject) {
+    }
+
+    /**
+     * Called when a phase finishes
+     *
+     * @param event the measurements of the phase
+     */
+    default void phaseFinished(SchemaBuildEvent event) {
+    }
+}
@@ -0,0 +1,160 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SchemaBuildListener} that aggregates the phases of building a schema into a startup report, per phase
+ * and for the slowest subjects such as the slowest types to generate.
+ *
+ * <pre>
+ * SchemaBuildReport report = new SchemaBuildReport();
+ * ...
+ * log.info(report.report());
+ * </pre>
+ *
+ * A report may be shared by several threads.
+ */
+public class SchemaBuildReport implements SchemaBuildListener {
+
+    public static class PhaseTotals {
+        private int count;
+        private long nanos;
+        private long allocatedBytes;
+        private int typeCount;
+        private int fieldCount;
+        private int errorCount;
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the bytes allocated in the phase or -1 if the JVM cannot say
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public int getTypeCount() {
+            return typeCount;
+        }
+
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        private void add(SchemaBuildEvent event) {
+            count++;
+            nanos += event.getNanos();
+            allocatedBytes = event.getAllocatedBytes() < 0 || allocatedBytes < 0 ? -1 : allocatedBytes + event.getAllocatedBytes();
+            typeCount += event.getTypeCount();
+            fieldCount += event.getFieldCount();
+            errorCount += event.getErrorCount();
+        }
+
+        private PhaseTotals copy() {
+            PhaseTotals copy = new PhaseTotals();
+            copy.count = count;
+            copy.nanos = nanos;
+            copy.allocatedBytes = allocatedBytes;
+            copy.typeCount = typeCount;
+            copy.fieldCount = fieldCount;
+            copy.errorCount = errorCount;
+            return copy;
+        }
+    }
+
+    private static final Comparator<SchemaBuildEvent> SLOWEST_FIRST = Comparator.comparingLong(SchemaBuildEvent::getNanos).reversed();
+
+    private final int slowestCount;
+    private final Map<Phase, PhaseTotals> totals = new EnumMap<>(Phase.class);
+    private final List<SchemaBuildEvent> slowest = new ArrayList<>();
+
+    public SchemaBuildReport() {
+        this(10);
+    }
+
+    /**
+     * @param slowestCount how many of the slowest phase subjects to keep
+     */
+    public SchemaBuildReport(int slowestCount) {
+        this.slowestCount = slowestCount;
+    }
+
+    @Override
+    public synchronized void phaseFinished(SchemaBuildEvent event) {
+        totals.computeIfAbsent(event.getPhase(), k -> new PhaseTotals()).add(event);
+        if (event.getSubject() != null && slowestCount > 0) {
+            slowest.add(event);
+            slowest.sort(SLOWEST_FIRST);
+            if (slowest.size() > slowestCount) {
+                slowest.remove(slowest.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * @return the totals of each phase seen so far, in phase order
+     */
+    public synchronized Map<Phase, PhaseTotals> getTotals() {
+        Map<Phase, PhaseTotals> copy = new EnumMap<>(Phase.class);
+        totals.forEach((phase, phaseTotals) -> copy.put(phase, phaseTotals.copy()));
+        return copy;
+    }
+
+    /**
+     * @return the slowest phases that had a subject, slowest first
+     */
+    public synchronized List<SchemaBuildEvent> getSlowest() {
+        return new ArrayList<>(slowest);
+    }
+
+    public synchronized long getTotalNanos() {
+        return totals.values().stream().mapToLong(PhaseTotals::getNanos).sum();
+    }
+
+    public synchronized void reset() {
+        totals.clear();
+        slowest.clear();
+    }
+
+    /**
+     * @return a human readable report of where the schema build time went
+     */
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder();
+        long totalNanos = getTotalNanos();
+        sb.append(String.format("schema build took %.3f ms%n", millis(totalNanos)));
+        sb.append(String.format("  %-14s %6s %12s %6s %12s %8s %8s %7s%n", "phase", "count", "ms", "%", "allocated", "types", "fields", "errors"));
+        totals.forEach((phase, t) -> sb.append(String.format("  %-14s %6d %12.3f %5.1f%% %12s %8d %8d %7d%n",
+                phase, t.count, millis(t.nanos), totalNanos == 0 ? 0.0 : 100.0 * t.nanos / totalNanos,
+                t.allocatedBytes < 0 ? "n/a" : String.valueOf(t.allocatedBytes), t.typeCount, t.fieldCount, t.errorCount)));
+        if (!slowest.isEmpty()) {
+            sb.append(String.format("  slowest%n"));
+            slowest.forEach(event -> sb.append(String.format("    %-14s %12.3f ms  %s%n", event.getPhase(), millis(event.getNanos()), event.getSubject())));
+        }
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+}
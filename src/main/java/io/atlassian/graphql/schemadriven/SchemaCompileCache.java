@@ -0,0 +1,114 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * This holds the parsed definitions of schema files so that a {@link SchemaCompiler} only re-parses the files
+ * that have changed since they were last compiled.
+ *
+ * Entries are keyed by canonical path.  A file whose size and modification time are unchanged is not read at all,
+ * while a file that has been touched is read and its content hash compared before it is parsed again.
+ *
+ * A cache is thread safe and is meant to be shared, say in a static field, by every compiler that reads the same files.
+ * Only files that parse are cached.  The cached definitions are shared between the registries built from them and
+ * hence must not be changed.
+ */
+public class SchemaCompileCache {
+
+    static class Entry {
+        final long size;
+        final long lastModified;
+        final Fingerprint contentHash;
+        final SchemaCompiler.ParsedSource parsed;
+
+        Entry(long size, long lastModified, Fingerprint contentHash, SchemaCompiler.ParsedSource parsed) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+            this.parsed = parsed;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong parseCount = new AtomicLong();
+
+    /**
+     * Returns the definitions and descriptions of the file, parsing it only if it has changed since it was last cached
+     *
+     * @param file     the schema file
+     * @param reader   reads the content of the file
+     * @param parser   parses content into definitions, it may throw on bad syntax in which case nothing is cached
+     *
+     * @return the parsed file
+     */
+    SchemaCompiler.ParsedSource parsed(File file, Function<File, String> reader, Function<String, SchemaCompiler.ParsedSource> parser) {
+        String path = canonicalPath(file);
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        Entry entry = entries.get(path);
+        if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+            hitCount.incrementAndGet();
+            return entry.parsed;
+        }
+
+        String content = reader.apply(file);
+        Fingerprint contentHash = new FingerprintHasher().putString(content).finish();
+        if (entry != null && entry.contentHash.equals(contentHash)) {
+            // touched but not changed
+            hitCount.incrementAndGet();
+            entries.put(path, new Entry(size, lastModified, contentHash, entry.parsed));
+            return entry.parsed;
+        }
+
+        parseCount.incrementAndGet();
+        Entry newEntry = new Entry(size, lastModified, contentHash, parser.apply(content));
+        entries.put(path, newEntry);
+        return newEntry.parsed;
+    }
+
+    /**
+     * Removes a file from the cache
+     *
+     * @param file the schema file to forget
+     */
+    public void invalidate(File file) {
+        entries.remove(canonicalPath(file));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of times a file was served from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of times a file had to be parsed
+     */
+    public long getParseCount() {
+        return parseCount.get();
+    }
+
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -12,48 +12,154 @@ import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.apache.commons.io.IOUtils;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 public class SchemaCompiler {
 
-    public Either<List<GraphQLError>, TypeRegistry> compile(URL url) {
-        try {
-            return compile(IOUtils.toString(url.openStream(), Charset.defaultCharset()));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * The definitions parsed from some SDL along with the descriptions in its comments
+     */
+    static class ParsedSource {
+        final List<Definition> definitions;
+        final SchemaDescriptions descriptions;
+
+        ParsedSource(List<Definition> definitions, SchemaDescriptions descriptions) {
+            this.definitions = Collections.unmodifiableList(definitions);
+            this.descriptions = descriptions;
         }
     }
 
+    private final SchemaCompileCache cache;
+    private final SchemaBuildListener listener;
+
+    public SchemaCompiler() {
+        this(null);
+    }
+
+    /**
+     * Creates a compiler that takes the parsed definitions of files from the cache and only parses those files
+     * that have changed.  Schema text that is not read from a file is always parsed.
+     *
+     * @param cache the cache to use or null to parse every time
+     */
+    public SchemaCompiler(SchemaCompileCache cache) {
+        this(cache, SchemaBuildListener.NOOP);
+    }
+
+    /**
+     * Creates a compiler that tells the listener about the read, parse and register phases of each compile
+     *
+     * @param cache    the cache to use or null to parse every time
+     * @param listener the listener to call back
+     */
+    public SchemaCompiler(SchemaCompileCache cache, SchemaBuildListener listener) {
+        this.cache = cache;
+        this.listener = listener;
+    }
+
+    public Either<List<GraphQLError>, TypeRegistry> compile(URL url) {
+        BuildPhases phases = new BuildPhases(listener);
+        return compile(phases, read(phases, url.toString(), () -> {
+            try (InputStream inputStream = url.openStream()) {
+                return IOUtils.toString(inputStream, Charset.defaultCharset());
+            }
+        }));
+    }
+
     public Either<List<GraphQLError>, TypeRegistry> compile(File file) {
+        return compile(Collections.singletonList(file));
+    }
+
+    /**
+     * Compiles all the files into the one type registry, as if they were the one file
+     *
+     * @param files the schema files
+     *
+     * @return the errors or the type registry
+     */
+    public Either<List<GraphQLError>, TypeRegistry> compile(List<File> files) {
+        BuildPhases phases = new BuildPhases(listener);
         try {
-            return compile(new FileReader(file));
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+            List<Definition> definitions = new ArrayList<>();
+            SchemaDescriptions descriptions = SchemaDescriptions.EMPTY;
+            for (File file : files) {
+                ParsedSource parsed = parsed(phases, file);
+                definitions.addAll(parsed.definitions);
+                descriptions = descriptions.merge(parsed.descriptions);
+            }
+            return buildRegistry(phases, new ParsedSource(definitions, descriptions));
+        } catch (ParseCancellationException e) {
+            return handleParseException(e);
         }
     }
 
-    public Either<List<GraphQLError>, TypeRegistry> compile(Reader reader) {
+    private ParsedSource parsed(BuildPhases phases, File file) {
+        Function<File, String> reader = f -> read(phases, f.getPath(), () -> readFile(f));
+        Function<String, ParsedSource> parser = content -> parse(phases, file.getPath(), content);
+        if (cache == null) {
+            return parser.apply(reader.apply(file));
+        }
+        return cache.parsed(file, reader, parser);
+    }
+
+    private String readFile(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return IOUtils.toString(reader);
+        }
+    }
+
+    private interface SchemaSource {
+        String read() throws IOException;
+    }
+
+    private String read(BuildPhases phases, String subject, SchemaSource source) {
+        BuildPhases.Timer timer = phases.start(SchemaBuildListener.Phase.READ, subject);
         try {
-            return compile(IOUtils.toString(reader));
+            String content = source.read();
+            timer.finish(0, 0, 0);
+            return content;
         } catch (IOException e) {
+            timer.finish(0, 0, 1);
             throw new RuntimeException(e);
         }
     }
 
-    public Either<List<GraphQLError>, TypeRegistry> compile(String schemaInput) {
+    private ParsedSource parse(BuildPhases phases, String subject, String schemaInput) {
+        BuildPhases.Timer timer = phases.start(SchemaBuildListener.Phase.PARSE, subject);
         try {
             Parser parser = new Parser();
             Document document = parser.parseDocument(schemaInput);
+            List<Definition> definitions = document.getDefinitions();
+            SchemaDescriptions descriptions = SchemaDescriptions.fromSource(schemaInput, definitions);
+            timer.finish(BuildPhases.typeCount(definitions), BuildPhases.fieldCount(definitions), 0);
+            return new ParsedSource(definitions, descriptions);
+        } catch (ParseCancellationException e) {
+            timer.finish(0, 0, 1);
+            throw e;
+        }
+    }
+
+    public Either<List<GraphQLError>, TypeRegistry> compile(Reader reader) {
+        BuildPhases phases = new BuildPhases(listener);
+        return compile(phases, read(phases, null, () -> IOUtils.toString(reader)));
+    }
 
-            return buildRegistry(document);
+    public Either<List<GraphQLError>, TypeRegistry> compile(String schemaInput) {
+        return compile(new BuildPhases(listener), schemaInput);
+    }
+
+    private Either<List<GraphQLError>, TypeRegistry> compile(BuildPhases phases, String schemaInput) {
+        try {
+            return buildRegistry(phases, parse(phases, null, schemaInput));
         } catch (ParseCancellationException e) {
             return handleParseException(e);
         }
@@ -66,13 +172,16 @@ public class SchemaCompiler {
         return Either.left(Collections.singletonList(invalidSyntaxError));
     }
 
-    private Either<List<GraphQLError>, TypeRegistry> buildRegistry(Document document) {
+    private Either<List<GraphQLError>, TypeRegistry> buildRegistry(BuildPhases phases, ParsedSource parsed) {
+        BuildPhases.Timer timer = phases.start(SchemaBuildListener.Phase.REGISTER, null);
+        List<Definition> definitions = parsed.definitions;
         List<GraphQLError> errors = new ArrayList<>();
         TypeRegistry typeRegistry = new TypeRegistry();
-        List<Definition> definitions = document.getDefinitions();
         for (Definition definition : definitions) {
             typeRegistry.add(definition).forEach(errors::add);
         }
+        typeRegistry.addDescriptions(parsed.descriptions);
+        timer.finish(BuildPhases.typeCount(definitions), BuildPhases.fieldCount(definitions), errors.size());
         if (errors.size() > 0) {
             return Either.left(errors);
         } else {
@@ -3,6 +3,8 @@ package io.atlassian.graphql.schemadriven;
 import graphql.schema.GraphQLArgument;
 import graphql.schema.GraphQLEnumType;
 import graphql.schema.GraphQLEnumValueDefinition;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLInputObjectField;
 import graphql.schema.GraphQLInputObjectType;
 import graphql.schema.GraphQLInputType;
 import graphql.schema.GraphQLInterfaceType;
@@ -14,14 +16,17 @@ import graphql.schema.GraphQLSchema;
 import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLUnionType;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("Convert2Lambda")
 public class SchemaDecompiler {
@@ -29,10 +34,12 @@ public class SchemaDecompiler {
     public static class Options {
         private final boolean includeIntrospectionTypes;
         private final boolean includeScalars;
+        private final boolean parallelRendering;
 
-        private Options(boolean includeIntrospectionTypes, boolean includeScalars) {
+        private Options(boolean includeIntrospectionTypes, boolean includeScalars, boolean parallelRendering) {
             this.includeIntrospectionTypes = includeIntrospectionTypes;
             this.includeScalars = includeScalars;
+            this.parallelRendering = parallelRendering;
         }
 
         public boolean isIncludeIntrospectionTypes() {
@@ -43,17 +50,47 @@ public class SchemaDecompiler {
             return includeScalars;
         }
 
+        public boolean isParallelRendering() {
+            return parallelRendering;
+        }
+
         public static Options defaultOptions() {
-            return new Options(false, false);
+            return new Options(false, false, false);
         }
 
         public Options includeIntrospectionTypes(boolean flag) {
-            return new Options(flag, this.includeScalars);
+            return new Options(flag, this.includeScalars, this.parallelRendering);
         }
 
         public Options includeScalarTypes(boolean flag) {
-            return new Options(this.includeIntrospectionTypes, flag);
+            return new Options(this.includeIntrospectionTypes, flag, this.parallelRendering);
         }
+
+        /**
+         * When set, each type block is rendered on the common fork join pool and the blocks are
+         * then written out in the same deterministic order as the sequential output.
+         *
+         * @param flag whether to render type blocks in parallel
+         *
+         * @return a new options object
+         */
+        public Options parallelRendering(boolean flag) {
+            return new Options(this.includeIntrospectionTypes, this.includeScalars, flag);
+        }
+    }
+
+    /**
+     * The order in which the different kinds of types are printed
+     */
+    private static final List<Class<? extends GraphQLType>> PRINT_ORDER = new ArrayList<>();
+
+    static {
+        PRINT_ORDER.add(GraphQLInputObjectType.class);
+        PRINT_ORDER.add(GraphQLInterfaceType.class);
+        PRINT_ORDER.add(GraphQLUnionType.class);
+        PRINT_ORDER.add(GraphQLObjectType.class);
+        PRINT_ORDER.add(GraphQLEnumType.class);
+        PRINT_ORDER.add(GraphQLScalarType.class);
     }
 
     private final Options options;
@@ -67,7 +104,7 @@ public class SchemaDecompiler {
     }
 
     interface TypePrinter<T> {
-        void print(PrintWriter out, T type);
+        void print(Appendable out, T type) throws IOException;
     }
 
     Map<Class, TypePrinter<?>> printers = new LinkedHashMap<>();
@@ -91,12 +128,12 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLScalarType> scalarPrinter() {
         return new TypePrinter<GraphQLScalarType>() {
             @Override
-            public void print(PrintWriter out, GraphQLScalarType type) {
+            public void print(Appendable out, GraphQLScalarType type) throws IOException {
                 if (!options.isIncludeScalars()) {
                     return;
                 }
                 if (!TypeInfo.isStandardScalar(type)) {
-                    out.format("scalar %s\n\n", type.getName());
+                    out.append("scalar ").append(type.getName()).append("\n\n");
                 }
             }
         };
@@ -105,15 +142,15 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLEnumType> enumPrinter() {
         return new TypePrinter<GraphQLEnumType>() {
             @Override
-            public void print(PrintWriter out, GraphQLEnumType type) {
+            public void print(Appendable out, GraphQLEnumType type) throws IOException {
                 if (isIntrospectionType(type)) {
                     return;
                 }
-                out.format("enum %s {\n", type.getName());
+                out.append("enum ").append(type.getName()).append(" {\n");
                 for (GraphQLEnumValueDefinition enumValueDefinition : type.getValues()) {
-                    out.format("   %s\n", enumValueDefinition.getName());
+                    out.append("   ").append(enumValueDefinition.getName()).append('\n');
                 }
-                out.format("}\n\n");
+                out.append("}\n\n");
             }
         };
     }
@@ -121,15 +158,13 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLInterfaceType> interfacePrinter() {
         return new TypePrinter<GraphQLInterfaceType>() {
             @Override
-            public void print(PrintWriter out, GraphQLInterfaceType type) {
+            public void print(Appendable out, GraphQLInterfaceType type) throws IOException {
                 if (isIntrospectionType(type)) {
                     return;
                 }
-                out.format("interface %s {\n", type.getName());
-                type.getFieldDefinitions().forEach(fd ->
-                        out.format("   %s%s : %s\n",
-                                fd.getName(), argsString(fd.getArguments()), typeString(fd.getType())));
-                out.format("}\n\n");
+                out.append("interface ").append(type.getName()).append(" {\n");
+                printFields(out, type.getFieldDefinitions());
+                out.append("}\n\n");
             }
         };
     }
@@ -137,20 +172,20 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLUnionType> unionPrinter() {
         return new TypePrinter<GraphQLUnionType>() {
             @Override
-            public void print(PrintWriter out, GraphQLUnionType type) {
+            public void print(Appendable out, GraphQLUnionType type) throws IOException {
                 if (isIntrospectionType(type)) {
                     return;
                 }
-                out.format("union %s = ", type.getName());
+                out.append("union ").append(type.getName()).append(" = ");
                 List<GraphQLObjectType> types = type.getTypes();
                 for (int i = 0; i < types.size(); i++) {
                     GraphQLObjectType objectType = types.get(i);
                     if (i > 0) {
-                        out.format(" | ");
+                        out.append(" | ");
                     }
-                    out.format("%s", objectType.getName());
+                    out.append(objectType.getName());
                 }
-                out.format("}\n\n");
+                out.append("\n\n");
             }
         };
     }
@@ -158,15 +193,18 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLObjectType> objectPrinter() {
         return new TypePrinter<GraphQLObjectType>() {
             @Override
-            public void print(PrintWriter out, GraphQLObjectType type) {
+            public void print(Appendable out, GraphQLObjectType type) throws IOException {
                 if (isIntrospectionType(type)) {
                     return;
                 }
-                out.format("type %s {\n", type.getName());
-                type.getFieldDefinitions().forEach(fd ->
-                        out.format("   %s%s : %s\n",
-                                fd.getName(), argsString(fd.getArguments()), typeString(fd.getType())));
-                out.format("}\n\n");
+                out.append("type ").append(type.getName());
+                List<GraphQLInterfaceType> interfaces = type.getInterfaces();
+                for (int i = 0; i < interfaces.size(); i++) {
+                    out.append(i == 0 ? " implements " : ", ").append(interfaces.get(i).getName());
+                }
+                out.append(" {\n");
+                printFields(out, type.getFieldDefinitions());
+                out.append("}\n\n");
             }
         };
     }
@@ -175,15 +213,18 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLInputObjectType> inputObjectPrinter() {
         return new TypePrinter<GraphQLInputObjectType>() {
             @Override
-            public void print(PrintWriter out, GraphQLInputObjectType type) {
+            public void print(Appendable out, GraphQLInputObjectType type) throws IOException {
                 if (isIntrospectionType(type)) {
                     return;
                 }
-                out.format("input %s {\n", type.getName());
-                type.getFieldDefinitions().forEach(fd ->
-                        out.format("   %s : %s\n",
-                                fd.getName(), typeString(fd.getType())));
-                out.format("}\n\n");
+                out.append("input ").append(type.getName()).append(" {\n");
+                for (GraphQLInputObjectField fd : type.getFields()) {
+                    out.append("   ").append(fd.getName()).append(" : ");
+                    appendType(out, fd.getType());
+                    appendDefaultValue(out, fd.getDefaultValue(), fd.getType());
+                    out.append('\n');
+                }
+                out.append("}\n\n");
             }
         };
     }
@@ -192,23 +233,42 @@ public class SchemaDecompiler {
     private TypePrinter<GraphQLSchema> schemaPrinter() {
         return new TypePrinter<GraphQLSchema>() {
             @Override
-            public void print(PrintWriter out, GraphQLSchema type) {
-                out.format("schema {\n");
+            public void print(Appendable out, GraphQLSchema type) throws IOException {
+                out.append("schema {\n");
                 GraphQLObjectType queryType = type.getQueryType();
                 GraphQLObjectType mutationType = type.getMutationType();
                 if (queryType != null) {
-                    out.format("   query : %s\n", queryType.getName());
+                    out.append("   query : ").append(queryType.getName()).append('\n');
                 }
                 if (mutationType != null) {
-                    out.format("   mutation : %s\n", mutationType.getName());
+                    out.append("   mutation : ").append(mutationType.getName()).append('\n');
                 }
-                out.format("}\n\n");
+                out.append("}\n\n");
             }
         };
     }
 
+    private void printFields(Appendable out, List<GraphQLFieldDefinition> fieldDefinitions) throws IOException {
+        for (GraphQLFieldDefinition fd : fieldDefinitions) {
+            out.append("   ").append(fd.getName());
+            appendArgs(out, fd.getArguments());
+            out.append(" : ");
+            appendType(out, fd.getType());
+            out.append('\n');
+        }
+    }
+
     String typeString(GraphQLType rawType) {
         StringBuilder sb = new StringBuilder();
+        try {
+            appendType(sb, rawType);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    private void appendType(Appendable out, GraphQLType rawType) throws IOException {
         Stack<String> stack = new Stack<>();
 
         GraphQLType type = rawType;
@@ -218,52 +278,110 @@ public class SchemaDecompiler {
                 stack.push("!");
             } else if (type instanceof GraphQLList) {
                 type = ((GraphQLList) type).getWrappedType();
-                sb.append("[");
+                out.append("[");
                 stack.push("]");
             } else {
-                sb.append(type.getName());
+                out.append(type.getName());
                 break;
             }
         }
         while (!stack.isEmpty()) {
-            sb.append(stack.pop());
+            out.append(stack.pop());
         }
-        return sb.toString();
-
     }
 
     String argsString(List<GraphQLArgument> arguments) {
-        int count = 0;
         StringBuilder sb = new StringBuilder();
+        try {
+            appendArgs(sb, arguments);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    private void appendArgs(Appendable out, List<GraphQLArgument> arguments) throws IOException {
+        int count = 0;
         for (GraphQLArgument argument : arguments) {
             if (count == 0) {
-                sb.append("(");
+                out.append("(");
             } else {
-                sb.append(", ");
-            }
-            sb.append(argument.getName()).append(" : ").append(typeString(argument.getType()));
-            Object defaultValue = argument.getDefaultValue();
-            if (defaultValue != null) {
-                sb.append(" = ");
-                if (defaultValue instanceof Number) {
-                    sb.append(defaultValue);
-                } else {
-                    sb.append('"').append(defaultValue).append('"');
-                }
+                out.append(", ");
             }
+            out.append(argument.getName()).append(" : ");
+            appendType(out, argument.getType());
+            appendDefaultValue(out, argument.getDefaultValue(), argument.getType());
             count++;
         }
         if (count > 0) {
-            sb.append(")");
+            out.append(")");
+        }
+    }
+
+    private void appendDefaultValue(Appendable out, Object defaultValue, GraphQLInputType type) throws IOException {
+        if (defaultValue != null) {
+            out.append(" = ");
+            appendValue(out, defaultValue, type);
+        }
+    }
+
+    /*
+     * Default values are held as java objects so the type tells us how to print them, for example whether a
+     * string is an enum value or a string literal
+     */
+    private void appendValue(Appendable out, Object value, GraphQLType type) throws IOException {
+        if (type instanceof GraphQLNonNull) {
+            type = ((GraphQLNonNull) type).getWrappedType();
+        }
+        if (value instanceof Object[]) {
+            value = Arrays.asList((Object[]) value);
+        }
+        if (value == null) {
+            out.append("null");
+        } else if (type instanceof GraphQLList) {
+            GraphQLType elementType = ((GraphQLList) type).getWrappedType();
+            if (!(value instanceof Collection)) {
+                // a single value is accepted for a list
+                appendValue(out, value, elementType);
+                return;
+            }
+            out.append('[');
+            int count = 0;
+            for (Object element : (Collection<?>) value) {
+                if (count++ > 0) {
+                    out.append(", ");
+                }
+                appendValue(out, element, elementType);
+            }
+            out.append(']');
+        } else if (type instanceof GraphQLInputObjectType && value instanceof Map) {
+            GraphQLInputObjectType inputObjectType = (GraphQLInputObjectType) type;
+            out.append('{');
+            int count = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (count++ > 0) {
+                    out.append(", ");
+                }
+                String name = String.valueOf(entry.getKey());
+                GraphQLInputObjectField field = inputObjectType.getField(name);
+                out.append(name).append(" : ");
+                appendValue(out, entry.getValue(), field == null ? null : field.getType());
+            }
+            out.append('}');
+        } else if (value instanceof Number || value instanceof Boolean || type instanceof GraphQLEnumType) {
+            out.append(String.valueOf(value));
+        } else {
+            // graphql string literals escape the same way json strings do
+            JsonWriter.writeString(out, String.valueOf(value));
         }
-        return sb.toString();
     }
 
     @SuppressWarnings("unchecked")
     private <T> TypePrinter<T> printer(Class<?> clazz) {
-        TypePrinter typePrinter = printers.computeIfAbsent(clazz,
-                k -> (out, type) -> out.println("Type not implemented : " + type)
-        );
+        TypePrinter typePrinter = printers.get(clazz);
+        if (typePrinter == null) {
+            typePrinter = (out, type) -> out.append("Type not implemented : ").append(String.valueOf(type)).append('\n');
+        }
         return (TypePrinter<T>) typePrinter;
     }
 
@@ -275,45 +393,75 @@ public class SchemaDecompiler {
      * @return the logical schema definition
      */
     public String decompile(GraphQLSchema schema) {
-        StringWriter sw = new StringWriter();
-        PrintWriter out = new PrintWriter(sw);
-
-        printer(schema.getClass()).print(out, schema);
+        StringBuilder sb = new StringBuilder();
+        decompile(schema, sb);
+        return sb.toString();
+    }
 
-        List<GraphQLType> typesAsList = schema.getAllTypesAsList();
-        Collections.sort(typesAsList, new Comparator<GraphQLType>() {
-            @Override
-            public int compare(GraphQLType o1, GraphQLType o2) {
-                return o1.getName().compareTo(o2.getName());
+    /**
+     * This will decompile an in memory GraphQL schema straight to the {@link Appendable} given, for example a
+     * {@link java.io.Writer} over a file, without building the whole text in memory first.
+     *
+     * @param schema the schema in play
+     * @param out    where to write the logical schema definition
+     */
+    public void decompile(GraphQLSchema schema, Appendable out) {
+        try {
+            printType(out, schema);
+
+            Map<Class<?>, List<GraphQLType>> typesByKind = groupByKind(schema.getAllTypesAsList());
+            for (List<GraphQLType> types : typesByKind.values()) {
+                if (options.isParallelRendering()) {
+                    List<String> blocks = types.parallelStream()
+                            .map(this::decompile)
+                            .collect(Collectors.toList());
+                    for (String block : blocks) {
+                        out.append(block);
+                    }
+                } else {
+                    for (GraphQLType type : types) {
+                        printType(out, type);
+                    }
+                }
             }
-        });
-
-        printType(out, typesAsList, GraphQLInputType.class);
-        printType(out, typesAsList, GraphQLInterfaceType.class);
-        printType(out, typesAsList, GraphQLUnionType.class);
-        printType(out, typesAsList, GraphQLObjectType.class);
-        printType(out, typesAsList, GraphQLEnumType.class);
-        printType(out, typesAsList, GraphQLScalarType.class);
-
-        return sw.toString();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public String decompile(GraphQLType type) {
-        StringWriter sw = new StringWriter();
-        PrintWriter out = new PrintWriter(sw);
-
-        printType(out, type);
-
-        return sw.toString();
+        StringBuilder sb = new StringBuilder();
+        try {
+            printType(sb, type);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
     }
 
-    private void printType(PrintWriter out, List<GraphQLType> typesAsList, Class typeClazz) {
-        typesAsList.stream()
-                .filter(type -> type.getClass().equals(typeClazz))
-                .forEach(type -> printType(out, type));
+    /*
+     * Buckets the types by their kind in one pass, in print order and sorted by name within each kind
+     */
+    private Map<Class<?>, List<GraphQLType>> groupByKind(List<GraphQLType> allTypes) {
+        Map<Class<?>, List<GraphQLType>> typesByKind = new LinkedHashMap<>();
+        PRINT_ORDER.forEach(kind -> typesByKind.put(kind, new ArrayList<>()));
+        for (GraphQLType type : allTypes) {
+            List<GraphQLType> types = typesByKind.get(type.getClass());
+            if (types != null) {
+                types.add(type);
+            }
+        }
+        Comparator<GraphQLType> byName = new Comparator<GraphQLType>() {
+            @Override
+            public int compare(GraphQLType o1, GraphQLType o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        };
+        typesByKind.values().forEach(types -> Collections.sort(types, byName));
+        return typesByKind;
     }
 
-    private void printType(PrintWriter out, GraphQLType type) {
+    private void printType(Appendable out, Object type) throws IOException {
         TypePrinter<Object> printer = printer(type.getClass());
         printer.print(out, type);
     }
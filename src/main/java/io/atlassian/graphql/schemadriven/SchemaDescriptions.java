@@ -0,0 +1,297 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.Definition;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValueDefinition;
+import graphql.language.FieldDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.Node;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.SourceLocation;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeExtensionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The descriptions of the types, fields, arguments and enum values of a schema, taken from the comment lines just
+ * above each of them in the SDL.
+ *
+ * <pre>
+ * # A blog post
+ * type Post {
+ *     # The title, as the author typed it
+ *     title : String
+ * }
+ * </pre>
+ *
+ * Descriptions are addressed by schema coordinate, such as 'Post', 'Post.title', 'Post.comments(first:)' or
+ * 'Colour.RED'.  All the text is kept deflated in the one blob and is only inflated, and then softly held, when
+ * a description is asked for, which is usually only by introspection.  Descriptions are immutable.
+ */
+public class SchemaDescriptions {
+
+    public static final SchemaDescriptions EMPTY = new SchemaDescriptions(new LinkedHashMap<>(), "");
+
+    private final Map<String, Integer> slots;
+    // offset and length of each description in the inflated text, two ints per slot
+    private final int[] extents;
+    private final byte[] blob;
+    private final int textLength;
+    private volatile SoftReference<String> text;
+
+    private SchemaDescriptions(Map<String, int[]> extentsByCoordinate, String text) {
+        this.slots = new HashMap<>(extentsByCoordinate.size() * 2);
+        this.extents = new int[extentsByCoordinate.size() * 2];
+        int slot = 0;
+        for (Map.Entry<String, int[]> entry : extentsByCoordinate.entrySet()) {
+            slots.put(entry.getKey(), slot);
+            extents[slot * 2] = entry.getValue()[0];
+            extents[slot * 2 + 1] = entry.getValue()[1];
+            slot++;
+        }
+        this.blob = deflate(text);
+        this.textLength = text.length();
+        this.text = new SoftReference<>(null);
+    }
+
+    /**
+     * Reads the descriptions of the definitions from the comments in the source they were parsed from
+     *
+     * @param source      the SDL
+     * @param definitions the definitions parsed from the source
+     *
+     * @return the descriptions
+     */
+    public static SchemaDescriptions fromSource(String source, List<Definition> definitions) {
+        Collector collector = new Collector(source);
+        for (Definition definition : definitions) {
+            collector.collect(definition);
+        }
+        return collector.build();
+    }
+
+    /**
+     * @param coordinate the schema coordinate
+     *
+     * @return the description or null if there is none
+     */
+    public String getDescription(String coordinate) {
+        return getDescription(slot(coordinate));
+    }
+
+    /**
+     * @param coordinate the schema coordinate
+     *
+     * @return the slot of the description, with which it can be got later without holding on to the coordinate,
+     * or -1 if there is none
+     */
+    int slot(String coordinate) {
+        Integer slot = slots.get(coordinate);
+        return slot == null ? -1 : slot;
+    }
+
+    String getDescription(int slot) {
+        if (slot < 0) {
+            return null;
+        }
+        int offset = extents[slot * 2];
+        return text().substring(offset, offset + extents[slot * 2 + 1]);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return the number of bytes the description text takes up while it is not being read
+     */
+    public int getCompressedSize() {
+        return blob.length;
+    }
+
+    /**
+     * @param other more descriptions
+     *
+     * @return descriptions with all of these and the other's, where the other's win
+     */
+    public SchemaDescriptions merge(SchemaDescriptions other) {
+        if (other.size() == 0) {
+            return this;
+        }
+        if (this.size() == 0) {
+            return other;
+        }
+        Map<String, String> merged = new LinkedHashMap<>();
+        this.slots.forEach((coordinate, slot) -> merged.put(coordinate, this.getDescription(slot)));
+        other.slots.forEach((coordinate, slot) -> merged.put(coordinate, other.getDescription(slot)));
+        return of(merged);
+    }
+
+    /**
+     * @param other other descriptions
+     *
+     * @return true if the other descriptions have the same text for the same coordinates
+     */
+    boolean sameAs(SchemaDescriptions other) {
+        return this == other || (slots.equals(other.slots) && Arrays.equals(extents, other.extents) && Arrays.equals(blob, other.blob));
+    }
+
+    static SchemaDescriptions of(Map<String, String> descriptions) {
+        StringBuilder sb = new StringBuilder();
+        Map<String, int[]> extentsByCoordinate = new LinkedHashMap<>();
+        descriptions.forEach((coordinate, description) -> {
+            extentsByCoordinate.put(coordinate, new int[]{sb.length(), description.length()});
+            sb.append(description);
+        });
+        return new SchemaDescriptions(extentsByCoordinate, sb.toString());
+    }
+
+    private String text() {
+        String inflated = text.get();
+        if (inflated == null) {
+            inflated = inflate(blob, textLength);
+            text = new SoftReference<>(inflated);
+        }
+        return inflated;
+    }
+
+    private static byte[] deflate(String text) {
+        if (text.isEmpty()) {
+            return new byte[0];
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] blob, int textLength) {
+        if (blob.length == 0) {
+            return "";
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(blob);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(textLength);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                out.write(buffer, 0, inflater.inflate(buffer));
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new RuntimeException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Finds the comment lines above each definition.  Only comments directly above a node that starts its
+     * line count, so that a comment above a field is not also taken for the arguments on the same line.
+     */
+    private static class Collector {
+        private final String source;
+        private final List<Integer> lineStarts = new ArrayList<>();
+        private final Map<String, String> descriptions = new LinkedHashMap<>();
+
+        Collector(String source) {
+            this.source = source;
+            lineStarts.add(0);
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    lineStarts.add(i + 1);
+                }
+            }
+        }
+
+        void collect(Definition definition) {
+            if (definition instanceof ObjectTypeDefinition) {
+                // this includes type extensions, whose fields are described as if declared on the type itself
+                ObjectTypeDefinition typeDefinition = (ObjectTypeDefinition) definition;
+                if (!(typeDefinition instanceof TypeExtensionDefinition)) {
+                    describe(typeDefinition.getName(), typeDefinition);
+                }
+                collectFields(typeDefinition.getName(), typeDefinition.getFieldDefinitions());
+            } else if (definition instanceof InterfaceTypeDefinition) {
+                InterfaceTypeDefinition typeDefinition = (InterfaceTypeDefinition) definition;
+                describe(typeDefinition.getName(), typeDefinition);
+                collectFields(typeDefinition.getName(), typeDefinition.getFieldDefinitions());
+            } else if (definition instanceof InputObjectTypeDefinition) {
+                InputObjectTypeDefinition typeDefinition = (InputObjectTypeDefinition) definition;
+                describe(typeDefinition.getName(), typeDefinition);
+                typeDefinition.getInputValueDefinitions().forEach(inputValue ->
+                        describe(typeDefinition.getName() + "." + inputValue.getName(), inputValue));
+            } else if (definition instanceof EnumTypeDefinition) {
+                EnumTypeDefinition typeDefinition = (EnumTypeDefinition) definition;
+                describe(typeDefinition.getName(), typeDefinition);
+                for (EnumValueDefinition enumValue : typeDefinition.getEnumValueDefinitions()) {
+                    describe(typeDefinition.getName() + "." + enumValue.getName(), enumValue);
+                }
+            } else if (definition instanceof TypeDefinition) {
+                describe(((TypeDefinition) definition).getName(), definition);
+            }
+        }
+
+        private void collectFields(String typeName, List<FieldDefinition> fieldDefinitions) {
+            for (FieldDefinition fieldDef : fieldDefinitions) {
+                String fieldCoordinate = typeName + "." + fieldDef.getName();
+                describe(fieldCoordinate, fieldDef);
+                for (InputValueDefinition inputValue : fieldDef.getInputValueDefinitions()) {
+                    describe(fieldCoordinate + "(" + inputValue.getName() + ":)", inputValue);
+                }
+            }
+        }
+
+        private void describe(String coordinate, Node node) {
+            SourceLocation sourceLocation = node.getSourceLocation();
+            if (sourceLocation == null || sourceLocation.getLine() < 2 || sourceLocation.getLine() > lineStarts.size()) {
+                return;
+            }
+            int line = sourceLocation.getLine() - 1;
+            int lineStart = lineStarts.get(line);
+            int nodeStart = lineStart + sourceLocation.getColumn() - 1;
+            if (nodeStart > source.length() || !source.substring(lineStart, nodeStart).trim().isEmpty()) {
+                return;
+            }
+            List<String> commentLines = new ArrayList<>();
+            for (int above = line - 1; above >= 0; above--) {
+                String text = source.substring(lineStarts.get(above), lineStarts.get(above + 1)).trim();
+                if (!text.startsWith("#")) {
+                    break;
+                }
+                text = text.substring(1);
+                commentLines.add(0, text.startsWith(" ") ? text.substring(1) : text);
+            }
+            if (!commentLines.isEmpty()) {
+                descriptions.put(coordinate, String.join("\n", commentLines));
+            }
+        }
+
+        SchemaDescriptions build() {
+            return descriptions.isEmpty() ? EMPTY : of(descriptions);
+        }
+    }
+}
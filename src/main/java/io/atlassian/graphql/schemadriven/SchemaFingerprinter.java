@@ -0,0 +1,356 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.ArrayValue;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValue;
+import graphql.language.FieldDefinition;
+import graphql.language.FloatValue;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.IntValue;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.ObjectValue;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.StringValue;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeExtensionDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLEnumValueDefinition;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLUnionType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This computes stable structural {@link Fingerprint}s of a {@link TypeRegistry} or of a generated {@link GraphQLSchema}
+ * without decompiling them to text first.
+ *
+ * The fingerprints are order independent, that is re-ordering types, fields, arguments, enum values, union members or
+ * implemented interfaces does not change them, while any change to names, type wrapping or default values does.
+ *
+ * Fingerprints of a type registry and of a schema are computed from different representations and hence are only
+ * comparable with fingerprints of the same kind.
+ */
+public class SchemaFingerprinter {
+
+    /**
+     * Computes the fingerprint of the whole type registry
+     *
+     * @param typeRegistry the registry in play
+     *
+     * @return a fingerprint of the registry
+     */
+    public Fingerprint fingerprint(TypeRegistry typeRegistry) {
+        FingerprintHasher hasher = new FingerprintHasher().putChar('R');
+        typeFingerprints(typeRegistry).values().forEach(hasher::putUnordered);
+        typeRegistry.schemaDefinition().forEach(schemaDefinition -> hasher.putFingerprint(schemaFingerprint(schemaDefinition)));
+        return hasher.finish();
+    }
+
+    /**
+     * Computes the fingerprint of the whole generated schema.  Introspection types are not included.
+     *
+     * @param schema the schema in play
+     *
+     * @return a fingerprint of the schema
+     */
+    public Fingerprint fingerprint(GraphQLSchema schema) {
+        FingerprintHasher hasher = new FingerprintHasher().putChar('G');
+        typeFingerprints(schema).values().forEach(hasher::putUnordered);
+
+        hasher.putString(schema.getQueryType().getName());
+        hasher.putString(schema.getMutationType() == null ? null : schema.getMutationType().getName());
+        return hasher.finish();
+    }
+
+    /**
+     * Computes a fingerprint for each type in the registry.  Type extensions are folded into the fingerprint of the
+     * type they extend.
+     *
+     * @param typeRegistry the registry in play
+     *
+     * @return a map of type name to fingerprint
+     */
+    public Map<String, Fingerprint> typeFingerprints(TypeRegistry typeRegistry) {
+        Map<String, List<TypeExtensionDefinition>> typeExtensions = typeRegistry.typeExtensions();
+        Map<String, Fingerprint> fingerprints = new LinkedHashMap<>();
+
+        typeRegistry.scalars().values().forEach(scalar -> fingerprints.put(scalar.getName(), typeFingerprint(scalar, Collections.emptyList())));
+        typeRegistry.types().values().forEach(typeDefinition -> fingerprints.put(typeDefinition.getName(),
+                typeFingerprint(typeDefinition, typeExtensions.getOrDefault(typeDefinition.getName(), Collections.emptyList()))));
+
+        // extensions of types that are not (yet) defined are part of the structure too
+        typeExtensions.forEach((name, extensions) -> {
+            if (!fingerprints.containsKey(name)) {
+                fingerprints.put(name, typeFingerprint(new ObjectTypeDefinition(name), extensions));
+            }
+        });
+        return fingerprints;
+    }
+
+    /**
+     * Computes a fingerprint for each type in the schema.  Introspection types are not included.
+     *
+     * @param schema the schema in play
+     *
+     * @return a map of type name to fingerprint
+     */
+    public Map<String, Fingerprint> typeFingerprints(GraphQLSchema schema) {
+        Map<String, Fingerprint> fingerprints = new LinkedHashMap<>();
+        for (GraphQLType type : schema.getAllTypesAsList()) {
+            if (!type.getName().startsWith("__")) {
+                fingerprints.put(type.getName(), typeFingerprint(type));
+            }
+        }
+        return fingerprints;
+    }
+
+    private Fingerprint schemaFingerprint(SchemaDefinition schemaDefinition) {
+        FingerprintHasher hasher = new FingerprintHasher().putChar('s');
+        for (OperationTypeDefinition op : schemaDefinition.getOperationTypeDefinitions()) {
+            hasher.putUnordered(new FingerprintHasher().putString(op.getName()).putFingerprint(typeRef(op.getType())).finish());
+        }
+        putDirectives(hasher, schemaDefinition.getDirectives());
+        return hasher.finish();
+    }
+
+    private Fingerprint typeFingerprint(TypeDefinition typeDefinition, List<TypeExtensionDefinition> typeExtensions) {
+        FingerprintHasher hasher = new FingerprintHasher();
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            hasher.putChar('O').putString(typeDefinition.getName());
+            putObjectTypeParts(hasher, (ObjectTypeDefinition) typeDefinition);
+            typeExtensions.forEach(typeExtension -> putObjectTypeParts(hasher, typeExtension));
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            InterfaceTypeDefinition interfaceType = (InterfaceTypeDefinition) typeDefinition;
+            hasher.putChar('I').putString(interfaceType.getName());
+            interfaceType.getFieldDefinitions().forEach(fieldDef -> hasher.putUnordered(fieldFingerprint(fieldDef)));
+            putDirectives(hasher, interfaceType.getDirectives());
+        } else if (typeDefinition instanceof UnionTypeDefinition) {
+            UnionTypeDefinition unionType = (UnionTypeDefinition) typeDefinition;
+            hasher.putChar('U').putString(unionType.getName());
+            unionType.getMemberTypes().forEach(memberType -> hasher.putUnordered(typeRef(memberType)));
+            putDirectives(hasher, unionType.getDirectives());
+        } else if (typeDefinition instanceof EnumTypeDefinition) {
+            EnumTypeDefinition enumType = (EnumTypeDefinition) typeDefinition;
+            hasher.putChar('E').putString(enumType.getName());
+            enumType.getEnumValueDefinitions().forEach(enumValue -> {
+                FingerprintHasher valueHasher = new FingerprintHasher().putChar('v').putString(enumValue.getName());
+                putDirectives(valueHasher, enumValue.getDirectives());
+                hasher.putUnordered(valueHasher.finish());
+            });
+            putDirectives(hasher, enumType.getDirectives());
+        } else if (typeDefinition instanceof InputObjectTypeDefinition) {
+            InputObjectTypeDefinition inputType = (InputObjectTypeDefinition) typeDefinition;
+            hasher.putChar('N').putString(inputType.getName());
+            inputType.getInputValueDefinitions().forEach(inputValue -> hasher.putUnordered(inputValueFingerprint(inputValue)));
+            putDirectives(hasher, inputType.getDirectives());
+        } else if (typeDefinition instanceof ScalarTypeDefinition) {
+            ScalarTypeDefinition scalarType = (ScalarTypeDefinition) typeDefinition;
+            hasher.putChar('S').putString(scalarType.getName());
+            putDirectives(hasher, scalarType.getDirectives());
+        }
+        return hasher.finish();
+    }
+
+    private void putObjectTypeParts(FingerprintHasher hasher, ObjectTypeDefinition objectType) {
+        objectType.getImplements().forEach(implementsType -> hasher.putUnordered(
+                new FingerprintHasher().putChar('i').putFingerprint(typeRef(implementsType)).finish()));
+        objectType.getFieldDefinitions().forEach(fieldDef -> hasher.putUnordered(fieldFingerprint(fieldDef)));
+        putDirectives(hasher, objectType.getDirectives());
+    }
+
+    private Fingerprint fieldFingerprint(FieldDefinition fieldDef) {
+        FingerprintHasher hasher = new FingerprintHasher().putChar('f').putString(fieldDef.getName());
+        hasher.putFingerprint(typeRef(fieldDef.getType()));
+        fieldDef.getInputValueDefinitions().forEach(inputValue -> hasher.putUnordered(inputValueFingerprint(inputValue)));
+        putDirectives(hasher, fieldDef.getDirectives());
+        return hasher.finish();
+    }
+
+    private Fingerprint inputValueFingerprint(InputValueDefinition inputValue) {
+        FingerprintHasher hasher = new FingerprintHasher().putChar('a').putString(inputValue.getName());
+        hasher.putFingerprint(typeRef(inputValue.getType()));
+        putValue(hasher, inputValue.getDefaultValue());
+        putDirectives(hasher, inputValue.getDirectives());
+        return hasher.finish();
+    }
+
+    private void putDirectives(FingerprintHasher hasher, List<Directive> directives) {
+        for (Directive directive : directives) {
+            FingerprintHasher directiveHasher = new FingerprintHasher().putChar('@').putString(directive.getName());
+            directive.getArguments().forEach(argument -> {
+                FingerprintHasher argumentHasher = new FingerprintHasher().putString(argument.getName());
+                putValue(argumentHasher, argument.getValue());
+                directiveHasher.putUnordered(argumentHasher.finish());
+            });
+            hasher.putUnordered(directiveHasher.finish());
+        }
+    }
+
+    private Fingerprint typeRef(Type type) {
+        FingerprintHasher hasher = new FingerprintHasher();
+        while (!(type instanceof TypeName)) {
+            if (type instanceof NonNullType) {
+                hasher.putChar('!');
+                type = ((NonNullType) type).getType();
+            } else {
+                hasher.putChar('[');
+                type = ((ListType) type).getType();
+            }
+        }
+        return hasher.putString(((TypeName) type).getName()).finish();
+    }
+
+    private void putValue(FingerprintHasher hasher, Value value) {
+        if (value == null) {
+            hasher.putChar('n');
+        } else if (value instanceof IntValue) {
+            hasher.putChar('d').putString(((IntValue) value).getValue().toString());
+        } else if (value instanceof FloatValue) {
+            hasher.putChar('d').putString(((FloatValue) value).getValue().toString());
+        } else if (value instanceof StringValue) {
+            hasher.putChar('s').putString(((StringValue) value).getValue());
+        } else if (value instanceof BooleanValue) {
+            hasher.putChar('b').putBoolean(((BooleanValue) value).isValue());
+        } else if (value instanceof EnumValue) {
+            hasher.putChar('e').putString(((EnumValue) value).getName());
+        } else if (value instanceof VariableReference) {
+            hasher.putChar('v').putString(((VariableReference) value).getName());
+        } else if (value instanceof ArrayValue) {
+            List<Value> values = ((ArrayValue) value).getValues();
+            hasher.putChar('l').putLong(values.size());
+            values.forEach(element -> putValue(hasher, element));
+        } else if (value instanceof ObjectValue) {
+            hasher.putChar('m');
+            ((ObjectValue) value).getObjectFields().forEach(objectField -> {
+                FingerprintHasher fieldHasher = new FingerprintHasher().putString(objectField.getName());
+                putValue(fieldHasher, objectField.getValue());
+                hasher.putUnordered(fieldHasher.finish());
+            });
+        }
+    }
+
+    private Fingerprint typeFingerprint(GraphQLType type) {
+        FingerprintHasher hasher = new FingerprintHasher();
+        if (type instanceof GraphQLObjectType) {
+            GraphQLObjectType objectType = (GraphQLObjectType) type;
+            hasher.putChar('O').putString(objectType.getName());
+            objectType.getInterfaces().forEach(interfaceType -> hasher.putUnordered(
+                    new FingerprintHasher().putChar('i').putString(interfaceType.getName()).finish()));
+            objectType.getFieldDefinitions().forEach(fieldDef -> hasher.putUnordered(fieldFingerprint(fieldDef)));
+        } else if (type instanceof GraphQLInterfaceType) {
+            GraphQLInterfaceType interfaceType = (GraphQLInterfaceType) type;
+            hasher.putChar('I').putString(interfaceType.getName());
+            interfaceType.getFieldDefinitions().forEach(fieldDef -> hasher.putUnordered(fieldFingerprint(fieldDef)));
+        } else if (type instanceof GraphQLUnionType) {
+            GraphQLUnionType unionType = (GraphQLUnionType) type;
+            hasher.putChar('U').putString(unionType.getName());
+            unionType.getTypes().forEach(memberType -> hasher.putUnordered(typeRef(memberType)));
+        } else if (type instanceof GraphQLEnumType) {
+            GraphQLEnumType enumType = (GraphQLEnumType) type;
+            hasher.putChar('E').putString(enumType.getName());
+            for (GraphQLEnumValueDefinition enumValue : enumType.getValues()) {
+                hasher.putUnordered(new FingerprintHasher().putChar('v').putString(enumValue.getName()).finish());
+            }
+        } else if (type instanceof GraphQLInputObjectType) {
+            GraphQLInputObjectType inputType = (GraphQLInputObjectType) type;
+            hasher.putChar('N').putString(inputType.getName());
+            for (GraphQLInputObjectField inputField : inputType.getFields()) {
+                FingerprintHasher fieldHasher = new FingerprintHasher().putChar('a').putString(inputField.getName());
+                fieldHasher.putFingerprint(typeRef(inputField.getType()));
+                putValue(fieldHasher, inputField.getDefaultValue());
+                hasher.putUnordered(fieldHasher.finish());
+            }
+        } else if (type instanceof GraphQLScalarType) {
+            hasher.putChar('S').putString(type.getName());
+        } else {
+            hasher.putChar('?').putString(type.getName());
+        }
+        return hasher.finish();
+    }
+
+    private Fingerprint fieldFingerprint(GraphQLFieldDefinition fieldDef) {
+        FingerprintHasher hasher = new FingerprintHasher().putChar('f').putString(fieldDef.getName());
+        hasher.putFingerprint(typeRef(fieldDef.getType()));
+        for (GraphQLArgument argument : fieldDef.getArguments()) {
+            FingerprintHasher argumentHasher = new FingerprintHasher().putChar('a').putString(argument.getName());
+            argumentHasher.putFingerprint(typeRef(argument.getType()));
+            putValue(argumentHasher, argument.getDefaultValue());
+            hasher.putUnordered(argumentHasher.finish());
+        }
+        return hasher.finish();
+    }
+
+    private Fingerprint typeRef(GraphQLType type) {
+        FingerprintHasher hasher = new FingerprintHasher();
+        while (true) {
+            if (type instanceof GraphQLNonNull) {
+                hasher.putChar('!');
+                type = ((GraphQLNonNull) type).getWrappedType();
+            } else if (type instanceof GraphQLList) {
+                hasher.putChar('[');
+                type = ((GraphQLList) type).getWrappedType();
+            } else {
+                break;
+            }
+        }
+        return hasher.putString(type.getName()).finish();
+    }
+
+    private void putValue(FingerprintHasher hasher, Object value) {
+        if (value == null) {
+            hasher.putChar('n');
+        } else if (value instanceof Number) {
+            hasher.putChar('d').putString(value.toString());
+        } else if (value instanceof CharSequence) {
+            hasher.putChar('s').putString(value.toString());
+        } else if (value instanceof Boolean) {
+            hasher.putChar('b').putBoolean((Boolean) value);
+        } else if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            hasher.putChar('l').putLong(values.length);
+            for (Object element : values) {
+                putValue(hasher, element);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            hasher.putChar('l').putLong(values.size());
+            values.forEach(element -> putValue(hasher, element));
+        } else if (value instanceof Map) {
+            hasher.putChar('m');
+            ((Map<?, ?>) value).forEach((k, v) -> {
+                FingerprintHasher entryHasher = new FingerprintHasher().putString(String.valueOf(k));
+                putValue(entryHasher, v);
+                hasher.putUnordered(entryHasher.finish());
+            });
+        } else {
+            hasher.putChar('o').putString(value.toString());
+        }
+    }
+}
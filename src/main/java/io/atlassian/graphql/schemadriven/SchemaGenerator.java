@@ -3,6 +3,7 @@ package io.atlassian.graphql.schemadriven;
 import graphql.GraphQLError;
 import graphql.language.ArrayValue;
 import graphql.language.BooleanValue;
+import graphql.language.Directive;
 import graphql.language.EnumTypeDefinition;
 import graphql.language.EnumValue;
 import graphql.language.FieldDefinition;
@@ -11,6 +12,8 @@ import graphql.language.InputObjectTypeDefinition;
 import graphql.language.InputValueDefinition;
 import graphql.language.IntValue;
 import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
 import graphql.language.ObjectTypeDefinition;
 import graphql.language.ObjectValue;
 import graphql.language.OperationTypeDefinition;
@@ -19,52 +22,272 @@ import graphql.language.SchemaDefinition;
 import graphql.language.StringValue;
 import graphql.language.Type;
 import graphql.language.TypeDefinition;
+import graphql.language.TypeExtensionDefinition;
+import graphql.language.TypeName;
 import graphql.language.UnionTypeDefinition;
 import graphql.language.Value;
 import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLArgument;
 import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLEnumValueDefinition;
 import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
 import graphql.schema.GraphQLInputObjectField;
 import graphql.schema.GraphQLInputObjectType;
 import graphql.schema.GraphQLInputType;
 import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLOutputType;
 import graphql.schema.GraphQLScalarType;
 import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeReference;
 import graphql.schema.GraphQLUnionType;
 import graphql.schema.PropertyDataFetcher;
 import graphql.schema.TypeResolver;
 import graphql.schema.TypeResolverProxy;
 import io.atlassian.fugue.Either;
+import io.atlassian.graphql.schemadriven.errors.InputClassBindingError;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static graphql.Scalars.GraphQLBoolean;
+import static graphql.Scalars.GraphQLInt;
+import static graphql.Scalars.GraphQLString;
 
 public class SchemaGenerator {
 
-    private final SchemaTypeChecker typeChecker = new SchemaTypeChecker();
+    /**
+     * Object and input types deeper than this in the definition stack are put in as type references and built
+     * later, which bounds the recursion here and in graphql-java however long the chains of types are
+     */
+    static final int MAX_BUILD_DEPTH = 64;
+
+    /**
+     * How the descriptions read from the SDL comments get into the schema
+     */
+    public enum DescriptionMode {
+        /**
+         * the schema keeps a slot into the compressed {@link SchemaDescriptions} and the text is only inflated when asked for.
+         * The introspection result asks for every description and keeps them as text for as long as the schema is
+         * reachable, so once it is computed, by precomputing it, by warming up or by the first introspection query,
+         * the descriptions take as much memory as they do when eager.
+         */
+        LAZY,
+        /**
+         * the schema holds the description text
+         */
+        EAGER,
+        /**
+         * the schema has no descriptions at all
+         */
+        STRIP
+    }
+
+    public static class Options {
+        private final boolean precomputeIntrospection;
+        private final SchemaBuildListener buildListener;
+        private final DescriptionMode descriptionMode;
+        private final ResolverTracer tracer;
+        private final RateLimits rateLimits;
+        private final Executor fetcherExecutor;
+
+        private Options(boolean precomputeIntrospection, SchemaBuildListener buildListener, DescriptionMode descriptionMode, ResolverTracer tracer, RateLimits rateLimits, Executor fetcherExecutor) {
+            this.precomputeIntrospection = precomputeIntrospection;
+            this.buildListener = buildListener;
+            this.descriptionMode = descriptionMode;
+            this.tracer = tracer;
+            this.rateLimits = rateLimits;
+            this.fetcherExecutor = fetcherExecutor;
+        }
+
+        public boolean isPrecomputeIntrospection() {
+            return precomputeIntrospection;
+        }
+
+        public SchemaBuildListener getBuildListener() {
+            return buildListener;
+        }
+
+        public DescriptionMode getDescriptionMode() {
+            return descriptionMode;
+        }
+
+        public ResolverTracer getTracer() {
+            return tracer;
+        }
+
+        public RateLimits getRateLimits() {
+            return rateLimits;
+        }
+
+        public Executor getFetcherExecutor() {
+            return fetcherExecutor;
+        }
+
+        public static Options defaultOptions() {
+            return new Options(false, SchemaBuildListener.NOOP, DescriptionMode.LAZY, null, null, null);
+        }
+
+        /**
+         * When set, the introspection result of the schema is computed as part of generating it rather than
+         * the first time it is asked for.  The result holds every description of the schema as text, so this trades
+         * the memory that {@link DescriptionMode#LAZY} saves for a fast first introspection query.
+         *
+         * @param flag whether to compute the introspection result up front
+         *
+         * @return a new options object
+         *
+         * @see IntrospectionResult#forSchema(GraphQLSchema)
+         */
+        public Options precomputeIntrospection(boolean flag) {
+            return new Options(flag, this.buildListener, this.descriptionMode, this.tracer, this.rateLimits, this.fetcherExecutor);
+        }
+
+        /**
+         * The listener is told about the check phase, the generation of each type and the assembly of the schema
+         *
+         * @param buildListener the listener to call back
+         *
+         * @return a new options object
+         */
+        public Options buildListener(SchemaBuildListener buildListener) {
+            return new Options(this.precomputeIntrospection, buildListener, this.descriptionMode, this.tracer, this.rateLimits, this.fetcherExecutor);
+        }
+
+        /**
+         * Descriptions are lazy by default.  Deployments that never serve introspection to people can strip them.
+         *
+         * @param descriptionMode how descriptions get into the schema
+         *
+         * @return a new options object
+         */
+        public Options descriptionMode(DescriptionMode descriptionMode) {
+            return new Options(this.precomputeIntrospection, this.buildListener, descriptionMode, this.tracer, this.rateLimits, this.fetcherExecutor);
+        }
+
+        /**
+         * Tracing is off by default.  When on, the data fetcher of every field records how long it takes in
+         * the requests that the tracer samples.
+         *
+         * @param tracer the tracer to record into or null for none
+         *
+         * @return a new options object
+         */
+        public Options tracer(ResolverTracer tracer) {
+            return new Options(this.precomputeIntrospection, this.buildListener, this.descriptionMode, tracer, this.rateLimits, this.fetcherExecutor);
+        }
+
+        /**
+         * The fields with a rate limit directive are limited whether or not this is set, but setting it is how
+         * the counters are read and how the limits carry on from one schema to the next
+         *
+         * @param rateLimits the rate limits to keep the limits of the fields in
+         *
+         * @return a new options object
+         */
+        public Options rateLimits(RateLimits rateLimits) {
+            return new Options(this.precomputeIntrospection, this.buildListener, this.descriptionMode, this.tracer, rateLimits, this.fetcherExecutor);
+        }
+
+        /**
+         * The data fetchers of fields with a timeout or hedge directive, and the prefetches of connections, are run
+         * on this executor, or on a shared pool of at most 64 daemon threads if none is given.  A field fails when the
+         * executor turns its call away, while a hedge or a prefetch that is turned away is simply not made.
+         *
+         * @param fetcherExecutor the executor to run them on
+         *
+         * @return a new options object
+         */
+        public Options fetcherExecutor(Executor fetcherExecutor) {
+            return new Options(this.precomputeIntrospection, this.buildListener, this.descriptionMode, this.tracer, this.rateLimits, fetcherExecutor);
+        }
+    }
+
+    private final SchemaTypeChecker typeChecker;
+    private final Options options;
 
     public SchemaGenerator() {
+        this(Options.defaultOptions());
+    }
+
+    public SchemaGenerator(Options options) {
+        this.options = options;
+        this.typeChecker = new SchemaTypeChecker(options.getBuildListener());
     }
 
     public Either<List<GraphQLError>, GraphQLSchema> makeExecutableSchema(TypeRegistry typeRegistry, RuntimeWiring wiring) {
+        // a frozen wiring is never changed underneath us and has a flat data fetcher lookup
+        wiring = wiring.freeze();
         List<GraphQLError> errors = typeChecker.checkTypeRegistry(typeRegistry, wiring);
         if (!errors.isEmpty()) {
             return Either.left(errors);
         }
-        BuildContext buildCtx = new BuildContext(typeRegistry, wiring);
+        BuildContext buildCtx = new BuildContext(typeRegistry, wiring, new BuildPhases(options.getBuildListener()));
+
+        return makeExecutableSchemaImpl(buildCtx);
+    }
 
+    /**
+     * Makes a schema that shares the named types with a previous schema rather than building them again.  This is
+     * only sound when the wiring is the same as the previous schema was made with and the named types, and every
+     * type they refer to, are unchanged, since a graphql type holds its field types directly.
+     *
+     * @param typeRegistry    the changed type registry
+     * @param wiring          the wiring the previous schema was made with
+     * @param previousSchema  the schema to take the unchanged types from
+     * @param reusedTypeNames the names of the types to take from the previous schema
+     *
+     * @return the errors or the new schema
+     *
+     * @see SchemaHolder
+     */
+    Either<List<GraphQLError>, GraphQLSchema> makeExecutableSchema(TypeRegistry typeRegistry, RuntimeWiring wiring, GraphQLSchema previousSchema, Set<String> reusedTypeNames) {
+        wiring = wiring.freeze();
+        List<GraphQLError> errors = typeChecker.checkTypeRegistry(typeRegistry, wiring);
+        if (!errors.isEmpty()) {
+            return Either.left(errors);
+        }
+        BuildContext buildCtx = new BuildContext(typeRegistry, wiring, new BuildPhases(options.getBuildListener()));
+        for (String typeName : reusedTypeNames) {
+            reuseType(buildCtx, previousSchema, typeName);
+            // the connection types of a type are only ever made from it so they can be reused along with it
+            reuseType(buildCtx, previousSchema, ConnectionDataFetcher.connectionTypeName(typeName));
+            reuseType(buildCtx, previousSchema, ConnectionDataFetcher.edgeTypeName(typeName));
+        }
+        reuseType(buildCtx, previousSchema, ConnectionDataFetcher.PAGE_INFO_TYPE);
         return makeExecutableSchemaImpl(buildCtx);
     }
 
+    private void reuseType(BuildContext buildCtx, GraphQLSchema previousSchema, String typeName) {
+        GraphQLType type = previousSchema.getType(typeName);
+        if (type instanceof GraphQLOutputType) {
+            buildCtx.put((GraphQLOutputType) type);
+        }
+        if (type instanceof GraphQLInputType) {
+            buildCtx.put((GraphQLInputType) type);
+        }
+    }
+
     /**
      * We pass this around so we know what we have defined in a stack like manner plus
      * it gives is helper
@@ -76,18 +299,76 @@ public class SchemaGenerator {
 
         private final Map<String, GraphQLOutputType> outputGTypes = new HashMap<>();
         private final Map<String, GraphQLInputType> inputGTypes = new HashMap<>();
-
-        BuildContext(TypeRegistry typeRegistry, RuntimeWiring wiring) {
+        private final Map<String, List<TypeExtensionDefinition>> typeExtensions;
+        private final BuildPhases phases;
+        private final Map<Type, TypeInfo> typeInfos = new IdentityHashMap<>();
+        private final TypeInfo.WrapperInterner wrappers = new TypeInfo.WrapperInterner();
+        private final Map<String, DataFetcher> propertyDataFetchers = new HashMap<>();
+        private final Deque<TypeName> deferredOutputTypes = new ArrayDeque<>();
+        private final Deque<TypeName> deferredInputTypes = new ArrayDeque<>();
+        private final Set<String> deferredNames = new HashSet<>();
+        private final Map<ArgumentBinder.BoundDataFetcher, GraphQLFieldDefinition> boundDataFetchers = new LinkedHashMap<>();
+        private final SchemaDescriptions descriptions;
+        private final List<ClassTypeResolver> classTypeResolvers = new ArrayList<>();
+        private Map<String, List<String>> possibleObjectTypes;
+        private final Map<String, Permissions> typePermissions = new HashMap<>();
+        private RateLimits rateLimits;
+
+        BuildContext(TypeRegistry typeRegistry, RuntimeWiring wiring, BuildPhases phases) {
             this.typeRegistry = typeRegistry;
             this.wiring = wiring;
+            this.typeExtensions = typeRegistry.typeExtensions();
+            this.phases = phases;
+            this.descriptions = options.getDescriptionMode() == DescriptionMode.STRIP ? SchemaDescriptions.EMPTY : typeRegistry.descriptions();
+        }
+
+        BuildPhases.Timer startPhase(SchemaBuildListener.Phase phase, String subject) {
+            return phases.start(phase, subject);
         }
 
         TypeDefinition getTypeDefinition(Type type) {
             return typeRegistry.getType(type).get();
         }
 
+        List<TypeExtensionDefinition> getTypeExtensions(TypeDefinition typeDefinition) {
+            return typeExtensions.getOrDefault(typeDefinition.getName(), Collections.emptyList());
+        }
+
+        TypeInfo typeInfo(Type type) {
+            return typeInfos.computeIfAbsent(type, TypeInfo::typeInfo);
+        }
+
+        <T extends GraphQLType> T decorate(TypeInfo typeInfo, GraphQLType type) {
+            return typeInfo.decorate(type, wrappers);
+        }
+
         boolean stackContains(TypeInfo typeInfo) {
-            return definitionStack.contains(typeInfo.getName());
+            return stackContains(typeInfo.getName());
+        }
+
+        boolean stackContains(String typeName) {
+            return definitionStack.contains(typeName);
+        }
+
+        int depth() {
+            return definitionStack.size();
+        }
+
+        /*
+         * puts in a type reference now and queues the type to be built once the current recursion has unwound
+         */
+        <T extends GraphQLType> T deferOutputType(TypeInfo typeInfo) {
+            if (deferredNames.add(typeInfo.getName())) {
+                deferredOutputTypes.add(typeInfo.getTypeName());
+            }
+            return decorate(typeInfo, new GraphQLTypeReference(typeInfo.getName()));
+        }
+
+        <T extends GraphQLType> T deferInputType(TypeInfo typeInfo) {
+            if (deferredNames.add(typeInfo.getName())) {
+                deferredInputTypes.add(typeInfo.getTypeName());
+            }
+            return decorate(typeInfo, new GraphQLTypeReference(typeInfo.getName()));
         }
 
         void push(TypeInfo typeInfo) {
@@ -114,16 +395,117 @@ public class SchemaGenerator {
             inputGTypes.put(inputType.getName(), inputType);
         }
 
+        DataFetcher getPropertyDataFetcher(String fieldName) {
+            // property fetchers only hold the property name so one per name is shared by every type
+            return propertyDataFetchers.computeIfAbsent(fieldName, PropertyDataFetcher::new);
+        }
+
         RuntimeWiring getWiring() {
             return wiring;
         }
 
+        RateLimits getRateLimits() {
+            if (rateLimits == null) {
+                rateLimits = options.getRateLimits() == null ? new RateLimits() : options.getRateLimits();
+            }
+            return rateLimits;
+        }
+
+        /*
+         * the roles that the auth directives on a type, and on its extensions, require, along with those of the
+         * interfaces an object type implements since graphql-java only ever runs the object type's fields
+         */
+        Permissions getTypePermissions(String typeName) {
+            Permissions permissions = typePermissions.get(typeName);
+            if (permissions == null) {
+                TypeDefinition typeDefinition = typeRegistry.typeDefinition(typeName);
+                permissions = typeDefinition == null ? Permissions.NONE : authRequires(Directives.of(typeDefinition));
+                for (TypeExtensionDefinition typeExtension : typeExtensions.getOrDefault(typeName, Collections.emptyList())) {
+                    permissions = permissions.union(authRequires(typeExtension.getDirectives()));
+                }
+                for (String interfaceName : getInterfaceNames(typeName)) {
+                    permissions = permissions.union(getTypePermissions(interfaceName));
+                }
+                typePermissions.put(typeName, permissions);
+            }
+            return permissions;
+        }
+
+        /*
+         * the roles that the auth directives on the fields of the same name of the interfaces a type implements require
+         */
+        Permissions getInterfaceFieldPermissions(String typeName, String fieldName) {
+            Permissions permissions = Permissions.NONE;
+            for (String interfaceName : getInterfaceNames(typeName)) {
+                List<TypeDefinition> interfaceDefinitions = new ArrayList<>();
+                TypeDefinition interfaceDefinition = typeRegistry.typeDefinition(interfaceName);
+                if (interfaceDefinition != null) {
+                    interfaceDefinitions.add(interfaceDefinition);
+                }
+                interfaceDefinitions.addAll(typeExtensions.getOrDefault(interfaceName, Collections.emptyList()));
+                for (TypeDefinition definition : interfaceDefinitions) {
+                    List<FieldDefinition> fieldDefinitions = definition instanceof InterfaceTypeDefinition
+                            ? ((InterfaceTypeDefinition) definition).getFieldDefinitions()
+                            : definition instanceof ObjectTypeDefinition ? ((ObjectTypeDefinition) definition).getFieldDefinitions() : Collections.emptyList();
+                    for (FieldDefinition fieldDefinition : fieldDefinitions) {
+                        if (fieldDefinition.getName().equals(fieldName)) {
+                            permissions = permissions.union(authRequires(fieldDefinition.getDirectives()));
+                        }
+                    }
+                }
+            }
+            return permissions;
+        }
+
+        private Set<String> getInterfaceNames(String typeName) {
+            Set<String> interfaceNames = new LinkedHashSet<>();
+            TypeDefinition typeDefinition = typeRegistry.typeDefinition(typeName);
+            if (typeDefinition instanceof ObjectTypeDefinition) {
+                ((ObjectTypeDefinition) typeDefinition).getImplements().forEach(type -> interfaceNames.add(TypeModifiers.typeName(type).getName()));
+            }
+            for (TypeExtensionDefinition typeExtension : typeExtensions.getOrDefault(typeName, Collections.emptyList())) {
+                typeExtension.getImplements().forEach(type -> interfaceNames.add(TypeModifiers.typeName(type).getName()));
+            }
+            return interfaceNames;
+        }
+
+        List<String> getPossibleObjectTypes(String abstractTypeName) {
+            if (possibleObjectTypes == null) {
+                possibleObjectTypes = typeRegistry.possibleObjectTypes();
+            }
+            return possibleObjectTypes.get(abstractTypeName);
+        }
+
+        /*
+         * the slot of the description of a schema coordinate or -1 if it has none or they are stripped
+         */
+        int descriptionSlot(String typeName, String memberName) {
+            return descriptionSlot(typeName, memberName, null);
+        }
+
+        int descriptionSlot(String typeName, String memberName, String argumentName) {
+            if (descriptions.size() == 0) {
+                return -1;
+            }
+            String coordinate = memberName == null ? typeName : typeName + "." + memberName;
+            return descriptions.slot(argumentName == null ? coordinate : coordinate + "(" + argumentName + ":)");
+        }
+
+        boolean isLazy(int descriptionSlot) {
+            return descriptionSlot >= 0 && options.getDescriptionMode() == DescriptionMode.LAZY;
+        }
+
+        String getDescription(int descriptionSlot) {
+            return descriptions.getDescription(descriptionSlot);
+        }
+
         public SchemaDefinition getSchemaDefinition() {
             return typeRegistry.schemaDefinition().get();
         }
     }
 
     private Either<List<GraphQLError>, GraphQLSchema> makeExecutableSchemaImpl(BuildContext buildCtx) {
+        BuildPhases.Timer timer = buildCtx.startPhase(SchemaBuildListener.Phase.ASSEMBLE, null);
 
         SchemaDefinition schemaDefinition = buildCtx.getSchemaDefinition();
         List<OperationTypeDefinition> operationTypes = schemaDefinition.getOperationTypeDefinitions();
@@ -140,10 +522,59 @@ public class SchemaGenerator {
             mutation = buildOperation(buildCtx, mutationOp.get());
         }
 
-        GraphQLSchema graphQLSchema = new GraphQLSchema(query, mutation, Collections.emptySet());
+        Set<GraphQLType> deferredTypes = buildDeferredTypes(buildCtx);
+
+        // the builder, unlike the constructor, swaps the type references for the types they name
+        GraphQLSchema graphQLSchema = GraphQLSchema.newSchema().query(query).mutation(mutation).build(deferredTypes);
+        List<GraphQLError> errors = bindArguments(buildCtx);
+        if (!errors.isEmpty()) {
+            timer.finish(buildCtx.outputGTypes.size() + buildCtx.inputGTypes.size(), 0, errors.size());
+            return Either.left(errors);
+        }
+        buildCtx.classTypeResolvers.forEach(typeResolver -> typeResolver.bindTo(graphQLSchema));
+        if (options.isPrecomputeIntrospection()) {
+            IntrospectionResult.forSchema(graphQLSchema);
+        }
+        timer.finish(buildCtx.outputGTypes.size() + buildCtx.inputGTypes.size(), 0, 0);
         return Either.right(graphQLSchema);
     }
 
+    /*
+     * The deferred types are only referenced by name so they are handed to the schema as additional types.  Building
+     * one can defer others so we go until the queues are empty.
+     */
+    private Set<GraphQLType> buildDeferredTypes(BuildContext buildCtx) {
+        Set<GraphQLType> deferredTypes = new LinkedHashSet<>();
+        while (!buildCtx.deferredOutputTypes.isEmpty() || !buildCtx.deferredInputTypes.isEmpty()) {
+            TypeName typeName = buildCtx.deferredOutputTypes.poll();
+            if (typeName != null) {
+                deferredTypes.add(buildOutputType(buildCtx, typeName));
+            } else {
+                deferredTypes.add(buildInputType(buildCtx, buildCtx.deferredInputTypes.poll()));
+            }
+        }
+        return deferredTypes;
+    }
+
+    /*
+     * binders are compiled once the schema is assembled as until then argument types can be type references.  The
+     * checker has made sure the bound input classes fit their types but the classes found from property types are
+     * only found now, so those that don't fit are reported here.
+     */
+    private List<GraphQLError> bindArguments(BuildContext buildCtx) {
+        ArgumentBinder.Compiler compiler = new ArgumentBinder.Compiler(buildCtx.getWiring(), buildCtx.typeRegistry);
+        Map<String, GraphQLError> errors = new LinkedHashMap<>();
+        buildCtx.boundDataFetchers.forEach((dataFetcher, fieldDefinition) -> {
+            try {
+                dataFetcher.bindTo(compiler.compile(fieldDefinition.getArguments()));
+            } catch (InputClassBindingError e) {
+                // fields that take the same input type fail the same way
+                errors.putIfAbsent(e.getMessage(), e);
+            }
+        });
+        return new ArrayList<>(errors.values());
+    }
+
     private GraphQLObjectType buildOperation(BuildContext buildCtx, OperationTypeDefinition operation) {
         Type type = operation.getType();
 
@@ -164,19 +595,25 @@ public class SchemaGenerator {
 
         TypeDefinition typeDefinition = buildCtx.getTypeDefinition(rawType);
 
+        TypeInfo typeInfo = buildCtx.typeInfo(rawType);
+
         GraphQLOutputType outputType = buildCtx.hasOutputType(typeDefinition);
         if (outputType != null) {
-            return (T) outputType;
+            return buildCtx.decorate(typeInfo, outputType);
         }
-        TypeInfo typeInfo = TypeInfo.typeInfo(rawType);
 
         if (buildCtx.stackContains(typeInfo)) {
             // we have circled around so put in a type reference and fix it up later
             // otherwise we will go into an infinite loop
-            return typeInfo.decorate(new GraphQLTypeReference(typeInfo.getName()));
+            return buildCtx.decorate(typeInfo, new GraphQLTypeReference(typeInfo.getName()));
+        }
+
+        if (mustDefer(buildCtx, typeDefinition, buildCtx.depth())) {
+            return buildCtx.deferOutputType(typeInfo);
         }
 
         buildCtx.push(typeInfo);
+        BuildPhases.Timer timer = buildCtx.startPhase(SchemaBuildListener.Phase.GENERATE_TYPE, typeDefinition.getName());
 
         if (typeDefinition instanceof ObjectTypeDefinition) {
             outputType = buildObjectType(buildCtx, (ObjectTypeDefinition) typeDefinition);
@@ -185,157 +622,400 @@ public class SchemaGenerator {
         } else if (typeDefinition instanceof UnionTypeDefinition) {
             outputType = buildUnionType(buildCtx, (UnionTypeDefinition) typeDefinition);
         } else if (typeDefinition instanceof EnumTypeDefinition) {
-            outputType = buildEnumType((EnumTypeDefinition) typeDefinition);
+            outputType = buildEnumType(buildCtx, (EnumTypeDefinition) typeDefinition);
         } else {
             outputType = buildScalar(buildCtx, (ScalarTypeDefinition) typeDefinition);
         }
 
         buildCtx.put(outputType);
         buildCtx.pop();
-        return (T) typeInfo.decorate(outputType);
+        timer.finish(1, fieldCount(outputType), 0);
+        return buildCtx.decorate(typeInfo, outputType);
     }
 
     private GraphQLInputType buildInputType(BuildContext buildCtx, Type rawType) {
 
         TypeDefinition typeDefinition = buildCtx.getTypeDefinition(rawType);
 
+        TypeInfo typeInfo = buildCtx.typeInfo(rawType);
+
         GraphQLInputType inputType = buildCtx.hasInputType(typeDefinition);
         if (inputType != null) {
-            return inputType;
+            return buildCtx.decorate(typeInfo, inputType);
         }
-        TypeInfo typeInfo = TypeInfo.typeInfo(rawType);
 
         if (buildCtx.stackContains(typeInfo)) {
             // we have circled around so put in a type reference and fix it later
-            return typeInfo.decorate(new GraphQLTypeReference(typeInfo.getName()));
+            return buildCtx.decorate(typeInfo, new GraphQLTypeReference(typeInfo.getName()));
+        }
+
+        if (typeDefinition instanceof InputObjectTypeDefinition && buildCtx.depth() >= MAX_BUILD_DEPTH) {
+            return buildCtx.deferInputType(typeInfo);
         }
 
         buildCtx.push(typeInfo);
+        BuildPhases.Timer timer = buildCtx.startPhase(SchemaBuildListener.Phase.GENERATE_TYPE, typeDefinition.getName());
 
         if (typeDefinition instanceof InputObjectTypeDefinition) {
             inputType = buildInputObjectType(buildCtx, (InputObjectTypeDefinition) typeDefinition);
         } else if (typeDefinition instanceof EnumTypeDefinition) {
-            inputType = buildEnumType((EnumTypeDefinition) typeDefinition);
+            inputType = buildEnumType(buildCtx, (EnumTypeDefinition) typeDefinition);
         } else {
             inputType = buildScalar(buildCtx, (ScalarTypeDefinition) typeDefinition);
         }
 
         buildCtx.put(inputType);
         buildCtx.pop();
-        return typeInfo.decorate(inputType);
+        timer.finish(1, fieldCount(inputType), 0);
+        return buildCtx.decorate(typeInfo, inputType);
+    }
+
+    /*
+     * Interfaces and union members can't be type references in graphql-java, so an object whose interface is still
+     * being built and a union whose members can't all be built right now are deferred instead.  Interfaces themselves
+     * are never deferred so that the objects implementing them can always be built.
+     */
+    private boolean mustDefer(BuildContext buildCtx, TypeDefinition typeDefinition, int depth) {
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            if (depth >= MAX_BUILD_DEPTH) {
+                return true;
+            }
+            ObjectTypeDefinition objectTypeDefinition = (ObjectTypeDefinition) typeDefinition;
+            return Stream.concat(Stream.of(objectTypeDefinition), buildCtx.getTypeExtensions(objectTypeDefinition).stream())
+                    .flatMap(definition -> definition.getImplements().stream())
+                    .anyMatch(type -> buildCtx.stackContains(TypeModifiers.typeName(type).getName()));
+        }
+        if (typeDefinition instanceof UnionTypeDefinition) {
+            for (Type memberType : ((UnionTypeDefinition) typeDefinition).getMemberTypes()) {
+                TypeDefinition memberTypeDef = buildCtx.getTypeDefinition(memberType);
+                if (buildCtx.hasOutputType(memberTypeDef) != null) {
+                    continue;
+                }
+                if (buildCtx.stackContains(memberTypeDef.getName()) || mustDefer(buildCtx, memberTypeDef, depth + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int fieldCount(GraphQLType type) {
+        if (type instanceof GraphQLFieldsContainer) {
+            return ((GraphQLFieldsContainer) type).getFieldDefinitions().size();
+        } else if (type instanceof GraphQLInputObjectType) {
+            return ((GraphQLInputObjectType) type).getFields().size();
+        }
+        return 0;
     }
 
     private GraphQLObjectType buildObjectType(BuildContext buildCtx, ObjectTypeDefinition typeDefinition) {
-        GraphQLObjectType.Builder builder = GraphQLObjectType.newObject();
-        builder.name(typeDefinition.getName());
-        builder.description("#todo");
+        String name = typeDefinition.getName();
+        List<GraphQLFieldDefinition> fields = new ArrayList<>();
+        List<GraphQLInterfaceType> interfaces = new ArrayList<>();
 
         typeDefinition.getFieldDefinitions().forEach(fieldDef ->
-                builder.field(buildField(buildCtx, typeDefinition, fieldDef)));
+                fields.add(buildField(buildCtx, typeDefinition, fieldDef)));
+
+        typeDefinition.getImplements().forEach(type -> interfaces.add(buildOutputType(buildCtx, type)));
+
+        // the extensions are read in place and their fields are fetched as if they were declared on the type itself
+        buildCtx.getTypeExtensions(typeDefinition).forEach(typeExtension -> {
+            typeExtension.getFieldDefinitions().forEach(fieldDef ->
+                    fields.add(buildField(buildCtx, typeDefinition, fieldDef)));
+
+            typeExtension.getImplements().forEach(type -> interfaces.add(buildOutputType(buildCtx, type)));
+        });
 
-        typeDefinition.getImplements().forEach(type -> builder.withInterface(buildOutputType(buildCtx, type)));
-        return builder.build();
+        int descriptionSlot = buildCtx.descriptionSlot(name, null);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.ObjectType(name, fields, interfaces, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLObjectType(name, buildCtx.getDescription(descriptionSlot), fields, interfaces);
     }
 
     private GraphQLInterfaceType buildInterfaceType(BuildContext buildCtx, InterfaceTypeDefinition typeDefinition) {
-        GraphQLInterfaceType.Builder builder = GraphQLInterfaceType.newInterface();
-        builder.name(typeDefinition.getName());
-        builder.description("#todo");
-
-        builder.typeResolver(getTypeResolver(buildCtx, typeDefinition.getName()));
+        String name = typeDefinition.getName();
+        TypeResolver typeResolver = getTypeResolver(buildCtx, name);
 
+        List<GraphQLFieldDefinition> fields = new ArrayList<>();
         typeDefinition.getFieldDefinitions().forEach(fieldDef ->
-                builder.field(buildField(buildCtx, typeDefinition, fieldDef)));
-        return builder.build();
+                fields.add(buildField(buildCtx, typeDefinition, fieldDef)));
+
+        int descriptionSlot = buildCtx.descriptionSlot(name, null);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.InterfaceType(name, fields, typeResolver, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLInterfaceType(name, buildCtx.getDescription(descriptionSlot), fields, typeResolver);
     }
 
     private GraphQLUnionType buildUnionType(BuildContext buildCtx, UnionTypeDefinition typeDefinition) {
-        GraphQLUnionType.Builder builder = GraphQLUnionType.newUnionType();
-        builder.name(typeDefinition.getName());
-        builder.description("#todo");
-        builder.typeResolver(getTypeResolver(buildCtx, typeDefinition.getName()));
+        String name = typeDefinition.getName();
+        TypeResolver typeResolver = getTypeResolver(buildCtx, name);
 
+        List<GraphQLObjectType> memberTypes = new ArrayList<>();
         typeDefinition.getMemberTypes().forEach(mt -> {
-            TypeDefinition memberTypeDef = buildCtx.getTypeDefinition(mt);
-            GraphQLObjectType objectType = buildObjectType(buildCtx, (ObjectTypeDefinition) memberTypeDef);
-            builder.possibleType(objectType);
+            GraphQLObjectType objectType = buildOutputType(buildCtx, mt);
+            memberTypes.add(objectType);
         });
-        return builder.build();
+
+        int descriptionSlot = buildCtx.descriptionSlot(name, null);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.UnionType(name, memberTypes, typeResolver, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLUnionType(name, buildCtx.getDescription(descriptionSlot), memberTypes, typeResolver);
     }
 
-    private GraphQLEnumType buildEnumType(EnumTypeDefinition typeDefinition) {
-        GraphQLEnumType.Builder builder = GraphQLEnumType.newEnum();
-        builder.name(typeDefinition.getName());
-        builder.description("#todo");
+    private GraphQLEnumType buildEnumType(BuildContext buildCtx, EnumTypeDefinition typeDefinition) {
+        String name = typeDefinition.getName();
+
+        List<GraphQLEnumValueDefinition> values = new ArrayList<>();
+        typeDefinition.getEnumValueDefinitions().forEach(evd -> {
+            int valueSlot = buildCtx.descriptionSlot(name, evd.getName());
+            if (buildCtx.isLazy(valueSlot)) {
+                values.add(new LazyDescriptions.EnumValue(evd.getName(), evd.getName(), buildCtx.descriptions, valueSlot));
+            } else {
+                values.add(new GraphQLEnumValueDefinition(evd.getName(), buildCtx.getDescription(valueSlot), evd.getName()));
+            }
+        });
 
-        typeDefinition.getEnumValueDefinitions().forEach(evd -> builder.value(evd.getName()));
-        return builder.build();
+        int descriptionSlot = buildCtx.descriptionSlot(name, null);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.EnumType(name, values, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLEnumType(name, buildCtx.getDescription(descriptionSlot), values);
     }
 
     private GraphQLScalarType buildScalar(BuildContext buildCtx, ScalarTypeDefinition typeDefinition) {
-        return buildCtx.getWiring().getScalars().get(typeDefinition.getName());
+        return buildCtx.getWiring().getScalar(typeDefinition.getName());
     }
 
-    private GraphQLFieldDefinition buildField(BuildContext buildCtx, TypeDefinition parentType, FieldDefinition fieldDef) {
-        GraphQLFieldDefinition.Builder builder = GraphQLFieldDefinition.newFieldDefinition();
-        builder.name(fieldDef.getName());
-        builder.description("#todo");
+    /*
+     * a list field with a connection directive returns the connection type of the type it lists instead, and is given
+     * the arguments to page through it.  The connection and edge types of a type are made the first time a field
+     * lists it and are shared by every field that does, which the checker makes sure agree on whether the items can
+     * be null.
+     */
+    private GraphQLOutputType buildConnectionType(BuildContext buildCtx, Type fieldType, Directive connection, List<GraphQLArgument> arguments) {
+        boolean nonNull = fieldType instanceof NonNullType;
+        ListType listType = (ListType) (nonNull ? ((NonNullType) fieldType).getType() : fieldType);
+        String nodeTypeName = TypeModifiers.typeName(listType).getName();
 
-        builder.dataFetcher(buildDataFetcher(buildCtx, parentType, fieldDef));
+        // pre-flight checked via checker
+        Long defaultFirst = Directives.number(Directives.argument(connection, Directives.CONNECTION_DEFAULT_FIRST));
+        arguments.add(new GraphQLArgument(ConnectionDataFetcher.FIRST, null, GraphQLInt,
+                defaultFirst == null ? ConnectionDataFetcher.DEFAULT_FIRST : defaultFirst.intValue()));
+        arguments.add(new GraphQLArgument(ConnectionDataFetcher.AFTER, null, GraphQLString, null));
+
+        String connectionTypeName = ConnectionDataFetcher.connectionTypeName(nodeTypeName);
+        GraphQLOutputType connectionType = buildCtx.outputGTypes.get(connectionTypeName);
+        if (connectionType == null) {
+            GraphQLOutputType nodeType = buildOutputType(buildCtx, listType.getType());
+            GraphQLObjectType edgeType = new GraphQLObjectType(ConnectionDataFetcher.edgeTypeName(nodeTypeName), null, Arrays.asList(
+                    syntheticField("cursor", new GraphQLNonNull(GraphQLString), ConnectionDataFetcher.CURSOR),
+                    syntheticField("node", nodeType, ConnectionDataFetcher.NODE)), Collections.emptyList());
+            connectionType = new GraphQLObjectType(connectionTypeName, null, Arrays.asList(
+                    syntheticField("edges", new GraphQLNonNull(new GraphQLList(new GraphQLNonNull(edgeType))), ConnectionDataFetcher.EDGES),
+                    syntheticField("pageInfo", new GraphQLNonNull(buildPageInfoType(buildCtx)), ConnectionDataFetcher.PAGE_INFO)), Collections.emptyList());
+            buildCtx.put(edgeType);
+            buildCtx.put(connectionType);
+        }
+        return nonNull ? new GraphQLNonNull(connectionType) : connectionType;
+    }
+
+    private GraphQLOutputType buildPageInfoType(BuildContext buildCtx) {
+        GraphQLOutputType pageInfoType = buildCtx.outputGTypes.get(ConnectionDataFetcher.PAGE_INFO_TYPE);
+        if (pageInfoType == null) {
+            pageInfoType = new GraphQLObjectType(ConnectionDataFetcher.PAGE_INFO_TYPE, null, Arrays.asList(
+                    syntheticField("hasNextPage", new GraphQLNonNull(GraphQLBoolean), ConnectionDataFetcher.HAS_NEXT_PAGE),
+                    syntheticField("hasPreviousPage", new GraphQLNonNull(GraphQLBoolean), ConnectionDataFetcher.HAS_PREVIOUS_PAGE),
+                    syntheticField("startCursor", GraphQLString, ConnectionDataFetcher.START_CURSOR),
+                    syntheticField("endCursor", GraphQLString, ConnectionDataFetcher.END_CURSOR)), Collections.emptyList());
+            buildCtx.put(pageInfoType);
+        }
+        return pageInfoType;
+    }
 
+    private static GraphQLFieldDefinition syntheticField(String name, GraphQLOutputType type, DataFetcher dataFetcher) {
+        return new GraphQLFieldDefinition(name, null, type, dataFetcher, Collections.emptyList(), null);
+    }
+
+    private GraphQLFieldDefinition buildField(BuildContext buildCtx, TypeDefinition parentType, FieldDefinition fieldDef) {
+        String name = fieldDef.getName();
+        DataFetcher dataFetcher = buildDataFetcher(buildCtx, parentType, fieldDef);
+        DataFetcher fieldDataFetcher = applyDirectives(buildCtx, parentType, fieldDef, dataFetcher);
+
+        List<GraphQLArgument> arguments = new ArrayList<>();
         fieldDef.getInputValueDefinitions().forEach(inputValueDefinition ->
-                builder.argument(buildArgument(buildCtx, inputValueDefinition)));
+                arguments.add(buildArgument(buildCtx, parentType, fieldDef, inputValueDefinition)));
 
-        GraphQLOutputType outputType = buildOutputType(buildCtx, fieldDef.getType());
-        builder.type(outputType);
+        GraphQLOutputType outputType;
+        Directive connection = Directives.find(fieldDef.getDirectives(), Directives.CONNECTION);
+        if (connection != null) {
+            outputType = buildConnectionType(buildCtx, fieldDef.getType(), connection, arguments);
+        } else {
+            outputType = buildOutputType(buildCtx, fieldDef.getType());
+        }
 
-        return builder.build();
+        int descriptionSlot = buildCtx.descriptionSlot(parentType.getName(), name);
+        GraphQLFieldDefinition fieldDefinition;
+        if (buildCtx.isLazy(descriptionSlot)) {
+            fieldDefinition = new LazyDescriptions.FieldDefinition(name, outputType, fieldDataFetcher, arguments, buildCtx.descriptions, descriptionSlot);
+        } else {
+            fieldDefinition = new GraphQLFieldDefinition(name, buildCtx.getDescription(descriptionSlot), outputType, fieldDataFetcher, arguments, null);
+        }
+        if (dataFetcher instanceof ArgumentBinder.BoundDataFetcher) {
+            buildCtx.boundDataFetchers.put((ArgumentBinder.BoundDataFetcher) dataFetcher, fieldDefinition);
+        }
+        return fieldDefinition;
     }
 
     private DataFetcher buildDataFetcher(BuildContext buildCtx, TypeDefinition parentType, FieldDefinition fieldDef) {
         RuntimeWiring wiring = buildCtx.getWiring();
         String fieldName = fieldDef.getName();
-        DataFetcher dataFetcher = wiring.getDataFetcherForType(parentType.getName()).get(fieldName);
+        BindingDataFetcher bindingDataFetcher = wiring.getBindingDataFetcher(parentType.getName(), fieldName);
+        if (bindingDataFetcher != null) {
+            return new ArgumentBinder.BoundDataFetcher(bindingDataFetcher);
+        }
+        DataFetcher dataFetcher = wiring.getDataFetcher(parentType.getName(), fieldName);
         if (dataFetcher == null) {
             //
             // in the future we could support FieldDateFetcher but we would need a way to indicate that in the schema spec
             // perhaps by a directive
-            dataFetcher = new PropertyDataFetcher(fieldName);
+            dataFetcher = buildCtx.getPropertyDataFetcher(fieldName);
         }
         return dataFetcher;
     }
 
-    private GraphQLInputObjectType buildInputObjectType(BuildContext buildCtx, InputObjectTypeDefinition typeDefinition) {
-        GraphQLInputObjectType.Builder builder = GraphQLInputObjectType.newInputObject();
-        builder.name(typeDefinition.getName());
-        builder.description("#todo");
+    /*
+     * wraps the data fetcher in the behaviour that the directives on the field, and on the types around it, ask for,
+     * and in tracing when that is on
+     */
+    private DataFetcher applyDirectives(BuildContext buildCtx, TypeDefinition parentType, FieldDefinition fieldDef, DataFetcher dataFetcher) {
+        String coordinate = parentType.getName() + "." + fieldDef.getName();
+        Directive connection = Directives.find(fieldDef.getDirectives(), Directives.CONNECTION);
+        if (connection != null) {
+            dataFetcher = connectionDataFetcher(dataFetcher, coordinate, connection);
+        }
+        Directive streamed = Directives.find(fieldDef.getDirectives(), Directives.STREAMED);
+        if (streamed != null) {
+            // pre-flight checked via checker
+            Long maxItems = Directives.number(Directives.argument(streamed, Directives.STREAMED_MAX_ITEMS));
+            dataFetcher = new StreamingDataFetcher(dataFetcher, maxItems == null ? 0 : maxItems);
+        }
+        // a timeout covers the whole page
+        Directive timeout = Directives.find(fieldDef.getDirectives(), Directives.TIMEOUT);
+        Directive hedge = Directives.find(fieldDef.getDirectives(), Directives.HEDGE);
+        if (timeout != null || hedge != null) {
+            dataFetcher = deadlineDataFetcher(dataFetcher, coordinate, timeout, hedge);
+        }
+        // a call takes one permit however many times it is hedged
+        Directive rateLimit = Directives.find(fieldDef.getDirectives(), Directives.RATE_LIMIT);
+        if (rateLimit != null) {
+            dataFetcher = new RateLimitDataFetcher(dataFetcher, rateLimiter(buildCtx, coordinate, rateLimit));
+        }
+        // a field needs the roles of its own type and of the type it returns, so that a guarded type is never fetched
+        // and callers who cannot see a field do not use up its rate limit.  The roles of the interface fields it
+        // implements are added as it is the object type's field that is run however the field is queried
+        Permissions required = authRequires(fieldDef.getDirectives())
+                .union(buildCtx.getInterfaceFieldPermissions(parentType.getName(), fieldDef.getName()))
+                .union(buildCtx.getTypePermissions(parentType.getName()))
+                .union(buildCtx.getTypePermissions(TypeModifiers.typeName(fieldDef.getType()).getName()));
+        if (!required.isEmpty()) {
+            dataFetcher = new AuthDataFetcher(dataFetcher, required);
+        }
+        ResolverTracer tracer = options.getTracer();
+        if (tracer != null) {
+            // outermost, so the time a guard takes to turn a field away is traced as well
+            int fieldId = tracer.fieldId(parentType.getName(), fieldDef.getName(), TypeModifiers.typeName(fieldDef.getType()).getName());
+            dataFetcher = new TracingDataFetcher(dataFetcher, tracer, fieldId);
+        }
+        return dataFetcher;
+    }
 
-        typeDefinition.getInputValueDefinitions().forEach(fieldDef ->
-                builder.field(buildInputField(buildCtx, fieldDef)));
-        return builder.build();
+    private DataFetcher connectionDataFetcher(DataFetcher dataFetcher, String coordinate, Directive connection) {
+        // pre-flight checked via checker
+        Long defaultFirst = Directives.number(Directives.argument(connection, Directives.CONNECTION_DEFAULT_FIRST));
+        Long maxFirst = Directives.number(Directives.argument(connection, Directives.CONNECTION_MAX_FIRST));
+        Boolean prefetch = Directives.flag(Directives.argument(connection, Directives.CONNECTION_PREFETCH));
+        Executor executor = null;
+        if (Boolean.TRUE.equals(prefetch)) {
+            executor = options.getFetcherExecutor() == null ? DeadlineDataFetcher.DefaultExecutor.INSTANCE : options.getFetcherExecutor();
+        }
+        return new ConnectionDataFetcher(dataFetcher, coordinate,
+                defaultFirst == null ? ConnectionDataFetcher.DEFAULT_FIRST : defaultFirst.intValue(),
+                maxFirst == null ? ConnectionDataFetcher.MAX_FIRST : maxFirst.intValue(),
+                executor);
     }
 
+    private DataFetcher deadlineDataFetcher(DataFetcher dataFetcher, String coordinate, Directive timeout, Directive hedge) {
+        // pre-flight checked via checker
+        long timeoutMillis = timeout == null ? 0 : Directives.number(Directives.argument(timeout, Directives.TIMEOUT_MS));
+        long hedgeAfterNanos = 0;
+        int maxCalls = 1;
+        if (hedge != null) {
+            hedgeAfterNanos = TimeUnit.MILLISECONDS.toNanos(Directives.number(Directives.argument(hedge, Directives.HEDGE_AFTER_MS)));
+            Long max = Directives.number(Directives.argument(hedge, Directives.HEDGE_MAX));
+            maxCalls = max == null ? 2 : max.intValue();
+        }
+        Executor executor = options.getFetcherExecutor() == null ? DeadlineDataFetcher.DefaultExecutor.INSTANCE : options.getFetcherExecutor();
+        return new DeadlineDataFetcher(dataFetcher, executor, coordinate, timeoutMillis, hedgeAfterNanos, maxCalls);
+    }
+
+    private static RateLimits.Limiter rateLimiter(BuildContext buildCtx, String coordinate, Directive rateLimit) {
+        // pre-flight checked via checker
+        long perSecond = Directives.number(Directives.argument(rateLimit, Directives.RATE_LIMIT_PER_SECOND));
+        Long burst = Directives.number(Directives.argument(rateLimit, Directives.RATE_LIMIT_BURST));
+        String key = Directives.name(Directives.argument(rateLimit, Directives.RATE_LIMIT_KEY));
+        return buildCtx.getRateLimits().limiter(coordinate, perSecond, burst == null ? perSecond : burst, Directives.RATE_LIMIT_KEY_CALLER.equals(key));
+    }
 
-    private GraphQLInputObjectField buildInputField(BuildContext buildCtx, InputValueDefinition fieldDef) {
-        GraphQLInputObjectField.Builder fieldBuilder = GraphQLInputObjectField.newInputObjectField();
-        fieldBuilder.name(fieldDef.getName());
-        fieldBuilder.description("#todo");
+    private static Permissions authRequires(List<Directive> directives) {
+        Directive auth = Directives.find(directives, Directives.AUTH);
+        if (auth == null) {
+            return Permissions.NONE;
+        }
+        // pre-flight checked via checker
+        List<String> roles = Directives.names(Directives.argument(auth, Directives.AUTH_REQUIRES));
+        return roles == null ? Permissions.NONE : Permissions.required(roles);
+    }
 
-        fieldBuilder.type(buildInputType(buildCtx, fieldDef.getType()));
-        fieldBuilder.defaultValue(buildValue(fieldDef.getDefaultValue()));
+    private GraphQLInputObjectType buildInputObjectType(BuildContext buildCtx, InputObjectTypeDefinition typeDefinition) {
+        String name = typeDefinition.getName();
+
+        List<GraphQLInputObjectField> fields = new ArrayList<>();
+        typeDefinition.getInputValueDefinitions().forEach(fieldDef ->
+                fields.add(buildInputField(buildCtx, typeDefinition, fieldDef)));
 
-        return fieldBuilder.build();
+        int descriptionSlot = buildCtx.descriptionSlot(name, null);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.InputObjectType(name, fields, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLInputObjectType(name, buildCtx.getDescription(descriptionSlot), fields);
     }
 
-    private GraphQLArgument buildArgument(BuildContext buildCtx, InputValueDefinition valueDefinition) {
-        GraphQLArgument.Builder builder = GraphQLArgument.newArgument();
-        builder.name(valueDefinition.getName());
-        builder.description("#todo");
 
-        builder.type(buildInputType(buildCtx, valueDefinition.getType()));
-        builder.defaultValue(buildValue(valueDefinition.getDefaultValue()));
+    private GraphQLInputObjectField buildInputField(BuildContext buildCtx, InputObjectTypeDefinition parentType, InputValueDefinition fieldDef) {
+        String name = fieldDef.getName();
+        GraphQLInputType inputType = buildInputType(buildCtx, fieldDef.getType());
+        Object defaultValue = buildValue(fieldDef.getDefaultValue());
+
+        int descriptionSlot = buildCtx.descriptionSlot(parentType.getName(), name);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.InputObjectField(name, inputType, defaultValue, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLInputObjectField(name, buildCtx.getDescription(descriptionSlot), inputType, defaultValue);
+    }
+
+    private GraphQLArgument buildArgument(BuildContext buildCtx, TypeDefinition parentType, FieldDefinition fieldDef, InputValueDefinition valueDefinition) {
+        String name = valueDefinition.getName();
+        GraphQLInputType inputType = buildInputType(buildCtx, valueDefinition.getType());
+        Object defaultValue = buildValue(valueDefinition.getDefaultValue());
 
-        return builder.build();
+        int descriptionSlot = buildCtx.descriptionSlot(parentType.getName(), fieldDef.getName(), name);
+        if (buildCtx.isLazy(descriptionSlot)) {
+            return new LazyDescriptions.Argument(name, inputType, defaultValue, buildCtx.descriptions, descriptionSlot);
+        }
+        return new GraphQLArgument(name, buildCtx.getDescription(descriptionSlot), inputType, defaultValue);
     }
 
     private Object buildValue(Value value) {
@@ -368,11 +1048,30 @@ public class SchemaGenerator {
 
 
     private TypeResolver getTypeResolver(BuildContext buildCtx, String name) {
-        TypeResolver typeResolver = buildCtx.getWiring().getTypeResolvers().get(name);
+        RuntimeWiring wiring = buildCtx.getWiring();
+        TypeResolver typeResolver = wiring.getTypeResolver(name);
+        if (typeResolver == null && !wiring.getObjectClasses().isEmpty()) {
+            List<String> objectTypeNames = buildCtx.getPossibleObjectTypes(name);
+            if (canResolveByClass(wiring, objectTypeNames)) {
+                Map<Class<?>, String> classes = new LinkedHashMap<>();
+                objectTypeNames.forEach(objectTypeName -> classes.put(wiring.getObjectClass(objectTypeName), objectTypeName));
+                ClassTypeResolver classTypeResolver = new ClassTypeResolver(name, classes);
+                buildCtx.classTypeResolvers.add(classTypeResolver);
+                typeResolver = classTypeResolver;
+            }
+        }
         if (typeResolver == null) {
             // this really should be checked earlier via a pre-flight check
             typeResolver = new TypeResolverProxy();
         }
         return typeResolver;
     }
+
+    /*
+     * an interface or union can be resolved by class when every one of its object types is bound to a class
+     */
+    static boolean canResolveByClass(RuntimeWiring wiring, List<String> objectTypeNames) {
+        return objectTypeNames != null && !objectTypeNames.isEmpty()
+                && objectTypeNames.stream().allMatch(objectTypeName -> wiring.getObjectClass(objectTypeName) != null);
+    }
 }
@@ -0,0 +1,456 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.GraphQLError;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.TypeName;
+import graphql.schema.GraphQLSchema;
+import io.atlassian.fugue.Either;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This holds the schema made from a set of schema files and makes it again when the files change, so that a schema
+ * edit does not need a restart.
+ *
+ * <pre>
+ * SchemaHolder holder = new SchemaHolder(files, wiring);
+ * holder.start();
+ * ...
+ * GraphQLSchema schema = holder.getSchema(); // once per request
+ * </pre>
+ *
+ * The files are watched with a {@link WatchService} and a burst of changes is debounced into one reload, which
+ * happens on a background thread.  Only the files that changed are parsed again and only the types that changed,
+ * and the types that refer to them, are generated again.  The rest are shared with the previous schema.
+ *
+ * A new schema is published atomically once it has been made in full.  Requests that already hold the old schema
+ * finish on it, and a reload that fails leaves the old schema in place.
+ */
+public class SchemaHolder implements AutoCloseable {
+
+    public static class Options {
+        private final long debounceMillis;
+        private final SchemaGenerator.Options generatorOptions;
+        private final ReloadListener reloadListener;
+
+        private Options(long debounceMillis, SchemaGenerator.Options generatorOptions, ReloadListener reloadListener) {
+            this.debounceMillis = debounceMillis;
+            this.generatorOptions = generatorOptions;
+            this.reloadListener = reloadListener;
+        }
+
+        public long getDebounceMillis() {
+            return debounceMillis;
+        }
+
+        public SchemaGenerator.Options getGeneratorOptions() {
+            return generatorOptions;
+        }
+
+        public ReloadListener getReloadListener() {
+            return reloadListener;
+        }
+
+        public static Options defaultOptions() {
+            return new Options(250, SchemaGenerator.Options.defaultOptions(), ReloadListener.NOOP);
+        }
+
+        /**
+         * @param debounceMillis how long the files must be quiet after a change before they are reloaded
+         *
+         * @return a new options object
+         */
+        public Options debounceMillis(long debounceMillis) {
+            return new Options(debounceMillis, this.generatorOptions, this.reloadListener);
+        }
+
+        public Options generatorOptions(SchemaGenerator.Options generatorOptions) {
+            return new Options(this.debounceMillis, generatorOptions, this.reloadListener);
+        }
+
+        public Options reloadListener(ReloadListener reloadListener) {
+            return new Options(this.debounceMillis, this.generatorOptions, reloadListener);
+        }
+    }
+
+    /**
+     * Told about each reload.  Callbacks happen on the thread doing the reload.
+     */
+    public interface ReloadListener {
+
+        ReloadListener NOOP = new ReloadListener() {
+        };
+
+        /**
+         * Called when a new schema version has been published
+         *
+         * @param version the new version
+         */
+        default void reloaded(Version version) {
+        }
+
+        /**
+         * Called when the changed files could not be made into a schema, in which case the previous version stays
+         *
+         * @param errors the errors
+         */
+        default void reloadFailed(List<GraphQLError> errors) {
+        }
+
+        /**
+         * Called when a reload threw, say because a file could not be read, in which case the previous version stays
+         *
+         * @param exception the exception
+         */
+        default void reloadThrew(RuntimeException exception) {
+        }
+    }
+
+    /**
+     * A published schema along with what it was made from
+     */
+    public static class Version {
+        private final int number;
+        private final GraphQLSchema schema;
+        private final TypeRegistry typeRegistry;
+        private final Map<String, Fingerprint> typeFingerprints;
+        private final Set<String> changedTypeNames;
+        private final Set<String> rebuiltTypeNames;
+
+        Version(int number, GraphQLSchema schema, TypeRegistry typeRegistry, Map<String, Fingerprint> typeFingerprints, Set<String> changedTypeNames, Set<String> rebuiltTypeNames) {
+            this.number = number;
+            this.schema = schema;
+            this.typeRegistry = typeRegistry;
+            this.typeFingerprints = typeFingerprints;
+            this.changedTypeNames = Collections.unmodifiableSet(changedTypeNames);
+            this.rebuiltTypeNames = Collections.unmodifiableSet(rebuiltTypeNames);
+        }
+
+        /**
+         * @return the version number, starting at 1 and going up by one with each reload that publishes
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        public GraphQLSchema getSchema() {
+            return schema;
+        }
+
+        /**
+         * @return the names of the types that were added, changed or removed since the previous version
+         */
+        public Set<String> getChangedTypeNames() {
+            return changedTypeNames;
+        }
+
+        /**
+         * @return the names of the types that were generated again rather than taken from the previous version
+         */
+        public Set<String> getRebuiltTypeNames() {
+            return rebuiltTypeNames;
+        }
+    }
+
+    private final List<File> files;
+    private final RuntimeWiring wiring;
+    private final Options options;
+    private final SchemaCompiler compiler;
+    private final SchemaGenerator generator;
+    private final SchemaFingerprinter fingerprinter = new SchemaFingerprinter();
+
+    private volatile Version version;
+    private volatile List<GraphQLError> lastErrors = Collections.emptyList();
+
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> pendingReload;
+    private WatchService watchService;
+    private Thread watchThread;
+    private boolean closed;
+
+    public SchemaHolder(List<File> files, RuntimeWiring wiring) {
+        this(files, wiring, Options.defaultOptions());
+    }
+
+    public SchemaHolder(List<File> files, RuntimeWiring wiring, Options options) {
+        this.files = new ArrayList<>(files);
+        this.wiring = wiring.freeze();
+        this.options = options;
+        this.compiler = new SchemaCompiler(new SchemaCompileCache(), options.getGeneratorOptions().getBuildListener());
+        this.generator = new SchemaGenerator(options.getGeneratorOptions());
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "schema-holder-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the schema and starts watching the files.  The files are watched even if they cannot be loaded now so
+     * that fixing them will bring the schema up.
+     *
+     * @return the errors or the schema
+     */
+    public synchronized Either<List<GraphQLError>, GraphQLSchema> start() {
+        if (watchService == null) {
+            startWatching();
+        }
+        reload();
+        Version current = version;
+        return current == null ? Either.left(lastErrors) : Either.right(current.getSchema());
+    }
+
+    /**
+     * @return the current schema or null if none has loaded yet
+     */
+    public GraphQLSchema getSchema() {
+        Version current = version;
+        return current == null ? null : current.getSchema();
+    }
+
+    /**
+     * @return the current version or null if none has loaded yet
+     */
+    public Version getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the errors of the last reload, which are empty if it published or found nothing changed
+     */
+    public List<GraphQLError> getLastErrors() {
+        return lastErrors;
+    }
+
+    /**
+     * Reloads the files now, on the calling thread.  This is what the watcher does once changes have settled.
+     *
+     * @return the current version, which is the previous one if nothing changed or the reload failed
+     */
+    public synchronized Version reload() {
+        Either<List<GraphQLError>, TypeRegistry> compiled = compiler.compile(files);
+        if (compiled.isLeft()) {
+            return failed(compiled.left().get());
+        }
+        TypeRegistry typeRegistry = compiled.right().get();
+        Map<String, Fingerprint> typeFingerprints = fingerprinter.typeFingerprints(typeRegistry);
+
+        Version previous = version;
+        if (previous == null) {
+            Either<List<GraphQLError>, GraphQLSchema> generated = generator.makeExecutableSchema(typeRegistry, wiring);
+            if (generated.isLeft()) {
+                return failed(generated.left().get());
+            }
+            return publish(new Version(1, generated.right().get(), typeRegistry, typeFingerprints, typeFingerprints.keySet(), typeFingerprints.keySet()));
+        }
+
+        Set<String> changedTypeNames = changedTypeNames(previous.typeFingerprints, typeFingerprints);
+        boolean sameDescriptions = previous.typeRegistry.descriptions().sameAs(typeRegistry.descriptions());
+        if (changedTypeNames.isEmpty() && sameDescriptions && operationTypeNames(previous.typeRegistry).equals(operationTypeNames(typeRegistry))) {
+            lastErrors = Collections.emptyList();
+            return previous;
+        }
+
+        Set<String> rebuiltTypeNames;
+        if (sameDescriptions) {
+            rebuiltTypeNames = affectedTypeNames(changedTypeNames, previous.typeRegistry, typeRegistry);
+        } else {
+            // descriptions are not part of the fingerprints, so we cannot tell which types they changed
+            rebuiltTypeNames = new LinkedHashSet<>(typeFingerprints.keySet());
+        }
+        Set<String> reusedTypeNames = new HashSet<>(typeFingerprints.keySet());
+        reusedTypeNames.removeAll(rebuiltTypeNames);
+
+        Either<List<GraphQLError>, GraphQLSchema> generated = generator.makeExecutableSchema(typeRegistry, wiring, previous.getSchema(), reusedTypeNames);
+        if (generated.isLeft()) {
+            return failed(generated.left().get());
+        }
+        return publish(new Version(previous.getNumber() + 1, generated.right().get(), typeRegistry, typeFingerprints, changedTypeNames, rebuiltTypeNames));
+    }
+
+    private Version publish(Version newVersion) {
+        version = newVersion;
+        lastErrors = Collections.emptyList();
+        options.getReloadListener().reloaded(newVersion);
+        return newVersion;
+    }
+
+    private Version failed(List<GraphQLError> errors) {
+        lastErrors = Collections.unmodifiableList(new ArrayList<>(errors));
+        options.getReloadListener().reloadFailed(lastErrors);
+        return version;
+    }
+
+    private static Set<String> changedTypeNames(Map<String, Fingerprint> previous, Map<String, Fingerprint> current) {
+        Set<String> changed = new LinkedHashSet<>();
+        current.forEach((name, fingerprint) -> {
+            if (!fingerprint.equals(previous.get(name))) {
+                changed.add(name);
+            }
+        });
+        previous.keySet().forEach(name -> {
+            if (!current.containsKey(name)) {
+                changed.add(name);
+            }
+        });
+        return changed;
+    }
+
+    private static Map<String, String> operationTypeNames(TypeRegistry typeRegistry) {
+        Map<String, String> operationTypeNames = new HashMap<>();
+        typeRegistry.schemaDefinition().forEach(schemaDefinition -> schemaDefinition.getOperationTypeDefinitions().forEach(op ->
+                operationTypeNames.put(op.getName(), ((TypeName) op.getType()).getName())));
+        return operationTypeNames;
+    }
+
+    /*
+     * A graphql type holds the types of its fields directly, so every type that refers to a rebuilt type, however
+     * indirectly, has to be made again.  So do the interfaces that a rebuilt type implements or used to, as their type
+     * resolvers hand out the object types they can resolve to, which must be the ones in the new schema.  A union
+     * refers to its members so it is rebuilt along with them anyway.
+     */
+    private static Set<String> affectedTypeNames(Set<String> changedTypeNames, TypeRegistry previous, TypeRegistry current) {
+        Set<String> affected = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(changedTypeNames);
+        while (!queue.isEmpty()) {
+            String typeName = queue.poll();
+            if (affected.add(typeName)) {
+                for (TypeRegistry typeRegistry : new TypeRegistry[]{previous, current}) {
+                    queue.addAll(typeRegistry.dependentsOf(typeName));
+                    for (String dependency : typeRegistry.dependenciesOf(typeName)) {
+                        if (typeRegistry.typeDefinition(dependency) instanceof InterfaceTypeDefinition) {
+                            queue.add(dependency);
+                        }
+                    }
+                }
+            }
+        }
+        return affected;
+    }
+
+    private void startWatching() {
+        Set<Path> watchedFiles = new HashSet<>();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new HashSet<>();
+            for (File file : files) {
+                Path path = file.getAbsoluteFile().toPath().normalize();
+                watchedFiles.add(path);
+                directories.add(path.getParent());
+            }
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watch(service, watchedFiles), "schema-holder-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void watch(WatchService service, Set<Path> watchedFiles) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    // an overflow has no context and means we may have missed changes
+                    if (context == null || watchedFiles.contains(directory.resolve((Path) context).normalize())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    scheduleReload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private synchronized void scheduleReload() {
+        // a change can be seen while the holder is being closed, which is too late to reload for
+        if (closed) {
+            return;
+        }
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = executor.schedule(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                options.getReloadListener().reloadThrew(e);
+            }
+        }, options.getDebounceMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops watching the files.  The current schema can still be got.
+     */
+    @Override
+    public void close() {
+        WatchService service;
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            service = watchService;
+            thread = watchThread;
+            if (pendingReload != null) {
+                pendingReload.cancel(false);
+            }
+        }
+        // the watching stops before the executor does so that it never schedules onto a shut down executor
+        try {
+            if (service != null) {
+                service.close();
+            }
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+                thread.join();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String toString() {
+        Version current = version;
+        return "SchemaHolder{files=" + files + ", version=" + (current == null ? "none" : current.getNumber()) + "}";
+    }
+}
@@ -1,10 +1,15 @@
 package io.atlassian.graphql.schemadriven;
 
 import graphql.GraphQLError;
+import graphql.language.Directive;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValueDefinition;
 import graphql.language.FieldDefinition;
 import graphql.language.InputObjectTypeDefinition;
 import graphql.language.InputValueDefinition;
 import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
 import graphql.language.ObjectTypeDefinition;
 import graphql.language.OperationTypeDefinition;
 import graphql.language.SchemaDefinition;
@@ -13,24 +18,34 @@ import graphql.language.TypeDefinition;
 import graphql.language.TypeExtensionDefinition;
 import graphql.language.TypeName;
 import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
 import io.atlassian.fugue.Option;
+import io.atlassian.graphql.schemadriven.errors.DirectiveArgumentError;
+import io.atlassian.graphql.schemadriven.errors.InputClassBindingError;
 import io.atlassian.graphql.schemadriven.errors.MissingScalarImplementationError;
 import io.atlassian.graphql.schemadriven.errors.MissingTypeError;
 import io.atlassian.graphql.schemadriven.errors.MissingTypeResolverError;
+import io.atlassian.graphql.schemadriven.errors.ObjectClassBindingError;
 import io.atlassian.graphql.schemadriven.errors.OperationTypesMustBeObjects;
 import io.atlassian.graphql.schemadriven.errors.QueryOperationMissingError;
 import io.atlassian.graphql.schemadriven.errors.SchemaMissingError;
+import io.atlassian.graphql.schemadriven.errors.TypeExtensionFieldRedefinitionError;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import static io.atlassian.graphql.schemadriven.TypeInfo.typeInfo;
-
 /**
  * This helps pre check the state of the type system to ensure it can be made into an executable schema.
  *
@@ -38,13 +53,150 @@ import static io.atlassian.graphql.schemadriven.TypeInfo.typeInfo;
  */
 public class SchemaTypeChecker {
 
+    private final SchemaBuildListener listener;
+
+    public SchemaTypeChecker() {
+        this(SchemaBuildListener.NOOP);
+    }
+
+    /**
+     * @param listener the listener to tell about the check phase
+     */
+    public SchemaTypeChecker(SchemaBuildListener listener) {
+        this.listener = listener;
+    }
+
     public List<GraphQLError> checkTypeRegistry(TypeRegistry typeRegistry, RuntimeWiring wiring) {
+        BuildPhases.Timer timer = new BuildPhases(listener).start(SchemaBuildListener.Phase.CHECK, null);
+        List<GraphQLError> errors = checkTypeRegistryImpl(typeRegistry, wiring);
+        Map<String, TypeDefinition> types = typeRegistry.types();
+        timer.finish(types.size() + typeRegistry.scalars().size(), BuildPhases.fieldCount(types.values()), errors.size());
+        return errors;
+    }
+
+    /**
+     * Checks the whole registry once and then keeps the errors of each type so that, as the registry is edited,
+     * only the types affected by each edit are checked again.
+     *
+     * <pre>
+     * SchemaTypeChecker.IncrementalCheck check = new SchemaTypeChecker().incrementalCheck(typeRegistry, wiring);
+     * typeRegistry.remove(oldPost);
+     * typeRegistry.add(newPost);
+     * List&lt;GraphQLError&gt; errors = check.recheck(Collections.singleton("Post"));
+     * </pre>
+     *
+     * @param typeRegistry the registry that will be edited
+     * @param wiring       the wiring, which must not change between checks
+     *
+     * @return the incremental check
+     */
+    public IncrementalCheck incrementalCheck(TypeRegistry typeRegistry, RuntimeWiring wiring) {
+        return new IncrementalCheck(typeRegistry, wiring.freeze());
+    }
+
+    /**
+     * The errors of a type registry kept per type.  The checks of the schema definition and of the scalar
+     * implementations are about the registry as a whole, are cheap and are made every time.
+     *
+     * An edit to a type can change the errors of the types that refer to it, of the types it refers to, such as
+     * the interfaces whose type resolvers depend on their implementors, and of the types it used to refer to, so
+     * these are all checked again, using the dependency graph of the registry.
+     */
+    public class IncrementalCheck {
+        private final TypeRegistry typeRegistry;
+        private final RuntimeWiring wiring;
+        private final Map<String, List<GraphQLError>> typeErrors = new LinkedHashMap<>();
+        // the dependencies of each type as of when it was last checked
+        private final Map<String, Set<String>> checkedDependencies = new HashMap<>();
+        private List<GraphQLError> registryErrors = Collections.emptyList();
+        private int lastCheckedCount;
+
+        private IncrementalCheck(TypeRegistry typeRegistry, RuntimeWiring wiring) {
+            this.typeRegistry = typeRegistry;
+            this.wiring = wiring;
+            Set<String> typeNames = new LinkedHashSet<>(typeRegistry.types().keySet());
+            typeNames.addAll(typeRegistry.typeExtensions().keySet());
+            typeNames.addAll(wiring.getInputClasses().keySet());
+            check("all", typeNames);
+        }
+
+        /**
+         * Checks the changed types, and any types affected by them, again
+         *
+         * @param changedTypeNames the names of the types that have been added, replaced, removed or extended
+         *
+         * @return all the errors of the registry as it now is
+         */
+        public List<GraphQLError> recheck(Collection<String> changedTypeNames) {
+            Set<String> typeNames = new LinkedHashSet<>();
+            for (String changedTypeName : changedTypeNames) {
+                typeNames.add(changedTypeName);
+                typeNames.addAll(typeRegistry.dependentsOf(changedTypeName));
+                typeNames.addAll(typeRegistry.dependenciesOf(changedTypeName));
+                typeNames.addAll(checkedDependencies.getOrDefault(changedTypeName, Collections.emptySet()));
+            }
+            check(String.valueOf(changedTypeNames), typeNames);
+            return getErrors();
+        }
+
+        /**
+         * @return the errors as of the last check
+         */
+        public List<GraphQLError> getErrors() {
+            List<GraphQLError> errors = new ArrayList<>(registryErrors);
+            typeErrors.values().forEach(errors::addAll);
+            return errors;
+        }
+
+        /**
+         * @return the number of types checked by the last check
+         */
+        public int getLastCheckedCount() {
+            return lastCheckedCount;
+        }
+
+        private void check(String subject, Set<String> typeNames) {
+            BuildPhases.Timer timer = new BuildPhases(listener).start(SchemaBuildListener.Phase.CHECK, subject);
+            List<GraphQLError> errors = new ArrayList<>();
+            checkSchemaInvariants(errors, typeRegistry);
+            checkScalarImplementationsArePresent(errors, typeRegistry, wiring);
+            registryErrors = errors;
+
+            int fieldCount = 0;
+            for (String typeName : typeNames) {
+                List<GraphQLError> newErrors = new ArrayList<>();
+                checkType(newErrors, typeRegistry, wiring, typeName);
+                if (newErrors.isEmpty()) {
+                    typeErrors.remove(typeName);
+                } else {
+                    typeErrors.put(typeName, newErrors);
+                }
+                Set<String> dependencies = typeRegistry.dependenciesOf(typeName);
+                if (dependencies.isEmpty()) {
+                    checkedDependencies.remove(typeName);
+                } else {
+                    checkedDependencies.put(typeName, dependencies);
+                }
+                TypeDefinition typeDefinition = typeRegistry.typeDefinition(typeName);
+                fieldCount += typeDefinition == null ? 0 : BuildPhases.fieldCount(typeDefinition);
+            }
+            lastCheckedCount = typeNames.size();
+            timer.finish(typeNames.size(), fieldCount, getErrors().size());
+        }
+    }
+
+    private List<GraphQLError> checkTypeRegistryImpl(TypeRegistry typeRegistry, RuntimeWiring wiring) {
         List<GraphQLError> errors = new ArrayList<>();
         checkForMissingTypes(errors, typeRegistry);
+        checkTypeExtensionsDoNotRedefineFields(errors, typeRegistry);
         checkSchemaInvariants(errors, typeRegistry);
 
         checkScalarImplementationsArePresent(errors, typeRegistry, wiring);
         checkTypeResolversArePresent(errors, typeRegistry, wiring);
+        wiring.getObjectClasses().keySet().forEach(typeName -> checkObjectClassIsDistinct(errors, typeRegistry, wiring, typeName));
+        checkInputClassesMatchTheirTypes(errors, typeRegistry, wiring);
+        checkDirectiveArguments(errors, typeRegistry);
+        typeRegistry.types().keySet().forEach(typeName -> checkConnectionsAgree(errors, typeRegistry, typeName));
 
         return errors;
 
@@ -75,76 +227,92 @@ public class SchemaTypeChecker {
 
     private void checkForMissingTypes(List<GraphQLError> errors, TypeRegistry typeRegistry) {
         // type extensions
-        Collection<TypeExtensionDefinition> typeExtensions = typeRegistry.typeExtensions().values();
-        typeExtensions.forEach(typeExtension -> {
-
-            List<Type> implementsTypes = typeExtension.getImplements();
-            implementsTypes.forEach(checkTypeExists("type extension", typeRegistry, errors, typeExtension));
-
-            checkFieldTypesPresent(typeRegistry, errors, typeExtension, typeExtension.getFieldDefinitions());
-
-        });
+        List<TypeExtensionDefinition> typeExtensions = typeRegistry.typeExtensions().values().stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+        typeExtensions.forEach(typeExtension -> checkTypeExtensionTypesPresent(errors, typeRegistry, typeExtension));
 
 
         Map<String, TypeDefinition> typesMap = typeRegistry.types();
 
         // objects
         List<ObjectTypeDefinition> objectTypes = filterTo(typesMap, ObjectTypeDefinition.class);
-        objectTypes.forEach(objectType -> {
-
-            List<Type> implementsTypes = objectType.getImplements();
-            implementsTypes.forEach(checkTypeExists("object", typeRegistry, errors, objectType));
-
-            checkFieldTypesPresent(typeRegistry, errors, objectType, objectType.getFieldDefinitions());
-
-        });
+        objectTypes.forEach(objectType -> checkTypesPresent(errors, typeRegistry, objectType));
 
         // interfaces
         List<InterfaceTypeDefinition> interfaceTypes = filterTo(typesMap, InterfaceTypeDefinition.class);
-        interfaceTypes.forEach(interfaceType -> {
-            List<FieldDefinition> fields = interfaceType.getFieldDefinitions();
-
-            checkFieldTypesPresent(typeRegistry, errors, interfaceType, fields);
-
-        });
+        interfaceTypes.forEach(interfaceType -> checkTypesPresent(errors, typeRegistry, interfaceType));
 
         // union types
         List<UnionTypeDefinition> unionTypes = filterTo(typesMap, UnionTypeDefinition.class);
-        unionTypes.forEach(unionType -> {
-            List<Type> memberTypes = unionType.getMemberTypes();
-            memberTypes.forEach(checkTypeExists("union member", typeRegistry, errors, unionType));
-
-        });
+        unionTypes.forEach(unionType -> checkTypesPresent(errors, typeRegistry, unionType));
 
 
         // input types
         List<InputObjectTypeDefinition> inputTypes = filterTo(typesMap, InputObjectTypeDefinition.class);
-        inputTypes.forEach(inputType -> {
-            List<InputValueDefinition> inputValueDefinitions = inputType.getInputValueDefinitions();
-            List<Type> inputValueTypes = inputValueDefinitions.stream()
+        inputTypes.forEach(inputType -> checkTypesPresent(errors, typeRegistry, inputType));
+    }
+
+    private void checkTypeExtensionTypesPresent(List<GraphQLError> errors, TypeRegistry typeRegistry, TypeExtensionDefinition typeExtension) {
+        List<Type> implementsTypes = typeExtension.getImplements();
+        implementsTypes.forEach(checkTypeExists("type extension", typeRegistry, errors, typeExtension));
+
+        checkFieldTypesPresent(typeRegistry, errors, typeExtension, typeExtension.getFieldDefinitions());
+    }
+
+    private void checkTypesPresent(List<GraphQLError> errors, TypeRegistry typeRegistry, TypeDefinition typeDefinition) {
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            ObjectTypeDefinition objectType = (ObjectTypeDefinition) typeDefinition;
+            List<Type> implementsTypes = objectType.getImplements();
+            implementsTypes.forEach(checkTypeExists("object", typeRegistry, errors, objectType));
+
+            checkFieldTypesPresent(typeRegistry, errors, objectType, objectType.getFieldDefinitions());
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            InterfaceTypeDefinition interfaceType = (InterfaceTypeDefinition) typeDefinition;
+            checkFieldTypesPresent(typeRegistry, errors, interfaceType, interfaceType.getFieldDefinitions());
+        } else if (typeDefinition instanceof UnionTypeDefinition) {
+            UnionTypeDefinition unionType = (UnionTypeDefinition) typeDefinition;
+            List<Type> memberTypes = unionType.getMemberTypes();
+            memberTypes.forEach(checkTypeExists("union member", typeRegistry, errors, unionType));
+        } else if (typeDefinition instanceof InputObjectTypeDefinition) {
+            InputObjectTypeDefinition inputType = (InputObjectTypeDefinition) typeDefinition;
+            List<Type> inputValueTypes = inputType.getInputValueDefinitions().stream()
                     .map(InputValueDefinition::getType)
                     .collect(Collectors.toList());
 
             inputValueTypes.forEach(checkTypeExists("input value", typeRegistry, errors, inputType));
+        }
+    }
 
-        });
+    private void checkTypeExtensionsDoNotRedefineFields(List<GraphQLError> errors, TypeRegistry typeRegistry) {
+        typeRegistry.typeExtensions().keySet().forEach(name -> checkTypeExtensionsDoNotRedefineFields(errors, typeRegistry, name));
+    }
+
+    private void checkTypeExtensionsDoNotRedefineFields(List<GraphQLError> errors, TypeRegistry typeRegistry, String name) {
+        Set<String> fieldNames = new HashSet<>();
+        TypeDefinition typeDefinition = typeRegistry.typeDefinition(name);
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            ((ObjectTypeDefinition) typeDefinition).getFieldDefinitions().forEach(fieldDef -> fieldNames.add(fieldDef.getName()));
+        }
+        typeRegistry.typeExtensions(name).forEach(typeExtension -> typeExtension.getFieldDefinitions().forEach(fieldDef -> {
+            if (!fieldNames.add(fieldDef.getName())) {
+                errors.add(new TypeExtensionFieldRedefinitionError(typeExtension, fieldDef));
+            }
+        }));
     }
 
     private void checkScalarImplementationsArePresent(List<GraphQLError> errors, TypeRegistry typeRegistry, RuntimeWiring wiring) {
         typeRegistry.scalars().keySet().forEach(scalarName -> {
-            if (!wiring.getScalars().containsKey(scalarName)) {
+            if (wiring.getScalar(scalarName) == null) {
                 errors.add(new MissingScalarImplementationError(scalarName));
             }
         });
     }
 
     private void checkTypeResolversArePresent(List<GraphQLError> errors, TypeRegistry typeRegistry, RuntimeWiring wiring) {
+        Map<String, List<String>> possibleObjectTypes = wiring.getObjectClasses().isEmpty() ? Collections.emptyMap() : typeRegistry.possibleObjectTypes();
 
-        Consumer<TypeDefinition> checkForResolver = typeDef -> {
-            if (!wiring.getTypeResolvers().containsKey(typeDef.getName())) {
-                errors.add(new MissingTypeResolverError(typeDef));
-            }
-        };
+        Consumer<TypeDefinition> checkForResolver = typeDef -> checkTypeResolverIsPresent(errors, wiring, typeDef, possibleObjectTypes.get(typeDef.getName()));
 
         typeRegistry.types().values().stream()
                 .filter(typeDef -> typeDef instanceof InterfaceTypeDefinition || typeDef instanceof UnionTypeDefinition)
@@ -152,6 +320,293 @@ public class SchemaTypeChecker {
 
     }
 
+    private void checkTypeResolverIsPresent(List<GraphQLError> errors, RuntimeWiring wiring, TypeDefinition typeDef, List<String> possibleObjectTypes) {
+        if (wiring.getTypeResolver(typeDef.getName()) == null && !SchemaGenerator.canResolveByClass(wiring, possibleObjectTypes)) {
+            errors.add(new MissingTypeResolverError(typeDef));
+        }
+    }
+
+
+    /*
+     * values are resolved to their object type by class, so two object types cannot share one
+     */
+    private void checkObjectClassIsDistinct(List<GraphQLError> errors, TypeRegistry typeRegistry, RuntimeWiring wiring, String typeName) {
+        Class<?> objectClass = wiring.getObjectClass(typeName);
+        TypeDefinition typeDef = typeRegistry.typeDefinition(typeName);
+        if (objectClass == null || typeDef == null) {
+            return;
+        }
+        wiring.getObjectClasses().forEach((otherTypeName, otherClass) -> {
+            if (otherClass == objectClass && !otherTypeName.equals(typeName) && typeRegistry.typeDefinition(otherTypeName) != null) {
+                errors.add(new ObjectClassBindingError(typeDef, objectClass, otherTypeName));
+            }
+        });
+    }
+
+    private void checkInputClassesMatchTheirTypes(List<GraphQLError> errors, TypeRegistry typeRegistry, RuntimeWiring wiring) {
+        wiring.getInputClasses().forEach((typeName, inputClass) -> checkInputClassMatchesItsType(errors, typeRegistry.typeDefinition(typeName), inputClass));
+    }
+
+    private void checkInputClassMatchesItsType(List<GraphQLError> errors, TypeDefinition typeDef, Class<?> inputClass) {
+        if (typeDef instanceof EnumTypeDefinition) {
+            if (!inputClass.isEnum()) {
+                errors.add(new InputClassBindingError(typeDef, inputClass, "is not an enum"));
+                return;
+            }
+            Set<String> constants = new HashSet<>();
+            for (Object constant : inputClass.getEnumConstants()) {
+                constants.add(((Enum<?>) constant).name());
+            }
+            for (EnumValueDefinition enumValue : ((EnumTypeDefinition) typeDef).getEnumValueDefinitions()) {
+                if (!constants.contains(enumValue.getName())) {
+                    errors.add(new InputClassBindingError(typeDef, inputClass, "has no constant '" + enumValue.getName() + "'"));
+                }
+            }
+        } else if (typeDef instanceof InputObjectTypeDefinition) {
+            if (ArgumentBinder.findConstructor(inputClass) == null) {
+                errors.add(new InputClassBindingError(typeDef, inputClass, "has no no argument constructor"));
+            }
+            for (InputValueDefinition inputValue : ((InputObjectTypeDefinition) typeDef).getInputValueDefinitions()) {
+                if (ArgumentBinder.property(inputClass, inputValue.getName()) == null) {
+                    errors.add(new InputClassBindingError(typeDef, inputClass, "has no setter or field for '" + inputValue.getName() + "'"));
+                }
+            }
+        } else if (typeDef != null) {
+            errors.add(new InputClassBindingError(typeDef, inputClass, "is not an input object or enum type"));
+        }
+    }
+
+    /*
+     * every check that is about the one type, in the same order as the full check makes them
+     */
+    private void checkType(List<GraphQLError> errors, TypeRegistry typeRegistry, RuntimeWiring wiring, String typeName) {
+        TypeDefinition typeDef = typeRegistry.typeDefinition(typeName);
+        typeRegistry.typeExtensions(typeName).forEach(typeExtension -> checkTypeExtensionTypesPresent(errors, typeRegistry, typeExtension));
+        if (typeDef != null) {
+            checkTypesPresent(errors, typeRegistry, typeDef);
+        }
+        checkTypeExtensionsDoNotRedefineFields(errors, typeRegistry, typeName);
+        if (typeDef instanceof InterfaceTypeDefinition || typeDef instanceof UnionTypeDefinition) {
+            checkTypeResolverIsPresent(errors, wiring, typeDef, typeRegistry.possibleObjectTypes(typeName));
+        }
+        checkObjectClassIsDistinct(errors, typeRegistry, wiring, typeName);
+        Class<?> inputClass = wiring.getInputClass(typeName);
+        if (inputClass != null) {
+            checkInputClassMatchesItsType(errors, typeDef, inputClass);
+        }
+        if (typeDef != null) {
+            checkDirectiveArguments(errors, typeRegistry, typeDef);
+        }
+        typeRegistry.typeExtensions(typeName).forEach(typeExtension -> checkDirectiveArguments(errors, typeRegistry, typeExtension));
+        if (typeDef != null) {
+            checkConnectionsAgree(errors, typeRegistry, typeName);
+        }
+    }
+
+    private void checkDirectiveArguments(List<GraphQLError> errors, TypeRegistry typeRegistry) {
+        typeRegistry.types().values().forEach(typeDef -> checkDirectiveArguments(errors, typeRegistry, typeDef));
+        typeRegistry.typeExtensions().values().forEach(typeExtensions ->
+                typeExtensions.forEach(typeExtension -> checkDirectiveArguments(errors, typeRegistry, typeExtension)));
+    }
+
+    /*
+     * the directives that the generator acts on have to be given arguments it can understand
+     */
+    private void checkDirectiveArguments(List<GraphQLError> errors, TypeRegistry typeRegistry, TypeDefinition typeDefinition) {
+        String typeName = typeDefinition.getName();
+        boolean mutation = typeRegistry.schemaDefinition().exists(schemaDefinition -> schemaDefinition.getOperationTypeDefinitions().stream()
+                .anyMatch(op -> "mutation".equals(op.getName()) && typeName.equals(TypeModifiers.typeName(op.getType()).getName())));
+        checkDirectiveArguments(errors, typeName, Directives.of(typeDefinition), false);
+        List<FieldDefinition> fieldDefinitions = Collections.emptyList();
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            fieldDefinitions = ((ObjectTypeDefinition) typeDefinition).getFieldDefinitions();
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            fieldDefinitions = ((InterfaceTypeDefinition) typeDefinition).getFieldDefinitions();
+        }
+        fieldDefinitions.forEach(fieldDef -> {
+            String coordinate = typeName + "." + fieldDef.getName();
+            checkDirectiveArguments(errors, coordinate, fieldDef.getDirectives(), mutation);
+            checkConnection(errors, typeRegistry, coordinate, fieldDef, mutation);
+            checkStreamed(errors, coordinate, fieldDef);
+        });
+    }
+
+    private void checkStreamed(List<GraphQLError> errors, String coordinate, FieldDefinition fieldDef) {
+        Directive streamed = Directives.find(fieldDef.getDirectives(), Directives.STREAMED);
+        if (streamed == null) {
+            return;
+        }
+        Type fieldType = fieldDef.getType();
+        Type listType = fieldType instanceof NonNullType ? ((NonNullType) fieldType).getType() : fieldType;
+        if (!(listType instanceof ListType)) {
+            errors.add(new DirectiveArgumentError(coordinate, streamed, "must be on a list field"));
+        }
+        Value maxItemsValue = Directives.argument(streamed, Directives.STREAMED_MAX_ITEMS);
+        Long maxItems = Directives.number(maxItemsValue);
+        if (maxItemsValue != null && (maxItems == null || maxItems < 1)) {
+            errors.add(new DirectiveArgumentError(coordinate, streamed, "must give a positive whole 'maxItems' if it gives one"));
+        }
+        if (Directives.find(fieldDef.getDirectives(), Directives.CONNECTION) != null) {
+            errors.add(new DirectiveArgumentError(coordinate, streamed, "cannot be on a connection, which is read a page at a time instead"));
+        }
+        if (Directives.find(fieldDef.getDirectives(), Directives.HEDGE) != null) {
+            errors.add(new DirectiveArgumentError(coordinate, streamed, "cannot be hedged as the lists of the calls that lose would never be closed"));
+        }
+    }
+
+    /*
+     * the connection and edge types of a type are shared by every connection that lists it, so they have to agree on
+     * whether its items can be null.  It is checked as part of the listed type, which is checked again whenever a
+     * type that refers to it changes.
+     */
+    private void checkConnectionsAgree(List<GraphQLError> errors, TypeRegistry typeRegistry, String nodeTypeName) {
+        Set<String> typeNames = new LinkedHashSet<>();
+        typeNames.add(nodeTypeName);
+        typeNames.addAll(typeRegistry.dependentsOf(nodeTypeName));
+        String firstCoordinate = null;
+        String firstItemType = null;
+        for (String typeName : typeNames) {
+            List<TypeDefinition> typeDefinitions = new ArrayList<>();
+            TypeDefinition typeDef = typeRegistry.typeDefinition(typeName);
+            if (typeDef != null) {
+                typeDefinitions.add(typeDef);
+            }
+            typeDefinitions.addAll(typeRegistry.typeExtensions(typeName));
+            for (TypeDefinition typeDefinition : typeDefinitions) {
+                List<FieldDefinition> fieldDefinitions = Collections.emptyList();
+                if (typeDefinition instanceof ObjectTypeDefinition) {
+                    fieldDefinitions = ((ObjectTypeDefinition) typeDefinition).getFieldDefinitions();
+                } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+                    fieldDefinitions = ((InterfaceTypeDefinition) typeDefinition).getFieldDefinitions();
+                }
+                for (FieldDefinition fieldDef : fieldDefinitions) {
+                    Directive connection = Directives.find(fieldDef.getDirectives(), Directives.CONNECTION);
+                    Type fieldType = fieldDef.getType();
+                    Type listType = fieldType instanceof NonNullType ? ((NonNullType) fieldType).getType() : fieldType;
+                    if (connection == null || !(listType instanceof ListType) || !nodeTypeName.equals(TypeModifiers.typeName(listType).getName())) {
+                        continue;
+                    }
+                    String coordinate = typeName + "." + fieldDef.getName();
+                    String itemType = ((ListType) listType).getType() instanceof NonNullType ? nodeTypeName + "!" : nodeTypeName;
+                    if (firstCoordinate == null) {
+                        firstCoordinate = coordinate;
+                        firstItemType = itemType;
+                    } else if (!itemType.equals(firstItemType)) {
+                        errors.add(new DirectiveArgumentError(coordinate, connection, String.format("lists '%s' where '%s' lists '%s' but they would share the type '%s'",
+                                itemType, firstCoordinate, firstItemType, ConnectionDataFetcher.connectionTypeName(nodeTypeName))));
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * a connection is made from a list field, which gains the paging arguments and returns types made for it
+     */
+    private void checkConnection(List<GraphQLError> errors, TypeRegistry typeRegistry, String coordinate, FieldDefinition fieldDef, boolean mutation) {
+        Directive connection = Directives.find(fieldDef.getDirectives(), Directives.CONNECTION);
+        if (connection == null) {
+            return;
+        }
+        Type fieldType = fieldDef.getType();
+        Type listType = fieldType instanceof NonNullType ? ((NonNullType) fieldType).getType() : fieldType;
+        if (!(listType instanceof ListType)) {
+            errors.add(new DirectiveArgumentError(coordinate, connection, "must be on a list field"));
+        } else {
+            String nodeTypeName = TypeModifiers.typeName(fieldType).getName();
+            for (String typeName : Arrays.asList(ConnectionDataFetcher.connectionTypeName(nodeTypeName),
+                    ConnectionDataFetcher.edgeTypeName(nodeTypeName), ConnectionDataFetcher.PAGE_INFO_TYPE)) {
+                if (typeRegistry.typeDefinition(typeName) != null) {
+                    errors.add(new DirectiveArgumentError(coordinate, connection, "cannot make the type '" + typeName + "' as the SDL already defines it"));
+                }
+            }
+        }
+        for (InputValueDefinition argument : fieldDef.getInputValueDefinitions()) {
+            if (ConnectionDataFetcher.FIRST.equals(argument.getName()) || ConnectionDataFetcher.AFTER.equals(argument.getName())) {
+                errors.add(new DirectiveArgumentError(coordinate, connection, "cannot add the argument '" + argument.getName() + "' as the field already has it"));
+            }
+        }
+        Value defaultFirstValue = Directives.argument(connection, Directives.CONNECTION_DEFAULT_FIRST);
+        Long defaultFirst = Directives.number(defaultFirstValue);
+        Value maxFirstValue = Directives.argument(connection, Directives.CONNECTION_MAX_FIRST);
+        Long maxFirst = Directives.number(maxFirstValue);
+        if (defaultFirstValue != null && (defaultFirst == null || defaultFirst < 1)) {
+            errors.add(new DirectiveArgumentError(coordinate, connection, "must give a positive whole 'defaultFirst' if it gives one"));
+        } else if (maxFirstValue != null && (maxFirst == null || maxFirst < 1 || maxFirst >= Integer.MAX_VALUE)) {
+            errors.add(new DirectiveArgumentError(coordinate, connection, "must give a positive whole 'maxFirst' if it gives one"));
+        } else {
+            long effectiveDefault = defaultFirst == null ? ConnectionDataFetcher.DEFAULT_FIRST : defaultFirst;
+            long effectiveMax = maxFirst == null ? ConnectionDataFetcher.MAX_FIRST : maxFirst;
+            if (effectiveDefault > effectiveMax) {
+                errors.add(new DirectiveArgumentError(coordinate, connection, "must give a 'defaultFirst' no more than its 'maxFirst' of " + effectiveMax));
+            }
+        }
+        Value prefetchValue = Directives.argument(connection, Directives.CONNECTION_PREFETCH);
+        Boolean prefetch = Directives.flag(prefetchValue);
+        if (prefetchValue != null && prefetch == null) {
+            errors.add(new DirectiveArgumentError(coordinate, connection, "must give 'prefetch' as true or false if it gives it"));
+        } else if (mutation && Boolean.TRUE.equals(prefetch)) {
+            errors.add(new DirectiveArgumentError(coordinate, connection, "cannot prefetch on a mutation as that would run it again"));
+        }
+    }
+
+    private void checkDirectiveArguments(List<GraphQLError> errors, String coordinate, List<Directive> directives, boolean mutation) {
+        Directive auth = Directives.find(directives, Directives.AUTH);
+        if (auth != null) {
+            List<String> roles = Directives.names(Directives.argument(auth, Directives.AUTH_REQUIRES));
+            if (roles == null || roles.isEmpty()) {
+                errors.add(new DirectiveArgumentError(coordinate, auth, "must list the roles it requires as 'requires : [ROLE]'"));
+            }
+        }
+        Directive rateLimit = Directives.find(directives, Directives.RATE_LIMIT);
+        if (rateLimit != null) {
+            Long perSecond = Directives.number(Directives.argument(rateLimit, Directives.RATE_LIMIT_PER_SECOND));
+            if (perSecond == null || perSecond < 1) {
+                errors.add(new DirectiveArgumentError(coordinate, rateLimit, "must give a positive whole 'perSecond'"));
+            }
+            Value burstValue = Directives.argument(rateLimit, Directives.RATE_LIMIT_BURST);
+            Long burst = Directives.number(burstValue);
+            if (burstValue != null && (burst == null || burst < 1)) {
+                errors.add(new DirectiveArgumentError(coordinate, rateLimit, "must give a positive whole 'burst' if it gives one"));
+            } else if (perSecond != null && perSecond >= 1) {
+                // the burst is the rate when it is not given
+                long effectiveBurst = burst == null ? perSecond : burst;
+                if (effectiveBurst > RateLimits.maxBurst(perSecond)) {
+                    errors.add(new DirectiveArgumentError(coordinate, rateLimit, "must give a 'burst' no more than " + RateLimits.maxBurst(perSecond) + " at its 'perSecond' of " + perSecond));
+                }
+            }
+            Value keyValue = Directives.argument(rateLimit, Directives.RATE_LIMIT_KEY);
+            String key = Directives.name(keyValue);
+            if (keyValue != null && !Directives.RATE_LIMIT_KEY_CALLER.equals(key) && !Directives.RATE_LIMIT_KEY_GLOBAL.equals(key)) {
+                errors.add(new DirectiveArgumentError(coordinate, rateLimit, "must give a 'key' of \"caller\" or \"global\" if it gives one"));
+            }
+        }
+        Directive timeout = Directives.find(directives, Directives.TIMEOUT);
+        Long timeoutMs = null;
+        if (timeout != null) {
+            timeoutMs = Directives.number(Directives.argument(timeout, Directives.TIMEOUT_MS));
+            if (timeoutMs == null || timeoutMs < 1) {
+                errors.add(new DirectiveArgumentError(coordinate, timeout, "must give a positive whole 'ms'"));
+            }
+        }
+        Directive hedge = Directives.find(directives, Directives.HEDGE);
+        if (hedge != null) {
+            Long afterMs = Directives.number(Directives.argument(hedge, Directives.HEDGE_AFTER_MS));
+            if (afterMs == null || afterMs < 1) {
+                errors.add(new DirectiveArgumentError(coordinate, hedge, "must give a positive whole 'afterMs'"));
+            } else if (timeoutMs != null && afterMs >= timeoutMs) {
+                errors.add(new DirectiveArgumentError(coordinate, hedge, "must give an 'afterMs' less than the timeout of the field or it will never hedge"));
+            }
+            Value maxValue = Directives.argument(hedge, Directives.HEDGE_MAX);
+            Long max = Directives.number(maxValue);
+            if (maxValue != null && (max == null || max < 2)) {
+                errors.add(new DirectiveArgumentError(coordinate, hedge, "must give a 'max' of at least 2 if it gives one"));
+            }
+            if (mutation) {
+                errors.add(new DirectiveArgumentError(coordinate, hedge, "cannot be on a mutation as a hedged call is made more than once"));
+            }
+        }
+    }
 
     private void checkFieldTypesPresent(TypeRegistry typeRegistry, List<GraphQLError> errors, TypeDefinition typeDefinition, List<FieldDefinition> fields) {
         List<Type> fieldTypes = fields.stream().map(FieldDefinition::getType).collect(Collectors.toList());
@@ -170,7 +625,7 @@ public class SchemaTypeChecker {
 
     private Consumer<Type> checkTypeExists(String typeOfType, TypeRegistry typeRegistry, List<GraphQLError> errors, TypeDefinition typeDefinition) {
         return t -> {
-            TypeName unwrapped = typeInfo(t).getTypeName();
+            TypeName unwrapped = TypeModifiers.typeName(t);
             if (!typeRegistry.hasType(unwrapped)) {
                 errors.add(new MissingTypeError(typeOfType, typeDefinition, unwrapped));
             }
@@ -179,7 +634,7 @@ public class SchemaTypeChecker {
 
     private Consumer<OperationTypeDefinition> checkOperationTypesExist(TypeRegistry typeRegistry, List<GraphQLError> errors) {
         return op -> {
-            TypeName unwrapped = typeInfo(op.getType()).getTypeName();
+            TypeName unwrapped = TypeModifiers.typeName(op.getType());
             if (!typeRegistry.hasType(unwrapped)) {
                 errors.add(new MissingTypeError("operation", op, op.getName(), unwrapped));
             }
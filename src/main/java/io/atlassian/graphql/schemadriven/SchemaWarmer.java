@@ -0,0 +1,270 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.Scalars;
+import graphql.introspection.IntrospectionQuery;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import io.atlassian.fugue.Either;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs queries against a newly made schema before it takes traffic, so that the JIT has compiled the execution,
+ * coercion and data fetcher paths by the time the first real request arrives.
+ *
+ * <pre>
+ * new SchemaWarmer().warmWithStubs(typeRegistry);   // graphql-java's paths, with made up data
+ * new SchemaWarmer().warm(schema);                  // the real data fetchers too, where they are safe to call
+ * readiness.markReady();
+ * </pre>
+ *
+ * {@link #warm(GraphQLSchema)} calls the data fetchers of the schema for real, as often as it is told to, so it must
+ * not be used on a schema whose query fields have side effects, such as writing, sending or charging for anything,
+ * or call services that should not see the made up traffic.  Use {@link #warmWithStubs(TypeRegistry)} for those.
+ *
+ * Unless queries are given, the warmer runs the introspection query, a query of every field of the query type down
+ * to a depth, and a query of each query field on its own with made up arguments.  Mutations are never run.  It
+ * stops after the given number of queries or when the time is up, whichever is first.
+ */
+public class SchemaWarmer {
+
+    public static class Options {
+        private final int iterations;
+        private final long maxMillis;
+        private final List<String> queries;
+        private final int queryDepth;
+        private final SchemaGenerator.Options generatorOptions;
+
+        private Options(int iterations, long maxMillis, List<String> queries, int queryDepth, SchemaGenerator.Options generatorOptions) {
+            this.iterations = iterations;
+            this.maxMillis = maxMillis;
+            this.queries = queries;
+            this.queryDepth = queryDepth;
+            this.generatorOptions = generatorOptions;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis;
+        }
+
+        public List<String> getQueries() {
+            return queries;
+        }
+
+        public int getQueryDepth() {
+            return queryDepth;
+        }
+
+        public SchemaGenerator.Options getGeneratorOptions() {
+            return generatorOptions;
+        }
+
+        public static Options defaultOptions() {
+            return new Options(2000, TimeUnit.SECONDS.toMillis(30), Collections.emptyList(), 3, SchemaGenerator.Options.defaultOptions());
+        }
+
+        /**
+         * @param iterations the most queries to run
+         *
+         * @return a new options object
+         */
+        public Options iterations(int iterations) {
+            return new Options(iterations, this.maxMillis, this.queries, this.queryDepth, this.generatorOptions);
+        }
+
+        /**
+         * @param maxMillis the longest to spend warming up
+         *
+         * @return a new options object
+         */
+        public Options maxMillis(long maxMillis) {
+            return new Options(this.iterations, maxMillis, this.queries, this.queryDepth, this.generatorOptions);
+        }
+
+        /**
+         * @param queries the queries to run, round robin, instead of ones made from the schema
+         *
+         * @return a new options object
+         */
+        public Options queries(List<String> queries) {
+            return new Options(this.iterations, this.maxMillis, new ArrayList<>(queries), this.queryDepth, this.generatorOptions);
+        }
+
+        /**
+         * @param queryDepth how many levels of object fields the queries made from the schema select
+         *
+         * @return a new options object
+         */
+        public Options queryDepth(int queryDepth) {
+            return new Options(this.iterations, this.maxMillis, this.queries, queryDepth, this.generatorOptions);
+        }
+
+        /**
+         * @param generatorOptions the options to make the stubbed schema with, which should be those the real one is
+         *                         made with so the same data fetcher wrappers are warmed.  Their rate limits and
+         *                         tracer are left out so that the made up calls neither use up the real limits nor
+         *                         show up in the real counters.
+         *
+         * @return a new options object
+         */
+        public Options generatorOptions(SchemaGenerator.Options generatorOptions) {
+            return new Options(this.iterations, this.maxMillis, this.queries, this.queryDepth, generatorOptions);
+        }
+    }
+
+    private final Options options;
+
+    public SchemaWarmer() {
+        this(Options.defaultOptions());
+    }
+
+    public SchemaWarmer(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * Warms up against the schema as it is wired, so its own data fetchers are called.  The introspection result of
+     * the schema is computed along the way, ready for {@link IntrospectionCachingGraphQL}, which holds every
+     * description as text so that lazy descriptions take as much memory as eager ones from then on.
+     *
+     * This must not be used against data fetchers with side effects, as each of them is called many times with made
+     * up arguments.  Its rate limits are used up and its tracer and counters see the calls as they would real ones.
+     *
+     * @param schema the schema to warm up
+     *
+     * @return the report of the queries run
+     */
+    public LoadReport warm(GraphQLSchema schema) {
+        IntrospectionResult.forSchema(schema);
+        return run(new GraphQL(schema), queries(schema));
+    }
+
+    /**
+     * Warms up against a schema made from the registry with a {@link SyntheticWiring}, so that no real data fetcher
+     * is called while graphql-java's own paths are warmed with made up data.  The schema has rate limits of its own
+     * and no tracer, whatever the generator options say.
+     *
+     * @param typeRegistry the types the real schema is made from
+     *
+     * @return the errors making the stubbed schema or the report of the queries run
+     */
+    public Either<List<GraphQLError>, LoadReport> warmWithStubs(TypeRegistry typeRegistry) {
+        RuntimeWiring stubs = new SyntheticWiring().wire(typeRegistry);
+        // the real limits and tracer are shared with the real schema, which must not see the made up calls
+        SchemaGenerator.Options generatorOptions = options.getGeneratorOptions().rateLimits(null).tracer(null);
+        Either<List<GraphQLError>, GraphQLSchema> schema = new SchemaGenerator(generatorOptions).makeExecutableSchema(typeRegistry, stubs);
+        return schema.map(stubbed -> run(new GraphQL(stubbed), queries(stubbed)));
+    }
+
+    private List<String> queries(GraphQLSchema schema) {
+        if (!options.getQueries().isEmpty()) {
+            return options.getQueries();
+        }
+        return representativeQueries(schema, options.getQueryDepth());
+    }
+
+    private LoadReport run(GraphQL graphQL, List<String> queries) {
+        int iterations = Math.max(0, options.getIterations());
+        // the iterations are only a cap when the time runs out first, so the latencies grow as the queries are run
+        long[] latencies = new long[Math.min(iterations, 1024)];
+        long errorCount = 0;
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(options.getMaxMillis());
+        int run = 0;
+        while (run < iterations && System.nanoTime() - deadline < 0) {
+            long queryStarted = System.nanoTime();
+            try {
+                ExecutionResult result = graphQL.execute(queries.get(run % queries.size()));
+                if (result.getErrors() != null && !result.getErrors().isEmpty()) {
+                    errorCount++;
+                }
+            } catch (RuntimeException e) {
+                errorCount++;
+            }
+            if (run == latencies.length) {
+                latencies = Arrays.copyOf(latencies, (int) Math.min(iterations, 2L * latencies.length));
+            }
+            latencies[run++] = System.nanoTime() - queryStarted;
+        }
+        return new LoadReport(1, new long[][]{Arrays.copyOf(latencies, run)}, errorCount, System.nanoTime() - started);
+    }
+
+    /**
+     * @param schema the schema to query
+     * @param depth  how many levels of object fields to select
+     *
+     * @return the introspection query, a query of the whole query type and a query of each of its fields on its own
+     */
+    public static List<String> representativeQueries(GraphQLSchema schema, int depth) {
+        List<String> queries = new ArrayList<>();
+        queries.add(IntrospectionQuery.INTROSPECTION_QUERY);
+        String everything = LoadDriver.defaultQuery(schema, depth);
+        if (!everything.isEmpty()) {
+            queries.add(everything);
+        }
+        for (GraphQLFieldDefinition fieldDef : schema.getQueryType().getFieldDefinitions()) {
+            String arguments = literalArguments(fieldDef);
+            if (arguments == null) {
+                continue;
+            }
+            StringBuilder sb = new StringBuilder("{ ").append(fieldDef.getName()).append(arguments);
+            if (LoadDriver.appendFieldSelection(sb, LoadDriver.unwrap(fieldDef.getType()), depth)) {
+                queries.add(sb.append(" }").toString());
+            }
+        }
+        return queries;
+    }
+
+    /*
+     * every argument that can be written as a literal is given one so that argument coercion is warmed, and a field
+     * with a required argument that cannot be is left out
+     */
+    private static String literalArguments(GraphQLFieldDefinition fieldDef) {
+        List<String> arguments = new ArrayList<>();
+        for (GraphQLArgument argument : fieldDef.getArguments()) {
+            String literal = literal(LoadDriver.unwrap(argument.getType()));
+            if (literal != null) {
+                // a single value is also good for a list argument
+                arguments.add(argument.getName() + " : " + literal);
+            } else if (argument.getType() instanceof GraphQLNonNull && argument.getDefaultValue() == null) {
+                return null;
+            }
+        }
+        return arguments.isEmpty() ? "" : "(" + String.join(", ", arguments) + ")";
+    }
+
+    private static String literal(GraphQLType type) {
+        if (type == Scalars.GraphQLInt || type == Scalars.GraphQLLong || type == Scalars.GraphQLShort || type == Scalars.GraphQLByte
+                || type == Scalars.GraphQLBigInteger) {
+            return "1";
+        }
+        if (type == Scalars.GraphQLFloat || type == Scalars.GraphQLBigDecimal) {
+            return "1.5";
+        }
+        if (type == Scalars.GraphQLBoolean) {
+            return "true";
+        }
+        if (type == Scalars.GraphQLString || type == Scalars.GraphQLID) {
+            return "\"warmup\"";
+        }
+        if (type instanceof GraphQLEnumType && !((GraphQLEnumType) type).getValues().isEmpty()) {
+            return ((GraphQLEnumType) type).getValues().get(0).getName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,188 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.BaseStream;
+
+/**
+ * The value of a streamed list field, which hands graphql-java the items one at a time as it completes them so that
+ * only the items not yet completed are held, and by a cursor only those of the chunk being read.
+ *
+ * It can be iterated once.  What the items came from is closed when they run out, when the list reaches its most
+ * items, or by {@link StreamingExecutionStrategy} when the query fails part way through the list.
+ */
+class StreamedList implements Iterable<Object>, AutoCloseable {
+
+    private final Iterator<?> source;
+    private final AutoCloseable resource;
+    private final long maxItems;
+    private boolean iterated;
+    private boolean closed;
+
+    private StreamedList(Iterator<?> source, AutoCloseable resource, long maxItems) {
+        this.source = source;
+        this.resource = resource;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * @param value    what a data fetcher returned, which is a {@link java.util.stream.Stream}, an {@link Iterator},
+     *                 a {@link ChunkedCursor}, an {@link Iterable} or an array
+     * @param maxItems the most items to hand out or 0 for as many as there are
+     *
+     * @return the value as a streamed list or null if it is none of those
+     */
+    @SuppressWarnings("unchecked")
+    static StreamedList of(Object value, long maxItems) {
+        if (value instanceof BaseStream) {
+            return new StreamedList(((BaseStream<?, ?>) value).iterator(), (BaseStream<?, ?>) value, maxItems);
+        }
+        if (value instanceof ChunkedCursor) {
+            return new StreamedList(new ChunkIterator<>((ChunkedCursor<Object>) value), (ChunkedCursor<?>) value, maxItems);
+        }
+        if (value instanceof Iterator) {
+            return new StreamedList((Iterator<?>) value, closeable(value), maxItems);
+        }
+        if (value instanceof Iterable) {
+            return new StreamedList(((Iterable<?>) value).iterator(), closeable(value), maxItems);
+        }
+        if (value != null && value.getClass().isArray()) {
+            return new StreamedList(new ArrayIterator(value), null, maxItems);
+        }
+        return null;
+    }
+
+    private static AutoCloseable closeable(Object value) {
+        return value instanceof AutoCloseable ? (AutoCloseable) value : null;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("A streamed list can only be iterated once");
+        }
+        iterated = true;
+        return new Iterator<Object>() {
+            private long count;
+
+            @Override
+            public boolean hasNext() {
+                if (closed) {
+                    return false;
+                }
+                boolean more;
+                try {
+                    more = (maxItems == 0 || count < maxItems) && source.hasNext();
+                } catch (RuntimeException e) {
+                    closeAfter(e);
+                    throw e;
+                }
+                if (!more) {
+                    close();
+                }
+                return more;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                count++;
+                try {
+                    return source.next();
+                } catch (RuntimeException e) {
+                    closeAfter(e);
+                    throw e;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /*
+     * closes after a failure, keeping the failure as the one thrown
+     */
+    void closeAfter(Throwable failure) {
+        try {
+            close();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static class ChunkIterator<T> implements Iterator<T> {
+        private final ChunkedCursor<T> cursor;
+        private List<T> chunk = Collections.emptyList();
+        private int index;
+        private boolean done;
+
+        ChunkIterator(ChunkedCursor<T> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!done && index == chunk.size()) {
+                // let go of the last chunk before reading the next one
+                chunk = Collections.emptyList();
+                List<T> next = cursor.nextChunk();
+                chunk = next == null ? Collections.emptyList() : next;
+                index = 0;
+                done = chunk.isEmpty();
+            }
+            return !done;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.get(index++);
+        }
+    }
+
+    private static class ArrayIterator implements Iterator<Object> {
+        private final Object array;
+        private final int length;
+        private int index;
+
+        ArrayIterator(Object array) {
+            this.array = array;
+            this.length = Array.getLength(array);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < length;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return Array.get(array, index++);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Lets the data fetcher of a list field that the SDL streams return a {@link java.util.stream.Stream}, an
+ * {@link java.util.Iterator} or a {@link ChunkedCursor} instead of a list, which graphql-java then reads an item at a
+ * time, and cuts the list off at the most items the SDL allows it.
+ */
+class StreamingDataFetcher implements DataFetcher {
+
+    private final DataFetcher delegate;
+    private final long maxItems;
+
+    /**
+     * @param maxItems the most items of the list or 0 for as many as there are
+     */
+    StreamingDataFetcher(DataFetcher delegate, long maxItems) {
+        this.delegate = delegate;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        Object value = delegate.get(environment);
+        StreamedList streamed = StreamedList.of(value, maxItems);
+        return streamed == null ? value : streamed;
+    }
+}
@@ -0,0 +1,57 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionContext;
+import graphql.execution.SimpleExecutionStrategy;
+import graphql.language.Field;
+import graphql.schema.GraphQLList;
+
+import java.util.List;
+
+/**
+ * Executes a query as {@link SimpleExecutionStrategy} does, but closes a list that a data fetcher returned as an
+ * {@link AutoCloseable}, such as that of a streamed field, once the list is complete or has failed part way through.
+ *
+ * <pre>
+ * GraphQL graphQL = new GraphQL(schema, new StreamingExecutionStrategy(), new StreamingExecutionStrategy());
+ * </pre>
+ *
+ * A streamed list closes itself when it has been read to its end, so without this strategy it is only left open when
+ * the query fails part way through it.
+ */
+public class StreamingExecutionStrategy extends SimpleExecutionStrategy {
+
+    @Override
+    protected ExecutionResult completeValueForList(ExecutionContext executionContext, GraphQLList fieldType, List<Field> fields, Iterable<Object> result) {
+        if (!(result instanceof AutoCloseable)) {
+            return super.completeValueForList(executionContext, fieldType, fields, result);
+        }
+        ExecutionResult completed;
+        try {
+            completed = super.completeValueForList(executionContext, fieldType, fields, result);
+        } catch (RuntimeException | Error e) {
+            closeAfter((AutoCloseable) result, e);
+            throw e;
+        }
+        close((AutoCloseable) result);
+        return completed;
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void closeAfter(AutoCloseable closeable, Throwable failure) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
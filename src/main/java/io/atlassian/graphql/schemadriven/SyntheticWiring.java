@@ -0,0 +1,318 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.Scalars;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValueDefinition;
+import graphql.language.FieldDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeExtensionDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.TypeResolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * This wires every field of a type registry with a synthetic data fetcher that makes up deterministic fake data,
+ * so that the execution of a schema can be load tested before there is any backend behind it.
+ *
+ * <pre>
+ * RuntimeWiring wiring = new SyntheticWiring(SyntheticWiring.Options.defaultOptions().listSize(10)).wire(typeRegistry);
+ * GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(typeRegistry, wiring).right().get();
+ * </pre>
+ *
+ * The value of a field depends only on the seed, the path to it and its arguments, so the same query always gives
+ * the same result.  How long a fetch takes and whether it fails are drawn afresh for every call, so that a query that
+ * is run over and over sees the latency distribution and failure rate asked for.  Custom scalars are wired as
+ * strings and interfaces and unions get type resolvers that pick one of their object types per value.
+ *
+ * @see LoadDriver
+ */
+public class SyntheticWiring {
+
+    public static class Options {
+        private final int listSize;
+        private final long meanLatencyMicros;
+        private final long maxLatencyMicros;
+        private final double failureRate;
+        private final long seed;
+
+        private Options(int listSize, long meanLatencyMicros, long maxLatencyMicros, double failureRate, long seed) {
+            this.listSize = listSize;
+            this.meanLatencyMicros = meanLatencyMicros;
+            this.maxLatencyMicros = maxLatencyMicros;
+            this.failureRate = failureRate;
+            this.seed = seed;
+        }
+
+        public int getListSize() {
+            return listSize;
+        }
+
+        public long getMeanLatencyMicros() {
+            return meanLatencyMicros;
+        }
+
+        public long getMaxLatencyMicros() {
+            return maxLatencyMicros;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public static Options defaultOptions() {
+            return new Options(3, 0, 0, 0.0, 0L);
+        }
+
+        /**
+         * @param listSize the number of elements in every list field
+         *
+         * @return a new options object
+         */
+        public Options listSize(int listSize) {
+            return new Options(listSize, this.meanLatencyMicros, this.maxLatencyMicros, this.failureRate, this.seed);
+        }
+
+        /**
+         * Each fetch waits for an exponentially distributed time with the given mean, capped at the maximum, which
+         * gives the long tail that real backends have
+         *
+         * @param meanMicros the mean latency of a fetch in microseconds
+         * @param maxMicros  the maximum latency of a fetch in microseconds
+         *
+         * @return a new options object
+         */
+        public Options latency(long meanMicros, long maxMicros) {
+            return new Options(this.listSize, meanMicros, maxMicros, this.failureRate, this.seed);
+        }
+
+        /**
+         * @param failureRate the fraction of fetches, between 0 and 1, that throw an exception
+         *
+         * @return a new options object
+         */
+        public Options failureRate(double failureRate) {
+            return new Options(this.listSize, this.meanLatencyMicros, this.maxLatencyMicros, failureRate, this.seed);
+        }
+
+        /**
+         * @param seed the seed that all the fake data is derived from
+         *
+         * @return a new options object
+         */
+        public Options seed(long seed) {
+            return new Options(this.listSize, this.meanLatencyMicros, this.maxLatencyMicros, this.failureRate, seed);
+        }
+    }
+
+    /**
+     * The value of a field of object, interface or union type.  Its fields are made up from its seed when they are
+     * fetched.
+     */
+    public static class SyntheticObject {
+        private final String typeName;
+        private final long seed;
+        private final GraphQLObjectType objectType;
+
+        SyntheticObject(String typeName, long seed, GraphQLObjectType objectType) {
+            this.typeName = typeName;
+            this.seed = seed;
+            this.objectType = objectType;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        @Override
+        public String toString() {
+            return typeName + "@" + Long.toHexString(seed);
+        }
+    }
+
+    /**
+     * The exception thrown by the synthetic fetchers that are made to fail
+     */
+    public static class SyntheticFailure extends RuntimeException {
+        public SyntheticFailure(String message) {
+            super(message);
+        }
+    }
+
+    private static final TypeResolver TYPE_RESOLVER = object -> ((SyntheticObject) object).objectType;
+
+    private final Options options;
+
+    public SyntheticWiring() {
+        this(Options.defaultOptions());
+    }
+
+    public SyntheticWiring(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * Makes a runtime wiring with a synthetic data fetcher for every field of every object type in the registry
+     *
+     * @param typeRegistry the types to wire
+     *
+     * @return a new runtime wiring
+     */
+    public RuntimeWiring wire(TypeRegistry typeRegistry) {
+        RuntimeWiring wiring = new RuntimeWiring();
+        typeRegistry.customScalars().keySet().forEach(scalarName ->
+                wiring.scalar(new GraphQLScalarType(scalarName, "A synthetic " + scalarName, Scalars.GraphQLString.getCoercing())));
+
+        Map<String, TypeDefinition> types = typeRegistry.types();
+        Map<String, List<TypeExtensionDefinition>> typeExtensions = typeRegistry.typeExtensions();
+        Generator generator = new Generator(types, typeRegistry.possibleObjectTypes());
+
+        for (TypeDefinition typeDefinition : types.values()) {
+            if (typeDefinition instanceof InterfaceTypeDefinition || typeDefinition instanceof UnionTypeDefinition) {
+                wiring.forType(typeDefinition.getName()).typeResolver(TYPE_RESOLVER);
+            } else if (typeDefinition instanceof ObjectTypeDefinition) {
+                ObjectTypeDefinition objectType = (ObjectTypeDefinition) typeDefinition;
+                RuntimeWiring.TypeWiring typeWiring = wiring.forType(objectType.getName());
+                Stream.concat(Stream.of(objectType), typeExtensions.getOrDefault(objectType.getName(), Collections.emptyList()).stream())
+                        .flatMap(definition -> definition.getFieldDefinitions().stream())
+                        .forEach(fieldDef -> typeWiring.dataFetcher(fieldDef.getName(), new SyntheticDataFetcher(objectType.getName(), fieldDef, generator)));
+            }
+        }
+        return wiring;
+    }
+
+    /**
+     * Makes up values from seeds
+     */
+    class Generator {
+        private final Map<String, TypeDefinition> types;
+        private final Map<String, List<String>> possibleObjectTypes;
+
+        Generator(Map<String, TypeDefinition> types, Map<String, List<String>> possibleObjectTypes) {
+            this.types = types;
+            this.possibleObjectTypes = possibleObjectTypes;
+        }
+
+        Object value(DataFetchingEnvironment environment, String fieldName, Type type, long seed) {
+            if (type instanceof NonNullType) {
+                return value(environment, fieldName, ((NonNullType) type).getType(), seed);
+            }
+            if (type instanceof ListType) {
+                Type elementType = ((ListType) type).getType();
+                List<Object> list = new ArrayList<>(options.listSize);
+                for (int i = 0; i < options.listSize; i++) {
+                    list.add(value(environment, fieldName, elementType, mix(seed + i)));
+                }
+                return list;
+            }
+            String typeName = ((TypeName) type).getName();
+            switch (typeName) {
+                case "Int":
+                    return (int) ((seed >>> 1) % 1000);
+                case "Float":
+                    return (seed >>> 11) * 0x1.0p-53 * 1000;
+                case "Boolean":
+                    return (seed & 1) == 0;
+                case "ID":
+                    return Long.toHexString(seed);
+                case "String":
+                    return fieldName + "-" + Long.toHexString(seed & 0xffffL);
+                default:
+                    break;
+            }
+            TypeDefinition typeDefinition = types.get(typeName);
+            if (typeDefinition instanceof EnumTypeDefinition) {
+                List<EnumValueDefinition> values = ((EnumTypeDefinition) typeDefinition).getEnumValueDefinitions();
+                return values.get((int) ((seed >>> 1) % values.size())).getName();
+            }
+            if (typeDefinition instanceof ObjectTypeDefinition) {
+                return new SyntheticObject(typeName, seed, null);
+            }
+            List<String> objectTypes = possibleObjectTypes.get(typeName);
+            if (objectTypes != null && !objectTypes.isEmpty()) {
+                String objectTypeName = objectTypes.get((int) ((seed >>> 1) % objectTypes.size()));
+                GraphQLObjectType objectType = (GraphQLObjectType) environment.getGraphQLSchema().getType(objectTypeName);
+                return new SyntheticObject(objectTypeName, seed, objectType);
+            }
+            if (typeDefinition == null) {
+                // a custom scalar
+                return typeName + "-" + Long.toHexString(seed & 0xffffL);
+            }
+            // an interface or union that nothing implements has no value to give, which graphql-java reports on a
+            // non null field
+            return null;
+        }
+    }
+
+    class SyntheticDataFetcher implements DataFetcher {
+        private final String path;
+        private final String fieldName;
+        private final Type type;
+        private final long fieldSeed;
+        private final Generator generator;
+
+        SyntheticDataFetcher(String typeName, FieldDefinition fieldDefinition, Generator generator) {
+            this.path = typeName + "." + fieldDefinition.getName();
+            this.fieldName = fieldDefinition.getName();
+            this.type = fieldDefinition.getType();
+            this.fieldSeed = mix(path.hashCode());
+            this.generator = generator;
+        }
+
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            Object source = environment.getSource();
+            long parentSeed = source instanceof SyntheticObject ? ((SyntheticObject) source).seed : options.seed;
+            long seed = mix(parentSeed ^ fieldSeed);
+            Map<String, Object> arguments = environment.getArguments();
+            if (arguments != null && !arguments.isEmpty()) {
+                seed = mix(seed ^ arguments.hashCode());
+            }
+
+            if (options.meanLatencyMicros > 0) {
+                // exponentially distributed
+                double u = ThreadLocalRandom.current().nextDouble();
+                long micros = Math.min(options.maxLatencyMicros, (long) (-options.meanLatencyMicros * Math.log(1 - u)));
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+            }
+            if (options.failureRate > 0 && ThreadLocalRandom.current().nextDouble() < options.failureRate) {
+                throw new SyntheticFailure("synthetic failure of " + path);
+            }
+            return generator.value(environment, fieldName, type, seed);
+        }
+    }
+
+    /*
+     * the splitmix64 finaliser, which spreads every input bit across the result
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
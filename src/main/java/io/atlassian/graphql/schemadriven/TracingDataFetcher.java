@@ -0,0 +1,66 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Records how long a data fetcher takes, and how much it returns, when the request is sampled by a {@link ResolverTracer}
+ */
+class TracingDataFetcher implements DataFetcher {
+
+    private final DataFetcher delegate;
+    private final ResolverTracer tracer;
+    private final int fieldId;
+
+    TracingDataFetcher(DataFetcher delegate, ResolverTracer tracer, int fieldId) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+        this.fieldId = fieldId;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        ResolverTracer.RequestTrace trace = traceOf(environment.getContext());
+        if (trace == null || !trace.isSampled()) {
+            return delegate.get(environment);
+        }
+        long startNanos = System.nanoTime();
+        Object result = null;
+        try {
+            result = delegate.get(environment);
+            return result;
+        } finally {
+            tracer.record(trace, fieldId, environment.getFields().get(0), startNanos, System.nanoTime(), sizeOf(result));
+        }
+    }
+
+    private static ResolverTracer.RequestTrace traceOf(Object context) {
+        if (context instanceof ResolverTracer.RequestTrace) {
+            return (ResolverTracer.RequestTrace) context;
+        }
+        if (context instanceof ResolverTracer.Holder) {
+            return ((ResolverTracer.Holder) context).getRequestTrace();
+        }
+        return null;
+    }
+
+    private static int sizeOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        return 1;
+    }
+}
@@ -1,8 +1,6 @@
 package io.atlassian.graphql.schemadriven;
 
 import graphql.Scalars;
-import graphql.language.ListType;
-import graphql.language.NonNullType;
 import graphql.language.Type;
 import graphql.language.TypeName;
 import graphql.schema.GraphQLList;
@@ -11,8 +9,9 @@ import graphql.schema.GraphQLScalarType;
 import graphql.schema.GraphQLType;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
 
 public class TypeInfo {
     
@@ -42,21 +41,12 @@ public class TypeInfo {
 
     private final Type rawType;
     private final TypeName typeName;
-    private final Stack<Class<?>> decoration = new Stack<>();
+    private final int modifiers;
 
     public TypeInfo(Type type) {
         this.rawType = type;
-        while (!(type instanceof TypeName)) {
-            if (type instanceof NonNullType) {
-                decoration.push(NonNullType.class);
-                type = ((NonNullType) type).getType();
-            }
-            if (type instanceof ListType) {
-                decoration.push(ListType.class);
-                type = ((ListType) type).getType();
-            }
-        }
-        this.typeName = (TypeName) type;
+        this.typeName = TypeModifiers.typeName(type);
+        this.modifiers = TypeModifiers.of(type);
     }
 
     public Type getRawType() {
@@ -71,6 +61,13 @@ public class TypeInfo {
         return typeName.getName();
     }
 
+    /**
+     * @return the list and non null wrapping of the type packed as described in {@link TypeModifiers}
+     */
+    int getModifiers() {
+        return modifiers;
+    }
+
     /**
      * This will decorate a grapql type with the original hirearchy of non null and list ness
      * it originally contained
@@ -78,31 +75,54 @@ public class TypeInfo {
      * @return the decorated type
      */
     public <T extends GraphQLType> T decorate(GraphQLType objectType) {
+        return decorate(objectType, null);
+    }
 
+    /**
+     * Decorates the type re-using the wrapper types of the interner, so that every '[String!]!' say is the one instance
+     *
+     * @param objectType this should be a graphql type that was originally built from this raw type
+     * @param interner   the wrappers made so far or null to always make new ones
+     * @return the decorated type
+     */
+    @SuppressWarnings("unchecked")
+    <T extends GraphQLType> T decorate(GraphQLType objectType, WrapperInterner interner) {
         GraphQLType out = objectType;
-        Stack<Class<?>> wrappingStack = new Stack<>();
-        wrappingStack.addAll(this.decoration);
-        while (! wrappingStack.isEmpty()) {
-            Class<?> clazz = wrappingStack.pop();
-            if (clazz.equals(NonNullType.class)) {
-                out = new GraphQLNonNull(out);
-            }
-            if (clazz.equals(ListType.class)) {
-                out = new GraphQLList(out);
+        // the innermost wrapping is applied first
+        for (int level = TypeModifiers.depth(modifiers) - 1; level >= 0; level--) {
+            boolean nonNull = TypeModifiers.isNonNull(modifiers, level);
+            if (interner != null) {
+                out = nonNull ? interner.nonNull(out) : interner.list(out);
+            } else {
+                out = nonNull ? new GraphQLNonNull(out) : new GraphQLList(out);
             }
         }
-        // we handle both input and output graphql types
-        //noinspection unchecked
+        // list and non null wrap input and output types alike, so the wrapped type is whichever kind the given one was
         return (T) out;
     }
 
+    /**
+     * Shares wrapper types between all the places in a schema that wrap the same type in the same way
+     */
+    static class WrapperInterner {
+        private final Map<GraphQLType, GraphQLNonNull> nonNulls = new IdentityHashMap<>();
+        private final Map<GraphQLType, GraphQLList> lists = new IdentityHashMap<>();
+
+        GraphQLNonNull nonNull(GraphQLType type) {
+            return nonNulls.computeIfAbsent(type, GraphQLNonNull::new);
+        }
+
+        GraphQLList list(GraphQLType type) {
+            return lists.computeIfAbsent(type, GraphQLList::new);
+        }
+    }
+
     @Override
     public String toString() {
         return "TypeInfo{" +
                 "rawType=" + rawType +
                 ", typeName=" + typeName +
-                ", isNonNull=" + decoration +
+                ", modifiers=" + TypeModifiers.toString(modifiers, typeName.getName()) +
                 '}';
     }
 }
-
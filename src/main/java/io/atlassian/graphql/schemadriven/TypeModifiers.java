@@ -0,0 +1,107 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.Type;
+import graphql.language.TypeName;
+
+/**
+ * The list and non null wrapping of a type reference packed into an int.  The low 5 bits hold the number of
+ * wrappers and each bit above that says whether the wrapper at that level, outermost first, is non null (1)
+ * or a list (0).  So '[String!]!' is non null, list, non null which is depth 3 and bits 101.
+ *
+ * Zero means no wrapping at all.
+ */
+final class TypeModifiers {
+
+    static final int NONE = 0;
+
+    private static final int DEPTH_BITS = 5;
+    private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+    static final int MAX_DEPTH = Integer.SIZE - DEPTH_BITS;
+
+    private TypeModifiers() {
+    }
+
+    static int of(Type type) {
+        int modifiers = NONE;
+        while (!(type instanceof TypeName)) {
+            if (type instanceof NonNullType) {
+                modifiers = wrapInner(modifiers, true);
+                type = ((NonNullType) type).getType();
+            } else {
+                modifiers = wrapInner(modifiers, false);
+                type = ((ListType) type).getType();
+            }
+        }
+        return modifiers;
+    }
+
+    static TypeName typeName(Type type) {
+        while (!(type instanceof TypeName)) {
+            type = type instanceof NonNullType ? ((NonNullType) type).getType() : ((ListType) type).getType();
+        }
+        return (TypeName) type;
+    }
+
+    /**
+     * Adds a wrapper inside of the existing ones, which is the order they are met when walking an AST type
+     */
+    static int wrapInner(int modifiers, boolean nonNull) {
+        int depth = depth(modifiers);
+        if (depth == MAX_DEPTH) {
+            throw new IllegalArgumentException("Type wrapping is nested more than " + MAX_DEPTH + " levels deep");
+        }
+        int flags = modifiers >>> DEPTH_BITS;
+        if (nonNull) {
+            flags |= 1 << depth;
+        }
+        return (flags << DEPTH_BITS) | (depth + 1);
+    }
+
+    static int depth(int modifiers) {
+        return modifiers & DEPTH_MASK;
+    }
+
+    /**
+     * @param modifiers the packed modifiers
+     * @param level     the wrapping level where 0 is the outermost
+     *
+     * @return true if the wrapper at that level is non null, false if it is a list
+     */
+    static boolean isNonNull(int modifiers, int level) {
+        return ((modifiers >>> (DEPTH_BITS + level)) & 1) == 1;
+    }
+
+    static boolean isNonNull(int modifiers) {
+        return depth(modifiers) > 0 && isNonNull(modifiers, 0);
+    }
+
+    /**
+     * Rebuilds the AST wrapping around the type name
+     *
+     * @param modifiers the packed modifiers
+     * @param typeName  the innermost type name
+     *
+     * @return an AST type
+     */
+    static Type toType(int modifiers, TypeName typeName) {
+        Type type = typeName;
+        for (int level = depth(modifiers) - 1; level >= 0; level--) {
+            type = isNonNull(modifiers, level) ? new NonNullType(type) : new ListType(type);
+        }
+        return type;
+    }
+
+    static String toString(int modifiers, String typeName) {
+        StringBuilder sb = new StringBuilder(typeName);
+        for (int level = depth(modifiers) - 1; level >= 0; level--) {
+            if (isNonNull(modifiers, level)) {
+                sb.append('!');
+            } else {
+                sb.insert(0, '[').append(']');
+            }
+        }
+        return sb.toString();
+    }
+}
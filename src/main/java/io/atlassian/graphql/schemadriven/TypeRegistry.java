@@ -2,6 +2,9 @@ package io.atlassian.graphql.schemadriven;
 
 import graphql.GraphQLError;
 import graphql.language.Definition;
+import graphql.language.FieldDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InterfaceTypeDefinition;
 import graphql.language.ListType;
 import graphql.language.Node;
 import graphql.language.NonNullType;
@@ -13,14 +16,19 @@ import graphql.language.Type;
 import graphql.language.TypeDefinition;
 import graphql.language.TypeExtensionDefinition;
 import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
 import io.atlassian.fugue.Option;
 import io.atlassian.graphql.schemadriven.errors.SchemaRedefinitionError;
 import io.atlassian.graphql.schemadriven.errors.TypeRedefinitionError;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.atlassian.fugue.Option.none;
 import static io.atlassian.fugue.Option.option;
@@ -30,9 +38,13 @@ public class TypeRegistry {
 
     private final Map<String, ScalarTypeDefinition> standardScalarTypes = new LinkedHashMap<>();
     private final Map<String, ScalarTypeDefinition> scalarTypes = new LinkedHashMap<>();
-    private final Map<String, TypeExtensionDefinition> typeExtensions = new LinkedHashMap<>();
+    private final Map<String, List<TypeExtensionDefinition>> typeExtensions = new LinkedHashMap<>();
     private final Map<String, TypeDefinition> types = new LinkedHashMap<>();
     private SchemaDefinition schema;
+    private SchemaDescriptions descriptions = SchemaDescriptions.EMPTY;
+    // type name to the names of the types it refers to and back again
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
 
     public TypeRegistry() {
         seedScalars();
@@ -62,13 +74,19 @@ public class TypeRegistry {
     public Option<GraphQLError> add(Definition definition) {
         if (definition instanceof TypeExtensionDefinition) {
             TypeExtensionDefinition newEntry = (TypeExtensionDefinition) definition;
-            return define(typeExtensions, typeExtensions, newEntry);
+            // a type can be extended many times, say once per schema file
+            typeExtensions.computeIfAbsent(newEntry.getName(), k -> new ArrayList<>()).add(newEntry);
+            updateDependencies(newEntry.getName());
         } else if (definition instanceof ScalarTypeDefinition) {
             ScalarTypeDefinition newEntry = (ScalarTypeDefinition) definition;
             return define(scalarTypes, scalarTypes, newEntry);
         } else if (definition instanceof TypeDefinition) {
             TypeDefinition newEntry = (TypeDefinition) definition;
-            return define(types, types, newEntry);
+            Option<GraphQLError> error = define(types, types, newEntry);
+            if (error.isEmpty()) {
+                updateDependencies(newEntry.getName());
+            }
+            return error;
         } else if (definition instanceof SchemaDefinition) {
             SchemaDefinition newSchema = (SchemaDefinition) definition;
             if (schema != null) {
@@ -93,6 +111,26 @@ public class TypeRegistry {
     }
 
     public Option<List<GraphQLError>> merge(TypeRegistry typeRegistry) {
+        return merge(typeRegistry, SchemaBuildListener.NOOP);
+    }
+
+    /**
+     * Merges the other registry into this one, telling the listener about the merge phase
+     *
+     * @param typeRegistry the registry to merge in
+     * @param listener     the listener to call back
+     *
+     * @return the errors of the merge if any, in which case nothing was merged
+     */
+    public Option<List<GraphQLError>> merge(TypeRegistry typeRegistry, SchemaBuildListener listener) {
+        BuildPhases.Timer timer = new BuildPhases(listener).start(SchemaBuildListener.Phase.MERGE, null);
+        Option<List<GraphQLError>> result = mergeImpl(typeRegistry);
+        int typeCount = typeRegistry.types.size() + typeRegistry.scalarTypes.size();
+        timer.finish(typeCount, BuildPhases.fieldCount(typeRegistry.types.values()), result.fold(() -> 0, List::size));
+        return result;
+    }
+
+    private Option<List<GraphQLError>> mergeImpl(TypeRegistry typeRegistry) {
         List<GraphQLError> errors = new ArrayList<>();
 
         Map<String, TypeDefinition> tempTypes = new LinkedHashMap<>();
@@ -101,9 +139,6 @@ public class TypeRegistry {
         Map<String, ScalarTypeDefinition> tempScalarTypes = new LinkedHashMap<>();
         typeRegistry.scalarTypes.values().forEach(newEntry -> define(this.scalarTypes, tempScalarTypes, newEntry).forEach(errors::add));
 
-        Map<String, TypeExtensionDefinition> tempTypeExtensions = new LinkedHashMap<>();
-        typeRegistry.typeExtensions.values().forEach(newEntry -> define(this.typeExtensions, tempTypeExtensions, newEntry).forEach(errors::add));
-
         if (typeRegistry.schema != null && this.schema != null) {
             errors.add(new SchemaRedefinitionError(this.schema, typeRegistry.schema));
         }
@@ -113,15 +148,159 @@ public class TypeRegistry {
         }
 
         // ok commit to the merge
-        this.schema = typeRegistry.schema;
+        if (typeRegistry.schema != null) {
+            this.schema = typeRegistry.schema;
+        }
         this.types.putAll(tempTypes);
-        this.typeExtensions.putAll(tempTypeExtensions);
+        typeRegistry.typeExtensions.forEach((name, extensions) ->
+                this.typeExtensions.computeIfAbsent(name, k -> new ArrayList<>()).addAll(extensions));
         this.scalarTypes.putAll(tempScalarTypes);
+        this.descriptions = this.descriptions.merge(typeRegistry.descriptions);
+        tempTypes.keySet().forEach(this::updateDependencies);
+        typeRegistry.typeExtensions.keySet().forEach(this::updateDependencies);
 
         return Option.none();
     }
 
 
+    /**
+     * Removes a definition so that it can be replaced, say as a schema is edited.  Type and scalar definitions are
+     * removed by name and type extensions by identity.
+     *
+     * @param definition the definition to remove
+     *
+     * @return true if the definition was in the registry
+     */
+    public boolean remove(Definition definition) {
+        boolean removed = false;
+        if (definition instanceof TypeExtensionDefinition) {
+            String name = ((TypeExtensionDefinition) definition).getName();
+            List<TypeExtensionDefinition> extensions = typeExtensions.getOrDefault(name, Collections.emptyList());
+            removed = extensions.removeIf(extension -> extension == definition);
+            if (extensions.isEmpty()) {
+                typeExtensions.remove(name);
+            }
+            updateDependencies(name);
+        } else if (definition instanceof ScalarTypeDefinition) {
+            removed = scalarTypes.remove(((ScalarTypeDefinition) definition).getName()) != null;
+        } else if (definition instanceof TypeDefinition) {
+            String name = ((TypeDefinition) definition).getName();
+            removed = types.remove(name) != null;
+            updateDependencies(name);
+        } else if (definition instanceof SchemaDefinition) {
+            removed = schema != null;
+            schema = null;
+        }
+        return removed;
+    }
+
+    /**
+     * @param typeName the name of a type
+     *
+     * @return the names of the types that the type, with its extensions, refers to via its field and argument
+     * types, the interfaces it implements or its union members
+     */
+    public Set<String> dependenciesOf(String typeName) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(dependencies.getOrDefault(typeName, Collections.emptySet())));
+    }
+
+    /**
+     * @param typeName the name of a type
+     *
+     * @return the names of the types that refer to the type, whether or not it is defined
+     */
+    public Set<String> dependentsOf(String typeName) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(dependents.getOrDefault(typeName, Collections.emptySet())));
+    }
+
+    private void updateDependencies(String typeName) {
+        Set<String> newDependencies = new LinkedHashSet<>();
+        TypeDefinition typeDefinition = types.get(typeName);
+        if (typeDefinition != null) {
+            addDependencies(newDependencies, typeDefinition);
+        }
+        typeExtensions.getOrDefault(typeName, Collections.emptyList()).forEach(extension -> addDependencies(newDependencies, extension));
+        newDependencies.remove(typeName);
+
+        Set<String> oldDependencies = dependencies.getOrDefault(typeName, Collections.emptySet());
+        for (String oldDependency : oldDependencies) {
+            if (!newDependencies.contains(oldDependency)) {
+                Set<String> oldDependents = dependents.get(oldDependency);
+                oldDependents.remove(typeName);
+                if (oldDependents.isEmpty()) {
+                    dependents.remove(oldDependency);
+                }
+            }
+        }
+        for (String newDependency : newDependencies) {
+            dependents.computeIfAbsent(newDependency, k -> new LinkedHashSet<>()).add(typeName);
+        }
+        if (newDependencies.isEmpty()) {
+            dependencies.remove(typeName);
+        } else {
+            dependencies.put(typeName, newDependencies);
+        }
+    }
+
+    private static void addDependencies(Set<String> dependencies, TypeDefinition typeDefinition) {
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            ObjectTypeDefinition objectType = (ObjectTypeDefinition) typeDefinition;
+            objectType.getImplements().forEach(type -> dependencies.add(TypeModifiers.typeName(type).getName()));
+            addFieldDependencies(dependencies, objectType.getFieldDefinitions());
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            addFieldDependencies(dependencies, ((InterfaceTypeDefinition) typeDefinition).getFieldDefinitions());
+        } else if (typeDefinition instanceof UnionTypeDefinition) {
+            ((UnionTypeDefinition) typeDefinition).getMemberTypes().forEach(type -> dependencies.add(TypeModifiers.typeName(type).getName()));
+        } else if (typeDefinition instanceof InputObjectTypeDefinition) {
+            ((InputObjectTypeDefinition) typeDefinition).getInputValueDefinitions().forEach(inputValue ->
+                    dependencies.add(TypeModifiers.typeName(inputValue.getType()).getName()));
+        }
+    }
+
+    private static void addFieldDependencies(Set<String> dependencies, List<FieldDefinition> fieldDefinitions) {
+        for (FieldDefinition fieldDef : fieldDefinitions) {
+            dependencies.add(TypeModifiers.typeName(fieldDef.getType()).getName());
+            fieldDef.getInputValueDefinitions().forEach(inputValue -> dependencies.add(TypeModifiers.typeName(inputValue.getType()).getName()));
+        }
+    }
+
+    TypeDefinition typeDefinition(String typeName) {
+        return types.get(typeName);
+    }
+
+    List<TypeExtensionDefinition> typeExtensions(String typeName) {
+        return typeExtensions.getOrDefault(typeName, Collections.emptyList());
+    }
+
+    /**
+     * @param abstractTypeName the name of an interface or union
+     *
+     * @return the object types that implement the interface, found via the dependency graph, or the union members
+     */
+    List<String> possibleObjectTypes(String abstractTypeName) {
+        TypeDefinition typeDefinition = types.get(abstractTypeName);
+        List<String> possibleObjectTypes = new ArrayList<>();
+        if (typeDefinition instanceof UnionTypeDefinition) {
+            ((UnionTypeDefinition) typeDefinition).getMemberTypes().forEach(type -> possibleObjectTypes.add(TypeModifiers.typeName(type).getName()));
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            for (String dependent : dependents.getOrDefault(abstractTypeName, Collections.emptySet())) {
+                TypeDefinition dependentType = types.get(dependent);
+                if (dependentType instanceof ObjectTypeDefinition && implementsInterface((ObjectTypeDefinition) dependentType, abstractTypeName)) {
+                    possibleObjectTypes.add(dependent);
+                }
+            }
+        }
+        return possibleObjectTypes;
+    }
+
+    private boolean implementsInterface(ObjectTypeDefinition objectType, String interfaceName) {
+        List<ObjectTypeDefinition> parts = new ArrayList<>();
+        parts.add(objectType);
+        parts.addAll(typeExtensions(objectType.getName()));
+        return parts.stream().flatMap(part -> part.getImplements().stream())
+                .anyMatch(type -> interfaceName.equals(TypeModifiers.typeName(type).getName()));
+    }
+
     public Map<String, TypeDefinition> types() {
         return new LinkedHashMap<>(types);
     }
@@ -132,25 +311,77 @@ public class TypeRegistry {
         return scalars;
     }
 
-    public Map<String, TypeExtensionDefinition> typeExtensions() {
-        return new LinkedHashMap<>(typeExtensions);
+    Map<String, ScalarTypeDefinition> customScalars() {
+        return new LinkedHashMap<>(scalarTypes);
+    }
+
+    /**
+     * @return a map of type name to the list of extensions of that type, in the order they were added
+     */
+    public Map<String, List<TypeExtensionDefinition>> typeExtensions() {
+        Map<String, List<TypeExtensionDefinition>> extensions = new LinkedHashMap<>();
+        typeExtensions.forEach((name, list) -> extensions.put(name, new ArrayList<>(list)));
+        return extensions;
     }
 
     public Option<SchemaDefinition> schemaDefinition() {
         return option(schema);
     }
 
+    /**
+     * @return the descriptions read from the comments in the SDL the types were compiled from
+     */
+    public SchemaDescriptions descriptions() {
+        return descriptions;
+    }
+
+    void addDescriptions(SchemaDescriptions descriptions) {
+        this.descriptions = this.descriptions.merge(descriptions);
+    }
+
     private GraphQLError handleReDefinition(TypeDefinition oldEntry, TypeDefinition newEntry) {
         return new TypeRedefinitionError(newEntry, oldEntry);
     }
 
+    /**
+     * @return a map of interface name to the object types that implement it, including via extensions, and of
+     * union name to its member types
+     */
+    Map<String, List<String>> possibleObjectTypes() {
+        Map<String, List<String>> possibleObjectTypes = new LinkedHashMap<>();
+        for (TypeDefinition typeDefinition : types.values()) {
+            if (typeDefinition instanceof UnionTypeDefinition) {
+                List<String> members = possibleObjectTypes.computeIfAbsent(typeDefinition.getName(), k -> new ArrayList<>());
+                ((UnionTypeDefinition) typeDefinition).getMemberTypes().forEach(type -> members.add(TypeModifiers.typeName(type).getName()));
+            } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+                possibleObjectTypes.computeIfAbsent(typeDefinition.getName(), k -> new ArrayList<>());
+            }
+        }
+        for (TypeDefinition typeDefinition : types.values()) {
+            if (typeDefinition instanceof ObjectTypeDefinition) {
+                List<ObjectTypeDefinition> parts = new ArrayList<>();
+                parts.add((ObjectTypeDefinition) typeDefinition);
+                parts.addAll(typeExtensions.getOrDefault(typeDefinition.getName(), Collections.emptyList()));
+                for (ObjectTypeDefinition part : parts) {
+                    part.getImplements().forEach(type -> {
+                        List<String> implementors = possibleObjectTypes.computeIfAbsent(TypeModifiers.typeName(type).getName(), k -> new ArrayList<>());
+                        if (!implementors.contains(typeDefinition.getName())) {
+                            implementors.add(typeDefinition.getName());
+                        }
+                    });
+                }
+            }
+        }
+        return possibleObjectTypes;
+    }
+
     public boolean hasType(TypeName typeName) {
         String name = typeName.getName();
         return types.containsKey(name) || standardScalarTypes.containsKey(name) || scalarTypes.containsKey(name) || typeExtensions.containsKey(name);
     }
 
     public Option<TypeDefinition> getType(Type type) {
-        String typeName = TypeInfo.typeInfo(type).getName();
+        String typeName = TypeModifiers.typeName(type).getName();
         TypeDefinition typeDefinition = types.get(typeName);
         if (typeDefinition != null) {
             return some(typeDefinition);
@@ -0,0 +1,160 @@
+package io.atlassian.graphql.schemadriven;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A buffered UTF-8 output that JSON can be written to either as pre-encoded bytes or, via {@link Appendable}, as
+ * characters that are encoded as they are written.  It is not thread safe.
+ */
+class Utf8Output implements Appendable {
+
+    private static final byte[] MIN_INT = "-2147483648".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private int position;
+
+    Utf8Output(OutputStream outputStream) {
+        this(outputStream, 8192);
+    }
+
+    Utf8Output(OutputStream outputStream, int bufferSize) {
+        this.outputStream = outputStream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    void write(byte b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = b;
+    }
+
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                outputStream.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void writeInt(int value) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            write(MIN_INT);
+            return;
+        }
+        if (buffer.length - position < 11) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    /**
+     * Writes a quoted and escaped JSON string, encoding it straight into the buffer
+     *
+     * @param s the string to write
+     */
+    void writeString(String s) throws IOException {
+        write((byte) '"');
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                write((byte) c);
+                continue;
+            }
+            String escape = JsonWriter.escape(c);
+            if (escape != null) {
+                append(escape);
+            } else {
+                i = writeChar(s, i);
+            }
+        }
+        write((byte) '"');
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (c < 0x80) {
+                write((byte) c);
+            } else {
+                i = writeChar(csq, i);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (c < 0x80) {
+            write((byte) c);
+        } else {
+            writeChar(String.valueOf(c), 0);
+        }
+        return this;
+    }
+
+    /*
+     * encodes the character at the index, and the low surrogate after it if it is a high surrogate, returning the
+     * index of the last character used
+     */
+    private int writeChar(CharSequence csq, int i) throws IOException {
+        char c = csq.charAt(i);
+        if (c < 0x80) {
+            write((byte) c);
+        } else if (c < 0x800) {
+            write((byte) (0xc0 | (c >> 6)));
+            write((byte) (0x80 | (c & 0x3f)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < csq.length() && Character.isLowSurrogate(csq.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, csq.charAt(i + 1));
+            write((byte) (0xf0 | (codePoint >> 18)));
+            write((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+            write((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+            write((byte) (0x80 | (codePoint & 0x3f)));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            // an unpaired surrogate can't be encoded
+            write((byte) '?');
+        } else {
+            write((byte) (0xe0 | (c >> 12)));
+            write((byte) (0x80 | ((c >> 6) & 0x3f)));
+            write((byte) (0x80 | (c & 0x3f)));
+        }
+        return i;
+    }
+
+    private void flushBuffer() throws IOException {
+        outputStream.write(buffer, 0, position);
+        position = 0;
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,66 @@
+package io.atlassian.graphql.schemadriven;
+
+import graphql.schema.DataFetcher;
+
+import java.util.Map;
+
+/**
+ * An immutable open addressing table of data fetchers keyed by (type name, field name) that is looked up without
+ * allocating a composite key.  It is safe to share between threads once built.
+ */
+class WiringTable {
+
+    private final String[] typeNames;
+    private final String[] fieldNames;
+    private final DataFetcher[] dataFetchers;
+    private final int mask;
+    private final int size;
+
+    WiringTable(Map<String, Map<String, DataFetcher>> dataFetchersByType) {
+        int count = 0;
+        for (Map<String, DataFetcher> fieldFetchers : dataFetchersByType.values()) {
+            count += fieldFetchers.size();
+        }
+        // keep the table at most half full so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(4, count * 2 - 1)) << 1;
+        this.typeNames = new String[capacity];
+        this.fieldNames = new String[capacity];
+        this.dataFetchers = new DataFetcher[capacity];
+        this.mask = capacity - 1;
+        this.size = count;
+
+        dataFetchersByType.forEach((typeName, fieldFetchers) ->
+                fieldFetchers.forEach((fieldName, dataFetcher) -> put(typeName, fieldName, dataFetcher)));
+    }
+
+    private void put(String typeName, String fieldName, DataFetcher dataFetcher) {
+        int i = index(typeName, fieldName);
+        while (typeNames[i] != null) {
+            i = (i + 1) & mask;
+        }
+        typeNames[i] = typeName;
+        fieldNames[i] = fieldName;
+        dataFetchers[i] = dataFetcher;
+    }
+
+    DataFetcher get(String typeName, String fieldName) {
+        int i = index(typeName, fieldName);
+        String candidate;
+        while ((candidate = typeNames[i]) != null) {
+            if (candidate.equals(typeName) && fieldNames[i].equals(fieldName)) {
+                return dataFetchers[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int index(String typeName, String fieldName) {
+        int h = (typeName.hashCode() * 31 + fieldName.hashCode()) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,35 @@
+package io.atlassian.graphql.schemadriven.diff;
+
+/**
+ * The kinds of structural change that {@link SchemaDiff} reports
+ */
+public enum ChangeType {
+    TYPE_ADDED,
+    TYPE_REMOVED,
+    TYPE_KIND_CHANGED,
+
+    FIELD_ADDED,
+    FIELD_REMOVED,
+    FIELD_TYPE_CHANGED,
+
+    ARGUMENT_ADDED,
+    ARGUMENT_REMOVED,
+    ARGUMENT_TYPE_CHANGED,
+    ARGUMENT_DEFAULT_CHANGED,
+
+    INPUT_FIELD_ADDED,
+    INPUT_FIELD_REMOVED,
+    INPUT_FIELD_TYPE_CHANGED,
+    INPUT_FIELD_DEFAULT_CHANGED,
+
+    ENUM_VALUE_ADDED,
+    ENUM_VALUE_REMOVED,
+
+    UNION_MEMBER_ADDED,
+    UNION_MEMBER_REMOVED,
+
+    INTERFACE_ADDED,
+    INTERFACE_REMOVED,
+
+    OPERATION_TYPE_CHANGED
+}
@@ -0,0 +1,19 @@
+package io.atlassian.graphql.schemadriven.diff;
+
+/**
+ * How a {@link SchemaChange} affects existing clients of a schema
+ */
+public enum Criticality {
+    /**
+     * Existing queries may fail validation or execution after this change
+     */
+    BREAKING,
+    /**
+     * Existing queries still work but clients may see values or behaviour they are not prepared for
+     */
+    DANGEROUS,
+    /**
+     * Existing clients are not affected
+     */
+    SAFE
+}
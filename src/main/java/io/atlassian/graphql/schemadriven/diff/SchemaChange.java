@@ -0,0 +1,102 @@
+package io.atlassian.graphql.schemadriven.diff;
+
+/**
+ * A single structural difference between two schemas as found by {@link SchemaDiff}
+ */
+public class SchemaChange {
+
+    private final ChangeType changeType;
+    private final Criticality criticality;
+    private final String typeName;
+    private final String memberName;
+    private final String argumentName;
+    private final String oldValue;
+    private final String newValue;
+
+    SchemaChange(ChangeType changeType, Criticality criticality, String typeName, String memberName, String argumentName, String oldValue, String newValue) {
+        this.changeType = changeType;
+        this.criticality = criticality;
+        this.typeName = typeName;
+        this.memberName = memberName;
+        this.argumentName = argumentName;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Criticality getCriticality() {
+        return criticality;
+    }
+
+    public boolean isBreaking() {
+        return criticality == Criticality.BREAKING;
+    }
+
+    /**
+     * @return the name of the type that changed
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @return the field, input field, enum value, union member or interface that changed or null if the type itself changed
+     */
+    public String getMemberName() {
+        return memberName;
+    }
+
+    /**
+     * @return the field argument that changed or null if it was not an argument
+     */
+    public String getArgumentName() {
+        return argumentName;
+    }
+
+    /**
+     * @return the old type or default value for changes of those, otherwise null
+     */
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * @return the new type or default value for changes of those, otherwise null
+     */
+    public String getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * @return a dotted path to what changed such as 'Query.posts.limit'
+     */
+    public String getPath() {
+        StringBuilder sb = new StringBuilder(typeName);
+        if (memberName != null) {
+            sb.append('.').append(memberName);
+        }
+        if (argumentName != null) {
+            sb.append('.').append(argumentName);
+        }
+        return sb.toString();
+    }
+
+    public String getMessage() {
+        String message = changeType + " at '" + getPath() + "'";
+        if (oldValue != null || newValue != null) {
+            message += " from '" + oldValue + "' to '" + newValue + "'";
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaChange{" +
+                "criticality=" + criticality +
+                ", msg='" + getMessage() + '\'' +
+                '}';
+    }
+}
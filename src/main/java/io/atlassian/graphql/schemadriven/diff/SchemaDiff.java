@@ -0,0 +1,282 @@
+package io.atlassian.graphql.schemadriven.diff;
+
+import graphql.schema.GraphQLSchema;
+import io.atlassian.graphql.schemadriven.TypeRegistry;
+import io.atlassian.graphql.schemadriven.diff.TypeShape.FieldShape;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.ARGUMENT_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.ARGUMENT_DEFAULT_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.ARGUMENT_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.ARGUMENT_TYPE_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.ENUM_VALUE_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.ENUM_VALUE_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.FIELD_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.FIELD_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.FIELD_TYPE_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.INPUT_FIELD_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.INPUT_FIELD_DEFAULT_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.INPUT_FIELD_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.INPUT_FIELD_TYPE_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.INTERFACE_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.INTERFACE_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.OPERATION_TYPE_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.TYPE_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.TYPE_KIND_CHANGED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.TYPE_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.UNION_MEMBER_ADDED;
+import static io.atlassian.graphql.schemadriven.diff.ChangeType.UNION_MEMBER_REMOVED;
+import static io.atlassian.graphql.schemadriven.diff.Criticality.BREAKING;
+import static io.atlassian.graphql.schemadriven.diff.Criticality.DANGEROUS;
+import static io.atlassian.graphql.schemadriven.diff.Criticality.SAFE;
+
+/**
+ * This compares two type registries or two generated schemas and reports the structural differences between
+ * them as a list of {@link SchemaChange}s, each classified as breaking, dangerous or safe for existing clients.
+ *
+ * Every type, field, argument and value is matched by name via hash lookups so the comparison runs in time
+ * linear to the size of the two schemas.
+ */
+public class SchemaDiff {
+
+    private static final String SCHEMA = "schema";
+
+    /**
+     * Compares two type registries.  Type extensions are treated as part of the type they extend.
+     *
+     * @param oldRegistry the registry before the change
+     * @param newRegistry the registry after the change
+     *
+     * @return the list of changes, empty if they are structurally the same
+     */
+    public List<SchemaChange> diff(TypeRegistry oldRegistry, TypeRegistry newRegistry) {
+        List<SchemaChange> changes = new ArrayList<>();
+        diffOperations(changes, operations(oldRegistry), operations(newRegistry));
+        diffTypes(changes, TypeShape.fromRegistry(oldRegistry), TypeShape.fromRegistry(newRegistry));
+        return changes;
+    }
+
+    /**
+     * Compares two generated schemas.  Introspection types are not compared.
+     *
+     * @param oldSchema the schema before the change
+     * @param newSchema the schema after the change
+     *
+     * @return the list of changes, empty if they are structurally the same
+     */
+    public List<SchemaChange> diff(GraphQLSchema oldSchema, GraphQLSchema newSchema) {
+        List<SchemaChange> changes = new ArrayList<>();
+        diffOperations(changes, operations(oldSchema), operations(newSchema));
+        diffTypes(changes, TypeShape.fromSchema(oldSchema), TypeShape.fromSchema(newSchema));
+        return changes;
+    }
+
+    private Map<String, String> operations(TypeRegistry typeRegistry) {
+        Map<String, String> operations = new LinkedHashMap<>();
+        typeRegistry.schemaDefinition().forEach(schemaDefinition -> schemaDefinition.getOperationTypeDefinitions()
+                .forEach(op -> operations.put(op.getName(), TypeShape.typeString(op.getType()))));
+        return operations;
+    }
+
+    private Map<String, String> operations(GraphQLSchema schema) {
+        Map<String, String> operations = new LinkedHashMap<>();
+        operations.put("query", schema.getQueryType().getName());
+        if (schema.getMutationType() != null) {
+            operations.put("mutation", schema.getMutationType().getName());
+        }
+        return operations;
+    }
+
+    private void diffOperations(List<SchemaChange> changes, Map<String, String> oldOperations, Map<String, String> newOperations) {
+        oldOperations.forEach((op, oldType) -> {
+            String newType = newOperations.get(op);
+            if (!oldType.equals(newType)) {
+                changes.add(new SchemaChange(OPERATION_TYPE_CHANGED, BREAKING, SCHEMA, op, null, oldType, newType));
+            }
+        });
+        newOperations.forEach((op, newType) -> {
+            if (!oldOperations.containsKey(op)) {
+                changes.add(new SchemaChange(OPERATION_TYPE_CHANGED, SAFE, SCHEMA, op, null, null, newType));
+            }
+        });
+    }
+
+    private void diffTypes(List<SchemaChange> changes, Map<String, TypeShape> oldTypes, Map<String, TypeShape> newTypes) {
+        for (TypeShape oldType : oldTypes.values()) {
+            TypeShape newType = newTypes.get(oldType.name);
+            if (newType == null) {
+                changes.add(typeChange(TYPE_REMOVED, BREAKING, oldType.name));
+            } else if (oldType.kind != newType.kind) {
+                changes.add(new SchemaChange(TYPE_KIND_CHANGED, BREAKING, oldType.name, null, null, oldType.kind.name(), newType.kind.name()));
+            } else {
+                diffType(changes, oldType, newType);
+            }
+        }
+        for (TypeShape newType : newTypes.values()) {
+            if (!oldTypes.containsKey(newType.name)) {
+                changes.add(typeChange(TYPE_ADDED, SAFE, newType.name));
+            }
+        }
+    }
+
+    private void diffType(List<SchemaChange> changes, TypeShape oldType, TypeShape newType) {
+        switch (oldType.kind) {
+            case OBJECT:
+                diffMembers(changes, oldType.name, oldType.interfaces, newType.interfaces, INTERFACE_REMOVED, INTERFACE_ADDED);
+                diffFields(changes, oldType, newType);
+                break;
+            case INTERFACE:
+                diffFields(changes, oldType, newType);
+                break;
+            case UNION:
+                diffMembers(changes, oldType.name, oldType.members, newType.members, UNION_MEMBER_REMOVED, UNION_MEMBER_ADDED);
+                break;
+            case ENUM:
+                diffMembers(changes, oldType.name, oldType.enumValues, newType.enumValues, ENUM_VALUE_REMOVED, ENUM_VALUE_ADDED);
+                break;
+            case INPUT_OBJECT:
+                diffInputFields(changes, oldType, newType);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void diffMembers(List<SchemaChange> changes, String typeName, Set<String> oldMembers, Set<String> newMembers, ChangeType removed, ChangeType added) {
+        for (String oldMember : oldMembers) {
+            if (!newMembers.contains(oldMember)) {
+                changes.add(new SchemaChange(removed, BREAKING, typeName, oldMember, null, null, null));
+            }
+        }
+        for (String newMember : newMembers) {
+            if (!oldMembers.contains(newMember)) {
+                // clients that switch on the possible values or types may not be ready for new ones
+                changes.add(new SchemaChange(added, DANGEROUS, typeName, newMember, null, null, null));
+            }
+        }
+    }
+
+    private void diffFields(List<SchemaChange> changes, TypeShape oldType, TypeShape newType) {
+        for (FieldShape oldField : oldType.fields.values()) {
+            FieldShape newField = newType.fields.get(oldField.name);
+            if (newField == null) {
+                changes.add(new SchemaChange(FIELD_REMOVED, BREAKING, oldType.name, oldField.name, null, null, null));
+                continue;
+            }
+            if (!oldField.type.equals(newField.type)) {
+                Criticality criticality = isSafeOutputChange(oldField.type, newField.type) ? SAFE : BREAKING;
+                changes.add(new SchemaChange(FIELD_TYPE_CHANGED, criticality, oldType.name, oldField.name, null, oldField.type, newField.type));
+            }
+            diffArguments(changes, oldType.name, oldField, newField);
+        }
+        for (FieldShape newField : newType.fields.values()) {
+            if (!oldType.fields.containsKey(newField.name)) {
+                changes.add(new SchemaChange(FIELD_ADDED, SAFE, oldType.name, newField.name, null, null, null));
+            }
+        }
+    }
+
+    private void diffArguments(List<SchemaChange> changes, String typeName, FieldShape oldField, FieldShape newField) {
+        for (FieldShape oldArg : oldField.arguments.values()) {
+            FieldShape newArg = newField.arguments.get(oldArg.name);
+            if (newArg == null) {
+                changes.add(new SchemaChange(ARGUMENT_REMOVED, BREAKING, typeName, oldField.name, oldArg.name, null, null));
+                continue;
+            }
+            if (!oldArg.type.equals(newArg.type)) {
+                Criticality criticality = isSafeInputChange(oldArg.type, newArg.type) ? SAFE : BREAKING;
+                changes.add(new SchemaChange(ARGUMENT_TYPE_CHANGED, criticality, typeName, oldField.name, oldArg.name, oldArg.type, newArg.type));
+            }
+            if (!Objects.equals(oldArg.defaultValue, newArg.defaultValue)) {
+                changes.add(new SchemaChange(ARGUMENT_DEFAULT_CHANGED, DANGEROUS, typeName, oldField.name, oldArg.name, oldArg.defaultValue, newArg.defaultValue));
+            }
+        }
+        for (FieldShape newArg : newField.arguments.values()) {
+            if (!oldField.arguments.containsKey(newArg.name)) {
+                Criticality criticality = newArg.isRequired() ? BREAKING : DANGEROUS;
+                changes.add(new SchemaChange(ARGUMENT_ADDED, criticality, typeName, oldField.name, newArg.name, null, null));
+            }
+        }
+    }
+
+    private void diffInputFields(List<SchemaChange> changes, TypeShape oldType, TypeShape newType) {
+        for (FieldShape oldField : oldType.fields.values()) {
+            FieldShape newField = newType.fields.get(oldField.name);
+            if (newField == null) {
+                changes.add(new SchemaChange(INPUT_FIELD_REMOVED, BREAKING, oldType.name, oldField.name, null, null, null));
+                continue;
+            }
+            if (!oldField.type.equals(newField.type)) {
+                Criticality criticality = isSafeInputChange(oldField.type, newField.type) ? SAFE : BREAKING;
+                changes.add(new SchemaChange(INPUT_FIELD_TYPE_CHANGED, criticality, oldType.name, oldField.name, null, oldField.type, newField.type));
+            }
+            if (!Objects.equals(oldField.defaultValue, newField.defaultValue)) {
+                changes.add(new SchemaChange(INPUT_FIELD_DEFAULT_CHANGED, DANGEROUS, oldType.name, oldField.name, null, oldField.defaultValue, newField.defaultValue));
+            }
+        }
+        for (FieldShape newField : newType.fields.values()) {
+            if (!oldType.fields.containsKey(newField.name)) {
+                Criticality criticality = newField.isRequired() ? BREAKING : DANGEROUS;
+                changes.add(new SchemaChange(INPUT_FIELD_ADDED, criticality, oldType.name, newField.name, null, null, null));
+            }
+        }
+    }
+
+    private SchemaChange typeChange(ChangeType changeType, Criticality criticality, String typeName) {
+        return new SchemaChange(changeType, criticality, typeName, null, null, null, null);
+    }
+
+    /*
+     * An output type may only become stricter, eg String -> String! or [Int] -> [Int!]
+     */
+    static boolean isSafeOutputChange(String oldType, String newType) {
+        if (isNonNull(oldType)) {
+            return isNonNull(newType) && isSafeOutputChange(unwrapNonNull(oldType), unwrapNonNull(newType));
+        }
+        if (isNonNull(newType)) {
+            return isSafeOutputChange(oldType, unwrapNonNull(newType));
+        }
+        if (isList(oldType)) {
+            return isList(newType) && isSafeOutputChange(unwrapList(oldType), unwrapList(newType));
+        }
+        return oldType.equals(newType);
+    }
+
+    /*
+     * An input type may only become more lenient, eg String! -> String or [Int!] -> [Int]
+     */
+    static boolean isSafeInputChange(String oldType, String newType) {
+        if (isNonNull(newType)) {
+            return isNonNull(oldType) && isSafeInputChange(unwrapNonNull(oldType), unwrapNonNull(newType));
+        }
+        if (isNonNull(oldType)) {
+            return isSafeInputChange(unwrapNonNull(oldType), newType);
+        }
+        if (isList(oldType)) {
+            return isList(newType) && isSafeInputChange(unwrapList(oldType), unwrapList(newType));
+        }
+        return oldType.equals(newType);
+    }
+
+    private static boolean isNonNull(String type) {
+        return type.endsWith("!");
+    }
+
+    private static boolean isList(String type) {
+        return type.startsWith("[");
+    }
+
+    private static String unwrapNonNull(String type) {
+        return type.substring(0, type.length() - 1);
+    }
+
+    private static String unwrapList(String type) {
+        return type.substring(1, type.length() - 1);
+    }
+}
@@ -0,0 +1,270 @@
+package io.atlassian.graphql.schemadriven.diff;
+
+import graphql.language.ArrayValue;
+import graphql.language.BooleanValue;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValue;
+import graphql.language.FieldDefinition;
+import graphql.language.FloatValue;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.IntValue;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.ObjectValue;
+import graphql.language.StringValue;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeExtensionDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLUnionType;
+import io.atlassian.graphql.schemadriven.TypeRegistry;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A name indexed view of a type that is the same whether it came from a {@link TypeRegistry} or a {@link GraphQLSchema}
+ * so that both can be compared by the same code.  Types are kept as SDL strings such as '[Post!]!'
+ */
+class TypeShape {
+
+    enum Kind {
+        OBJECT, INTERFACE, UNION, ENUM, INPUT_OBJECT, SCALAR
+    }
+
+    static class FieldShape {
+        final String name;
+        final String type;
+        final String defaultValue;
+        final Map<String, FieldShape> arguments = new LinkedHashMap<>();
+
+        FieldShape(String name, String type, String defaultValue) {
+            this.name = name;
+            this.type = type;
+            this.defaultValue = defaultValue;
+        }
+
+        boolean isRequired() {
+            return type.endsWith("!") && defaultValue == null;
+        }
+    }
+
+    final Kind kind;
+    final String name;
+    final Map<String, FieldShape> fields = new LinkedHashMap<>();
+    final Set<String> interfaces = new LinkedHashSet<>();
+    final Set<String> members = new LinkedHashSet<>();
+    final Set<String> enumValues = new LinkedHashSet<>();
+
+    private TypeShape(Kind kind, String name) {
+        this.kind = kind;
+        this.name = name;
+    }
+
+    static Map<String, TypeShape> fromRegistry(TypeRegistry typeRegistry) {
+        Map<String, TypeShape> shapes = new LinkedHashMap<>();
+        typeRegistry.scalars().keySet().forEach(name -> shapes.put(name, new TypeShape(Kind.SCALAR, name)));
+
+        Map<String, List<TypeExtensionDefinition>> typeExtensions = typeRegistry.typeExtensions();
+        for (TypeDefinition typeDefinition : typeRegistry.types().values()) {
+            TypeShape shape = fromDefinition(typeDefinition);
+            if (shape == null) {
+                continue;
+            }
+            if (shape.kind == Kind.OBJECT) {
+                for (TypeExtensionDefinition typeExtension : typeExtensions.getOrDefault(shape.name, Collections.emptyList())) {
+                    addObjectParts(shape, typeExtension);
+                }
+            }
+            shapes.put(shape.name, shape);
+        }
+        return shapes;
+    }
+
+    static Map<String, TypeShape> fromSchema(GraphQLSchema schema) {
+        Map<String, TypeShape> shapes = new LinkedHashMap<>();
+        for (GraphQLType type : schema.getAllTypesAsList()) {
+            if (type.getName().startsWith("__")) {
+                continue;
+            }
+            TypeShape shape = fromType(type);
+            if (shape != null) {
+                shapes.put(shape.name, shape);
+            }
+        }
+        return shapes;
+    }
+
+    private static TypeShape fromDefinition(TypeDefinition typeDefinition) {
+        TypeShape shape = null;
+        if (typeDefinition instanceof ObjectTypeDefinition) {
+            shape = new TypeShape(Kind.OBJECT, typeDefinition.getName());
+            addObjectParts(shape, (ObjectTypeDefinition) typeDefinition);
+        } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+            shape = new TypeShape(Kind.INTERFACE, typeDefinition.getName());
+            addFields(shape, ((InterfaceTypeDefinition) typeDefinition).getFieldDefinitions());
+        } else if (typeDefinition instanceof UnionTypeDefinition) {
+            shape = new TypeShape(Kind.UNION, typeDefinition.getName());
+            for (Type memberType : ((UnionTypeDefinition) typeDefinition).getMemberTypes()) {
+                shape.members.add(typeString(memberType));
+            }
+        } else if (typeDefinition instanceof EnumTypeDefinition) {
+            shape = new TypeShape(Kind.ENUM, typeDefinition.getName());
+            TypeShape enumShape = shape;
+            ((EnumTypeDefinition) typeDefinition).getEnumValueDefinitions().forEach(evd -> enumShape.enumValues.add(evd.getName()));
+        } else if (typeDefinition instanceof InputObjectTypeDefinition) {
+            shape = new TypeShape(Kind.INPUT_OBJECT, typeDefinition.getName());
+            for (InputValueDefinition inputValue : ((InputObjectTypeDefinition) typeDefinition).getInputValueDefinitions()) {
+                shape.fields.put(inputValue.getName(), inputValueShape(inputValue));
+            }
+        }
+        return shape;
+    }
+
+    private static void addObjectParts(TypeShape shape, ObjectTypeDefinition objectType) {
+        objectType.getImplements().forEach(type -> shape.interfaces.add(typeString(type)));
+        addFields(shape, objectType.getFieldDefinitions());
+    }
+
+    private static void addFields(TypeShape shape, List<FieldDefinition> fieldDefinitions) {
+        for (FieldDefinition fieldDef : fieldDefinitions) {
+            FieldShape fieldShape = new FieldShape(fieldDef.getName(), typeString(fieldDef.getType()), null);
+            for (InputValueDefinition inputValue : fieldDef.getInputValueDefinitions()) {
+                fieldShape.arguments.put(inputValue.getName(), inputValueShape(inputValue));
+            }
+            shape.fields.put(fieldShape.name, fieldShape);
+        }
+    }
+
+    private static FieldShape inputValueShape(InputValueDefinition inputValue) {
+        Value defaultValue = inputValue.getDefaultValue();
+        return new FieldShape(inputValue.getName(), typeString(inputValue.getType()), defaultValue == null ? null : valueString(defaultValue));
+    }
+
+    private static TypeShape fromType(GraphQLType type) {
+        TypeShape shape = null;
+        if (type instanceof GraphQLObjectType) {
+            GraphQLObjectType objectType = (GraphQLObjectType) type;
+            shape = new TypeShape(Kind.OBJECT, type.getName());
+            for (GraphQLInterfaceType interfaceType : objectType.getInterfaces()) {
+                shape.interfaces.add(interfaceType.getName());
+            }
+            addSchemaFields(shape, objectType.getFieldDefinitions());
+        } else if (type instanceof GraphQLInterfaceType) {
+            shape = new TypeShape(Kind.INTERFACE, type.getName());
+            addSchemaFields(shape, ((GraphQLInterfaceType) type).getFieldDefinitions());
+        } else if (type instanceof GraphQLUnionType) {
+            shape = new TypeShape(Kind.UNION, type.getName());
+            for (GraphQLObjectType memberType : ((GraphQLUnionType) type).getTypes()) {
+                shape.members.add(memberType.getName());
+            }
+        } else if (type instanceof GraphQLEnumType) {
+            shape = new TypeShape(Kind.ENUM, type.getName());
+            TypeShape enumShape = shape;
+            ((GraphQLEnumType) type).getValues().forEach(evd -> enumShape.enumValues.add(evd.getName()));
+        } else if (type instanceof GraphQLInputObjectType) {
+            shape = new TypeShape(Kind.INPUT_OBJECT, type.getName());
+            for (GraphQLInputObjectField inputField : ((GraphQLInputObjectType) type).getFields()) {
+                shape.fields.put(inputField.getName(), new FieldShape(inputField.getName(), typeString(inputField.getType()), valueString(inputField.getDefaultValue())));
+            }
+        } else if (type instanceof GraphQLScalarType) {
+            shape = new TypeShape(Kind.SCALAR, type.getName());
+        }
+        return shape;
+    }
+
+    private static void addSchemaFields(TypeShape shape, List<GraphQLFieldDefinition> fieldDefinitions) {
+        for (GraphQLFieldDefinition fieldDef : fieldDefinitions) {
+            FieldShape fieldShape = new FieldShape(fieldDef.getName(), typeString(fieldDef.getType()), null);
+            for (GraphQLArgument argument : fieldDef.getArguments()) {
+                fieldShape.arguments.put(argument.getName(), new FieldShape(argument.getName(), typeString(argument.getType()), valueString(argument.getDefaultValue())));
+            }
+            shape.fields.put(fieldShape.name, fieldShape);
+        }
+    }
+
+    static String typeString(Type type) {
+        if (type instanceof NonNullType) {
+            return typeString(((NonNullType) type).getType()) + "!";
+        }
+        if (type instanceof ListType) {
+            return "[" + typeString(((ListType) type).getType()) + "]";
+        }
+        return ((TypeName) type).getName();
+    }
+
+    static String typeString(GraphQLType type) {
+        if (type instanceof GraphQLNonNull) {
+            return typeString(((GraphQLNonNull) type).getWrappedType()) + "!";
+        }
+        if (type instanceof GraphQLList) {
+            return "[" + typeString(((GraphQLList) type).getWrappedType()) + "]";
+        }
+        return type.getName();
+    }
+
+    private static String valueString(Value value) {
+        if (value instanceof IntValue) {
+            return ((IntValue) value).getValue().toString();
+        } else if (value instanceof FloatValue) {
+            return ((FloatValue) value).getValue().toString();
+        } else if (value instanceof StringValue) {
+            return '"' + ((StringValue) value).getValue() + '"';
+        } else if (value instanceof BooleanValue) {
+            return String.valueOf(((BooleanValue) value).isValue());
+        } else if (value instanceof EnumValue) {
+            return ((EnumValue) value).getName();
+        } else if (value instanceof VariableReference) {
+            return "$" + ((VariableReference) value).getName();
+        } else if (value instanceof ArrayValue) {
+            return ((ArrayValue) value).getValues().stream().map(TypeShape::valueString).collect(Collectors.joining(", ", "[", "]"));
+        } else if (value instanceof ObjectValue) {
+            return ((ObjectValue) value).getObjectFields().stream()
+                    .map(of -> of.getName() + ": " + valueString(of.getValue()))
+                    .collect(Collectors.joining(", ", "{", "}"));
+        }
+        return String.valueOf(value);
+    }
+
+    private static String valueString(Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof CharSequence) {
+            return '"' + value.toString() + '"';
+        } else if (value instanceof Object[]) {
+            return valueString(Arrays.asList((Object[]) value));
+        } else if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(TypeShape::valueString).collect(Collectors.joining(", ", "[", "]"));
+        } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().stream()
+                    .map(entry -> entry.getKey() + ": " + valueString(entry.getValue()))
+                    .collect(Collectors.joining(", ", "{", "}"));
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package io.atlassian.graphql.schemadriven.errors;
+
+import graphql.language.Directive;
+
+import static java.lang.String.format;
+
+public class DirectiveArgumentError extends BaseError {
+
+    public DirectiveArgumentError(String coordinate, Directive directive, String problem) {
+        super(directive, format("The directive '@%s' on '%s' %s %s",
+                directive.getName(), coordinate, problem, BaseError.lineCol(directive)));
+    }
+}
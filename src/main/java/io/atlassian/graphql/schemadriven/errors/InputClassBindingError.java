@@ -0,0 +1,13 @@
+package io.atlassian.graphql.schemadriven.errors;
+
+import graphql.language.TypeDefinition;
+
+import static java.lang.String.format;
+
+public class InputClassBindingError extends BaseError {
+
+    public InputClassBindingError(TypeDefinition typeDefinition, Class<?> inputClass, String problem) {
+        super(typeDefinition, format("The class '%s' bound to type '%s' %s %s",
+                inputClass.getName(), typeDefinition.getName(), problem, BaseError.lineCol(typeDefinition)));
+    }
+}
@@ -0,0 +1,13 @@
+package io.atlassian.graphql.schemadriven.errors;
+
+import graphql.language.TypeDefinition;
+
+import static java.lang.String.format;
+
+public class ObjectClassBindingError extends BaseError {
+
+    public ObjectClassBindingError(TypeDefinition typeDefinition, Class<?> objectClass, String otherTypeName) {
+        super(typeDefinition, format("The class '%s' bound to type '%s' is also bound to type '%s' so its values cannot be told apart %s",
+                objectClass.getName(), typeDefinition.getName(), otherTypeName, BaseError.lineCol(typeDefinition)));
+    }
+}
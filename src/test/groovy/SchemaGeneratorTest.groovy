@@ -210,4 +210,189 @@ class SchemaGeneratorTest extends Specification {
 
     }
 
+    def "types built earlier keep their list and non null wrapping"() {
+
+        def spec = """
+            type Post {
+              id: Int!
+            }
+
+            input Filter {
+              id: Int
+            }
+
+            type Query {
+              post(filter : Filter): Post
+              posts(filters : [Filter!]): [Post]!
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def schema = generateSchema(spec, new RuntimeWiring())
+
+        def postsField = schema.getQueryType().getFieldDefinition("posts")
+        def filtersArg = postsField.getArgument("filters")
+
+        expect:
+
+        postsField.type instanceof GraphQLNonNull
+        unwrap1Layer(postsField.type) instanceof GraphQLList
+        unwrap(postsField.type).name == "Post"
+
+        filtersArg.type instanceof GraphQLList
+        unwrap1Layer(filtersArg.type) instanceof GraphQLNonNull
+        unwrap(filtersArg.type).name == "Filter"
+    }
+
+    def "type extensions are applied to the types they extend"() {
+
+        def spec = """
+            interface Node {
+              id: ID!
+            }
+
+            type Post {
+              id: ID!
+            }
+
+            type Query {
+              post: Post
+            }
+
+            extend type Post implements Node {
+              title: String
+            }
+
+            extend type Query {
+              posts: [Post]
+            }
+
+            extend type Query {
+              postCount: Int!
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def countFetcher = new DataFetcher() {
+            @Override
+            Object get(DataFetchingEnvironment environment) {
+                return 42
+            }
+        }
+        def wiring = new RuntimeWiring()
+                .forType("Node").typeResolver(new TypeResolverProxy())
+                .forType("Query").dataFetcher("postCount", countFetcher)
+                .endType()
+
+        def schema = generateSchema(spec, wiring)
+        def postType = schema.getType("Post") as GraphQLObjectType
+
+        expect:
+
+        schema.queryType.fieldDefinitions.collect { it.name } == ["post", "posts", "postCount"]
+        schema.queryType.getFieldDefinition("postCount").dataFetcher == countFetcher
+        unwrap(schema.queryType.getFieldDefinition("posts").type).name == "Post"
+
+        postType.fieldDefinitions.collect { it.name } == ["id", "title"]
+        postType.interfaces.collect { it.name } == ["Node"]
+    }
+
+    def "wrapped types are shared across the schema"() {
+
+        def spec = """
+            type Post {
+              tags: [String!]!
+            }
+
+            type Query {
+              post: Post
+              tags: [String!]!
+              names(filter : [String!]): [String]
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def schema = generateSchema(spec, new RuntimeWiring())
+        def postType = schema.getType("Post") as GraphQLObjectType
+
+        expect:
+
+        schema.queryType.getFieldDefinition("tags").type.is(postType.getFieldDefinition("tags").type)
+        !schema.queryType.getFieldDefinition("names").type.is(schema.queryType.getFieldDefinition("names").getArgument("filter").type)
+    }
+
+    def "objects reached while their interface is being built are built afterwards"() {
+
+        def spec = """
+            interface Node {
+              id: ID!
+              parent: Post
+            }
+
+            type Post implements Node {
+              id: ID!
+              parent: Post
+            }
+
+            union Result = Post
+
+            type Query {
+              node: Node
+              results: [Result]
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def wiring = new RuntimeWiring()
+                .forType("Node").typeResolver(new TypeResolverProxy())
+                .forType("Result").typeResolver(new TypeResolverProxy())
+                .endType()
+
+        def schema = generateSchema(spec, wiring)
+        def postType = schema.getType("Post") as GraphQLObjectType
+        def nodeType = schema.getType("Node") as GraphQLInterfaceType
+        def resultType = schema.getType("Result") as GraphQLUnionType
+
+        expect:
+
+        postType.interfaces[0].is(nodeType)
+        nodeType.getFieldDefinition("parent").type.is(postType)
+        resultType.types[0].is(postType)
+    }
+
+    def "long chains of types are built without deep recursion"() {
+
+        int length = SchemaGenerator.MAX_BUILD_DEPTH * 3
+        def spec = new StringBuilder()
+        (0..<length).each {
+            spec << "type T${it} {\n  next(filter : F${it}) : T${it + 1}\n}\n"
+            spec << "input F${it} {\n  next : F${it + 1}\n}\n"
+        }
+        spec << "type T${length} {\n  end : String\n}\n"
+        spec << "input F${length} {\n  end : String\n}\n"
+        spec << "type Query {\n  first : T0\n}\n"
+        spec << "schema {\n  query : Query\n}\n"
+
+        def schema = generateSchema(spec.toString(), new RuntimeWiring())
+        def last = schema.getType("T${length - 1}") as GraphQLObjectType
+        def lastInput = schema.getType("F${length - 1}") as GraphQLInputObjectType
+
+        expect:
+
+        schema.getType("T${length}") instanceof GraphQLObjectType
+        last.getFieldDefinition("next").type.is(schema.getType("T${length}"))
+        lastInput.getField("next").type.is(schema.getType("F${length}"))
+    }
 }
@@ -118,6 +118,35 @@ class SchemaTypeCheckerTest extends Specification {
         result.get(0).getMessage().contains("The field type 'Foo' is not present when resolving type 'Query'")
     }
 
+    def "test extension type redefines a field"() {
+
+        def spec = """ 
+            type Query {
+                bars: [Bar]!
+            }
+            type Bar {
+                id : ID!
+            }
+            
+            extend type Query {
+                foos: [Bar]
+            }
+            
+            extend type Query {
+                bars: [Bar]     ### already defined
+                foos: [Bar]     ### already defined by the extension above
+            }
+        """
+
+        def result = check(spec)
+
+        expect:
+
+        result.size() == 3
+        result.get(0).getMessage().contains("'Query' extension type [@13:13] tried to redefine field 'bars'")
+        result.get(1).getMessage().contains("'Query' extension type [@13:13] tried to redefine field 'foos'")
+    }
+
     def "test missing schema"() {
 
         def spec = """ 
@@ -166,4 +195,398 @@ class SchemaTypeCheckerTest extends Specification {
         result.get(0).getMessage().contains("The operation type 'query' MUST have a object type as its definition")
     }
 
+    def "test auth directives must list the roles they require"() {
+
+        def spec = """
+            type Salary @auth(roles : [HR]) {
+                amount : Int
+            }
+            type Query {
+                salary : Salary
+                name : String @auth(requires : 1)
+                address : String @auth(requires : [HR, "ADMIN"])
+            }
+            schema {
+              query : Query
+            }
+        """
+
+        def result = check(spec)
+
+        expect:
+
+        result.size() == 2
+        result*.message.any { it.contains("The directive '@auth' on 'Salary' must list the roles it requires") }
+        result*.message.any { it.contains("The directive '@auth' on 'Query.name' must list the roles it requires") }
+    }
+
+    def "test rate limit directives must give a rate and a known key"() {
+
+        def spec = """
+            type Query {
+                search : String @rateLimit(burst : 0, key : "everyone")
+                status : String @rateLimit(perSecond : 10, burst : 20, key : caller)
+                export : String @rateLimit(perSecond : 1, burst : 9223372036854775807)
+                flood : String @rateLimit(perSecond : 9223372036854775807)
+            }
+            schema {
+              query : Query
+            }
+        """
+
+        def result = check(spec)
+
+        expect:
+
+        result*.message.collect { it.replaceAll(/ \[@.*/, "") } == [
+                "The directive '@rateLimit' on 'Query.search' must give a positive whole 'perSecond'",
+                "The directive '@rateLimit' on 'Query.search' must give a positive whole 'burst' if it gives one",
+                "The directive '@rateLimit' on 'Query.search' must give a 'key' of \"caller\" or \"global\" if it gives one",
+                "The directive '@rateLimit' on 'Query.export' must give a 'burst' no more than 4611686018 at its 'perSecond' of 1",
+                "The directive '@rateLimit' on 'Query.flood' must give a 'burst' no more than 4611686018427387903 at its 'perSecond' of 9223372036854775807",
+        ]
+    }
+
+    def "test timeout and hedge directives must give their delays and hedges cannot be on mutations"() {
+
+        def spec = """
+            type Query {
+                search : String @timeout(ms : 0)
+                status : String @timeout(ms : 100) @hedge(afterMs : 100)
+                fine : String @timeout(ms : 100) @hedge(afterMs : 20, max : 3)
+            }
+            type Mutation {
+                pay : String @hedge(afterMs : 20, max : 1)
+            }
+            schema {
+              query : Query
+              mutation : Mutation
+            }
+        """
+
+        def result = check(spec)
+
+        expect:
+
+        result*.message.collect { it.replaceAll(/ \[@.*/, "") } as Set == [
+                "The directive '@timeout' on 'Query.search' must give a positive whole 'ms'",
+                "The directive '@hedge' on 'Query.status' must give an 'afterMs' less than the timeout of the field or it will never hedge",
+                "The directive '@hedge' on 'Mutation.pay' must give a 'max' of at least 2 if it gives one",
+                "The directive '@hedge' on 'Mutation.pay' cannot be on a mutation as a hedged call is made more than once",
+        ] as Set
+    }
+
+    def "test connection directives must be on list fields that can take the paging arguments and types"() {
+
+        def spec = """
+            type Post {
+                title : String
+            }
+            type PostEdge {
+                title : String
+            }
+            type Query {
+                latest : Post @connection
+                posts(after : String) : [Post] @connection(defaultFirst : 50, maxFirst : 10)
+                fine : [Post!]! @connection(defaultFirst : 10, maxFirst : 50, prefetch : true)
+            }
+            type Mutation {
+                publish : [Post] @connection(prefetch : true)
+            }
+            schema {
+              query : Query
+              mutation : Mutation
+            }
+        """
+
+        def result = check(spec)
+
+        expect:
+
+        result*.message.collect { it.replaceAll(/ \[@.*/, "") } as Set == [
+                "The directive '@connection' on 'Query.latest' must be on a list field",
+                "The directive '@connection' on 'Query.posts' cannot make the type 'PostEdge' as the SDL already defines it",
+                "The directive '@connection' on 'Query.posts' cannot add the argument 'after' as the field already has it",
+                "The directive '@connection' on 'Query.posts' must give a 'defaultFirst' no more than its 'maxFirst' of 10",
+                "The directive '@connection' on 'Query.fine' cannot make the type 'PostEdge' as the SDL already defines it",
+                "The directive '@connection' on 'Query.fine' lists 'Post!' where 'Query.posts' lists 'Post' but they would share the type 'PostConnection'",
+                "The directive '@connection' on 'Mutation.publish' cannot make the type 'PostEdge' as the SDL already defines it",
+                "The directive '@connection' on 'Mutation.publish' cannot prefetch on a mutation as that would run it again",
+        ] as Set
+    }
+
+    def "test streamed directives must be on list fields that are not paged or hedged"() {
+
+        def spec = """
+            type Query {
+                count : Int @streamed
+                rows : [String] @streamed(maxItems : 0)
+                paged : [String] @streamed @connection
+                hedged : [String] @streamed @hedge(afterMs : 20)
+                fine : [String!]! @streamed(maxItems : 1000)
+            }
+            schema {
+              query : Query
+            }
+        """
+
+        def result = check(spec)
+
+        expect:
+
+        result*.message.collect { it.replaceAll(/ \[@.*/, "") } as Set == [
+                "The directive '@streamed' on 'Query.count' must be on a list field",
+                "The directive '@streamed' on 'Query.rows' must give a positive whole 'maxItems' if it gives one",
+                "The directive '@streamed' on 'Query.paged' cannot be on a connection, which is read a page at a time instead",
+                "The directive '@streamed' on 'Query.hedged' cannot be hedged as the lists of the calls that lose would never be closed",
+        ] as Set
+    }
+
+
+    static class Point {
+        int x
+    }
+
+    enum Size {
+        SMALL
+    }
+
+    def "test input classes that do not match their types"() {
+
+        def spec = """
+            enum Size {
+                SMALL
+                LARGE
+            }
+
+            input Point {
+                x : Int
+                y : Int
+            }
+
+            type Query {
+                size(point : Point) : Size
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def wiring = new RuntimeWiring()
+                .forType("Size").inputClass(Size)
+                .forType("Point").inputClass(Point)
+                .forType("Query").inputClass(Point)
+                .endType()
+        def result = new SchemaTypeChecker().checkTypeRegistry(compile(spec), wiring)
+
+        expect:
+
+        result.size() == 3
+        result.get(0).getMessage().contains("bound to type 'Size' has no constant 'LARGE'")
+        result.get(1).getMessage().contains("bound to type 'Point' has no setter or field for 'y'")
+        result.get(2).getMessage().contains("bound to type 'Query' is not an input object or enum type")
+    }
+
+    static class Dog {}
+
+    def "test interfaces and unions need a type resolver unless all their object types are bound to classes"() {
+
+        def spec = """
+            interface Pet {
+                name : String
+            }
+
+            type Dog implements Pet {
+                name : String
+            }
+
+            type Cat implements Pet {
+                name : String
+            }
+
+            union DogOnly = Dog
+
+            type Query {
+                pets : [Pet]
+                dogs : [DogOnly]
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def wiring = new RuntimeWiring()
+                .forType("Dog").objectClass(Dog)
+                .endType()
+        def result = new SchemaTypeChecker().checkTypeRegistry(compile(spec), wiring)
+
+        expect:
+
+        result.size() == 1
+        result.get(0).getMessage().contains("interface / union 'Pet'")
+    }
+
+    def "test two object types cannot be bound to the same class"() {
+
+        def spec = """
+            interface Pet {
+                name : String
+            }
+
+            type Dog implements Pet {
+                name : String
+            }
+
+            type Cat implements Pet {
+                name : String
+            }
+
+            type Query {
+                pets : [Pet]
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def wiring = new RuntimeWiring()
+                .forType("Dog").objectClass(Dog)
+                .forType("Cat").objectClass(Dog)
+                .endType()
+        def result = new SchemaTypeChecker().checkTypeRegistry(compile(spec), wiring)
+
+        expect:
+
+        result*.message.collect { it.replaceAll(/ \[@.*/, "") } as Set == [
+                "The class 'SchemaTypeCheckerTest\$Dog' bound to type 'Dog' is also bound to type 'Cat' so its values cannot be told apart",
+                "The class 'SchemaTypeCheckerTest\$Dog' bound to type 'Cat' is also bound to type 'Dog' so its values cannot be told apart",
+        ] as Set
+    }
+
+    def "test incremental checks only check the types affected by a change"() {
+
+        def spec = """
+            interface Pet {
+                name : String
+            }
+
+            type Dog implements Pet {
+                name : String
+                owner : Owner
+            }
+
+            type Owner {
+                name : String
+            }
+
+            type Unrelated {
+                name : String
+            }
+
+            type Query {
+                pets : [Pet]
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def registry = compile(spec)
+        def wiring = new RuntimeWiring().forType("Dog").objectClass(Dog).endType()
+        def check = new SchemaTypeChecker().incrementalCheck(registry, wiring)
+
+        expect:
+
+        check.errors.isEmpty()
+
+        when: "a type that others refer to is removed"
+
+        registry.remove(registry.types().get("Owner"))
+        def errors = check.recheck(["Owner"])
+
+        then:
+
+        errors.size() == 1
+        errors.get(0).getMessage().contains("The field type 'Owner' is not present when resolving type 'Dog'")
+        // Owner, Dog and String
+        check.lastCheckedCount == 3
+
+        when: "it is put back"
+
+        registry.add(compile("type Owner { name : String }").types().get("Owner"))
+        errors = check.recheck(["Owner"])
+
+        then:
+
+        errors.isEmpty()
+
+        when: "a new implementation that is not bound to a class is added"
+
+        registry.add(compile("type Cat implements Pet { name : String }").types().get("Cat"))
+        errors = check.recheck(["Cat"])
+
+        then:
+
+        errors.size() == 1
+        errors.get(0).getMessage().contains("interface / union 'Pet'")
+        errors*.message == new SchemaTypeChecker().checkTypeRegistry(registry, wiring)*.message
+        // Cat, Pet and String
+        check.lastCheckedCount == 3
+
+        when: "it stops implementing the interface"
+
+        registry.remove(registry.types().get("Cat"))
+        registry.add(compile("type Cat { name : String }").types().get("Cat"))
+        errors = check.recheck(["Cat"])
+
+        then:
+
+        errors.isEmpty()
+    }
+
+    def "test incremental checks find connections that stop agreeing on their items"() {
+
+        def spec = """
+            type Post {
+                title : String
+            }
+
+            type Query {
+                posts : [Post] @connection
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+        def registry = compile(spec)
+        def check = new SchemaTypeChecker().incrementalCheck(registry, new RuntimeWiring())
+
+        when: "a type is added with a connection whose items cannot be null"
+
+        registry.add(compile("type Author { posts : [Post!] @connection }").types().get("Author"))
+        def errors = check.recheck(["Author"])
+
+        then:
+
+        errors*.message.collect { it.replaceAll(/ \[@.*/, "") } == [
+                "The directive '@connection' on 'Author.posts' lists 'Post!' where 'Query.posts' lists 'Post' but they would share the type 'PostConnection'",
+        ]
+        errors*.message == new SchemaTypeChecker().checkTypeRegistry(registry, new RuntimeWiring())*.message
+
+        when: "it is changed to agree"
+
+        registry.remove(registry.types().get("Author"))
+        registry.add(compile("type Author { posts : [Post] @connection }").types().get("Author"))
+        errors = check.recheck(["Author"])
+
+        then:
+
+        errors.isEmpty()
+    }
 }
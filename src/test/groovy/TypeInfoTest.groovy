@@ -69,4 +69,25 @@ class TypeInfoTest extends Specification {
         decoratedType == outputType
 
     }
+
+    def "decoration can share wrapper types"() {
+
+        def interner = new TypeInfo.WrapperInterner()
+        def type1 = new NonNullType(new ListType(new NonNullType(new TypeName("foo"))))
+        def type2 = new NonNullType(new ListType(new NonNullType(new TypeName("foo"))))
+        def type3 = new ListType(new NonNullType(new TypeName("foo")))
+
+        def outputType = GraphQLObjectType.newObject().name("Foo").build()
+
+        def decorated1 = TypeInfo.typeInfo(type1).decorate(outputType, interner)
+        def decorated2 = TypeInfo.typeInfo(type2).decorate(outputType, interner)
+        def decorated3 = TypeInfo.typeInfo(type3).decorate(outputType, interner)
+
+        expect:
+
+        decorated1.is(decorated2)
+        unwrap1Layer(decorated1).is(decorated3)
+        !TypeInfo.typeInfo(type1).decorate(outputType).is(decorated1)
+        TypeInfo.typeInfo(type1).toString().contains("modifiers=[foo!]!")
+    }
 }
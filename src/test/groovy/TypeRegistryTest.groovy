@@ -135,4 +135,88 @@ class TypeRegistryTest extends Specification {
         errors.get().get(0).getMessage().contains("tried to redefine existing 'Url'")
     }
 
+    def "a type can be extended more than once"() {
+
+        def spec1 = """ 
+          type Post {
+              id: Int!
+            }
+
+          extend type Post {
+              title: String
+            }
+        """
+
+        def spec2 = """ 
+          extend type Post {
+              votes: Int
+            }
+        """
+
+        def result1 = compile(spec1)
+        def result2 = compile(spec2)
+
+        def errors = result1.merge(result2)
+
+        expect:
+
+        errors.isEmpty()
+        result1.typeExtensions().get("Post").collect { it.fieldDefinitions[0].name } == ["title", "votes"]
+    }
+
+    def "the dependencies between types are kept as types are added, merged and removed"() {
+
+        def spec1 = """
+          interface Node {
+              id: ID!
+            }
+
+          type Post implements Node {
+              id: ID!
+              author(filter: AuthorFilter): Author
+            }
+
+          union Result = Post | Author
+
+          input AuthorFilter {
+              name: String
+            }
+        """
+
+        def spec2 = """
+          type Author {
+              id: ID!
+            }
+
+          extend type Author implements Node {
+              posts: [Post]
+            }
+        """
+
+        def registry = compile(spec1)
+        registry.merge(compile(spec2))
+
+        expect:
+
+        registry.dependenciesOf("Post") == ["Node", "ID", "Author", "AuthorFilter"] as Set
+        registry.dependenciesOf("Result") == ["Post", "Author"] as Set
+        registry.dependenciesOf("AuthorFilter") == ["String"] as Set
+        registry.dependenciesOf("Author") == ["ID", "Node", "Post"] as Set
+        registry.dependentsOf("Node") == ["Post", "Author"] as Set
+        registry.dependentsOf("Author") == ["Post", "Result"] as Set
+
+        when:
+
+        def authorExtension = registry.typeExtensions().get("Author")[0]
+        registry.remove(authorExtension)
+        registry.remove(registry.types().get("Result"))
+
+        then:
+
+        registry.dependenciesOf("Author") == ["ID"] as Set
+        registry.dependenciesOf("Result").isEmpty()
+        registry.dependentsOf("Node") == ["Post"] as Set
+        registry.dependentsOf("Author") == ["Post"] as Set
+        registry.dependentsOf("Post").isEmpty()
+    }
 }
@@ -0,0 +1,182 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+class ArgumentBinderTest extends Specification {
+
+    enum Colour {
+        RED, GREEN, BLUE
+    }
+
+    static class Range {
+        int from
+        long to
+    }
+
+    static class Filter {
+        String text
+        Colour colour
+        List<Colour> colours
+        Range range
+        Integer limit
+    }
+
+    static class ShortRange {
+        int from
+    }
+
+    static class ShortFilter {
+        String text
+        Colour colour
+        List<Colour> colours
+        ShortRange range
+        Integer limit
+    }
+
+    static spec = """
+            enum Colour {
+                RED
+                GREEN
+                BLUE
+            }
+
+            input Range {
+                from : Int = 1
+                to : Int
+            }
+
+            input Filter {
+                text : String
+                colour : Colour = GREEN
+                colours : [Colour] = [RED, BLUE]
+                range : Range
+                limit : Int = 10
+            }
+
+            input Loose {
+                colour : Colour
+                depth : Int = 3
+            }
+
+            type Query {
+                search(filter : Filter, colour : Colour = BLUE, first : Int = 20, loose : Loose) : String
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    List<Object[]> calls = []
+
+    GraphQLSchema generate(RuntimeWiring wiring) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, wiring)
+        assert schema.isRight()
+        schema.right().get()
+    }
+
+    RuntimeWiring wiring() {
+        def fetcher = new BindingDataFetcher() {
+            @Override
+            Object get(DataFetchingEnvironment environment, Object[] arguments) {
+                calls << arguments
+                return "ok"
+            }
+        }
+        new RuntimeWiring()
+                .forType("Colour").inputClass(Colour)
+                .forType("Filter").inputClass(Filter)
+                .forType("Query").dataFetcher("search", fetcher)
+                .endType()
+    }
+
+    def "arguments are bound to java objects"() {
+        def graphQL = new GraphQL(generate(wiring()))
+
+        when:
+        def result = graphQL.execute('''{
+            search(filter : {text : "hello", colour : RED, range : {to : 5}}, loose : {colour : BLUE}, first : 3)
+        }''')
+
+        then:
+        result.errors.isEmpty()
+        calls.size() == 1
+
+        def args = calls[0]
+        def filter = args[0] as Filter
+        filter.text == "hello"
+        filter.colour == Colour.RED
+        filter.colours == [Colour.RED, Colour.BLUE]
+        filter.limit == 10
+        // nested input objects are bound to the class of their property
+        filter.range.from == 1
+        filter.range.to == 5L
+
+        args[1] == Colour.BLUE
+        args[2] == 3
+        // unbound input objects stay maps but their defaults and enums are still bound
+        args[3] == [colour: Colour.BLUE, depth: 3]
+    }
+
+    def "default values are bound once"() {
+        def graphQL = new GraphQL(generate(wiring()))
+
+        when:
+        graphQL.execute('{ search(loose : {colour : RED}) }')
+        graphQL.execute('{ search(loose : {colour : GREEN}) }')
+
+        then:
+        calls.size() == 2
+        calls[0][0] == null
+        calls[0][1] == Colour.BLUE
+        calls[0][2] == 20
+        calls[0][2] instanceof Integer
+        calls[0][1].is(calls[1][1])
+    }
+
+    def "list and input object defaults are handed to each call afresh"() {
+        def graphQL = new GraphQL(generate(wiring()))
+
+        when:
+        graphQL.execute('{ search(filter : {text : "a"}, loose : {}) }')
+        (calls[0][0] as Filter).colours.clear()
+        calls[0][3].clear()
+        graphQL.execute('{ search(filter : {text : "b"}, loose : {}) }')
+
+        then:
+        calls.size() == 2
+        (calls[1][0] as Filter).colours == [Colour.RED, Colour.BLUE]
+        calls[1][3] == [depth: 3]
+    }
+
+    def "classes found from property types that do not fit their input type are schema errors"() {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = wiring().forType("Filter").inputClass(ShortFilter).endType()
+
+        when:
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, wiring)
+
+        then:
+        schema.isLeft()
+        schema.left().get()*.message == ["The class '${ShortRange.name}' bound to type 'Range' has no setter or field for 'to' [@8:13]".toString()]
+    }
+
+    def "binders can be compiled by hand for plain data fetchers"() {
+        def schema = generate(wiring())
+        def binder = ArgumentBinder.compile(schema.queryType.getFieldDefinition("search").arguments, wiring())
+
+        when:
+        def args = binder.bind([filter: [colour: "BLUE", colours: ["GREEN"]]])
+
+        then:
+        binder.argumentNames == ["filter", "colour", "first", "loose"]
+        (args[0] as Filter).colour == Colour.BLUE
+        (args[0] as Filter).colours == [Colour.GREEN]
+        (args[0] as Filter).limit == 10
+        args[1] == Colour.BLUE
+    }
+}
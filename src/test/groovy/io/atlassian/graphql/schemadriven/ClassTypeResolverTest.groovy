@@ -0,0 +1,137 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLInterfaceType
+import graphql.schema.GraphQLSchema
+import graphql.schema.GraphQLUnionType
+import spock.lang.Specification
+
+class ClassTypeResolverTest extends Specification {
+
+    static class Dog {
+        String name = "rex"
+        boolean barks = true
+    }
+
+    static class Puppy extends Dog {
+        Puppy() {
+            name = "pup"
+        }
+    }
+
+    interface Feline {}
+
+    static class Cat implements Feline {
+        String name = "tom"
+        int lives = 9
+    }
+
+    static class Lion implements Serializable, Feline {
+        String name = "leo"
+        int lives = 1
+    }
+
+    static class Fish {
+        String name = "nemo"
+    }
+
+    static spec = """
+            interface Pet {
+                name : String
+            }
+
+            type Dog implements Pet {
+                name : String
+                barks : Boolean
+            }
+
+            type Cat {
+                lives : Int
+            }
+
+            extend type Cat implements Pet {
+                name : String
+            }
+
+            union Animal = Dog | Cat
+
+            type Query {
+                pets : [Pet]
+                animals : [Animal]
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    static GraphQLSchema generate(List pets) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Dog").objectClass(Dog)
+                .forType("Cat").objectClass(Feline)
+                .forType("Query").dataFetcher("pets", { env -> pets } as DataFetcher).dataFetcher("animals", { env -> pets } as DataFetcher)
+                .endType()
+        new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+    }
+
+    def "interfaces and unions resolve values by class, including subclasses and implementations"() {
+        def schema = generate([new Dog(), new Puppy(), new Cat(), new Lion()])
+
+        when:
+        def result = new GraphQL(schema).execute("""{
+                pets { __typename name }
+                animals { ... on Dog { barks } ... on Cat { lives } }
+            }""")
+
+        then:
+        (schema.getType("Pet") as GraphQLInterfaceType).typeResolver instanceof ClassTypeResolver
+        (schema.getType("Animal") as GraphQLUnionType).typeResolver instanceof ClassTypeResolver
+        result.errors.isEmpty()
+        result.data.pets == [[__typename: "Dog", name: "rex"], [__typename: "Dog", name: "pup"],
+                             [__typename: "Cat", name: "tom"], [__typename: "Cat", name: "leo"]]
+        result.data.animals == [[barks: true], [barks: true], [lives: 9], [lives: 1]]
+    }
+
+    def "the resolution of a class is kept"() {
+        def schema = generate([])
+        def typeResolver = (schema.getType("Pet") as GraphQLInterfaceType).typeResolver
+
+        when:
+        def first = typeResolver.getType(new Puppy())
+        def second = typeResolver.getType(new Puppy())
+
+        then:
+        first.is(schema.getType("Dog"))
+        second.is(first)
+    }
+
+    def "values of unbound classes cannot be resolved"() {
+        def typeResolver = (generate([]).getType("Pet") as GraphQLInterfaceType).typeResolver
+
+        when:
+        typeResolver.getType(new Fish())
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.contains("No object type of 'Pet' is bound to the class")
+    }
+
+    def "hand written type resolvers win over class bindings"() {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def handWritten = { object -> null } as graphql.schema.TypeResolver
+        def wiring = new RuntimeWiring()
+                .forType("Dog").objectClass(Dog)
+                .forType("Cat").objectClass(Cat)
+                .forType("Pet").typeResolver(handWritten)
+                .endType()
+
+        when:
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+
+        then:
+        (schema.getType("Pet") as GraphQLInterfaceType).typeResolver.is(handWritten)
+        (schema.getType("Animal") as GraphQLUnionType).typeResolver instanceof ClassTypeResolver
+    }
+}
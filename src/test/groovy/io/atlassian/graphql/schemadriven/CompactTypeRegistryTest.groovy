@@ -0,0 +1,129 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.language.FieldDefinition
+import graphql.language.ListType
+import graphql.language.NonNullType
+import graphql.language.ObjectTypeDefinition
+import graphql.language.TypeName
+import spock.lang.Specification
+
+class CompactTypeRegistryTest extends Specification {
+
+    static spec = """
+            scalar Url
+
+            interface Node {
+                id : ID!
+            }
+
+            enum Colour {
+                RED
+                GREEN
+            }
+
+            type Post implements Node {
+                id : ID!
+                title(upper : Boolean = false) : String
+                tags : [String!]!
+                related : [[Post]]
+                colour : Colour
+                link : Url
+            }
+
+            union Result = Post
+
+            input Filter {
+                title : String
+                limit : Int = 10
+                colours : [Colour!] = [RED]
+            }
+
+            type Query {
+                posts(filter : Filter) : [Post!]!
+                search(text : String!) : [Result]
+            }
+
+            extend type Query {
+                names : [String!]!
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    TypeRegistry compile(String spec) {
+        new SchemaCompiler().compile(spec).right().get()
+    }
+
+    def "a compacted registry converts back to the same registry"() {
+        def registry = compile(spec)
+        def compact = CompactTypeRegistry.compact(registry)
+        def restored = compact.toTypeRegistry()
+
+        def fingerprinter = new SchemaFingerprinter()
+
+        expect:
+        compact.typeCount() == 7
+        fingerprinter.fingerprint(restored) == fingerprinter.fingerprint(registry)
+        restored.types().keySet() as List == registry.types().keySet() as List
+        restored.typeExtensions().get("Query").size() == 1
+        restored.scalars().containsKey("Url")
+
+        restored.types().get("Post").sourceLocation == registry.types().get("Post").sourceLocation
+        (restored.types().get("Post") as ObjectTypeDefinition).fieldDefinitions[1].sourceLocation.line == 15
+    }
+
+    def "locations can be stripped"() {
+        def compact = CompactTypeRegistry.compact(compile(spec), true)
+        def post = compact.getType("Post").get() as ObjectTypeDefinition
+
+        expect:
+        post.sourceLocation == null
+        post.fieldDefinitions.every { it.sourceLocation == null }
+        compact.getType("Missing").isEmpty()
+    }
+
+    def "type references are shared flyweights"() {
+        def restored = CompactTypeRegistry.compact(compile(spec)).toTypeRegistry()
+        def post = restored.types().get("Post") as ObjectTypeDefinition
+        def query = restored.types().get("Query") as ObjectTypeDefinition
+        def names = restored.typeExtensions().get("Query")[0].fieldDefinitions[0] as FieldDefinition
+        def tags = post.fieldDefinitions.find { it.name == "tags" }
+
+        expect:
+        tags.type.is(names.type)
+        TypeModifiers.typeName(tags.type).is(TypeModifiers.typeName(post.fieldDefinitions.find { it.name == "title" }.type))
+        query.fieldDefinitions[0].type instanceof NonNullType
+    }
+
+    def "a restored registry generates a schema"() {
+        def restored = CompactTypeRegistry.compact(compile(spec), true).toTypeRegistry()
+        def resolver = new graphql.schema.TypeResolverProxy()
+        def wiring = new RuntimeWiring()
+                .scalar(new graphql.schema.GraphQLScalarType("Url", "Url", graphql.Scalars.GraphQLString.coercing))
+                .forType("Node").typeResolver(resolver)
+                .forType("Result").typeResolver(resolver)
+                .endType()
+
+        def result = new SchemaGenerator().makeExecutableSchema(restored, wiring)
+
+        expect:
+        result.isRight()
+        result.right().get().queryType.getFieldDefinition("names") != null
+    }
+
+    def "type modifiers are packed and unpacked"() {
+        def type = new NonNullType(new ListType(new ListType(new NonNullType(new TypeName("Foo")))))
+        def modifiers = TypeModifiers.of(type)
+
+        expect:
+        TypeModifiers.depth(modifiers) == 4
+        TypeModifiers.isNonNull(modifiers)
+        !TypeModifiers.isNonNull(modifiers, 1)
+        TypeModifiers.isNonNull(modifiers, 3)
+        TypeModifiers.toString(modifiers, "Foo") == "[[Foo!]]!"
+        TypeModifiers.toType(modifiers, new TypeName("Foo")).isEqualTo(type)
+        TypeModifiers.of(new TypeName("Foo")) == TypeModifiers.NONE
+    }
+}
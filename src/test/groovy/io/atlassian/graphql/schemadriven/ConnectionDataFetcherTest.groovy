@@ -0,0 +1,205 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLNonNull
+import graphql.schema.GraphQLObjectType
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class ConnectionDataFetcherTest extends Specification {
+
+    static spec = """
+            type Post {
+                id : Int
+                title : String
+            }
+            type Query {
+                posts(tag : String) : [Post] @connection(defaultFirst : 2, maxFirst : 3, prefetch : true)
+                recent : [Post]! @connection
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    static posts = (1..5).collect { [id: it, title: "post $it".toString()] }
+
+    static class PostsById implements KeysetFetcher<Map> {
+        def calls = []
+
+        @Override
+        List<Map> fetchAfter(DataFetchingEnvironment environment, String afterKey, int limit) {
+            calls << [afterKey, limit]
+            def after = afterKey == null ? 0 : Integer.parseInt(afterKey)
+            posts.findAll { it.id > after }.take(limit)
+        }
+
+        @Override
+        String keyOf(Map post) {
+            String.valueOf(post.id)
+        }
+    }
+
+    static class Caller implements RateLimits.Caller {
+        final String name
+
+        Caller(String name) {
+            this.name = name
+        }
+
+        @Override
+        Object getCallerKey() {
+            name
+        }
+    }
+
+    def keyset = new PostsById()
+
+    GraphQL graphQL() {
+        // prefetches run on the calling thread so that they are done by the time the next page is asked for
+        graphQL({ it.run() } as Executor)
+    }
+
+    GraphQL graphQL(Executor executor) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("posts", keyset)
+                .dataFetcher("recent", { env -> posts.reverse() } as DataFetcher)
+                .endType()
+        def options = SchemaGenerator.Options.defaultOptions().fetcherExecutor(executor)
+        new GraphQL(new SchemaGenerator(options).makeExecutableSchema(registry, wiring).right().get())
+    }
+
+    static String page(String field, String arguments) {
+        "{ $field$arguments { edges { cursor node { id } } pageInfo { hasNextPage hasPreviousPage startCursor endCursor } } }"
+    }
+
+    def "list fields become connections with paging arguments"() {
+        def schema = graphQL().graphQLSchema
+
+        when:
+        def posts = schema.queryType.getFieldDefinition("posts")
+        def recent = schema.queryType.getFieldDefinition("recent")
+        GraphQLObjectType connection = schema.getType("PostConnection")
+        GraphQLObjectType edge = schema.getType("PostEdge")
+
+        then:
+        posts.type == connection
+        recent.type instanceof GraphQLNonNull && recent.type.wrappedType == connection
+        posts.arguments*.name == ["tag", "first", "after"]
+        posts.getArgument("first").defaultValue == 2
+        recent.getArgument("first").defaultValue == 20
+        connection.fieldDefinitions*.name == ["edges", "pageInfo"]
+        edge.fieldDefinitions*.name == ["cursor", "node"]
+        edge.getFieldDefinition("node").type.name == "Post"
+        schema.getType("PageInfo").fieldDefinitions*.name == ["hasNextPage", "hasPreviousPage", "startCursor", "endCursor"]
+    }
+
+    def "a keyset fetcher is asked for the items after the key in the cursor"() {
+        def graphQL = graphQL()
+
+        when:
+        def first = graphQL.execute(page("posts", "(tag : \"a\")"), new Caller("ann")).data.posts
+        def second = graphQL.execute(page("posts", "(tag : \"a\", first : 3, after : \"${first.pageInfo.endCursor}\")"), new Caller("ann")).data.posts
+
+        then:
+        first.edges*.node*.id == [1, 2]
+        first.pageInfo.hasNextPage
+        !first.pageInfo.hasPreviousPage
+        first.pageInfo.startCursor == first.edges[0].cursor
+        first.pageInfo.endCursor == first.edges[1].cursor
+        first.edges*.cursor.every { !it.contains(":") && it != "1" && it != "2" }
+
+        second.edges*.node*.id == [3, 4, 5]
+        !second.pageInfo.hasNextPage
+        keyset.calls[0] == [null, 3]
+        keyset.calls.contains(["2", 4])
+    }
+
+    def "the next page is prefetched for the same caller with the same arguments"() {
+        def graphQL = graphQL()
+
+        when:
+        def first = graphQL.execute(page("posts", ""), new Caller("ann")).data.posts
+        def cursor = first.pageInfo.endCursor
+        def callsAfterFirst = new ArrayList(keyset.calls)
+        def second = graphQL.execute(page("posts", "(after : \"$cursor\")"), new Caller("ann")).data.posts
+        def callsAfterSecond = new ArrayList(keyset.calls)
+        def otherCaller = graphQL.execute(page("posts", "(after : \"$cursor\")"), new Caller("bob")).data.posts
+        def otherTag = graphQL.execute(page("posts", "(tag : \"b\", after : \"$cursor\")"), new Caller("ann")).data.posts
+
+        then:
+        callsAfterFirst == [[null, 3], ["2", 3]]
+        second.edges*.node*.id == [3, 4]
+        callsAfterSecond == [[null, 3], ["2", 3], ["4", 3]]
+        otherCaller.edges*.node*.id == [3, 4]
+        otherTag.edges*.node*.id == [3, 4]
+        keyset.calls.count { it == ["2", 3] } == 3
+    }
+
+    def "pages are not prefetched for calls that do not say who the caller is"() {
+        def graphQL = graphQL()
+
+        when:
+        def first = graphQL.execute(page("posts", ""), context).data.posts
+        graphQL.execute(page("posts", "(after : \"${first.pageInfo.endCursor}\")"), context)
+
+        then:
+        keyset.calls == [[null, 3], ["2", 3]]
+
+        where:
+        context << [null, "a context made for the call", new Caller(null)]
+    }
+
+    def "a prefetch the executor turns away is not made"() {
+        def graphQL = graphQL({ throw new RejectedExecutionException() } as Executor)
+
+        when:
+        def first = graphQL.execute(page("posts", ""), new Caller("ann"))
+        def second = graphQL.execute(page("posts", "(after : \"${first.data.posts.pageInfo.endCursor}\")"), new Caller("ann")).data.posts
+
+        then:
+        first.errors.isEmpty()
+        first.data.posts.edges*.node*.id == [1, 2]
+        second.edges*.node*.id == [3, 4]
+        keyset.calls == [[null, 3], ["2", 3]]
+    }
+
+    def "other data fetchers are paged by position"() {
+        def graphQL = graphQL()
+
+        when:
+        def first = graphQL.execute(page("recent", "(first : 3)")).data.recent
+        def second = graphQL.execute(page("recent", "(first : 3, after : \"${first.pageInfo.endCursor}\")")).data.recent
+
+        then:
+        first.edges*.node*.id == [5, 4, 3]
+        first.pageInfo.hasNextPage
+        second.edges*.node*.id == [2, 1]
+        !second.pageInfo.hasNextPage
+        second.pageInfo.hasPreviousPage
+    }
+
+    def "cursors that were not handed out and pages that are too big are errors"() {
+        def graphQL = graphQL()
+
+        when:
+        def result = graphQL.execute(page("posts", "(${arguments})"))
+
+        then:
+        result.data.posts == null
+        result.errors*.message.any { it.contains(message) }
+
+        where:
+        arguments                 | message
+        'first : 4'               | "The argument 'first' of 'Query.posts' must be from 0 to 3"
+        'first : -1'              | "The argument 'first' of 'Query.posts' must be from 0 to 3"
+        'after : "2"'             | "The cursor '2' is not one that 'Query.posts' gave out"
+        'after : "not base 64!"'  | "The cursor 'not base 64!' is not one that 'Query.posts' gave out"
+    }
+}
@@ -0,0 +1,141 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class DeadlineDataFetcherTest extends Specification {
+
+    static spec = """
+            type Query {
+                slow : String @timeout(ms : 100)
+                hedged : String @hedge(afterMs : 50, max : 3) @timeout(ms : 5000)
+                failing : String @timeout(ms : 1000)
+                fast : String
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    def calls = new AtomicInteger()
+    def interrupted = new CountDownLatch(1)
+
+    // the first call hangs until it is interrupted and every later one answers straight away
+    def hangsFirstTime = { env ->
+        if (calls.incrementAndGet() == 1) {
+            try {
+                Thread.sleep(10000)
+            } catch (InterruptedException ignored) {
+                interrupted.countDown()
+            }
+            return "too late"
+        }
+        "answered"
+    } as DataFetcher
+
+    GraphQL graphQL(DataFetcher slow, DataFetcher hedged) {
+        graphQL(slow, hedged, SchemaGenerator.Options.defaultOptions())
+    }
+
+    GraphQL graphQL(DataFetcher slow, DataFetcher hedged, SchemaGenerator.Options options) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("slow", slow)
+                .dataFetcher("hedged", hedged)
+                .dataFetcher("failing", { env -> throw new IllegalStateException("backend down") } as DataFetcher)
+                .dataFetcher("fast", { env -> "fast" } as DataFetcher)
+                .endType()
+        new GraphQL(new SchemaGenerator(options).makeExecutableSchema(registry, wiring).right().get())
+    }
+
+    def "a field that does not answer in time is given up on and the rest of the query is answered"() {
+        def graphQL = graphQL(hangsFirstTime, { env -> "hedged" } as DataFetcher)
+
+        when:
+        def start = System.nanoTime()
+        def result = graphQL.execute("{ slow fast }")
+        def tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+        then:
+        result.data == [slow: null, fast: "fast"]
+        result.errors.size() == 1
+        result.errors[0].message.contains("The data fetcher of 'Query.slow' did not finish within 100 ms")
+        tookMillis < 5000
+        interrupted.await(5, TimeUnit.SECONDS)
+    }
+
+    def "a slow call is hedged and the first answer wins"() {
+        def graphQL = graphQL({ env -> "slow" } as DataFetcher, hangsFirstTime)
+
+        when:
+        def result = graphQL.execute("{ hedged }")
+
+        then:
+        result.errors.isEmpty()
+        result.data == [hedged: "answered"]
+        calls.get() == 2
+        // the losing call is cancelled
+        interrupted.await(5, TimeUnit.SECONDS)
+    }
+
+    def "a fast call is not hedged and failures are reported as they are"() {
+        def graphQL = graphQL({ env -> "slow" } as DataFetcher, { env -> calls.incrementAndGet(); "quick" } as DataFetcher)
+
+        when:
+        def result = graphQL.execute("{ hedged failing }")
+
+        then:
+        result.data == [hedged: "quick", failing: null]
+        calls.get() == 1
+        result.errors.size() == 1
+        result.errors[0].message.contains("backend down")
+    }
+
+    // runs as many calls as it is allowed to on threads of their own and turns the rest away
+    static Executor allowing(int allowed) {
+        def count = new AtomicInteger()
+        return { Runnable runnable ->
+            if (count.incrementAndGet() > allowed) {
+                throw new RejectedExecutionException()
+            }
+            new Thread(runnable).start()
+        } as Executor
+    }
+
+    def "a field fails when the executor turns its call away and is not hedged when it turns the hedge away"() {
+        def slowFirst = { env -> calls.incrementAndGet(); Thread.sleep(200); "first" } as DataFetcher
+        def options = SchemaGenerator.Options.defaultOptions().fetcherExecutor(allowing(1))
+        def graphQL = graphQL({ env -> "slow" } as DataFetcher, slowFirst, options)
+
+        when:
+        def hedged = graphQL.execute("{ hedged }")
+        def turnedAway = graphQL.execute("{ slow fast }")
+
+        then:
+        hedged.errors.isEmpty()
+        hedged.data == [hedged: "first"]
+        calls.get() == 1
+        turnedAway.data == [slow: null, fast: "fast"]
+        turnedAway.errors.size() == 1
+        turnedAway.errors[0].message.contains("The data fetcher of 'Query.slow' was not run as the executor turned it away")
+    }
+
+    def "the default executor has a bounded number of threads and no queue"() {
+        def executor = DeadlineDataFetcher.DefaultExecutor.INSTANCE as ThreadPoolExecutor
+
+        expect:
+        executor.maximumPoolSize == DeadlineDataFetcher.DefaultExecutor.MAX_THREADS
+        executor.queue instanceof SynchronousQueue
+        executor.rejectedExecutionHandler instanceof ThreadPoolExecutor.AbortPolicy
+    }
+}
@@ -0,0 +1,112 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.introspection.IntrospectionQuery
+import graphql.schema.DataFetcher
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLSchema
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class IntrospectionResultTest extends Specification {
+
+    static spec = """
+            enum Colour {
+                RED
+                GREEN
+            }
+
+            type Post {
+                id : ID!
+                title(upper : Boolean = false) : String
+                colour : Colour
+            }
+
+            type Query {
+                posts : [Post]
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    int fetchCount = 0
+
+    GraphQLSchema generate(SchemaGenerator.Options options) {
+        def fetcher = new DataFetcher() {
+            @Override
+            Object get(DataFetchingEnvironment environment) {
+                fetchCount++
+                return [[id: "1", title: "hello", colour: "RED"]]
+            }
+        }
+        def wiring = new RuntimeWiring().forType("Query").dataFetcher("posts", fetcher).endType()
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        new SchemaGenerator(options).makeExecutableSchema(registry, wiring).right().get()
+    }
+
+    def "the cached result is the same as executing the introspection query"() {
+        def schema = generate(SchemaGenerator.Options.defaultOptions())
+        def expected = new GraphQL(schema).execute(IntrospectionQuery.INTROSPECTION_QUERY).data
+
+        def result = IntrospectionResult.forSchema(schema)
+        def bytes = new byte[result.json.remaining()]
+        result.json.get(bytes)
+        def parsed = new JsonSlurper().parseText(new String(bytes, StandardCharsets.UTF_8))
+
+        def out = new ByteArrayOutputStream()
+        result.writeTo(out)
+
+        expect:
+        result.data == expected
+        parsed == [data: expected]
+        out.toByteArray() == bytes
+        IntrospectionResult.forSchema(schema).is(result)
+    }
+
+    def "the result can be computed when the schema is generated"() {
+        def schema = generate(SchemaGenerator.Options.defaultOptions().precomputeIntrospection(true))
+
+        expect:
+        IntrospectionResult.RESULTS.containsKey(schema)
+    }
+
+    def "introspection queries are served from the cache"() {
+        def schema = generate(SchemaGenerator.Options.defaultOptions())
+        def graphQL = new IntrospectionCachingGraphQL(schema)
+        def reformatted = IntrospectionQuery.INTROSPECTION_QUERY.replaceAll("\\s+", "\n  ").replace("name", "name,")
+
+        when:
+        def result1 = graphQL.execute(IntrospectionQuery.INTROSPECTION_QUERY)
+        def result2 = graphQL.execute(reformatted)
+
+        then:
+        result1.errors.isEmpty()
+        result1.data.is(IntrospectionResult.forSchema(schema).data)
+        result2.data.is(result1.data)
+
+        when:
+        def result3 = graphQL.execute("{ posts { id colour } }")
+
+        then:
+        result3.errors.isEmpty()
+        result3.data == [posts: [[id: "1", colour: "RED"]]]
+        fetchCount == 1
+    }
+
+    def "only the introspection query matches"() {
+        expect:
+        IntrospectionResult.isIntrospectionQuery(IntrospectionQuery.INTROSPECTION_QUERY)
+        !IntrospectionResult.isIntrospectionQuery("{ __schema { types { name } } }")
+        !IntrospectionResult.isIntrospectionQuery("{ posts { id } }")
+        !IntrospectionResult.isIntrospectionQuery(null)
+    }
+
+    def "json strings are escaped"() {
+        expect:
+        JsonWriter.toJson([a: "q\"b\\\n\u0001", b: [1, 2.5d, true, null]]) == '{"a":"q\\"b\\\\\\n\\u0001","b":[1,2.5,true,null]}'
+    }
+}
@@ -0,0 +1,162 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.TypeResolverProxy
+import spock.lang.Specification
+
+class PermissionsTest extends Specification {
+
+    static spec = """
+            type Salary @auth(requires : [HR]) {
+                amount : Int
+            }
+            type Person {
+                name : String
+                salary : Salary
+                homeAddress : String @auth(requires : [HR, ADMIN])
+            }
+            type Audit @auth(requires : "AUDITOR") {
+                entries : [String]
+            }
+            type Query {
+                person : Person
+                audit : Audit
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    def salaryFetches = 0
+
+    GraphQL graphQL() {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("person", { env -> [name: "Ann", homeAddress: "1 Main St"] } as DataFetcher)
+                .dataFetcher("audit", { env -> [entries: ["logged in"]] } as DataFetcher)
+                .forType("Person")
+                .dataFetcher("salary", { env -> salaryFetches++; [amount: 100] } as DataFetcher)
+                .endType()
+        new GraphQL(new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get())
+    }
+
+    def "fields are only fetched for callers with the roles they require"() {
+        def query = "{ person { name homeAddress salary { amount } } audit { entries } }"
+
+        when:
+        def result = graphQL().execute(query, Permissions.of(roles))
+
+        then:
+        result.errors.isEmpty()
+        result.data == expected
+        salaryFetches == (expected.person.salary == null ? 0 : 1)
+
+        where:
+        roles                      | expected
+        []                         | [person: [name: "Ann", homeAddress: null, salary: null], audit: null]
+        ["HR"]                     | [person: [name: "Ann", homeAddress: null, salary: [amount: 100]], audit: null]
+        ["HR", "ADMIN", "AUDITOR"] | [person: [name: "Ann", homeAddress: "1 Main St", salary: [amount: 100]], audit: [entries: ["logged in"]]]
+        ["ADMIN", "UNKNOWN"]       | [person: [name: "Ann", homeAddress: null, salary: null], audit: null]
+    }
+
+    static class RequestContext implements Permissions.Holder {
+        Permissions permissions
+    }
+
+    def "permissions can be carried by a context that holds them and are denied without any"() {
+        when:
+        def graphQL = graphQL()
+        def held = graphQL.execute("{ person { homeAddress } }", new RequestContext(permissions: Permissions.of(["HR", "ADMIN"])))
+        def none = graphQL.execute("{ person { homeAddress } }", "some other context")
+
+        then:
+        held.data == [person: [homeAddress: "1 Main St"]]
+        none.data == [person: [homeAddress: null]]
+    }
+
+    def "permissions are a bitset over every role that schemas require"() {
+        def roles = (1..100).collect { "ROLE_$it".toString() }
+        def required = Permissions.required([roles[0], roles[99]])
+
+        expect:
+        Permissions.of(roles).includes(required)
+        !Permissions.of([roles[0]]).includes(required)
+        !Permissions.NONE.includes(required)
+        Permissions.NONE.includes(Permissions.NONE)
+        Permissions.of([roles[99], roles[0]]) == Permissions.of([roles[0], roles[99]])
+        Permissions.required([roles[0]]).union(Permissions.required([roles[99]])) == required
+        Permissions.of([]).isEmpty()
+    }
+
+    def "permissions worked out before a schema requires a role still hold it afterwards"() {
+        def role = "ROLE_FIRST_REQUIRED_AFTER_LOGIN"
+
+        when:
+        def held = Permissions.of([role])
+        def required = Permissions.required([role])
+
+        then:
+        !held.isEmpty()
+        held.includes(required)
+        !Permissions.NONE.includes(required)
+        Permissions.of(["ROLE_ONLY_A_CALLER_HOLDS", role]).includes(required)
+        !Permissions.of(["ROLE_ONLY_A_CALLER_HOLDS"]).includes(required)
+    }
+
+    def "the roles callers hold are not given bits of their own"() {
+        def role = "ROLE_NO_SCHEMA_REQUIRES"
+
+        when:
+        def held = Permissions.of([role])
+
+        then:
+        !held.isEmpty()
+        !Permissions.roleBits.containsKey(role)
+        held.toString() == "Permissions{ROLE_NO_SCHEMA_REQUIRES}"
+    }
+
+    def "the roles on interfaces and interface fields guard the fields of the object types that implement them"() {
+        def registry = new SchemaCompiler().compile("""
+            interface Node @auth(requires : [ADMIN]) {
+                secret : String @auth(requires : [ADMIN])
+            }
+            interface Named {
+                name : String
+                motto : String @auth(requires : [HR])
+            }
+            type Account implements Node, Named {
+                secret : String
+                name : String
+                motto : String
+            }
+            type Query {
+                account : Account
+                node : Node
+            }
+            schema {
+                query : Query
+            }
+        """).right().get()
+        def account = [secret: "TOP-SECRET", name: "Ann", motto: "carpe diem"]
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("account", { env -> account } as DataFetcher)
+                .dataFetcher("node", { env -> account } as DataFetcher)
+                .forType("Node").typeResolver(new TypeResolverProxy())
+                .forType("Named").typeResolver(new TypeResolverProxy())
+                .endType()
+        def graphQL = new GraphQL(new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get())
+
+        expect:
+        graphQL.execute("{ account { secret name motto } }", Permissions.of(roles)).data == [account: expected]
+
+        where:
+        roles            | expected
+        []               | null
+        ["HR"]           | null
+        ["ADMIN"]        | [secret: "TOP-SECRET", name: "Ann", motto: null]
+        ["ADMIN", "HR"]  | [secret: "TOP-SECRET", name: "Ann", motto: "carpe diem"]
+    }
+}
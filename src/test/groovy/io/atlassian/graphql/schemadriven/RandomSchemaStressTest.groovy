@@ -0,0 +1,106 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.schema.GraphQLArgument
+import graphql.schema.GraphQLFieldsContainer
+import graphql.schema.GraphQLInputObjectType
+import graphql.schema.GraphQLList
+import graphql.schema.GraphQLNonNull
+import graphql.schema.GraphQLSchema
+import graphql.schema.GraphQLType
+import graphql.schema.GraphQLTypeReference
+import io.atlassian.graphql.schemadriven.diff.SchemaDiff
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryPoolMXBean
+import java.lang.management.MemoryType
+
+/**
+ * Compiles, checks, generates, decompiles and recompiles random schemas and asserts that the round trip loses
+ * nothing.  The sizes and budgets can be raised from the command line, say
+ *
+ * -Dschemadriven.stress.sizes=100000 -Dschemadriven.stress.maxMillis=120000 -Dschemadriven.stress.maxHeapMb=4096
+ */
+class RandomSchemaStressTest extends Specification {
+
+    static List<Integer> SIZES = System.getProperty("schemadriven.stress.sizes", "20,200,2000").split(",").collect { it.trim() as int }
+    static long SEED = Long.getLong("schemadriven.stress.seed", 20161019L)
+    static long MAX_MILLIS = Long.getLong("schemadriven.stress.maxMillis", 60000L)
+    static long MAX_HEAP_MB = Long.getLong("schemadriven.stress.maxHeapMb", 2048L)
+
+    static List<MemoryPoolMXBean> heapPools() {
+        ManagementFactory.getMemoryPoolMXBeans().findAll { it.type == MemoryType.HEAP }
+    }
+
+    static long peakHeapMb(List<MemoryPoolMXBean> pools) {
+        (long) (pools.sum(0L) { it.peakUsage.used } / (1024 * 1024))
+    }
+
+    GraphQLSchema generate(String sdl, RandomSchemas schemas) {
+        def typeRegistry = new SchemaCompiler().compile(sdl)
+        assert typeRegistry.isRight(): typeRegistry.left().getOrNull()
+        def schema = new SchemaGenerator().makeExecutableSchema(typeRegistry.right().get(), schemas.wiring())
+        assert schema.isRight(): schema.left().getOrNull()
+        schema.right().get()
+    }
+
+    static GraphQLType unwrap(GraphQLType type) {
+        while (type instanceof GraphQLNonNull || type instanceof GraphQLList) {
+            type = type instanceof GraphQLNonNull ? (type as GraphQLNonNull).wrappedType : (type as GraphQLList).wrappedType
+        }
+        type
+    }
+
+    static List<String> unresolvedReferences(GraphQLSchema schema) {
+        def references = []
+        schema.allTypesAsList.each { type ->
+            def types = []
+            if (type instanceof GraphQLFieldsContainer) {
+                type.fieldDefinitions.each { field ->
+                    types << field.type
+                    types.addAll(field.arguments.collect { (it as GraphQLArgument).type })
+                }
+            } else if (type instanceof GraphQLInputObjectType) {
+                types.addAll(type.fields.collect { it.type })
+            }
+            types.findAll { unwrap(it) instanceof GraphQLTypeReference }.each { references << type.name + ":" + unwrap(it).name }
+        }
+        references
+    }
+
+    @Unroll
+    def "random schema of #size types with seed #seed survives a round trip"() {
+        def schemas = new RandomSchemas(size, seed)
+        def pools = heapPools()
+        pools.each { it.resetPeakUsage() }
+        long started = System.nanoTime()
+
+        when:
+        def schema = generate(schemas.sdl, schemas)
+        def sdl = new SchemaDecompiler(SchemaDecompiler.Options.defaultOptions().includeScalarTypes(true)).decompile(schema)
+        def roundTripped = generate(sdl, schemas)
+
+        long millis = (System.nanoTime() - started).intdiv(1000000)
+        long heapMb = peakHeapMb(pools)
+
+        then:
+        schema.getAllTypesAsList().count { !it.name.startsWith("__") } >= size
+        unresolvedReferences(schema).isEmpty()
+        unresolvedReferences(roundTripped).isEmpty()
+        new SchemaDiff().diff(schema, roundTripped).isEmpty()
+        new SchemaFingerprinter().fingerprint(schema) == new SchemaFingerprinter().fingerprint(roundTripped)
+
+        millis <= MAX_MILLIS
+        heapMb <= MAX_HEAP_MB
+
+        where:
+        [size, seed] << SIZES.collect { [it, SEED + it] }
+    }
+
+    def "the same seed gives the same schema"() {
+        expect:
+        new RandomSchemas(50, 7L).sdl == new RandomSchemas(50, 7L).sdl
+        new RandomSchemas(50, 7L).sdl != new RandomSchemas(50, 8L).sdl
+    }
+}
@@ -0,0 +1,204 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.Scalars
+import graphql.schema.GraphQLScalarType
+import graphql.schema.TypeResolverProxy
+
+/**
+ * Generates random but valid schema definitions, with cycles between types, interfaces, unions, enums, custom
+ * scalars and input types with default values.  Every type is reachable from the query type so that a generated
+ * schema contains all of them.  The same seed always gives the same schema.
+ */
+class RandomSchemas {
+
+    static final List<String> STANDARD_SCALARS = ["Int", "Float", "String", "Boolean", "ID"]
+
+    static final List<String> WRAPPINGS = ["%s", "%s", "%s!", "[%s]", "[%s!]", "[%s]!", "[%s!]!", "[[%s]]"]
+
+    final String sdl
+    final List<String> customScalars = []
+    final List<String> abstractTypes = []
+    final int typeCount
+
+    private final Random random
+    private final List<String> objects = []
+    private final List<String> interfaces = []
+    private final List<String> unions = []
+    private final List<String> enums = []
+    private final List<String> inputs = []
+    private final Map<String, List<String>> enumValues = [:]
+    private final Map<String, List<String>> objectFields = [:]
+    private final Map<String, List<String>> interfaceFields = [:]
+    private final Map<String, List<String>> objectInterfaces = [:]
+    private final Map<String, List<String>> unionMembers = [:]
+    private final Map<String, List<String>> inputFields = [:]
+
+    RandomSchemas(int typeCount, long seed) {
+        this.typeCount = typeCount
+        this.random = new Random(seed)
+        allocate(typeCount)
+        wire()
+        this.sdl = render()
+    }
+
+    RuntimeWiring wiring() {
+        def wiring = new RuntimeWiring()
+        customScalars.each { wiring.scalar(new GraphQLScalarType(it, it, Scalars.GraphQLString.coercing)) }
+        def resolver = new TypeResolverProxy()
+        abstractTypes.each { wiring.forType(it).typeResolver(resolver) }
+        wiring
+    }
+
+    private int share(int n, double fraction) {
+        Math.max(1, (int) (n * fraction))
+    }
+
+    private void allocate(int n) {
+        share(n, 0.02).times { customScalars << "Scalar" + it }
+        share(n, 0.08).times {
+            enums << "Enum" + it
+            enumValues["Enum" + it] = (0..<(2 + random.nextInt(4))).collect { v -> "V" + v }
+        }
+        share(n, 0.05).times { interfaces << "Interface" + it }
+        share(n, 0.05).times { unions << "Union" + it }
+        share(n, 0.12).times { inputs << "Input" + it }
+        int objectCount = Math.max(2, n - customScalars.size() - enums.size() - interfaces.size() - unions.size() - inputs.size())
+        objects << "Query"
+        (1..<objectCount).each { objects << "Object" + it }
+        abstractTypes.addAll(interfaces)
+        abstractTypes.addAll(unions)
+    }
+
+    private <T> T pick(List<T> list) {
+        list[random.nextInt(list.size())]
+    }
+
+    private String wrap(String typeName) {
+        String.format(pick(WRAPPINGS), typeName)
+    }
+
+    private String leafType() {
+        int r = random.nextInt(10)
+        if (r < 6) {
+            return pick(STANDARD_SCALARS)
+        } else if (r < 8) {
+            return pick(enums)
+        }
+        return pick(customScalars)
+    }
+
+    private String outputType() {
+        int r = random.nextInt(10)
+        if (r < 4) {
+            return leafType()
+        } else if (r < 8) {
+            return pick(objects)
+        } else if (r < 9) {
+            return pick(interfaces)
+        }
+        return pick(unions)
+    }
+
+    private String defaultValue(String typeName, boolean list) {
+        String value
+        switch (typeName) {
+            case "Int": value = String.valueOf(random.nextInt(1000)); break
+            case "Float": value = random.nextInt(100) + ".5"; break
+            case "String": value = '"s' + random.nextInt(1000) + '"'; break
+            case "ID": value = '"id' + random.nextInt(1000) + '"'; break
+            case "Boolean": value = String.valueOf(random.nextBoolean()); break
+            default:
+                if (!enumValues.containsKey(typeName)) {
+                    return null
+                }
+                value = pick(enumValues[typeName])
+        }
+        list ? "[" + value + ", " + value + "]" : value
+    }
+
+    /*
+     * an input value is either a nullable leaf with a default value, a required leaf or a nullable input type
+     */
+    private String inputValue(String name) {
+        int r = random.nextInt(10)
+        if (r < 3) {
+            return name + " : " + pick(inputs)
+        }
+        String leaf = leafType()
+        if (r < 5) {
+            return name + " : " + leaf + "!"
+        }
+        boolean list = random.nextBoolean()
+        String defaultValue = defaultValue(leaf, list)
+        String type = list ? "[" + leaf + "]" : leaf
+        return defaultValue == null ? name + " : " + type : name + " : " + type + " = " + defaultValue
+    }
+
+    private String field(String name, String type) {
+        def args = []
+        if (random.nextInt(4) == 0) {
+            (1 + random.nextInt(2)).times { args << inputValue("arg" + it) }
+        }
+        (args ? name + "(" + args.join(", ") + ")" : name) + " : " + type
+    }
+
+    private void wire() {
+        // interface fields are named after the interface so an object can implement several of them
+        interfaces.each { name ->
+            def prefix = name.toLowerCase()
+            def fields = [prefix + "Id : ID!"]
+            random.nextInt(3).times { fields << field(prefix + "F" + it, wrap(outputType())) }
+            interfaceFields[name] = fields
+        }
+        objects.each { name ->
+            def fields = []
+            (1 + random.nextInt(4)).times { fields << field("f" + it, wrap(outputType())) }
+            objectFields[name] = fields
+            objectInterfaces[name] = []
+        }
+        // a spanning tree of fields makes every object reachable from the query type
+        (1..<objects.size()).each { i ->
+            def parent = objects[(int) ((i - 1) / 4)]
+            objectFields[parent] << field("c" + i, wrap(objects[i]))
+        }
+        // and every other type hangs off some object
+        interfaces.each { name ->
+            def implementors = (1 + random.nextInt(3)).collect { pick(objects) } as Set
+            implementors.each { objectInterfaces[it] << name }
+            objectFields[pick(objects)] << field("ref" + name, wrap(name))
+        }
+        unions.each { name ->
+            unionMembers[name] = ((1 + random.nextInt(3)).collect { pick(objects) } as Set) as List
+            objectFields[pick(objects)] << field("ref" + name, wrap(name))
+        }
+        (enums + customScalars).each { name ->
+            objectFields[pick(objects)] << field("ref" + name, wrap(name))
+        }
+        inputs.each { name ->
+            def fields = []
+            (1 + random.nextInt(4)).times { fields << inputValue("in" + it) }
+            inputFields[name] = fields
+            objectFields[pick(objects)] << "use" + name + "(arg : " + name + ") : String"
+        }
+    }
+
+    private String render() {
+        def sb = new StringBuilder()
+        customScalars.each { sb << "scalar " << it << "\n" }
+        enums.each { sb << "enum " << it << " {\n  " << enumValues[it].join("\n  ") << "\n}\n" }
+        interfaces.each { sb << "interface " << it << " {\n  " << interfaceFields[it].join("\n  ") << "\n}\n" }
+        unions.each { sb << "union " << it << " = " << unionMembers[it].join(" | ") << "\n" }
+        inputs.each { sb << "input " << it << " {\n  " << inputFields[it].join("\n  ") << "\n}\n" }
+        objects.each { name ->
+            sb << "type " << name
+            def implemented = objectInterfaces[name]
+            if (implemented) {
+                sb << " implements " << implemented.join(", ")
+            }
+            def fields = implemented.collectMany { interfaceFields[it] } + objectFields[name]
+            sb << " {\n  " << fields.join("\n  ") << "\n}\n"
+        }
+        sb << "schema {\n  query : Query\n}\n"
+        sb.toString()
+    }
+}
@@ -0,0 +1,81 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+class RateLimitsTest extends Specification {
+
+    static spec = """
+            type Query {
+                search : String @rateLimit(perSecond : 1, burst : 3, key : "caller")
+                status : String @rateLimit(perSecond : 1)
+                free : String
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    def searches = 0
+
+    GraphQL graphQL(RateLimits rateLimits) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("search", { env -> searches++; "found" } as DataFetcher)
+                .dataFetcher("status", { env -> "ok" } as DataFetcher)
+                .dataFetcher("free", { env -> "free" } as DataFetcher)
+                .endType()
+        def options = SchemaGenerator.Options.defaultOptions().rateLimits(rateLimits)
+        new GraphQL(new SchemaGenerator(options).makeExecutableSchema(registry, wiring).right().get())
+    }
+
+    static class Caller implements RateLimits.Caller {
+        String callerKey
+    }
+
+    def "calls over the limit fail fast with an error and are counted"() {
+        def rateLimits = new RateLimits()
+        def graphQL = graphQL(rateLimits)
+
+        when:
+        def results = (1..5).collect { graphQL.execute("{ search free }", new Caller(callerKey: "ann")) }
+
+        then:
+        results*.data == [[search: "found", free: "free"]] * 3 + [[search: null, free: "free"]] * 2
+        results*.errors*.size() == [0, 0, 0, 1, 1]
+        results[3].errors[0].message.contains("The rate limit of 1 calls per second of 'Query.search' has been exceeded")
+        searches == 3
+        rateLimits.coordinates == ["Query.search", "Query.status"] as Set
+        rateLimits.getPermitted("Query.search") == 3
+        rateLimits.getRejected("Query.search") == 2
+        rateLimits.getPermitted("Query.free") == 0
+    }
+
+    def "limits are per caller when keyed by caller and shared otherwise"() {
+        def graphQL = graphQL(new RateLimits())
+
+        when:
+        def search = ["ann", "bob", "ann", "bob", "ann", "bob", "ann", "bob"].collect { graphQL.execute("{ search }", it).data.search }
+        def status = ["ann", "bob"].collect { graphQL.execute("{ status }", new Caller(callerKey: it)).data.status }
+
+        then:
+        search == ["found"] * 6 + [null] * 2
+        // the burst defaults to the rate
+        status == ["ok", null]
+    }
+
+    def "the limits carry on from one schema to the next when the rate limits are shared"() {
+        def rateLimits = new RateLimits()
+
+        when:
+        3.times { graphQL(rateLimits).execute("{ search }", "ann") }
+        def afterReload = graphQL(rateLimits).execute("{ search }", "ann")
+        def elsewhere = graphQL(new RateLimits()).execute("{ search }", "ann")
+
+        then:
+        afterReload.data == [search: null]
+        elsewhere.data == [search: "found"]
+    }
+}
@@ -0,0 +1,108 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+class ResolverTracerTest extends Specification {
+
+    static spec = """
+            type Post {
+                title : String
+                tags : [String]
+            }
+            type Query {
+                posts : [Post]
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    GraphQL graphQL(ResolverTracer tracer) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Query").dataFetcher("posts", { env -> [[title: "a", tags: ["x", "y"]], [title: "b", tags: []]] } as DataFetcher)
+                .endType()
+        def options = SchemaGenerator.Options.defaultOptions().tracer(tracer)
+        new GraphQL(new SchemaGenerator(options).makeExecutableSchema(registry, wiring).right().get())
+    }
+
+    def "sampled requests are traced in the apollo tracing format"() {
+        def tracer = new ResolverTracer(ResolverTracer.Options.defaultOptions().sampleEvery(1))
+        def graphQL = graphQL(tracer)
+
+        when:
+        def trace = tracer.startRequest()
+        def result = graphQL.execute("{ posts { heading : title tags } }", trace)
+        trace.finish()
+        def tracing = new JsonSlurper().parseText(tracer.toApolloTracingJson(trace))
+        def resolvers = tracing.execution.resolvers
+
+        then:
+        result.errors.isEmpty()
+        tracing.version == 1
+        tracing.duration == trace.durationNanos
+        resolvers.size() == 5
+        resolvers[0].path == ["posts"]
+        resolvers[0].parentType == "Query"
+        resolvers[0].returnType == "Post"
+        resolvers[0].resultSize == 2
+        resolvers.findAll { it.fieldName == "title" }*.path == [["heading"], ["heading"]]
+        resolvers.findAll { it.fieldName == "tags" }*.resultSize == [2, 0]
+        resolvers.every { it.startOffset >= 0 && it.duration >= 0 }
+    }
+
+    def "requests that are not sampled are not traced"() {
+        def tracer = new ResolverTracer(ResolverTracer.Options.defaultOptions().sampleEvery(2))
+        def graphQL = graphQL(tracer)
+
+        when:
+        def traces = (1..4).collect {
+            def trace = tracer.startRequest()
+            graphQL.execute("{ posts { title } }", trace)
+            trace
+        }
+        def untraced = graphQL.execute("{ posts { title } }", "not a trace")
+
+        then:
+        untraced.errors.isEmpty()
+        traces*.sampled == [true, false, true, false]
+        traces.collect { new JsonSlurper().parseText(tracer.toApolloTracingJson(it)).execution.resolvers.size() } == [3, 0, 3, 0]
+    }
+
+    def "the ring buffer keeps the newest events and dumps them in binary"() {
+        def tracer = new ResolverTracer(ResolverTracer.Options.defaultOptions().capacity(3).sampleEvery(1))
+        def graphQL = graphQL(tracer)
+
+        when:
+        def first = tracer.startRequest()
+        graphQL.execute("{ posts { title } }", first)
+        def second = tracer.startRequest()
+        graphQL.execute("{ posts { title } }", second)
+
+        def bytes = new ByteArrayOutputStream()
+        tracer.writeBinary(bytes)
+        def data = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+        def magic = data.readInt()
+        def version = data.readInt()
+        def fieldCount = data.readInt()
+        def fields = (1..fieldCount).collect { [data.readUTF(), data.readUTF(), data.readUTF()] }
+        def eventCount = data.readInt()
+        def events = (1..eventCount).collect { [requestId: data.readLong(), fieldId: data.readInt(), startOffset: data.readLong(), duration: data.readLong(), resultSize: data.readInt()] }
+
+        then:
+        tracer.capacity == 4
+        new JsonSlurper().parseText(tracer.toApolloTracingJson(first)).execution.resolvers.size() == 1
+        new JsonSlurper().parseText(tracer.toApolloTracingJson(second)).execution.resolvers.size() == 3
+
+        magic == 0x52545243
+        version == 1
+        fields.contains(["Query", "posts", "Post"])
+        eventCount == 4
+        events*.requestId == [first.requestId, second.requestId, second.requestId, second.requestId]
+        fields[events[1].fieldId] == ["Query", "posts", "Post"]
+        data.available() == 0
+    }
+}
@@ -0,0 +1,146 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import graphql.schema.TypeResolver
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class ResponseWriterTest extends Specification {
+
+    static spec = """
+            interface Node {
+                id : ID!
+            }
+
+            enum Colour {
+                RED
+                GREEN
+            }
+
+            type Post implements Node {
+                id : ID!
+                title : String
+                votes : Int
+                published : Boolean
+                colour : Colour
+                tags : [String!]
+                comments : [Comment]
+            }
+
+            type Comment implements Node {
+                id : ID!
+                text : String
+            }
+
+            type Query {
+                posts : [Post]
+                nodes : [Node]
+                broken : String
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    static posts = [
+            [id: "1", title: 'a "quoted" title   with é and 😀', votes: -12, published: true, colour: "RED", tags: ["x", "y"],
+             comments: [[id: "c1", text: "first"], null]],
+            [id: "2", title: null, votes: 2147483647, published: false, colour: "GREEN", tags: [], comments: []]
+    ]
+
+    GraphQLSchema generate() {
+        def postsFetcher = new DataFetcher() {
+            @Override
+            Object get(DataFetchingEnvironment environment) {
+                return posts
+            }
+        }
+        def nodesFetcher = new DataFetcher() {
+            @Override
+            Object get(DataFetchingEnvironment environment) {
+                return [posts[0], posts[0].comments[0]]
+            }
+        }
+        def brokenFetcher = new DataFetcher() {
+            @Override
+            Object get(DataFetchingEnvironment environment) {
+                throw new IllegalStateException("broken")
+            }
+        }
+        GraphQLSchema schema = null
+        def resolver = new TypeResolver() {
+            @Override
+            GraphQLObjectType getType(Object object) {
+                return schema.getType(object.containsKey("text") ? "Comment" : "Post") as GraphQLObjectType
+            }
+        }
+        def wiring = new RuntimeWiring()
+                .forType("Node").typeResolver(resolver)
+                .forType("Query").dataFetcher("posts", postsFetcher).dataFetcher("nodes", nodesFetcher).dataFetcher("broken", brokenFetcher)
+                .endType()
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        schema = new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+        schema
+    }
+
+    def "results are written the same as the generic json writer would"() {
+        def schema = generate()
+        def writer = new ResponseWriter(schema)
+        def result = new GraphQL(schema).execute(query)
+
+        when:
+        def json = new String(writer.toBytes(result, query, null), StandardCharsets.UTF_8)
+
+        then:
+        result.errors.isEmpty()
+        json == JsonWriter.toJson([data: result.data])
+        // the second time round the cached plan is used
+        new String(writer.toBytes(result, query, null), StandardCharsets.UTF_8) == json
+
+        where:
+        query << [
+                "{ posts { id title votes published colour tags comments { id text } } }",
+                "{ first : posts { name : title, votes } second : posts { votes } }",
+                "{ nodes { __typename id ... on Post { title tags } ...commentFields } } fragment commentFields on Comment { text }",
+        ]
+    }
+
+    def "errors are written after the data"() {
+        def schema = generate()
+        def writer = new ResponseWriter(schema)
+
+        when:
+        def query = "{ broken posts { votes } }"
+        def result = new GraphQL(schema).execute(query)
+        def json = new JsonSlurper().parse(writer.toBytes(result, query, null))
+
+        then:
+        json.data.broken == null
+        json.data.posts == [[votes: -12], [votes: 2147483647]]
+        json.errors.size() == 1
+    }
+
+    def "invalid queries have only errors"() {
+        def schema = generate()
+        def writer = new ResponseWriter(schema)
+
+        when:
+        def query = "{ nope }"
+        def result = new GraphQL(schema).execute(query)
+        def out = new ByteArrayOutputStream()
+        writer.write(result, query, out)
+        def json = new JsonSlurper().parse(out.toByteArray())
+
+        then:
+        !json.containsKey("data")
+        json.errors.size() == 1
+        json.errors[0].locations == [[line: 1, column: 3]]
+    }
+}
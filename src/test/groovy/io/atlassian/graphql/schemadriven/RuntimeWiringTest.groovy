@@ -106,4 +106,71 @@ class RuntimeWiringTest extends Specification {
         wiring.getScalars().get("Short").name == "Short"
         wiring.getScalars().get("Long").name == "Long"
     }
+
+    def "frozen wiring has the same lookups and cannot be changed"() {
+        def wiring = new RuntimeWiring()
+        (1..50).each { t ->
+            def typeWiring = wiring.forType("Type" + t)
+            (1..20).each { f -> typeWiring.dataFetcher("field" + f, new NamedDF("Type" + t + ".field" + f)) }
+        }
+        wiring.forType("Node").typeResolver(new NamedTR("node"))
+
+        def frozen = wiring.freeze()
+
+        when:
+        frozen.forType("Query").dataFetcher("fieldX", new NamedDF("fieldX"))
+
+        then:
+        thrown(IllegalStateException)
+
+        when:
+        frozen.scalar(new GraphQLScalarType("URL", "Custom", coercing))
+
+        then:
+        thrown(IllegalStateException)
+
+        expect:
+        frozen.isFrozen()
+        !wiring.isFrozen()
+        frozen.freeze().is(frozen)
+        (1..50).every { t -> (1..20).every { f -> (frozen.getDataFetcher("Type" + t, "field" + f) as NamedDF).name == "Type" + t + ".field" + f } }
+        frozen.getDataFetcher("Type1", "field21") == null
+        frozen.getDataFetcher("Missing", "field1") == null
+        (frozen.getTypeResolver("Node") as NamedTR).name == "node"
+        frozen.getScalars().is(frozen.getScalars())
+        frozen.getScalar("Int").name == "Int"
+    }
+
+    def "generating a schema does not change the wiring and frozen wiring can be shared"() {
+        def spec = """
+            type Post {
+                id : ID!
+                title : String
+            }
+            type Query {
+                posts : [Post]
+            }
+            schema {
+                query : Query
+            }
+        """
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring().forType("Query").dataFetcher("posts", new NamedDF("posts")).endType()
+        def frozen = wiring.freeze()
+
+        def schemas = Collections.synchronizedList([])
+        def threads = (1..8).collect {
+            Thread.start {
+                10.times { schemas.add(new SchemaGenerator().makeExecutableSchema(registry, frozen).right().get()) }
+            }
+        }
+        threads*.join()
+
+        new SchemaGenerator().makeExecutableSchema(registry, wiring)
+
+        expect:
+        wiring.getDataFetchers().keySet() == ["Query"] as Set
+        schemas.size() == 80
+        schemas.every { (it.queryType.getFieldDefinition("posts").dataFetcher as NamedDF).name == "posts" }
+    }
 }
@@ -0,0 +1,169 @@
+package io.atlassian.graphql.schemadriven
+
+import spock.lang.Specification
+
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.ASSEMBLE
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.CHECK
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.GENERATE_TYPE
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.MERGE
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.PARSE
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.READ
+import static io.atlassian.graphql.schemadriven.SchemaBuildListener.Phase.REGISTER
+
+class SchemaBuildReportTest extends Specification {
+
+    static spec = """
+            type Post {
+                id : ID!
+                title : String
+                author : Author
+            }
+
+            type Author {
+                id : ID!
+                name : String
+                posts : [Post]
+            }
+
+            input Filter {
+                title : String
+            }
+
+            type Query {
+                posts(filter : Filter) : [Post]
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    class RecordingListener implements SchemaBuildListener {
+        List<String> calls = []
+        List<SchemaBuildEvent> events = []
+
+        @Override
+        void phaseStarted(SchemaBuildListener.Phase phase, String subject) {
+            calls.add("start " + phase + " " + subject)
+        }
+
+        @Override
+        void phaseFinished(SchemaBuildEvent event) {
+            calls.add("end " + event.phase + " " + event.subject)
+            events.add(event)
+        }
+    }
+
+    def "each phase is called back in order"() {
+        def listener = new RecordingListener()
+        def file = File.createTempFile("schema", ".graphqls")
+        file.deleteOnExit()
+        file.text = spec
+
+        def registry = new SchemaCompiler(null, listener).compile(file).right().get()
+        new SchemaGenerator(SchemaGenerator.Options.defaultOptions().buildListener(listener)).makeExecutableSchema(registry, new RuntimeWiring())
+
+        def events = listener.events.groupBy { it.phase }
+
+        expect:
+        listener.calls.take(8) == [
+                "start READ " + file.path, "end READ " + file.path,
+                "start PARSE " + file.path, "end PARSE " + file.path,
+                "start REGISTER null", "end REGISTER null",
+                "start CHECK null", "end CHECK null"
+        ]
+        // types nest inside the assembly of the schema
+        listener.calls[8] == "start ASSEMBLE null"
+        listener.calls[9] == "start GENERATE_TYPE Query"
+        listener.calls.last() == "end ASSEMBLE null"
+
+        events[PARSE][0].typeCount == 4
+        events[PARSE][0].fieldCount == 8
+        events[REGISTER][0].errorCount == 0
+        events[CHECK][0].errorCount == 0
+        events[GENERATE_TYPE].collect { it.subject } as Set == ["Query", "Post", "Author", "Filter", "ID", "String"] as Set
+        events[GENERATE_TYPE].find { it.subject == "Author" }.fieldCount == 3
+        // String is generated once as an input type and once as an output type
+        events[GENERATE_TYPE].size() == 7
+        events[ASSEMBLE][0].typeCount == 7
+        listener.events.every { it.nanos >= 0 }
+    }
+
+    static class ShortRange {
+        int from
+    }
+
+    static class RangeFilter {
+        ShortRange range
+    }
+
+    def "the assembly is finished with its errors when arguments cannot be bound"() {
+        def listener = new RecordingListener()
+        def registry = new SchemaCompiler().compile("""
+            input Range {
+                from : Int
+                to : Int
+            }
+            input Filter {
+                range : Range
+            }
+            type Query {
+                posts(filter : Filter) : [String]
+            }
+            schema {
+                query : Query
+            }
+        """).right().get()
+        // the class of Range is only found from the property of the class bound to Filter
+        def wiring = new RuntimeWiring()
+                .forType("Filter").inputClass(RangeFilter)
+                .forType("Query").dataFetcher("posts", { env, arguments -> [] } as BindingDataFetcher)
+                .endType()
+
+        when:
+        def result = new SchemaGenerator(SchemaGenerator.Options.defaultOptions().buildListener(listener)).makeExecutableSchema(registry, wiring)
+        def assembled = listener.events.find { it.phase == ASSEMBLE }
+
+        then:
+        result.isLeft()
+        listener.calls.last() == "end ASSEMBLE null"
+        assembled.errorCount == 1
+    }
+
+    def "nested phases are not double counted"() {
+        def listener = new RecordingListener()
+        def registry = new SchemaCompiler().compile(spec).right().get()
+
+        long start = System.nanoTime()
+        new SchemaGenerator(SchemaGenerator.Options.defaultOptions().buildListener(listener)).makeExecutableSchema(registry, new RuntimeWiring())
+        long wallNanos = System.nanoTime() - start
+
+        expect:
+        listener.events.sum { it.nanos } <= wallNanos
+    }
+
+    def "the report aggregates phases"() {
+        def report = new SchemaBuildReport(3)
+
+        def compiler = new SchemaCompiler(null, report)
+        def registry = compiler.compile(spec).right().get()
+        def other = compiler.compile("type Extra { id : ID }").right().get()
+        registry.merge(other, report)
+        new SchemaGenerator(SchemaGenerator.Options.defaultOptions().buildListener(report)).makeExecutableSchema(registry, new RuntimeWiring())
+
+        compiler.compile("type Bad { id : ID }  type Bad { id : ID }")
+
+        def totals = report.totals
+
+        expect:
+        totals.keySet() as List == [PARSE, REGISTER, MERGE, CHECK, GENERATE_TYPE, ASSEMBLE]
+        totals[PARSE].count == 3
+        totals[REGISTER].errorCount == 1
+        totals[MERGE].typeCount == 1
+        totals[GENERATE_TYPE].count == 7
+        report.slowest.size() == 3
+        report.totalNanos > 0
+        report.report().contains("GENERATE_TYPE")
+        !totals.containsKey(READ)
+    }
+}
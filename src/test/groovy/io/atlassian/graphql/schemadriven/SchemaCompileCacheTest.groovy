@@ -0,0 +1,117 @@
+package io.atlassian.graphql.schemadriven
+
+import spock.lang.Specification
+
+class SchemaCompileCacheTest extends Specification {
+
+    File schemaFile(String content) {
+        def file = File.createTempFile("schema", ".graphqls")
+        file.deleteOnExit()
+        file.text = content
+        file
+    }
+
+    def "unchanged files are not parsed again"() {
+        def cache = new SchemaCompileCache()
+        def postFile = schemaFile("""
+            type Post {
+                id : ID!
+            }
+        """)
+        def queryFile = schemaFile("""
+            type Query {
+                posts : [Post]
+            }
+            schema {
+                query : Query
+            }
+        """)
+
+        def compiler = new SchemaCompiler(cache)
+        def result1 = compiler.compile([postFile, queryFile])
+        def result2 = new SchemaCompiler(cache).compile([postFile, queryFile])
+
+        expect:
+        result1.isRight()
+        result2.isRight()
+        result2.right().get().types().keySet() == ["Post", "Query"] as Set
+        result2.right().get().schemaDefinition().isDefined()
+
+        cache.size() == 2
+        cache.parseCount == 2
+        cache.hitCount == 2
+    }
+
+    def "only changed files are parsed again"() {
+        def cache = new SchemaCompileCache()
+        def postFile = schemaFile("""
+            type Post {
+                id : ID!
+            }
+        """)
+        def touchedFile = schemaFile("""
+            type Query {
+                posts : [Post]
+            }
+        """)
+        def compiler = new SchemaCompiler(cache)
+        compiler.compile([postFile, touchedFile])
+
+        when:
+        postFile.text = """
+            type Post {
+                id : ID!
+                title : String
+            }
+        """
+        postFile.setLastModified(postFile.lastModified() + 2000)
+        touchedFile.setLastModified(touchedFile.lastModified() + 2000)
+
+        def typeRegistry = compiler.compile([postFile, touchedFile]).right().get()
+
+        then:
+        cache.parseCount == 3
+        cache.hitCount == 1
+        typeRegistry.types().get("Post").fieldDefinitions.collect { it.name } == ["id", "title"]
+
+        when:
+        compiler.compile([postFile, touchedFile])
+
+        then:
+        cache.parseCount == 3
+        cache.hitCount == 3
+    }
+
+    def "files with bad syntax are not cached"() {
+        def cache = new SchemaCompileCache()
+        def badFile = schemaFile("""
+            scala Url
+        """)
+
+        def result = new SchemaCompiler(cache).compile(badFile)
+
+        expect:
+        result.isLeft()
+        cache.size() == 0
+    }
+
+    def "definitions from many files are checked for redefinitions"() {
+        def cache = new SchemaCompileCache()
+        def file1 = schemaFile("""
+            type Post {
+                id : ID!
+            }
+        """)
+        def file2 = schemaFile("""
+            type Post {
+                title : String
+            }
+        """)
+
+        def result = new SchemaCompiler(cache).compile([file1, file2])
+
+        expect:
+        result.isLeft()
+        result.left().get().get(0).message.contains("tried to redefine existing 'Post'")
+    }
+}
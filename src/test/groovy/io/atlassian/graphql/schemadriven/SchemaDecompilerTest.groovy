@@ -120,4 +120,116 @@ class SchemaDecompilerTest extends Specification {
         decompile.contains("scalar")
         decompile.contains("__TypeKind")
     }
+
+    def "decompile to an appendable matches the string form"() {
+        GraphQLSchema schema = starWarsSchema()
+
+        def decompiler = new SchemaDecompiler()
+        def writer = new StringWriter()
+        decompiler.decompile(schema, writer)
+
+        expect:
+        writer.toString() == decompiler.decompile(schema)
+    }
+
+    def "parallel rendering produces the same output in the same order"() {
+        GraphQLSchema schema = starWarsSchema()
+
+        def options = SchemaDecompiler.Options.defaultOptions()
+                .includeIntrospectionTypes(true)
+                .includeScalarTypes(true)
+
+        def sequential = new SchemaDecompiler(options).decompile(schema)
+        def parallel = new SchemaDecompiler(options.parallelRendering(true)).decompile(schema)
+
+        expect:
+        parallel == sequential
+    }
+
+    def "input types are decompiled before the other types"() {
+        def spec = """
+            input Filter {
+                name : String
+                limit : Int!
+            }
+
+            type Query {
+                search(filter : Filter) : [String]
+            }
+
+            schema {
+                query : Query
+            }
+        """
+        def typeRegistry = new SchemaCompiler().compile(spec).right().get()
+        def schema = new SchemaGenerator().makeExecutableSchema(typeRegistry, new RuntimeWiring()).right().get()
+
+        def decompile = new SchemaDecompiler().decompile(schema)
+
+        expect:
+        decompile == """schema {
+   query : Query
+}
+
+input Filter {
+   name : String
+   limit : Int!
+}
+
+type Query {
+   search(filter : Filter) : [String]
 }
+
+"""
+    }
+
+    def "interfaces, unions and default values decompile to a definition that compiles again"() {
+        def spec = """
+            interface Node {
+                id : ID!
+            }
+
+            enum Colour {
+                RED
+                GREEN
+            }
+
+            input Filter {
+                colour : Colour = GREEN
+                colours : [Colour] = [RED, GREEN]
+                text : String = "a \\"quoted\\" text"
+                exact : Boolean = false
+            }
+
+            type Post implements Node {
+                id : ID!
+            }
+
+            union Result = Post
+
+            type Query {
+                search(filter : Filter, limit : Int = 10, colour : Colour = RED) : [Result]
+                node : Node
+            }
+
+            schema {
+                query : Query
+            }
+        """
+        def wiring = new RuntimeWiring().forType("Node").typeResolver(resolver).forType("Result").typeResolver(resolver).endType()
+        def schema = new SchemaGenerator().makeExecutableSchema(new SchemaCompiler().compile(spec).right().get(), wiring).right().get()
+
+        def decompile = new SchemaDecompiler().decompile(schema)
+        def recompiled = new SchemaCompiler().compile(decompile).right().get()
+        def schema2 = new SchemaGenerator().makeExecutableSchema(recompiled, wiring).right().get()
+
+        expect:
+        decompile.contains("type Post implements Node {")
+        decompile.contains("union Result = Post\n\n")
+        decompile.contains('   colours : [Colour] = [RED, GREEN]\n')
+        decompile.contains('   text : String = "a \\"quoted\\" text"\n')
+        decompile.contains("search(filter : Filter, limit : Int = 10, colour : Colour = RED) : [Result]")
+        new SchemaFingerprinter().fingerprint(schema2) == new SchemaFingerprinter().fingerprint(schema)
+    }
+}
+
@@ -0,0 +1,141 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.schema.GraphQLEnumType
+import graphql.schema.GraphQLInputObjectType
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+class SchemaDescriptionsTest extends Specification {
+
+    static spec = """
+            # A blog post
+            #
+            # with a second paragraph
+            type Post {
+                # The title, as the author typed it
+                title : String
+                comments(
+                    # how many to return
+                    first : Int = 10, after : String) : [String]
+                # not a description of the arguments on this line
+                related(first : Int) : [Post]
+
+                votes : Int
+            }
+
+            # Colours of things
+            enum Colour {
+                # like a rose
+                RED
+                GREEN
+            }
+
+            input PostInput {
+                # the new title
+                title : String
+            }
+
+            # not a description as there is a blank line
+
+            type Query {
+                posts(filter : PostInput, colour : Colour) : [Post]
+            }
+
+            extend type Query {
+                # added by an extension
+                extra : String
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    def "descriptions are read from the comments above each definition"() {
+        when:
+        def descriptions = new SchemaCompiler().compile(spec).right().get().descriptions()
+
+        then:
+        descriptions.getDescription("Post") == "A blog post\n\nwith a second paragraph"
+        descriptions.getDescription("Post.title") == "The title, as the author typed it"
+        descriptions.getDescription("Post.comments(first:)") == "how many to return"
+        descriptions.getDescription("Post.comments(after:)") == null
+        descriptions.getDescription("Post.related") == "not a description of the arguments on this line"
+        descriptions.getDescription("Post.related(first:)") == null
+        descriptions.getDescription("Post.votes") == null
+        descriptions.getDescription("Colour") == "Colours of things"
+        descriptions.getDescription("Colour.RED") == "like a rose"
+        descriptions.getDescription("PostInput.title") == "the new title"
+        descriptions.getDescription("Query") == null
+        descriptions.getDescription("Query.extra") == "added by an extension"
+        descriptions.size() == 8
+        descriptions.compressedSize > 0
+    }
+
+    GraphQLSchema generate(SchemaGenerator.DescriptionMode mode) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def options = SchemaGenerator.Options.defaultOptions().descriptionMode(mode)
+        new SchemaGenerator(options).makeExecutableSchema(registry, new RuntimeWiring()).right().get()
+    }
+
+    def "lazy and eager descriptions reach the schema and introspection the same"() {
+        when:
+        def schema = generate(mode)
+        def post = schema.getType("Post") as GraphQLObjectType
+        def colour = schema.getType("Colour") as GraphQLEnumType
+        def postInput = schema.getType("PostInput") as GraphQLInputObjectType
+        def result = new GraphQL(schema).execute('{ __type(name : "Post") { description fields { name description args { name description } } } }')
+
+        then:
+        post.description == "A blog post\n\nwith a second paragraph"
+        post.getFieldDefinition("title").description == "The title, as the author typed it"
+        post.getFieldDefinition("comments").getArgument("first").description == "how many to return"
+        post.getFieldDefinition("votes").description == null
+        colour.values.find { it.name == "RED" }.description == "like a rose"
+        postInput.getField("title").description == "the new title"
+        (schema.getType("Query") as GraphQLObjectType).getFieldDefinition("extra").description == "added by an extension"
+
+        result.errors.isEmpty()
+        result.data.__type.description == "A blog post\n\nwith a second paragraph"
+        result.data.__type.fields.find { it.name == "comments" }.args.find { it.name == "first" }.description == "how many to return"
+
+        where:
+        mode << [SchemaGenerator.DescriptionMode.LAZY, SchemaGenerator.DescriptionMode.EAGER]
+    }
+
+    def "descriptions can be stripped"() {
+        when:
+        def schema = generate(SchemaGenerator.DescriptionMode.STRIP)
+        def post = schema.getType("Post") as GraphQLObjectType
+
+        then:
+        post.description == null
+        post.getFieldDefinition("title").description == null
+        post.fieldDefinitions.every { it.description == null }
+    }
+
+    def "descriptions survive merging and compacting registries"() {
+        def first = new SchemaCompiler().compile("""
+            # first
+            type A { a : String }
+        """).right().get()
+        def second = new SchemaCompiler().compile("""
+            type B {
+                # second
+                b : String
+            }
+        """).right().get()
+
+        when:
+        first.merge(second)
+        def compacted = CompactTypeRegistry.compact(first, true).toTypeRegistry()
+
+        then:
+        first.descriptions().getDescription("A") == "first"
+        first.descriptions().getDescription("B.b") == "second"
+        compacted.descriptions().getDescription("A") == "first"
+        compacted.descriptions().getDescription("B.b") == "second"
+    }
+}
@@ -0,0 +1,113 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+class SchemaFingerprinterTest extends Specification {
+
+    TypeRegistry compile(String spec) {
+        new SchemaCompiler().compile(spec).right().get()
+    }
+
+    GraphQLSchema generate(String spec) {
+        new SchemaGenerator().makeExecutableSchema(compile(spec), new RuntimeWiring()).right().get()
+    }
+
+    static spec1 = """
+            enum RGB {
+                RED
+                GREEN
+            }
+
+            type Post {
+              id: Int!
+              title: String
+              colour(rgb : RGB = RED, limit : Int = 10): RGB
+            }
+
+            type Query {
+              posts: [Post]
+              post(id: Int!): Post
+            }
+
+            schema {
+              query: Query
+            }
+        """
+
+    // the same structure declared in a different order
+    static spec2 = """
+            schema {
+              query: Query
+            }
+
+            type Query {
+              post(id: Int!): Post
+              posts: [Post]
+            }
+
+            type Post {
+              colour(limit : Int = 10, rgb : RGB = RED): RGB
+              title: String
+              id: Int!
+            }
+
+            enum RGB {
+                GREEN
+                RED
+            }
+        """
+
+    def "registry fingerprints are order independent"() {
+        def fingerprinter = new SchemaFingerprinter()
+
+        expect:
+        fingerprinter.fingerprint(compile(spec1)) == fingerprinter.fingerprint(compile(spec2))
+        fingerprinter.typeFingerprints(compile(spec1)) == fingerprinter.typeFingerprints(compile(spec2))
+    }
+
+    def "schema fingerprints are order independent"() {
+        def fingerprinter = new SchemaFingerprinter()
+
+        expect:
+        fingerprinter.fingerprint(generate(spec1)) == fingerprinter.fingerprint(generate(spec2))
+        fingerprinter.fingerprint(generate(spec1)).toHexString().length() == 32
+    }
+
+    def "structural changes are detected per type"() {
+        def fingerprinter = new SchemaFingerprinter()
+
+        def changedSpec = spec1.replace("title: String", "title: String!")
+
+        def before = fingerprinter.typeFingerprints(compile(spec1))
+        def after = fingerprinter.typeFingerprints(compile(changedSpec))
+
+        expect:
+        fingerprinter.fingerprint(compile(spec1)) != fingerprinter.fingerprint(compile(changedSpec))
+        fingerprinter.fingerprint(generate(spec1)) != fingerprinter.fingerprint(generate(changedSpec))
+
+        before["Post"] != after["Post"]
+        before["Query"] == after["Query"]
+        before["RGB"] == after["RGB"]
+    }
+
+    def "default values and list wrapping are part of the fingerprint"() {
+        def fingerprinter = new SchemaFingerprinter()
+
+        expect:
+        fingerprinter.fingerprint(compile(spec1)) != fingerprinter.fingerprint(compile(spec1.replace("limit : Int = 10", "limit : Int = 11")))
+        fingerprinter.fingerprint(compile(spec1)) != fingerprinter.fingerprint(compile(spec1.replace("posts: [Post]", "posts: Post")))
+    }
+
+    def "type extensions are folded into the type they extend"() {
+        def fingerprinter = new SchemaFingerprinter()
+        def extended = spec1 + """
+            extend type Query {
+                latest : Post
+            }
+        """
+
+        expect:
+        fingerprinter.typeFingerprints(compile(spec1))["Query"] != fingerprinter.typeFingerprints(compile(extended))["Query"]
+    }
+}
@@ -0,0 +1,238 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.GraphQLError
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class SchemaHolderTest extends Specification {
+
+    static postSpec = """
+            type Post {
+                id : ID!
+                title : String
+            }
+        """
+
+    static querySpec = """
+            type Author {
+                name : String
+            }
+            type Query {
+                post : Post
+                author : Author
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    File schemaFile(String content) {
+        def file = File.createTempFile("schema", ".graphqls")
+        file.deleteOnExit()
+        file.text = content
+        file
+    }
+
+    // the compile cache goes by size and modification time first, so make sure a rewrite is seen
+    void rewrite(File file, String content) {
+        def lastModified = file.lastModified()
+        file.text = content
+        file.setLastModified(lastModified + 2000)
+    }
+
+    def wiring = new RuntimeWiring()
+            .forType("Query").dataFetcher("post", { env -> [id: "1", title: "Hello"] } as DataFetcher)
+            .endType()
+
+    def "a reload publishes a new version and shares the types that did not change"() {
+        def postFile = schemaFile(postSpec)
+        def queryFile = schemaFile(querySpec)
+        def holder = new SchemaHolder([postFile, queryFile], wiring)
+
+        when:
+        def started = holder.start()
+        def first = holder.version
+        rewrite(postFile, postSpec.replace("title : String", "title : String\n                body : String"))
+        def second = holder.reload()
+
+        then:
+        started.isRight()
+        first.number == 1
+        second.number == 2
+        holder.schema.is(second.schema)
+        second.changedTypeNames == ["Post"] as Set
+        second.rebuiltTypeNames == ["Post", "Query"] as Set
+
+        second.schema.getType("Author").is(first.schema.getType("Author"))
+        !second.schema.getType("Post").is(first.schema.getType("Post"))
+        (second.schema.getType("Post") as GraphQLObjectType).getFieldDefinition("body") != null
+
+        // the old schema is untouched, so requests already running on it are fine
+        (first.schema.getType("Post") as GraphQLObjectType).getFieldDefinition("body") == null
+        new GraphQL(first.schema).execute("{ post { title } }").data == [post: [title: "Hello"]]
+        new GraphQL(second.schema).execute("{ post { title } author { name } }").data == [post: [title: "Hello"], author: null]
+
+        cleanup:
+        holder.close()
+    }
+
+    def "a reload with nothing changed keeps the current version"() {
+        def postFile = schemaFile(postSpec)
+        def queryFile = schemaFile(querySpec)
+        def holder = new SchemaHolder([postFile, queryFile], wiring)
+
+        when:
+        holder.start()
+        def first = holder.version
+        rewrite(postFile, postSpec)
+
+        then:
+        holder.reload().is(first)
+
+        cleanup:
+        holder.close()
+    }
+
+    static class PostValue {
+        String id
+        CommentValue comment
+    }
+
+    static class CommentValue {
+        String text
+        String extra
+    }
+
+    def "interfaces resolved by class are rebuilt when the object types they resolve to are"() {
+        def commentSpec = """
+            type Comment {
+                text : String
+            }
+        """
+        def nodeSpec = """
+            interface Node {
+                id : ID!
+            }
+            type Post implements Node {
+                id : ID!
+                comment : Comment
+            }
+            type Query {
+                node : Node
+                post : Post
+            }
+            schema {
+                query : Query
+            }
+        """
+        def commentFile = schemaFile(commentSpec)
+        def nodeFile = schemaFile(nodeSpec)
+        def classWiring = new RuntimeWiring()
+                .forType("Query").dataFetcher("node", { env -> new PostValue(id: "1", comment: new CommentValue(text: "hi", extra: "more")) } as DataFetcher)
+                .forType("Post").objectClass(PostValue)
+                .forType("Comment").objectClass(CommentValue)
+                .endType()
+        def holder = new SchemaHolder([commentFile, nodeFile], classWiring)
+
+        when:
+        holder.start()
+        def first = holder.version
+        rewrite(commentFile, commentSpec.replace("text : String", "text : String\n                extra : String"))
+        def second = holder.reload()
+        def result = new GraphQL(second.schema).execute("{ node { ... on Post { comment { text extra } } } }")
+
+        then:
+        second.changedTypeNames == ["Comment"] as Set
+        second.rebuiltTypeNames == ["Comment", "Post", "Node", "Query"] as Set
+        !second.schema.getType("Node").is(first.schema.getType("Node"))
+        result.errors.isEmpty()
+        result.data == [node: [comment: [text: "hi", extra: "more"]]]
+
+        cleanup:
+        holder.close()
+    }
+
+    def "a reload that fails leaves the previous schema in place"() {
+        def postFile = schemaFile(postSpec)
+        def queryFile = schemaFile(querySpec)
+        List<GraphQLError> reported = null
+        def listener = new SchemaHolder.ReloadListener() {
+            @Override
+            void reloadFailed(List<GraphQLError> errors) {
+                reported = errors
+            }
+        }
+        def holder = new SchemaHolder([postFile, queryFile], wiring, SchemaHolder.Options.defaultOptions().reloadListener(listener))
+
+        when:
+        holder.start()
+        def first = holder.version
+        rewrite(postFile, postSpec.replace("title : String", "title : Missing"))
+        def current = holder.reload()
+
+        then:
+        current.is(first)
+        holder.schema.is(first.schema)
+        !holder.lastErrors.isEmpty()
+        reported == holder.lastErrors
+
+        when:
+        rewrite(postFile, postSpec)
+        holder.reload()
+
+        then:
+        holder.lastErrors.isEmpty()
+
+        cleanup:
+        holder.close()
+    }
+
+    def "changes to the watched files are reloaded in the background"() {
+        def postFile = schemaFile(postSpec)
+        def queryFile = schemaFile(querySpec)
+        def reloaded = new CountDownLatch(1)
+        def listener = new SchemaHolder.ReloadListener() {
+            @Override
+            void reloaded(SchemaHolder.Version version) {
+                if (version.number > 1) {
+                    reloaded.countDown()
+                }
+            }
+        }
+        def options = SchemaHolder.Options.defaultOptions().debounceMillis(50).reloadListener(listener)
+        def holder = new SchemaHolder([postFile, queryFile], wiring, options)
+
+        when:
+        holder.start()
+        rewrite(postFile, postSpec.replace("title : String", "title : String\n                body : String"))
+
+        then:
+        // some watch services poll, so allow them time to notice
+        reloaded.await(30, TimeUnit.SECONDS)
+        (holder.schema.getType("Post") as GraphQLObjectType).getFieldDefinition("body") != null
+
+        cleanup:
+        holder.close()
+    }
+
+    def "a change seen while the holder is closing is ignored and the watching has stopped once it is closed"() {
+        def holder = new SchemaHolder([schemaFile(postSpec), schemaFile(querySpec)], wiring)
+
+        when:
+        holder.start()
+        def watchThread = holder.watchThread
+        holder.close()
+        holder.scheduleReload()
+        holder.close()
+
+        then:
+        noExceptionThrown()
+        !watchThread.alive
+        holder.pendingReload == null
+    }
+}
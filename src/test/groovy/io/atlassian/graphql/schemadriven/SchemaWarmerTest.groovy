@@ -0,0 +1,99 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.introspection.IntrospectionQuery
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+class SchemaWarmerTest extends Specification {
+
+    static spec = """
+            enum Sort { NEWEST, OLDEST }
+            input Filter { text : String }
+            type Post {
+                title : String
+                author : Author
+            }
+            type Author {
+                name : String
+            }
+            type Query {
+                posts(first : Int!, sort : Sort, tags : [String]) : [Post]
+                filtered(filter : Filter!) : [Post]
+                count : Int
+            }
+            type Mutation {
+                deleteEverything : Boolean
+            }
+            schema {
+                query : Query
+                mutation : Mutation
+            }
+        """
+
+    def registry = new SchemaCompiler().compile(spec).right().get()
+
+    def "representative queries cover the query type with made up arguments"() {
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, new SyntheticWiring().wire(registry)).right().get()
+
+        when:
+        def queries = SchemaWarmer.representativeQueries(schema, 2)
+
+        then:
+        queries == [
+                IntrospectionQuery.INTROSPECTION_QUERY,
+                "{ count }",
+                '{ posts(first : 1, sort : NEWEST, tags : "warmup") { title } }',
+                "{ count }",
+        ]
+    }
+
+    def "warming with stubs calls no real data fetcher"() {
+        when:
+        def report = new SchemaWarmer(SchemaWarmer.Options.defaultOptions().iterations(50)).warmWithStubs(registry).right().get()
+
+        then:
+        report.requestCount == 50
+        report.errorCount == 0
+    }
+
+    def "warming with stubs leaves the real rate limits alone"() {
+        def limited = new SchemaCompiler().compile("""
+            type Query {
+                count : Int @rateLimit(perSecond : 1)
+            }
+            schema {
+                query : Query
+            }
+        """).right().get()
+        def rateLimits = new RateLimits()
+        def generatorOptions = SchemaGenerator.Options.defaultOptions().rateLimits(rateLimits).tracer(new ResolverTracer())
+
+        when:
+        new SchemaWarmer(SchemaWarmer.Options.defaultOptions().iterations(20).generatorOptions(generatorOptions)).warmWithStubs(limited)
+
+        then:
+        rateLimits.coordinates.isEmpty()
+        rateLimits.getPermitted("Query.count") == 0
+    }
+
+    def "warming the schema itself calls its data fetchers until the iterations or the time run out"() {
+        def calls = 0
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("count", { env -> calls++; 1 } as DataFetcher)
+                .dataFetcher("posts", { env -> [[title: "a"]] } as DataFetcher)
+                .endType()
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+
+        when:
+        def byIterations = new SchemaWarmer(SchemaWarmer.Options.defaultOptions().iterations(20).queries(["{ count }"])).warm(schema)
+        def byTime = new SchemaWarmer(SchemaWarmer.Options.defaultOptions().iterations(Integer.MAX_VALUE >> 4).maxMillis(200)).warm(schema)
+
+        then:
+        byIterations.requestCount == 20
+        byIterations.errorCount == 0
+        byTime.requestCount < Integer.MAX_VALUE >> 4
+        byTime.elapsedNanos < 5_000_000_000L
+        calls > 20
+    }
+}
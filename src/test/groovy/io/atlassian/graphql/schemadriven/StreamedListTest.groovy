@@ -0,0 +1,122 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.GraphQLException
+import graphql.schema.DataFetcher
+import spock.lang.Specification
+
+import java.util.stream.Stream
+
+class StreamedListTest extends Specification {
+
+    static spec = """
+            type Row {
+                id : Int!
+            }
+            type Query {
+                rows : [Row] @streamed
+                chunked : [Row] @streamed(maxItems : 3)
+                capped : [Int] @streamed(maxItems : 2)
+                strict : [Row!] @streamed
+            }
+            schema {
+                query : Query
+            }
+        """
+
+    static class Cursor implements ChunkedCursor<Map> {
+        def chunks = [[[id: 1], [id: 2]], [[id: 3], [id: 4]], [[id: 5]]]
+        def read = 0
+        def closed = false
+
+        @Override
+        List<Map> nextChunk() {
+            read < chunks.size() ? chunks[read++] : []
+        }
+
+        @Override
+        void close() {
+            closed = true
+        }
+    }
+
+    static class ClosingIterator implements Iterator<Map>, AutoCloseable {
+        def rows = [[id: 1], [id: null], [id: 3]].iterator()
+        def closed = false
+
+        boolean hasNext() { rows.hasNext() }
+
+        Map next() { rows.next() }
+
+        void close() { closed = true }
+    }
+
+    def cursor = new Cursor()
+    def iterator = new ClosingIterator()
+    def streamClosed = false
+    def streamed = 0
+
+    GraphQL graphQL(boolean streaming) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new RuntimeWiring()
+                .forType("Query")
+                .dataFetcher("rows", { env ->
+                    Stream.iterate(1, { it + 1 }).limit(4).peek({ streamed++ }).map({ [id: it] }).onClose({ streamClosed = true })
+                } as DataFetcher)
+                .dataFetcher("chunked", { env -> cursor } as DataFetcher)
+                .dataFetcher("capped", { env -> [1, 2, 3, 4] } as DataFetcher)
+                .dataFetcher("strict", { env -> iterator } as DataFetcher)
+                .endType()
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+        streaming ? new GraphQL(schema, new StreamingExecutionStrategy()) : new GraphQL(schema)
+    }
+
+    def "streams are read an item at a time and closed once read"() {
+        when:
+        def result = graphQL(streaming).execute("{ rows { id } }")
+
+        then:
+        result.errors.isEmpty()
+        result.data == [rows: [[id: 1], [id: 2], [id: 3], [id: 4]]]
+        streamed == 4
+        streamClosed
+
+        where:
+        streaming << [true, false]
+    }
+
+    def "lists are cut off at their most items and chunked cursors are not read past them"() {
+        when:
+        def result = graphQL(false).execute("{ chunked { id } capped }")
+
+        then:
+        result.errors.isEmpty()
+        result.data == [chunked: [[id: 1], [id: 2], [id: 3]], capped: [1, 2]]
+        cursor.read == 2
+        cursor.closed
+    }
+
+    def "what a list came from is closed when the query fails part way through it"() {
+        when:
+        graphQL(true).execute("{ strict { id } }")
+
+        then:
+        thrown(GraphQLException)
+        iterator.closed
+        iterator.rows.hasNext()
+    }
+
+    def "a streamed list can only be read once"() {
+        def list = StreamedList.of([1, 2].iterator(), 0)
+
+        when:
+        def items = list.collect()
+        list.iterator()
+
+        then:
+        items == [1, 2]
+        thrown(IllegalStateException)
+        StreamedList.of("not a list", 0) == null
+        StreamedList.of([1, 2, 3] as int[], 2).collect() == [1, 2]
+    }
+}
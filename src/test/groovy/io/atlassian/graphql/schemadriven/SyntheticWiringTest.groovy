@@ -0,0 +1,155 @@
+package io.atlassian.graphql.schemadriven
+
+import graphql.GraphQL
+import graphql.GraphQLException
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+class SyntheticWiringTest extends Specification {
+
+    static spec = """
+            scalar DateTime
+
+            interface Node {
+                id : ID!
+            }
+
+            enum Colour {
+                RED
+                GREEN
+            }
+
+            type Post implements Node {
+                id : ID!
+                title : String
+                votes : Int
+                score : Float
+                published : Boolean
+                colour : Colour
+                created : DateTime
+                tags : [String!]
+                comments(first : Int = 10) : [Comment]
+            }
+
+            type Comment implements Node {
+                id : ID!
+                text : String
+            }
+
+            union Thing = Post | Comment
+
+            type Query {
+                posts : [Post]
+                nodes : [Node]
+                things : [Thing!]!
+                post(id : ID!) : Post
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    static GraphQLSchema generate(SyntheticWiring.Options options) {
+        def registry = new SchemaCompiler().compile(spec).right().get()
+        def wiring = new SyntheticWiring(options).wire(registry)
+        new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+    }
+
+    def "every field gets deterministic fake data"() {
+        def query = """{
+                posts { id title votes score published colour created tags comments { id text } }
+                nodes { __typename id ... on Post { title } ... on Comment { text } }
+                things { __typename ... on Post { votes } }
+                a : post(id : "1") { id }
+                b : post(id : "2") { id }
+            }"""
+
+        when:
+        def options = SyntheticWiring.Options.defaultOptions().listSize(4).seed(42)
+        def first = new GraphQL(generate(options)).execute(query)
+        def second = new GraphQL(generate(options)).execute(query)
+        def otherSeed = new GraphQL(generate(options.seed(43))).execute(query)
+
+        then:
+        first.errors.isEmpty()
+        first.data == second.data
+        first.data != otherSeed.data
+
+        first.data.posts.size() == 4
+        first.data.posts.every { it.comments.size() == 4 && it.tags.size() == 4 }
+        first.data.posts.every { it.colour in ["RED", "GREEN"] && it.votes instanceof Integer && it.created instanceof String }
+        first.data.posts*.id.unique().size() == 4
+        first.data.nodes.every { it.__typename in ["Post", "Comment"] }
+        first.data.things.size() == 4
+        // arguments are part of the seed
+        first.data.a.id != first.data.b.id
+    }
+
+    def "fetches fail at the failure rate"() {
+        def schema = generate(SyntheticWiring.Options.defaultOptions().failureRate(1.0))
+
+        when:
+        def result = new GraphQL(schema).execute("{ posts { id } }")
+
+        then:
+        result.errors.size() == 1
+        result.data.posts == null
+    }
+
+    def "each call of a field fails or not on its own"() {
+        def graphQL = new GraphQL(generate(SyntheticWiring.Options.defaultOptions().failureRate(0.5)))
+
+        when:
+        def failures = (1..400).count { !graphQL.execute("{ post(id : \"1\") { __typename } }").errors.isEmpty() }
+
+        then:
+        // the same field path with the same arguments fails about half the time rather than always or never
+        failures > 120
+        failures < 280
+    }
+
+    def "a non null interface that nothing implements is reported rather than made up"() {
+        def registry = new SchemaCompiler().compile("""
+            interface Orphan {
+                id : ID!
+            }
+            type Query {
+                orphan : Orphan!
+            }
+            schema {
+                query : Query
+            }
+        """).right().get()
+        def wiring = new SyntheticWiring().wire(registry)
+        def schema = new SchemaGenerator().makeExecutableSchema(registry, wiring).right().get()
+
+        when:
+        new GraphQL(schema).execute("{ orphan { id } }")
+
+        then:
+        thrown(GraphQLException)
+    }
+
+    def "the load driver runs the query mix and reports on it"() {
+        def schema = generate(SyntheticWiring.Options.defaultOptions().latency(50, 500))
+        def queries = [
+                LoadDriver.defaultQuery(schema, 2),
+                "{ things { __typename } }",
+        ]
+
+        when:
+        def report = new LoadDriver(new GraphQL(schema), LoadDriver.Options.defaultOptions().threads(3).warmupIterations(5).iterations(20))
+                .run(queries)
+
+        then:
+        queries[0].contains("posts {")
+        !queries[0].contains("post {")
+        report.requestCount == 60
+        report.errorCount == 0
+        report.throughput > 0
+        report.getPercentileNanos(50) <= report.getPercentileNanos(99)
+        report.getPercentileNanos(99) <= report.maxNanos
+        report.report().contains("60 requests on 3 threads")
+    }
+}
@@ -0,0 +1,209 @@
+package io.atlassian.graphql.schemadriven.diff
+
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import graphql.schema.TypeResolver
+import io.atlassian.graphql.schemadriven.RuntimeWiring
+import io.atlassian.graphql.schemadriven.SchemaCompiler
+import io.atlassian.graphql.schemadriven.SchemaGenerator
+import io.atlassian.graphql.schemadriven.TypeRegistry
+import spock.lang.Specification
+
+class SchemaDiffTest extends Specification {
+
+    TypeRegistry compile(String spec) {
+        new SchemaCompiler().compile(spec).right().get()
+    }
+
+    GraphQLSchema generate(String spec) {
+        def resolver = new TypeResolver() {
+            @Override
+            GraphQLObjectType getType(Object object) {
+                throw new UnsupportedOperationException("Not implemented")
+            }
+        }
+        def wiring = new RuntimeWiring().forType("Node").typeResolver(resolver).forType("Result").typeResolver(resolver).endType()
+        new SchemaGenerator().makeExecutableSchema(compile(spec), wiring).right().get()
+    }
+
+    static oldSpec = """
+            interface Node {
+                id : ID!
+            }
+
+            enum Colour {
+                RED
+                GREEN
+            }
+
+            type Post implements Node {
+                id : ID!
+                title : String
+                body : String
+                colour : Colour
+            }
+
+            type Author implements Node {
+                id : ID!
+                name : String!
+            }
+
+            union Result = Post | Author
+
+            input Filter {
+                title : String
+                limit : Int = 10
+            }
+
+            type Query {
+                posts(filter : Filter, first : Int = 10) : [Post]
+                search(text : String!) : [Result]
+                node(id : ID!) : Node
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    static newSpec = """
+            interface Node {
+                id : ID!
+            }
+
+            enum Colour {
+                RED
+                BLUE
+            }
+
+            type Post implements Node {
+                id : ID!
+                title : String!
+                colour : Colour
+                tags : [String]
+            }
+
+            type Author {
+                id : ID!
+                name : String
+            }
+
+            type Comment implements Node {
+                id : ID!
+            }
+
+            union Result = Post | Comment
+
+            input Filter {
+                title : String
+                limit : Int = 20
+                tag : String!
+            }
+
+            type Query {
+                posts(filter : Filter, first : Int = 10, after : String) : [Post]
+                search(text : String) : [Result]
+                node(id : ID!) : Node
+                comments : [Comment]
+            }
+
+            schema {
+                query : Query
+            }
+        """
+
+    Map<String, SchemaChange> byPath(List<SchemaChange> changes) {
+        changes.collectEntries { [(it.changeType.name() + ":" + it.path): it] }
+    }
+
+    def "registry changes are found and classified"() {
+        def changes = byPath(new SchemaDiff().diff(compile(oldSpec), compile(newSpec)))
+
+        expect:
+        changes["TYPE_ADDED:Comment"].criticality == Criticality.SAFE
+
+        changes["ENUM_VALUE_REMOVED:Colour.GREEN"].criticality == Criticality.BREAKING
+        changes["ENUM_VALUE_ADDED:Colour.BLUE"].criticality == Criticality.DANGEROUS
+
+        changes["FIELD_REMOVED:Post.body"].criticality == Criticality.BREAKING
+        changes["FIELD_ADDED:Post.tags"].criticality == Criticality.SAFE
+        changes["FIELD_TYPE_CHANGED:Post.title"].criticality == Criticality.SAFE
+        changes["FIELD_TYPE_CHANGED:Author.name"].criticality == Criticality.BREAKING
+        changes["INTERFACE_REMOVED:Author.Node"].criticality == Criticality.BREAKING
+
+        changes["UNION_MEMBER_REMOVED:Result.Author"].criticality == Criticality.BREAKING
+        changes["UNION_MEMBER_ADDED:Result.Comment"].criticality == Criticality.DANGEROUS
+
+        changes["INPUT_FIELD_ADDED:Filter.tag"].criticality == Criticality.BREAKING
+        changes["INPUT_FIELD_DEFAULT_CHANGED:Filter.limit"].oldValue == "10"
+        changes["INPUT_FIELD_DEFAULT_CHANGED:Filter.limit"].newValue == "20"
+
+        changes["ARGUMENT_ADDED:Query.posts.after"].criticality == Criticality.DANGEROUS
+        changes["ARGUMENT_TYPE_CHANGED:Query.search.text"].criticality == Criticality.SAFE
+        changes["FIELD_ADDED:Query.comments"].criticality == Criticality.SAFE
+
+        changes.size() == 15
+    }
+
+    def "schema changes are found and classified"() {
+        def changes = byPath(new SchemaDiff().diff(generate(oldSpec), generate(newSpec)))
+
+        expect:
+        changes["TYPE_ADDED:Comment"].criticality == Criticality.SAFE
+        changes["FIELD_REMOVED:Post.body"].criticality == Criticality.BREAKING
+        // Author is no longer reachable from Query so it is not part of the generated schema
+        changes["TYPE_REMOVED:Author"].criticality == Criticality.BREAKING
+        changes["ARGUMENT_TYPE_CHANGED:Query.search.text"].criticality == Criticality.SAFE
+        changes["INPUT_FIELD_ADDED:Filter.tag"].criticality == Criticality.BREAKING
+    }
+
+    def "identical schemas have no changes"() {
+        expect:
+        new SchemaDiff().diff(compile(oldSpec), compile(oldSpec)).isEmpty()
+        new SchemaDiff().diff(generate(oldSpec), generate(oldSpec)).isEmpty()
+    }
+
+    def "removing types and changing operations is breaking"() {
+        def spec1 = """
+            type Query {
+                a : String
+            }
+            type Other {
+                b : String
+            }
+            schema {
+                query : Query
+            }
+        """
+        def spec2 = """
+            type Query2 {
+                a : String
+            }
+            schema {
+                query : Query2
+            }
+        """
+        def changes = byPath(new SchemaDiff().diff(compile(spec1), compile(spec2)))
+
+        expect:
+        changes["OPERATION_TYPE_CHANGED:schema.query"].criticality == Criticality.BREAKING
+        changes["TYPE_REMOVED:Other"].criticality == Criticality.BREAKING
+        changes["TYPE_REMOVED:Query"].criticality == Criticality.BREAKING
+        changes["TYPE_ADDED:Query2"].criticality == Criticality.SAFE
+    }
+
+    def "type wrapping changes are classified by input or output position"() {
+        expect:
+        SchemaDiff.isSafeOutputChange(oldType, newType) == safeOutput
+        SchemaDiff.isSafeInputChange(oldType, newType) == safeInput
+
+        where:
+        oldType   | newType    | safeOutput | safeInput
+        "String"  | "String!"  | true       | false
+        "String!" | "String"   | false      | true
+        "[Int]"   | "[Int!]!"  | true       | false
+        "[Int!]!" | "[Int]"    | false      | true
+        "[Int]"   | "Int"      | false      | false
+        "Int"     | "String"   | false      | false
+    }
+}